@@ -7,6 +7,7 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -25,7 +26,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/adminbasicservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class AdminBasicInfoController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(AdminBasicInfoController.class);
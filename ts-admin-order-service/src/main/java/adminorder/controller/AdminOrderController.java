@@ -7,6 +7,8 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.async.AsyncEndpoints;
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +16,8 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
@@ -23,12 +27,20 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/adminorderservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class AdminOrderController
 {
+    /**
+     * Hystrix timeout of the other endpoints, for the orders of both order services
+     */
+    private static final long GET_ALL_TIMEOUT_MILLIS = 5000;
+
     @Autowired
     AdminOrderService adminOrderService;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
     @GetMapping(path = "/welcome")
     public String home(@RequestHeader HttpHeaders headers)
     {
@@ -37,10 +49,10 @@ public class AdminOrderController
 
     @CrossOrigin(origins = "*")
     @GetMapping(path = "/adminorder")
-    @HystrixCommand
-    public HttpEntity getAllOrders(@RequestHeader HttpHeaders headers)
+    public CompletableFuture<HttpEntity> getAllOrders(@RequestHeader HttpHeaders headers)
     {
-        return ok(adminOrderService.getAllOrders(headers));
+        return asyncEndpoints.supply(AdminOrderController.GET_ALL_TIMEOUT_MILLIS,
+            () -> ok(adminOrderService.getAllOrders(headers)), this::fallback);
     }
 
     @PostMapping(value = "/adminorder")
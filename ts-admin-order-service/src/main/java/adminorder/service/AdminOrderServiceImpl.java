@@ -1,6 +1,7 @@
 package adminorder.service;
 
 import adminorder.entity.*;
+import edu.fudan.common.async.AsyncEndpoints;
 import edu.fudan.common.util.Response;
 import lombok.extern.slf4j.Slf4j;
 
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author fdse
@@ -29,6 +31,9 @@ public class AdminOrderServiceImpl implements AdminOrderService
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
     @Override
     public Response getAllOrders(HttpHeaders headers)
     {
@@ -36,16 +41,26 @@ public class AdminOrderServiceImpl implements AdminOrderService
         AdminOrderServiceImpl.LOGGER.info("[Admin Order Service][Get All Orders]");
         //Get all of the orders
         ArrayList<Order> orders = new ArrayList<>();
-        //From ts-order-service
+        //From ts-order-service and ts-order-other-service, at the same time
         HttpEntity requestEntity = new HttpEntity(headers);
-        ResponseEntity<Response<ArrayList<Order>>> re = restTemplate.exchange(
-            "http://ts-order-service:12031/api/v1/orderservice/order",
-            HttpMethod.GET,
-            requestEntity,
-            new ParameterizedTypeReference<Response<ArrayList<Order>>>()
-            {
-            });
-        Response<ArrayList<Order>> result = re.getBody();
+        CompletableFuture<ResponseEntity<Response<ArrayList<Order>>>> fromOrder = asyncEndpoints.fork(
+            () -> restTemplate.exchange(
+                "http://ts-order-service:12031/api/v1/orderservice/order",
+                HttpMethod.GET,
+                requestEntity,
+                new ParameterizedTypeReference<Response<ArrayList<Order>>>()
+                {
+                }));
+        HttpEntity requestEntity2 = new HttpEntity(headers);
+        CompletableFuture<ResponseEntity<Response<ArrayList<Order>>>> fromOrderOther = asyncEndpoints.fork(
+            () -> restTemplate.exchange(
+                "http://ts-order-other-service:12032/api/v1/orderOtherService/orderOther",
+                HttpMethod.GET,
+                requestEntity2,
+                new ParameterizedTypeReference<Response<ArrayList<Order>>>()
+                {
+                }));
+        Response<ArrayList<Order>> result = AsyncEndpoints.join(fromOrder).getBody();
 
         if (result.getStatus() == 1) {
             AdminOrderServiceImpl.LOGGER.info("[Admin Order Service][Get Orders From ts-order-service successfully!]");
@@ -54,16 +69,7 @@ public class AdminOrderServiceImpl implements AdminOrderService
         } else {
             AdminOrderServiceImpl.LOGGER.info("[Admin Order Service][Get Orders From ts-order-service fail!]");
         }
-        //From ts-order-other-service
-        HttpEntity requestEntity2 = new HttpEntity(headers);
-        ResponseEntity<Response<ArrayList<Order>>> re2 = restTemplate.exchange(
-            "http://ts-order-other-service:12032/api/v1/orderOtherService/orderOther",
-            HttpMethod.GET,
-            requestEntity2,
-            new ParameterizedTypeReference<Response<ArrayList<Order>>>()
-            {
-            });
-        result = re2.getBody();
+        result = AsyncEndpoints.join(fromOrderOther).getBody();
 
         if (result.getStatus() == 1) {
             AdminOrderServiceImpl.LOGGER.info(
@@ -20,6 +20,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.client.match.MockRestRequestMatchers;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.client.RestTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -37,6 +38,8 @@ import java.util.UUID;
 import static org.springframework.http.RequestEntity.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /*
@@ -77,7 +80,7 @@ public class GetAdminOrderTest
 
     @BeforeEach
     public void setUp() {
-        mockServer = MockRestServiceServer.createServer(restTemplate);
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
     }
 
     /*
@@ -149,8 +152,10 @@ public class GetAdminOrderTest
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(mapper.writeValueAsString(responseFromOtherService)));
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/adminorderservice/adminorder")
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/adminorderservice/adminorder")
                         .header(HttpHeaders.AUTHORIZATION, ""))
+                .andExpect(request().asyncStarted()).andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         mockServer.verify();
@@ -184,8 +189,10 @@ public class GetAdminOrderTest
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(mapper.writeValueAsString(responseFromOtherService)));
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/adminorderservice/adminorder")
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/adminorderservice/adminorder")
                         .header(HttpHeaders.AUTHORIZATION, ""))
+                .andExpect(request().asyncStarted()).andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         mockServer.verify();
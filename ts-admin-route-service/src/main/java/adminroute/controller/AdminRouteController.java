@@ -7,6 +7,7 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,7 +24,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/adminrouteservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class AdminRouteController
 {
     @Autowired
@@ -23,6 +23,7 @@ import auth.dto.BasicAuthDto;
 import auth.entity.User;
 import auth.service.TokenService;
 import auth.service.UserService;
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 /**
@@ -47,7 +48,7 @@ public class UserController
     @PostMapping("/login")
     @HystrixCommand(fallbackMethod = "getTokenFallback", commandProperties = {
         @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-    })
+    }, ignoreExceptions = DeadlineExceededException.class)
     public ResponseEntity<Response> getToken(@RequestBody BasicAuthDto dao, @RequestHeader HttpHeaders headers)
     {
         return ResponseEntity.ok(tokenService.getToken(dao, headers));
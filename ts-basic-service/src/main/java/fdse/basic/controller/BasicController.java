@@ -4,6 +4,7 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 import fdse.basic.entity.Travel;
 import fdse.basic.service.BasicService;
@@ -23,7 +24,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/basicservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class BasicController
 {
     @Autowired
@@ -1,7 +1,9 @@
 package fdse.basic.service;
 
+import edu.fudan.common.util.Amount;
 import edu.fudan.common.util.JsonUtils;
 import edu.fudan.common.util.Response;
+import edu.fudan.common.util.RouteGeometry;
 import fdse.basic.entity.*;
 import lombok.extern.slf4j.Slf4j;
 
@@ -98,9 +100,11 @@ public class BasicServiceImpl implements BasicService
 
         int indexStart = 0;
         int indexEnd = 0;
+        RouteGeometry geometry = null;
         if (route != null) {
-            indexStart = route.getStations().indexOf(startingPlaceId);
-            indexEnd = route.getStations().indexOf(endPlaceId);
+            geometry = RouteGeometry.of(route.getId(), route.getVersion(), route.getStations(), route.getDistances());
+            indexStart = geometry.positionOf(startingPlaceId);
+            indexEnd = geometry.positionOf(endPlaceId);
         }
 
         log.info("indexStart : " + indexStart + " __ " + "indexEnd : " + indexEnd);
@@ -110,17 +114,15 @@ public class BasicServiceImpl implements BasicService
         HashMap<String, String> prices = new HashMap<>();
         try {
             int distance = 0;
-            if (route != null) {
-                distance = route.getDistances().get(indexEnd) - route.getDistances().get(indexStart);
+            if (geometry != null) {
+                distance = geometry.distanceAt(indexEnd) - geometry.distanceAt(indexStart);
             }
 
             /**
              * We need the price Rate and distance (starting station).
              */
-            double priceForEconomyClass = distance * priceConfig.getBasicPriceRate();
-            double priceForConfortClass = distance * priceConfig.getFirstClassPriceRate();
-            prices.put("economyClass", "" + priceForEconomyClass);
-            prices.put("confortClass", "" + priceForConfortClass);
+            prices.put("economyClass", Amount.of(distance * priceConfig.getBasicPriceRate()).toString());
+            prices.put("confortClass", Amount.of(distance * priceConfig.getFirstClassPriceRate()).toString());
         } catch (Exception e) {
             prices.put("economyClass", "95.0");
             prices.put("confortClass", "120.0");
@@ -0,0 +1,76 @@
+package benchmark.basic;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import benchmark.support.StubRestTemplate;
+import edu.fudan.common.util.Response;
+import fdse.basic.entity.PriceConfig;
+import fdse.basic.entity.Route;
+import fdse.basic.entity.TrainType;
+import fdse.basic.entity.Travel;
+import fdse.basic.entity.Trip;
+import fdse.basic.entity.TripId;
+import fdse.basic.service.BasicServiceImpl;
+
+/*
+ * BasicServiceImpl.queryForTravel, the price lookup behind every trip of a travel query. All of its
+ * downstream calls decode into raw Response maps and go through JsonUtils.conveterObject.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BasicBenchmark
+{
+    private BasicServiceImpl basicService;
+
+    private Travel travel;
+
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp()
+    {
+        Route route = new Route();
+        route.setId("route-1");
+        route.setStations(Arrays.asList("shanghai", "suzhou", "wuxi", "changzhou", "nanjing"));
+        route.setDistances(Arrays.asList(0, 86, 125, 165, 300));
+        route.setStartStationId("shanghai");
+        route.setTerminalStationId("nanjing");
+
+        StubRestTemplate restTemplate = new StubRestTemplate()
+            .on(HttpMethod.GET, "/stationservice/stations/id/", stationName -> stationName)
+            .on(HttpMethod.GET, "/trainservice/trains/", id -> new TrainType(id, 500, 100))
+            .on(HttpMethod.GET, "/routeservice/routes/", id -> route)
+            .on(HttpMethod.GET, "/priceservice/prices/",
+                path -> new PriceConfig(UUID.randomUUID(), "GaoTieOne", "route-1", 0.38, 1.0));
+
+        basicService = new BasicServiceImpl();
+        ReflectionTestUtils.setField(basicService, "restTemplate", restTemplate);
+
+        Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+        travel = new Travel(new Trip(new TripId("G1234"), "GaoTieOne", "route-1"), "suzhou", "changzhou",
+            tomorrow.getTime());
+        headers = new HttpHeaders();
+    }
+
+    @Benchmark
+    public Response queryForTravel()
+    {
+        return basicService.queryForTravel(travel, headers);
+    }
+}
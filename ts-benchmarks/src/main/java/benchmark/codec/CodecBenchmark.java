@@ -0,0 +1,146 @@
+package benchmark.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import edu.fudan.common.util.Response;
+import seat.entity.LeftTicketInfo;
+import seat.entity.Ticket;
+import travel.entity.TripId;
+import travel.entity.TripResponse;
+import travel.entity.Type;
+
+/*
+ * Encoding and decoding of two payloads the services exchange most, in JSON, Smile and CBOR
+ * through the mappers ts-common's CodecConfig registers: the answer of a trip search
+ * (Response of TRIP_COUNT TripResponses) and the sold tickets ts-seat-service receives for a
+ * busy train (LeftTicketInfo of TICKET_COUNT tickets). The encoded size of each is printed once
+ * per fork, before the first iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark
+{
+    private static final int TRIP_COUNT = 50;
+
+    private static final int TICKET_COUNT = 500;
+
+    private static final List<String> STATIONS = Arrays.asList("shanghai", "suzhou", "wuxi", "changzhou", "nanjing");
+
+    @Param({"trips", "soldTickets"})
+    private String payload;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper mapper;
+
+    private Object value;
+
+    private JavaType type;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        Jackson2ObjectMapperBuilder builder;
+        switch (format) {
+            case "json":
+                builder = Jackson2ObjectMapperBuilder.json();
+                break;
+            case "smile":
+                builder = Jackson2ObjectMapperBuilder.smile();
+                break;
+            default:
+                builder = Jackson2ObjectMapperBuilder.cbor();
+                break;
+        }
+        //Dates as ISO strings like Spring Boot configures the services' mappers
+        mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        TypeFactory typeFactory = mapper.getTypeFactory();
+        if ("trips".equals(payload)) {
+            value = new Response<>(1, "Success", trips());
+            type = typeFactory.constructParametricType(Response.class,
+                typeFactory.constructCollectionType(List.class, TripResponse.class));
+        } else {
+            value = leftTicketInfo();
+            type = typeFactory.constructType(LeftTicketInfo.class);
+        }
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n%s as %s: %d bytes%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception
+    {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception
+    {
+        return mapper.readValue(encoded, type);
+    }
+
+    private static List<TripResponse> trips()
+    {
+        Calendar departure = Calendar.getInstance();
+        departure.set(Calendar.HOUR_OF_DAY, 6);
+        departure.set(Calendar.MINUTE, 0);
+        List<TripResponse> trips = new ArrayList<>();
+        for (int i = 0; i < TRIP_COUNT; i++) {
+            TripResponse trip = new TripResponse();
+            trip.setTripId(new TripId(i % 2 == 0 ? Type.G : Type.D, String.valueOf(1000 + i)));
+            trip.setTrainTypeId(i % 2 == 0 ? "GaoTieOne" : "DongCheOne");
+            trip.setStartingStation(STATIONS.get(0));
+            trip.setTerminalStation(STATIONS.get(STATIONS.size() - 1));
+            trip.setStartingTime(departure.getTime());
+            departure.add(Calendar.MINUTE, 90);
+            trip.setEndTime(departure.getTime());
+            departure.add(Calendar.MINUTE, -75);
+            trip.setEconomyClass(500 - i);
+            trip.setConfortClass(100 - i);
+            trip.setPriceForEconomyClass("95.0");
+            trip.setPriceForConfortClass("250.0");
+            trips.add(trip);
+        }
+        return trips;
+    }
+
+    private static LeftTicketInfo leftTicketInfo()
+    {
+        Set<Ticket> soldTickets = new HashSet<>();
+        for (int i = 0; i < TICKET_COUNT; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setSeatNo(i + 1);
+            ticket.setStartStation(STATIONS.get(i % 2));
+            ticket.setDestStation(STATIONS.get(STATIONS.size() - 1 - i % 3));
+            soldTickets.add(ticket);
+        }
+        LeftTicketInfo leftTicketInfo = new LeftTicketInfo();
+        leftTicketInfo.setSoldTickets(soldTickets);
+        return leftTicketInfo;
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark.common;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import edu.fudan.common.security.jwt.JWTGenerator;
+import edu.fudan.common.security.jwt.JWTUtil;
+
+/*
+ * JWTUtil.getJWTAuthentication as JWTFilter runs it on every request. The user details parse the
+ * token again for the name and the roles, so authenticateAndRead reads both like Spring Security does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JWTUtilBenchmark
+{
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp()
+    {
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + JWTGenerator.generateJwtTokenUser());
+    }
+
+    @Benchmark
+    public Authentication authenticate()
+    {
+        return JWTUtil.getJWTAuthentication(request);
+    }
+
+    @Benchmark
+    public void authenticateAndRead(Blackhole blackhole)
+    {
+        Authentication authentication = JWTUtil.getJWTAuthentication(request);
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        blackhole.consume(userDetails.getUsername());
+        blackhole.consume(authentication.getAuthorities());
+    }
+}
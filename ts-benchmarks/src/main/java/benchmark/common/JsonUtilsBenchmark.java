@@ -0,0 +1,71 @@
+package benchmark.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.fudan.common.util.JsonUtils;
+import travel.entity.Route;
+import travel.entity.TravelResult;
+
+/*
+ * JsonUtils.conveterObject on the payloads the services decode most, a route and a ticket price
+ * result, both as the nested maps a raw Response.class exchange hands over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonUtilsBenchmark
+{
+    private Map<String, Object> routeMap;
+
+    private Map<String, Object> travelResultMap;
+
+    @Setup
+    public void setUp()
+    {
+        routeMap = new LinkedHashMap<>();
+        routeMap.put("id", "route-1");
+        routeMap.put("stations", Arrays.asList("shanghai", "suzhou", "wuxi", "changzhou", "nanjing"));
+        routeMap.put("distances", Arrays.asList(0, 86, 125, 165, 300));
+        routeMap.put("startStationId", "shanghai");
+        routeMap.put("terminalStationId", "nanjing");
+
+        Map<String, Object> trainType = new LinkedHashMap<>();
+        trainType.put("id", "GaoTieOne");
+        trainType.put("economyClass", 500);
+        trainType.put("confortClass", 100);
+        trainType.put("averageSpeed", 250);
+        Map<String, String> prices = new HashMap<>();
+        prices.put("economyClass", "150.0");
+        prices.put("confortClass", "250.0");
+        travelResultMap = new LinkedHashMap<>();
+        travelResultMap.put("status", true);
+        travelResultMap.put("percent", 1.0);
+        travelResultMap.put("trainType", trainType);
+        travelResultMap.put("prices", prices);
+        travelResultMap.put("message", "Success");
+    }
+
+    @Benchmark
+    public Route convertRoute()
+    {
+        return JsonUtils.conveterObject(routeMap, Route.class);
+    }
+
+    @Benchmark
+    public TravelResult convertTravelResult()
+    {
+        return JsonUtils.conveterObject(travelResultMap, TravelResult.class);
+    }
+}
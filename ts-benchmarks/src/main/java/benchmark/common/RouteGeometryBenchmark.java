@@ -0,0 +1,80 @@
+package benchmark.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.fudan.common.util.RouteGeometry;
+
+/*
+ * The lookup the trip search does on every route it fetches: are the two stations on the route
+ * in order, and how far apart are they. indexOf is the List scans it did before, compileEachTime
+ * compiles a RouteGeometry for every lookup and compiledOnce reuses the route's geometry by id
+ * and version. The stations are equal copies of the compiled ones, like a route decoded again
+ * per request; with a version the geometry is reused without comparing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteGeometryBenchmark
+{
+    @Param({"5", "20", "60"})
+    private int stationCount;
+
+    private List<String> stations;
+
+    private List<Integer> distances;
+
+    private String from;
+
+    private String to;
+
+    @Setup
+    public void setUp()
+    {
+        List<String> compiled = new ArrayList<>();
+        stations = new ArrayList<>();
+        distances = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            String station = "station-" + i;
+            compiled.add(station);
+            stations.add(new String(station));
+            distances.add(i * 50);
+        }
+        from = new String(compiled.get(stationCount / 4));
+        to = new String(compiled.get(stationCount * 3 / 4));
+        RouteGeometry.of("route-1", 1, compiled, distances);
+    }
+
+    @Benchmark
+    public int indexOf()
+    {
+        if (stations.contains(from) && stations.contains(to) && stations.indexOf(from) < stations.indexOf(to)) {
+            return distances.get(stations.indexOf(to)) - distances.get(stations.indexOf(from));
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int compileEachTime()
+    {
+        RouteGeometry geometry = RouteGeometry.of(stations, distances);
+        return geometry.isInOrder(from, to) ? geometry.distance(from, to) : -1;
+    }
+
+    @Benchmark
+    public int compiledOnce()
+    {
+        RouteGeometry geometry = RouteGeometry.of("route-1", 1, stations, distances);
+        return geometry.isInOrder(from, to) ? geometry.distance(from, to) : -1;
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark.local;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import edu.fudan.common.util.Response;
+import fdse.basic.entity.Travel;
+import fdse.basic.entity.Trip;
+import fdse.basic.entity.TripId;
+import fdse.basic.service.BasicServiceImpl;
+
+/*
+ * BasicServiceImpl.queryForTravel against real controllers, called over loopback HTTP (mode=http)
+ * or in process through LocalRestTemplate (mode=local). Both go through the same ts-common
+ * RestTemplate setup; the difference is the socket, the servlet stack and the JSON text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColocatedSearchBenchmark
+{
+    @Param({"http", "local"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private BasicServiceImpl basicService;
+
+    private Travel travel;
+
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp()
+    {
+        context = new SpringApplicationBuilder(StubServices.class).run("--server.port=0",
+            "--spring.application.name=benchmark", "--opentracing.jaeger.enabled=false",
+            "--ts.local.enabled=" + "local".equals(mode), "--ts.local.name=localhost");
+        String port = context.getEnvironment().getProperty("local.server.port");
+
+        basicService = new BasicServiceImpl();
+        ReflectionTestUtils.setField(basicService, "restTemplate", context.getBean(RestTemplate.class));
+        for (String service : new String[] {"Station", "Train", "Route", "Price"}) {
+            ReflectionTestUtils.setField(basicService, "ts" + service + "ServiceUrl", "localhost");
+            ReflectionTestUtils.setField(basicService, "ts" + service + "ServicePort", port);
+        }
+
+        Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+        travel = new Travel(new Trip(new TripId("G1234"), "GaoTieOne", "route-1"), "suzhou", "changzhou",
+            tomorrow.getTime());
+        headers = new HttpHeaders();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public Response queryForTravel()
+    {
+        return basicService.queryForTravel(travel, headers);
+    }
+}
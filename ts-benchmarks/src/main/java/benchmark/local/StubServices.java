@@ -0,0 +1,96 @@
+package benchmark.local;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
+
+import edu.fudan.common.util.Response;
+import fdse.basic.entity.PriceConfig;
+import fdse.basic.entity.Route;
+import fdse.basic.entity.TrainType;
+
+/*
+ * The station, train, route and price endpoints ts-basic-service calls, in one small application
+ * that ColocatedSearchBenchmark reaches either over HTTP or in process.
+ */
+@SpringBootApplication(exclude = {MongoAutoConfiguration.class, MongoDataAutoConfiguration.class})
+public class StubServices
+{
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder)
+    {
+        return builder.build();
+    }
+
+    @Configuration
+    static class PermitAll extends WebSecurityConfigurerAdapter
+    {
+        @Override
+        protected void configure(HttpSecurity http) throws Exception
+        {
+            http.csrf().disable().authorizeRequests().anyRequest().permitAll();
+        }
+    }
+
+    @RestController
+    static class StubController
+    {
+        private final Route route = new Route();
+
+        StubController()
+        {
+            route.setId("route-1");
+            route.setStations(Arrays.asList("shanghai", "suzhou", "wuxi", "changzhou", "nanjing"));
+            route.setDistances(Arrays.asList(0, 86, 125, 165, 300));
+            route.setStartStationId("shanghai");
+            route.setTerminalStationId("nanjing");
+        }
+
+        @GetMapping("/api/v1/stationservice/stations/id/{stationName}")
+        public HttpEntity queryStationId(@PathVariable String stationName, @RequestHeader HttpHeaders headers)
+        {
+            return ok(stationName);
+        }
+
+        @GetMapping("/api/v1/trainservice/trains/{id}")
+        public HttpEntity retrieve(@PathVariable String id, @RequestHeader HttpHeaders headers)
+        {
+            return ok(new TrainType(id, 500, 100));
+        }
+
+        @GetMapping("/api/v1/routeservice/routes/{routeId}")
+        public HttpEntity queryById(@PathVariable String routeId, @RequestHeader HttpHeaders headers)
+        {
+            return ok(route);
+        }
+
+        @GetMapping("/api/v1/priceservice/prices/{routeId}/{trainType}")
+        public HttpEntity query(@PathVariable String routeId, @PathVariable String trainType,
+            @RequestHeader HttpHeaders headers)
+        {
+            return ok(new PriceConfig(UUID.randomUUID(), trainType, routeId, 0.38, 1.0));
+        }
+
+        private static HttpEntity ok(Object data)
+        {
+            return new ResponseEntity<>(new Response<>(1, "Success", data), HttpStatus.OK);
+        }
+    }
+}
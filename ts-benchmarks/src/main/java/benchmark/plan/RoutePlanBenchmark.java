@@ -0,0 +1,116 @@
+package benchmark.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import benchmark.support.StubRestTemplate;
+import edu.fudan.common.util.Response;
+import plan.entity.Route;
+import plan.entity.RoutePlanInfo;
+import plan.entity.TripId;
+import plan.entity.TripResponse;
+import plan.entity.Type;
+import plan.service.RoutePlanServiceImpl;
+
+/*
+ * Top 5 selection of RoutePlanServiceImpl over candidateCount trips, half of them from
+ * ts-travel-service and half from ts-travel2-service, by price and by travel time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoutePlanBenchmark
+{
+    @Param({"10", "100", "1000"})
+    private int candidateCount;
+
+    private RoutePlanServiceImpl routePlanService;
+
+    private RoutePlanInfo routePlanInfo;
+
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42);
+        Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+        ArrayList<TripResponse> highSpeed = new ArrayList<>();
+        ArrayList<TripResponse> normal = new ArrayList<>();
+        for (int i = 0; i < candidateCount; i++) {
+            boolean isHighSpeed = i % 2 == 0;
+            TripResponse trip = tripResponse(isHighSpeed ? Type.G : Type.Z, 1000 + i, tomorrow.getTime(), random);
+            if (isHighSpeed) {
+                highSpeed.add(trip);
+            } else {
+                normal.add(trip);
+            }
+        }
+
+        Route route = new Route();
+        route.setId("route-1");
+        route.setStations(Arrays.asList("shanghai", "suzhou", "wuxi", "changzhou", "nanjing"));
+        route.setDistances(Arrays.asList(0, 86, 125, 165, 300));
+
+        StubRestTemplate restTemplate = new StubRestTemplate()
+            .on(HttpMethod.POST, "/travelservice/trips/left", path -> highSpeed)
+            .on(HttpMethod.POST, "/travel2service/trips/left", path -> normal)
+            .on(HttpMethod.GET, "/travelservice/routes/", tripId -> route)
+            .on(HttpMethod.GET, "/travel2service/routes/", tripId -> route);
+
+        routePlanService = new RoutePlanServiceImpl();
+        ReflectionTestUtils.setField(routePlanService, "restTemplate", restTemplate);
+
+        routePlanInfo = new RoutePlanInfo("shanghai", "nanjing", tomorrow.getTime(), 5);
+        headers = new HttpHeaders();
+    }
+
+    @Benchmark
+    public Response searchCheapestResult()
+    {
+        return routePlanService.searchCheapestResult(routePlanInfo, headers);
+    }
+
+    @Benchmark
+    public Response searchQuickestResult()
+    {
+        return routePlanService.searchQuickestResult(routePlanInfo, headers);
+    }
+
+    private static TripResponse tripResponse(Type type, int number, Date departure, Random random)
+    {
+        TripId tripId = new TripId();
+        tripId.setType(type);
+        tripId.setNumber(String.valueOf(number));
+
+        TripResponse trip = new TripResponse();
+        trip.setTripId(tripId);
+        trip.setTrainTypeId(type == Type.G ? "GaoTieOne" : "ZhiDa");
+        trip.setStartingStation("shanghai");
+        trip.setTerminalStation("nanjing");
+        trip.setStartingTime(departure);
+        trip.setEndTime(new Date(departure.getTime() + TimeUnit.MINUTES.toMillis(60 + random.nextInt(240))));
+        trip.setEconomyClass(random.nextInt(500));
+        trip.setConfortClass(random.nextInt(100));
+        trip.setPriceForEconomyClass(String.valueOf(50 + random.nextInt(200) + 0.5));
+        trip.setPriceForConfortClass(String.valueOf(150 + random.nextInt(300) + 0.5));
+        return trip;
+    }
+}
@@ -0,0 +1,128 @@
+package benchmark.seat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import benchmark.support.StubRestTemplate;
+import edu.fudan.common.util.Response;
+import seat.entity.Config;
+import seat.entity.GroupSeat;
+import seat.entity.LeftTicketInfo;
+import seat.entity.Route;
+import seat.entity.Seat;
+import seat.entity.SeatClass;
+import seat.entity.Ticket;
+import seat.entity.TrainType;
+import seat.service.SeatServiceImpl;
+
+/*
+ * Seat allocation and left ticket counting on a train with SEAT_COUNT second class seats of which
+ * soldRatio are sold for the whole route. distributeSeat draws random seats until it finds a free
+ * one, so its cost grows with the sold ratio; a sold out train never returns and is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatBenchmark
+{
+    private static final int SEAT_COUNT = 1000;
+
+    private static final List<String> STATIONS = Arrays.asList("shanghai", "suzhou", "wuxi", "changzhou", "nanjing");
+
+    @Param({"0", "0.5", "0.9", "0.99"})
+    private double soldRatio;
+
+    private SeatServiceImpl seatService;
+
+    private Seat seat;
+
+    private GroupSeat groupSeat;
+
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp()
+    {
+        Route route = new Route();
+        route.setId("route-1");
+        route.setStations(STATIONS);
+        route.setDistances(Arrays.asList(0, 86, 125, 165, 300));
+
+        List<Integer> seatNumbers = new ArrayList<>();
+        for (int i = 1; i <= SEAT_COUNT; i++) {
+            seatNumbers.add(i);
+        }
+        Collections.shuffle(seatNumbers, new Random(42));
+        Set<Ticket> soldTickets = new HashSet<>();
+        for (int seatNo : seatNumbers.subList(0, (int) (SEAT_COUNT * soldRatio))) {
+            Ticket ticket = new Ticket();
+            ticket.setSeatNo(seatNo);
+            ticket.setStartStation(STATIONS.get(0));
+            ticket.setDestStation(STATIONS.get(STATIONS.size() - 1));
+            soldTickets.add(ticket);
+        }
+        LeftTicketInfo leftTicketInfo = new LeftTicketInfo();
+        leftTicketInfo.setSoldTickets(soldTickets);
+
+        StubRestTemplate restTemplate = new StubRestTemplate()
+            .on(HttpMethod.GET, "/travelservice/routes/", trainNumber -> route)
+            .on(HttpMethod.GET, "/travelservice/train_types/",
+                trainNumber -> new TrainType("GaoTieOne", SEAT_COUNT, 200))
+            .on(HttpMethod.POST, "/orderservice/order/tickets", path -> leftTicketInfo)
+            .on(HttpMethod.GET, "/configservice/configs/", name -> new Config(name, "0.5", ""));
+
+        seatService = new SeatServiceImpl();
+        ReflectionTestUtils.setField(seatService, "restTemplate", restTemplate);
+
+        seat = new Seat();
+        seat.setTrainNumber("G1234");
+        seat.setStartStation(STATIONS.get(0));
+        seat.setDestStation(STATIONS.get(STATIONS.size() - 1));
+        seat.setSeatType(SeatClass.SECONDCLASS.getCode());
+
+        groupSeat = new GroupSeat();
+        groupSeat.setTrainNumber(seat.getTrainNumber());
+        groupSeat.setStartStation(seat.getStartStation());
+        groupSeat.setDestStation(seat.getDestStation());
+        groupSeat.setSeatType(seat.getSeatType());
+        groupSeat.setSeatCount(4);
+
+        headers = new HttpHeaders();
+    }
+
+    @Benchmark
+    public Response distributeSeat()
+    {
+        return seatService.distributeSeat(seat, headers);
+    }
+
+    @Benchmark
+    public Response distributeGroupSeat()
+    {
+        return seatService.distributeGroupSeat(groupSeat, headers);
+    }
+
+    @Benchmark
+    public Response getLeftTicketOfInterval()
+    {
+        return seatService.getLeftTicketOfInterval(seat, headers);
+    }
+}
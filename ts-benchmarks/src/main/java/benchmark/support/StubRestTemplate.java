@@ -0,0 +1,109 @@
+package benchmark.support;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fudan.common.util.Response;
+
+/**
+ * RestTemplate answering the calls of a service from canned data instead of the network.
+ * <p>
+ * Handlers are registered per method and path prefix below {@code /api/v1} and get the rest of
+ * the path, e.g. the station name of {@code /stationservice/stations/id/}. Calls asking for the
+ * raw {@code Response.class} get the data as Jackson would decode it, nested maps and lists, so
+ * the services still pay for their own conversions. Answers are computed once per url, the
+ * benchmarks measure the service and not the stub.
+ *
+ * @author fdse
+ */
+public class StubRestTemplate extends RestTemplate
+{
+    private static final String API_PREFIX = "/api/v1";
+
+    private final Map<HttpMethod, List<Stub>> stubs = new EnumMap<>(HttpMethod.class);
+
+    private final Map<String, ResponseEntity<?>> typedAnswers = new ConcurrentHashMap<>();
+
+    private final Map<String, ResponseEntity<?>> decodedAnswers = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Answers every {@code method} call below {@code pathPrefix} with {@code handler(rest of path)},
+     * wrapped in a successful {@link Response}. The longest matching prefix wins.
+     */
+    public StubRestTemplate on(HttpMethod method, String pathPrefix, Function<String, Object> handler)
+    {
+        stubs.computeIfAbsent(method, m -> new ArrayList<>()).add(new Stub(pathPrefix, handler));
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+        Class<T> responseType, Object... uriVariables)
+    {
+        if (responseType != Response.class) {
+            return (ResponseEntity<T>) typedAnswers.computeIfAbsent(method + url, key -> answer(method, url));
+        }
+        return (ResponseEntity<T>) decodedAnswers.computeIfAbsent(method + url, key -> {
+            Response<?> typed = (Response<?>) answer(method, url).getBody();
+            Object data = objectMapper.convertValue(typed.getData(), Object.class);
+            return new ResponseEntity<>(new Response<>(typed.getStatus(), typed.getMsg(), data), HttpStatus.OK);
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+        ParameterizedTypeReference<T> responseType, Object... uriVariables)
+    {
+        return (ResponseEntity<T>) typedAnswers.computeIfAbsent(method + url, key -> answer(method, url));
+    }
+
+    private ResponseEntity<Response<Object>> answer(HttpMethod method, String url)
+    {
+        int api = url.indexOf(API_PREFIX);
+        String path = api < 0 ? url : url.substring(api + API_PREFIX.length());
+        Stub match = null;
+        for (Stub stub : stubs.getOrDefault(method, new ArrayList<>())) {
+            if (path.startsWith(stub.pathPrefix) &&
+                (match == null || stub.pathPrefix.length() > match.pathPrefix.length()))
+            {
+                match = stub;
+            }
+        }
+        if (match == null) {
+            throw new RestClientException("No stub for " + method + " " + url);
+        }
+        Object data = match.handler.apply(path.substring(match.pathPrefix.length()));
+        return new ResponseEntity<>(new Response<>(1, "Success", data), HttpStatus.OK);
+    }
+
+    private static class Stub
+    {
+        private final String pathPrefix;
+
+        private final Function<String, Object> handler;
+
+        Stub(String pathPrefix, Function<String, Object> handler)
+        {
+            this.pathPrefix = pathPrefix;
+            this.handler = handler;
+        }
+    }
+}
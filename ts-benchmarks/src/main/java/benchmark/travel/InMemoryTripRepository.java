@@ -0,0 +1,120 @@
+package benchmark.travel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import travel.entity.Trip;
+import travel.entity.TripId;
+import travel.repository.TripRepository;
+
+/**
+ * TripRepository over a map, in insertion order
+ *
+ * @author fdse
+ */
+public class InMemoryTripRepository implements TripRepository
+{
+    private final Map<TripId, Trip> trips = new LinkedHashMap<>();
+
+    @Override
+    public Trip findByTripId(TripId tripId)
+    {
+        return trips.get(tripId);
+    }
+
+    @Override
+    public void deleteByTripId(TripId tripId)
+    {
+        trips.remove(tripId);
+    }
+
+    @Override
+    public ArrayList<Trip> findAll()
+    {
+        return new ArrayList<>(trips.values());
+    }
+
+    @Override
+    public ArrayList<Trip> findByRouteId(String routeId)
+    {
+        ArrayList<Trip> result = new ArrayList<>();
+        for (Trip trip : trips.values()) {
+            if (routeId.equals(trip.getRouteId())) {
+                result.add(trip);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <S extends Trip> S save(S trip)
+    {
+        trips.put(trip.getTripId(), trip);
+        return trip;
+    }
+
+    @Override
+    public <S extends Trip> Iterable<S> saveAll(Iterable<S> entities)
+    {
+        for (S trip : entities) {
+            save(trip);
+        }
+        return entities;
+    }
+
+    @Override
+    public Optional<Trip> findById(TripId tripId)
+    {
+        return Optional.ofNullable(trips.get(tripId));
+    }
+
+    @Override
+    public boolean existsById(TripId tripId)
+    {
+        return trips.containsKey(tripId);
+    }
+
+    @Override
+    public Iterable<Trip> findAllById(Iterable<TripId> tripIds)
+    {
+        ArrayList<Trip> result = new ArrayList<>();
+        for (TripId tripId : tripIds) {
+            findById(tripId).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public long count()
+    {
+        return trips.size();
+    }
+
+    @Override
+    public void deleteById(TripId tripId)
+    {
+        trips.remove(tripId);
+    }
+
+    @Override
+    public void delete(Trip trip)
+    {
+        trips.remove(trip.getTripId());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Trip> entities)
+    {
+        for (Trip trip : entities) {
+            delete(trip);
+        }
+    }
+
+    @Override
+    public void deleteAll()
+    {
+        trips.clear();
+    }
+}
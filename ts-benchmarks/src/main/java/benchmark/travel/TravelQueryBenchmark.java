@@ -0,0 +1,128 @@
+package benchmark.travel;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import benchmark.support.StubRestTemplate;
+import edu.fudan.common.util.Response;
+import travel.entity.Route;
+import travel.entity.SoldTicket;
+import travel.entity.TrainType;
+import travel.entity.TravelResult;
+import travel.entity.Trip;
+import travel.entity.TripId;
+import travel.entity.TripInfo;
+import travel.service.TravelServiceImpl;
+
+/*
+ * TravelServiceImpl.query over tripCount trips. Half of the trips run the queried direction and
+ * cost six downstream calls each, the other half is dropped after the route lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TravelQueryBenchmark
+{
+    private static final String[] STATIONS = {"shanghai", "suzhou", "wuxi", "changzhou", "nanjing"};
+
+    private static final Integer[] DISTANCES = {0, 86, 125, 165, 300};
+
+    @Param({"10", "100", "1000"})
+    private int tripCount;
+
+    private TravelServiceImpl travelService;
+
+    private TripInfo tripInfo;
+
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp()
+    {
+        Map<String, Route> routes = new HashMap<>();
+        routes.put("forward", route("forward", false));
+        routes.put("backward", route("backward", true));
+
+        Calendar today = Calendar.getInstance();
+        today.set(Calendar.HOUR_OF_DAY, 8);
+        InMemoryTripRepository repository = new InMemoryTripRepository();
+        for (int i = 0; i < tripCount; i++) {
+            Trip trip = new Trip(new TripId("G" + (1000 + i)), "GaoTieOne", i % 2 == 0 ? "forward" : "backward");
+            trip.setStartingTime(today.getTime());
+            repository.save(trip);
+        }
+
+        TravelResult travelResult = new TravelResult();
+        travelResult.setStatus(true);
+        travelResult.setPercent(1.0);
+        Map<String, String> prices = new HashMap<>();
+        prices.put("economyClass", "150.0");
+        prices.put("confortClass", "250.0");
+        travelResult.setPrices(prices);
+
+        StubRestTemplate restTemplate = new StubRestTemplate()
+            .on(HttpMethod.GET, "/ticketinfoservice/ticketinfo/", stationName -> stationName)
+            .on(HttpMethod.POST, "/ticketinfoservice/ticketinfo", path -> travelResult)
+            .on(HttpMethod.GET, "/routeservice/routes/", routes::get)
+            .on(HttpMethod.GET, "/orderservice/order/", path -> soldTicket(path.substring(path.lastIndexOf('/') + 1)))
+            .on(HttpMethod.POST, "/seatservice/seats/left_tickets", path -> 42)
+            .on(HttpMethod.GET, "/trainservice/trains/", id -> new TrainType(id, 500, 100, 250));
+
+        travelService = new TravelServiceImpl();
+        ReflectionTestUtils.setField(travelService, "repository", repository);
+        ReflectionTestUtils.setField(travelService, "restTemplate", restTemplate);
+
+        Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+        tripInfo = new TripInfo("suzhou", "changzhou", tomorrow.getTime());
+        headers = new HttpHeaders();
+    }
+
+    @Benchmark
+    public Response query()
+    {
+        return travelService.query(tripInfo, headers);
+    }
+
+    private static Route route(String id, boolean reversed)
+    {
+        Route route = new Route();
+        route.setId(id);
+        if (reversed) {
+            String[] stations = new String[STATIONS.length];
+            for (int i = 0; i < STATIONS.length; i++) {
+                stations[i] = STATIONS[STATIONS.length - 1 - i];
+            }
+            route.setStations(Arrays.asList(stations));
+        } else {
+            route.setStations(Arrays.asList(STATIONS));
+        }
+        route.setDistances(Arrays.asList(DISTANCES));
+        route.setStartStationId(route.getStations().get(0));
+        route.setTerminalStationId(route.getStations().get(STATIONS.length - 1));
+        return route;
+    }
+
+    private static SoldTicket soldTicket(String trainNumber)
+    {
+        SoldTicket soldTicket = new SoldTicket();
+        soldTicket.setTrainNumber(trainNumber);
+        soldTicket.setSecondClassSeat(120);
+        return soldTicket;
+    }
+}
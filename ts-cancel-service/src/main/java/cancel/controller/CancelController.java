@@ -6,6 +6,8 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
+import edu.fudan.common.idempotency.Idempotent;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -24,7 +26,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/cancelservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class CancelController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(CancelController.class);
@@ -49,6 +51,7 @@ public class CancelController
 
     @CrossOrigin(origins = "*")
     @GetMapping(path = "/cancel/{orderId}/{loginId}")
+    @Idempotent
     @HystrixCommand
     public HttpEntity cancelTicket(@PathVariable String orderId, @PathVariable String loginId,
         @RequestHeader HttpHeaders headers)
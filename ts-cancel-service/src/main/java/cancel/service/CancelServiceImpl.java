@@ -1,6 +1,8 @@
 package cancel.service;
 
 import cancel.entity.*;
+import edu.fudan.common.util.Amount;
+import edu.fudan.common.util.OrderIdLocator;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -15,7 +17,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.text.DecimalFormat;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -281,10 +282,7 @@ public class CancelServiceImpl implements CancelService
             CancelServiceImpl.LOGGER.info("[Cancel Order] Ticket expire refund 0");
             return "0";
         } else {
-            double totalPrice = Double.parseDouble(order.getPrice());
-            double price = totalPrice * 0.8;
-            DecimalFormat priceFormat = new java.text.DecimalFormat("0.00");
-            String str = priceFormat.format(price);
+            String str = Amount.parse(order.getPrice()).times(0.8).toPlainString();
             CancelServiceImpl.LOGGER.info("[Cancel Order]calculate refund - {}", str);
             return str;
         }
@@ -319,6 +317,10 @@ public class CancelServiceImpl implements CancelService
 
     private Response<Order> getOrderByIdFromOrder(String orderId, HttpHeaders headers)
     {
+        if (OrderIdLocator.ownerOf(orderId) == OrderIdLocator.Owner.ORDER_OTHER) {
+            //The id says the order lives in ts-order-other-service, skip the round trip
+            return new Response<>(0, "Order Not Found", null);
+        }
         CancelServiceImpl.LOGGER.info("[Cancel Order Service][Get Order] Getting....");
         HttpEntity requestEntity = new HttpEntity(headers);
         ResponseEntity<Response<Order>> re = restTemplate.exchange(
@@ -333,6 +335,9 @@ public class CancelServiceImpl implements CancelService
 
     private Response<Order> getOrderByIdFromOrderOther(String orderId, HttpHeaders headers)
     {
+        if (OrderIdLocator.ownerOf(orderId) == OrderIdLocator.Owner.ORDER) {
+            return new Response<>(0, "Order Not Found", null);
+        }
         CancelServiceImpl.LOGGER.info("[Cancel Order Service][Get Order] Getting....");
         HttpEntity requestEntity = new HttpEntity(headers);
         ResponseEntity<Response<Order>> re = restTemplate.exchange(
@@ -0,0 +1,78 @@
+package colocated;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.util.StringUtils;
+
+import config.ConfigApplication;
+import fdse.basic.BasicApplication;
+import fdse.microservice.StationApplication;
+import price.PriceApplication;
+import route.RouteApplication;
+import ticketinfo.TicketInfoApplication;
+import train.TrainApplication;
+
+/**
+ * Starts the services behind the travel search in one JVM, each in its own application context
+ * with its own application.yml and port. They register for in-process calls (ts.local.enabled),
+ * so a call from one of them to another is a method call, while calls to any service not hosted
+ * here still go over HTTP. Which services are started can be narrowed down with
+ * {@code --ts.colocated.services=ts-station-service,ts-basic-service,...}.
+ *
+ * @author fdse
+ */
+public class ColocatedLauncher
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColocatedLauncher.class);
+
+    private static final Map<String, Class<?>> SERVICES = new LinkedHashMap<>();
+
+    static {
+        ColocatedLauncher.SERVICES.put("ts-station-service", StationApplication.class);
+        ColocatedLauncher.SERVICES.put("ts-train-service", TrainApplication.class);
+        ColocatedLauncher.SERVICES.put("ts-route-service", RouteApplication.class);
+        ColocatedLauncher.SERVICES.put("ts-price-service", PriceApplication.class);
+        ColocatedLauncher.SERVICES.put("ts-config-service", ConfigApplication.class);
+        ColocatedLauncher.SERVICES.put("ts-basic-service", BasicApplication.class);
+        ColocatedLauncher.SERVICES.put("ts-ticketinfo-service", TicketInfoApplication.class);
+    }
+
+    /**
+     * Services that keep no data of their own
+     */
+    private static final List<String> WITHOUT_MONGO = Arrays.asList("ts-basic-service", "ts-ticketinfo-service");
+
+    public static void main(String[] args)
+    {
+        SimpleCommandLinePropertySource commandLine = new SimpleCommandLinePropertySource(args);
+        String selected = commandLine.getProperty("ts.colocated.services");
+        List<String> names = selected == null ? new ArrayList<>(ColocatedLauncher.SERVICES.keySet())
+            : Arrays.asList(StringUtils.commaDelimitedListToStringArray(selected.replace(" ", "")));
+
+        for (String name : names) {
+            Class<?> application = ColocatedLauncher.SERVICES.get(name);
+            if (application == null) {
+                throw new IllegalArgumentException("Not a co-located service: " + name);
+            }
+            List<String> serviceArgs = new ArrayList<>(Arrays.asList(args));
+            serviceArgs.add("--spring.config.location=classpath:/colocated/" + name + "/");
+            serviceArgs.add("--ts.local.enabled=true");
+            if (ColocatedLauncher.WITHOUT_MONGO.contains(name)) {
+                serviceArgs.add("--spring.autoconfigure.exclude=" + MongoAutoConfiguration.class.getName() + ","
+                    + MongoDataAutoConfiguration.class.getName());
+            }
+            new SpringApplicationBuilder(application).run(serviceArgs.toArray(new String[0]));
+            ColocatedLauncher.LOGGER.info("[Colocated] {} started", name);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package edu.fudan.common.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where a request waits in the {@link WaitingRoom}, as polled by the client that sent it
+ *
+ * @author fdse
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitingPosition
+{
+    /**
+     * 1 for the next request to be admitted
+     */
+    private int position;
+
+    /**
+     * Estimated milliseconds until the request is admitted, from how long the admitted ones take
+     */
+    private long etaMillis;
+}
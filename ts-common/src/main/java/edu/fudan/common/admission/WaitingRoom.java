@@ -0,0 +1,426 @@
+package edu.fudan.common.admission;
+
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.core.task.TaskDecorator;
+
+import edu.fudan.common.deadline.Deadline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission control in front of the booking chain. At most {@code tokens} bookings of the same
+ * train and day run at a time; the others wait in a first-in first-out queue of up to
+ * {@code maxWaiting} requests without holding a thread, and are turned away beyond that. So a
+ * train that opens for sale keeps the seat and order services at the rate they can sustain,
+ * and each booking still sees a short chain.
+ * <p>
+ * Once a booking answers that the seats of a class are sold out between its two stations,
+ * requests for that class and interval are turned away at once for {@code soldOutMillis}, the
+ * waiting ones included, instead of running the chain to learn it again. Other intervals of the
+ * train may still have seats, so they are not affected. After that the next booking checks again, as cancellations free
+ * seats.
+ * <p>
+ * A request sent with a ticket, the client's idempotency key, can be looked up with
+ * {@link #position} while it waits. Waiting requests are admitted with the deadline and span
+ * they arrived with. A request whose future is cancelled while it waits, e.g. by
+ * {@link edu.fudan.common.async.AsyncEndpoints#cancelWhenAbandoned} when its client went away,
+ * leaves the queue.
+ *
+ * @author fdse
+ */
+public class WaitingRoom implements MeterBinder
+{
+    public static final String SOLD_OUT = "Seat Not Enough";
+
+    public static final String FULL = "Too many bookings for this train, please try again later";
+
+    /**
+     * Starts of admitted requests still to run on this thread, while an outer start runs
+     */
+    private static final ThreadLocal<ArrayDeque<Runnable>> ADMITTING = new ThreadLocal<>();
+
+    private final int tokens;
+
+    private final int maxWaiting;
+
+    private final long soldOutNanos;
+
+    private final TaskDecorator taskDecorator;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * Until when, in nanos, by inventory
+     */
+    private final Map<String, Long> soldOut = new ConcurrentHashMap<>();
+
+    private final Map<String, Room> tickets = new ConcurrentHashMap<>();
+
+    private final LongAdder soldOutRejections = new LongAdder();
+
+    private final LongAdder fullRejections = new LongAdder();
+
+    /**
+     * @param tokens 0 or less to let every request through
+     * @param taskDecorator null when there is none
+     */
+    public WaitingRoom(int tokens, int maxWaiting, long soldOutMillis, TaskDecorator taskDecorator)
+    {
+        this(tokens, maxWaiting, soldOutMillis, taskDecorator, System::nanoTime);
+    }
+
+    WaitingRoom(int tokens, int maxWaiting, long soldOutMillis, TaskDecorator taskDecorator, LongSupplier clock)
+    {
+        this.tokens = tokens;
+        this.maxWaiting = maxWaiting;
+        this.soldOutNanos = TimeUnit.MILLISECONDS.toNanos(soldOutMillis);
+        this.taskDecorator = taskDecorator;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the key of the train on that day
+     */
+    public static String key(String trainNumber, Date travelDate)
+    {
+        return trainNumber + "|" + travelDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * @param key the train on that day, see {@link #key}
+     * @return the inventory of a booking: the seat class between the two stations, which is what
+     * the seat count of a "Seat Not Enough" answer is for
+     */
+    public static String inventory(String key, int seatType, String from, String to)
+    {
+        return key + "|" + seatType + "|" + from + "|" + to;
+    }
+
+    /**
+     * Runs the booking once it is admitted
+     *
+     * @param inventory the seats the booking takes one of, see {@link #inventory}
+     * @param ticket the client's handle for {@link #position}, may be null
+     * @param admitted starts the booking
+     * @param turnedAway the answer when the booking is not admitted, given {@link #SOLD_OUT} or
+     * {@link #FULL}
+     */
+    public <T> CompletableFuture<T> enter(String key, String inventory, String ticket,
+        Supplier<CompletableFuture<T>> admitted, Function<String, T> turnedAway)
+    {
+        if (tokens <= 0) {
+            return admitted.get();
+        }
+        if (isSoldOut(inventory)) {
+            soldOutRejections.increment();
+            return CompletableFuture.completedFuture(turnedAway.apply(WaitingRoom.SOLD_OUT));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            long begin = clock.getAsLong();
+            CompletableFuture<T> work;
+            try {
+                work = admitted.get();
+            } catch (RuntimeException e) {
+                work = new CompletableFuture<>();
+                work.completeExceptionally(e);
+            }
+            work.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+                leave(key, clock.getAsLong() - begin);
+            });
+        };
+        Waiter waiter = new Waiter(inventory, ticket, result, later(start),
+            reason -> result.complete(turnedAway.apply(reason)));
+        while (true) {
+            Room room = rooms.computeIfAbsent(key, k -> new Room());
+            synchronized (room) {
+                if (room.retired) {
+                    continue;
+                }
+                if (room.active < tokens && room.queue.isEmpty()) {
+                    room.active++;
+                } else if (room.queue.size() < maxWaiting) {
+                    room.queue.addLast(waiter);
+                    if (ticket != null) {
+                        tickets.put(ticket, room);
+                    }
+                    result.whenComplete((value, error) -> {
+                        if (error instanceof CancellationException) {
+                            abandon(key, waiter);
+                        }
+                    });
+                    return result;
+                } else {
+                    fullRejections.increment();
+                    return CompletableFuture.completedFuture(turnedAway.apply(WaitingRoom.FULL));
+                }
+            }
+            start.run();
+            return result;
+        }
+    }
+
+    /**
+     * Turns requests for the inventory away for a while, the waiting ones at once
+     */
+    public void soldOut(String key, String inventory)
+    {
+        soldOut.put(inventory, clock.getAsLong() + soldOutNanos);
+        Room room = rooms.get(key);
+        if (room == null) {
+            return;
+        }
+        List<Waiter> turned = new ArrayList<>();
+        synchronized (room) {
+            Iterator<Waiter> it = room.queue.iterator();
+            while (it.hasNext()) {
+                Waiter waiter = it.next();
+                if (waiter.inventory.equals(inventory)) {
+                    it.remove();
+                    turned.add(waiter);
+                }
+            }
+        }
+        turnAway(turned);
+    }
+
+    public boolean isSoldOut(String inventory)
+    {
+        Long until = soldOut.get(inventory);
+        if (until == null) {
+            return false;
+        }
+        if (clock.getAsLong() - until < 0) {
+            return true;
+        }
+        soldOut.remove(inventory, until);
+        return false;
+    }
+
+    /**
+     * @return null when no request with the ticket is waiting
+     */
+    public WaitingPosition position(String ticket)
+    {
+        Room room = tickets.get(ticket);
+        if (room == null) {
+            return null;
+        }
+        synchronized (room) {
+            int position = 0;
+            for (Waiter waiter : room.queue) {
+                position++;
+                if (ticket.equals(waiter.ticket)) {
+                    long rounds = (position + tokens - 1) / tokens;
+                    return new WaitingPosition(position, TimeUnit.NANOSECONDS.toMillis(rounds * room.averageNanos));
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("admission.waiting", this, WaitingRoom::countWaiting)
+            .description("Bookings waiting to be admitted")
+            .register(registry);
+        FunctionCounter.builder("admission.rejected", soldOutRejections, LongAdder::doubleValue)
+            .tag("reason", "sold_out")
+            .description("Bookings turned away before the booking chain")
+            .register(registry);
+        FunctionCounter.builder("admission.rejected", fullRejections, LongAdder::doubleValue)
+            .tag("reason", "full")
+            .description("Bookings turned away before the booking chain")
+            .register(registry);
+    }
+
+    /**
+     * Passes the token on to the next request that is not sold out, or gives it back
+     */
+    private void leave(String key, long elapsedNanos)
+    {
+        Room room = rooms.get(key);
+        Waiter next;
+        List<Waiter> turned = new ArrayList<>();
+        synchronized (room) {
+            room.averageNanos = room.averageNanos == 0 ? elapsedNanos : (room.averageNanos * 4 + elapsedNanos) / 5;
+            next = room.queue.pollFirst();
+            while (next != null && (next.result.isDone() || isSoldOut(next.inventory))) {
+                if (!next.result.isDone()) {
+                    turned.add(next);
+                } else if (next.ticket != null) {
+                    tickets.remove(next.ticket, room);
+                }
+                next = room.queue.pollFirst();
+            }
+            if (next == null) {
+                room.active--;
+                if (room.active == 0) {
+                    room.retired = true;
+                    rooms.remove(key, room);
+                }
+            } else if (next.ticket != null) {
+                tickets.remove(next.ticket, room);
+            }
+        }
+        turnAway(turned);
+        if (next != null) {
+            WaitingRoom.admit(next.start);
+        }
+    }
+
+    /**
+     * Runs the start of a request that was handed a token. A booking that completes at once,
+     * like a fallback, hands its token on from within its own start; that next start is queued
+     * here and run by the outermost one in a loop, so a long queue does not deepen the stack.
+     */
+    private static void admit(Runnable start)
+    {
+        ArrayDeque<Runnable> pending = WaitingRoom.ADMITTING.get();
+        if (pending != null) {
+            pending.addLast(start);
+            return;
+        }
+        pending = new ArrayDeque<>();
+        WaitingRoom.ADMITTING.set(pending);
+        RuntimeException failure = null;
+        try {
+            for (Runnable next = start; next != null; next = pending.pollFirst()) {
+                try {
+                    next.run();
+                } catch (RuntimeException e) {
+                    //The others were handed their tokens as well, they still have to start
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            WaitingRoom.ADMITTING.remove();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Drops a request that stopped waiting
+     */
+    private void abandon(String key, Waiter waiter)
+    {
+        Room room = rooms.get(key);
+        if (room == null) {
+            return;
+        }
+        synchronized (room) {
+            if (room.queue.remove(waiter) && waiter.ticket != null) {
+                tickets.remove(waiter.ticket, room);
+            }
+        }
+    }
+
+    private void turnAway(List<Waiter> turned)
+    {
+        for (Waiter waiter : turned) {
+            if (waiter.ticket != null) {
+                tickets.remove(waiter.ticket);
+            }
+            soldOutRejections.increment();
+            waiter.reject.accept(WaitingRoom.SOLD_OUT);
+        }
+    }
+
+    /**
+     * The start of a request admitted by another one, under the request's own deadline and span
+     */
+    private Runnable later(Runnable start)
+    {
+        Callable<Void> withDeadline = Deadline.wrap(() -> {
+            start.run();
+            return null;
+        });
+        Runnable runnable = () -> {
+            try {
+                withDeadline.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        return taskDecorator == null ? runnable : taskDecorator.decorate(runnable);
+    }
+
+    private double countWaiting()
+    {
+        int waiting = 0;
+        for (Room room : rooms.values()) {
+            synchronized (room) {
+                waiting += room.queue.size();
+            }
+        }
+        return waiting;
+    }
+
+    private static class Room
+    {
+        private int active;
+
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+        private long averageNanos;
+
+        private boolean retired;
+    }
+
+    private static class Waiter
+    {
+        private final String inventory;
+
+        private final String ticket;
+
+        private final CompletableFuture<?> result;
+
+        private final Runnable start;
+
+        private final Consumer<String> reject;
+
+        Waiter(String inventory, String ticket, CompletableFuture<?> result, Runnable start, Consumer<String> reject)
+        {
+            this.inventory = inventory;
+            this.ticket = ticket;
+            this.result = result;
+            this.start = start;
+            this.reject = reject;
+        }
+    }
+}
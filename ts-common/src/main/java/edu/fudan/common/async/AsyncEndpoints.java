@@ -0,0 +1,211 @@
+package edu.fudan.common.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import edu.fudan.common.deadline.Deadline;
+import edu.fudan.common.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs the work of fan-out endpoints off the servlet threads. An endpoint returns the
+ * {@link CompletableFuture} of {@link #supply}, Spring MVC releases the servlet thread and
+ * writes the response when the future completes. The work runs on a bounded executor, so the
+ * servlet threads stay free for other endpoints.
+ * <p>
+ * This moves the blocking, it does not remove it: the work calls downstream services through
+ * the blocking {@code RestTemplate} and its interceptors, so requests in progress are bounded
+ * by the executor's threads, not by memory. The queue holds the ones that have not started.
+ * <p>
+ * Like the Hystrix commands these endpoints had, a failure, a rejection by the full executor
+ * and a timeout all complete the future with the endpoint's fallback, except for
+ * {@link DeadlineExceededException}, which is left to end the request with 504. The request's
+ * deadline goes with the work; the active span goes with it through the executor's decorator.
+ * <p>
+ * {@link #fork} runs a downstream call of such work in parallel with the others on a second
+ * executor. When that one is busy the call runs on the calling thread, so a fan-out never
+ * waits for a thread held by another request.
+ *
+ * @author fdse
+ */
+public class AsyncEndpoints implements MeterBinder, DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncEndpoints.class);
+
+    private final ThreadPoolTaskExecutor endpointExecutor;
+
+    private final ThreadPoolTaskExecutor fanOutExecutor;
+
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "async-endpoint-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AsyncEndpoints(ThreadPoolTaskExecutor endpointExecutor, ThreadPoolTaskExecutor fanOutExecutor)
+    {
+        this.endpointExecutor = endpointExecutor;
+        this.fanOutExecutor = fanOutExecutor;
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @param timeoutMillis after which the fallback is answered. The work runs under a deadline
+     * that ends then, or earlier with the request's own, so it sends no downstream call after
+     * the fallback was answered and the call in progress is cut by its read timeout; the thread
+     * is interrupted as well, as Hystrix did. Only a call the downstream service already
+     * received can still take effect there.
+     */
+    public <T> CompletableFuture<T> supply(long timeoutMillis, Supplier<T> task, Supplier<T> fallback)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long requestRemaining = Deadline.remainingMillis();
+        long budget = Math.min(requestRemaining, timeoutMillis);
+        long submitted = System.nanoTime();
+        Future<?> work;
+        try {
+            work = endpointExecutor.submit(() -> {
+                long queued = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+                Long previous = Deadline.start(budget - queued);
+                try {
+                    result.complete(task.get());
+                } catch (DeadlineExceededException e) {
+                    //Only the request's own deadline ends it with 504, the endpoint's is a timeout
+                    if (requestRemaining <= timeoutMillis) {
+                        result.completeExceptionally(e);
+                    } else {
+                        AsyncEndpoints.complete(result, fallback);
+                    }
+                } catch (RuntimeException e) {
+                    AsyncEndpoints.LOGGER.warn("[Async] Endpoint failed, answering the fallback", e);
+                    AsyncEndpoints.complete(result, fallback);
+                } finally {
+                    Deadline.restore(previous);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            AsyncEndpoints.LOGGER.warn("[Async] Endpoint executor is full, answering the fallback");
+            result.complete(fallback.get());
+            return result;
+        }
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (AsyncEndpoints.complete(result, fallback)) {
+                AsyncEndpoints.LOGGER.warn("[Async] Endpoint timed out after {} ms", timeoutMillis);
+                work.cancel(true);
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> timeout.cancel(false));
+        return result;
+    }
+
+    /**
+     * Starts a part of an endpoint's work, to be joined by the endpoint
+     */
+    public <T> CompletableFuture<T> fork(Supplier<T> call)
+    {
+        Callable<T> withDeadline = Deadline.wrap(call::get);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return withDeadline.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, fanOutExecutor);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        new ExecutorServiceMetrics(endpointExecutor.getThreadPoolExecutor(), "asyncEndpointExecutor", Tags.empty())
+            .bindTo(registry);
+        new ExecutorServiceMetrics(fanOutExecutor.getThreadPoolExecutor(), "asyncFanOutExecutor", Tags.empty())
+            .bindTo(registry);
+    }
+
+    @Override
+    public void destroy()
+    {
+        timer.shutdownNow();
+        endpointExecutor.shutdown();
+        fanOutExecutor.shutdown();
+    }
+
+    /**
+     * @return whether the fallback completed the result, false when it was completed already
+     */
+    private static <T> boolean complete(CompletableFuture<T> result, Supplier<T> fallback)
+    {
+        return !result.isDone() && result.complete(fallback.get());
+    }
+
+    /**
+     * Cancels the future an endpoint returns when its asynchronous request times out or fails,
+     * as when the client went away, so work still waiting for it, like a booking in the waiting
+     * room, is dropped instead of run for nobody. Call it on the servlet thread.
+     */
+    public static <T> CompletableFuture<T> cancelWhenAbandoned(CompletableFuture<T> future)
+    {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (future.isDone() || !(attributes instanceof ServletRequestAttributes)) {
+            return future;
+        }
+        WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) attributes).getRequest())
+            .registerDeferredResultInterceptor(AsyncEndpoints.class.getName(), new DeferredResultProcessingInterceptor()
+            {
+                @Override
+                public <S> boolean handleTimeout(NativeWebRequest request, DeferredResult<S> deferredResult)
+                {
+                    future.cancel(false);
+                    return true;
+                }
+
+                @Override
+                public <S> boolean handleError(NativeWebRequest request, DeferredResult<S> deferredResult,
+                    Throwable t)
+                {
+                    future.cancel(false);
+                    return true;
+                }
+            });
+        return future;
+    }
+
+    /**
+     * The result of a forked call, with its exception as it was thrown
+     */
+    public static <T> T join(CompletableFuture<T> forked)
+    {
+        try {
+            return forked.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package edu.fudan.common.client;
+
+import java.io.IOException;
+
+/**
+ * A call that was not sent because the service's bulkhead was full or its circuit open. The
+ * RestTemplate throws it as a {@link org.springframework.web.client.ResourceAccessException},
+ * like a service that cannot be reached.
+ *
+ * @author fdse
+ */
+public class CallRejectedException extends IOException
+{
+    public CallRejectedException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,156 @@
+package edu.fudan.common.client;
+
+/**
+ * Circuit of the calls to one service. Closed, it records whether each of the last
+ * {@code windowSize} calls failed and opens once at least {@code minimumCalls} are recorded and
+ * {@code failureRate} of them failed. Open, it refuses calls for {@code openNanos}, then lets
+ * {@code probes} calls through half-open: the circuit closes when they all succeed and opens
+ * again on the first failure.
+ *
+ * @author fdse
+ */
+class CircuitBreaker
+{
+    /**
+     * In the order of the state gauge's values
+     */
+    enum State
+    {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int minimumCalls;
+
+    private final double failureRate;
+
+    private final long openNanos;
+
+    private final int probes;
+
+    /**
+     * Ring of the recorded calls, true for a failure
+     */
+    private final boolean[] window;
+
+    private int next;
+
+    private int recorded;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int probesStarted;
+
+    private int probesSucceeded;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRate, long openNanos, int probes)
+    {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRate = failureRate;
+        this.openNanos = openNanos;
+        this.probes = probes;
+    }
+
+    synchronized State getState()
+    {
+        return state;
+    }
+
+    /**
+     * @return whether a call may be sent now, it has to be followed by one of
+     * {@link #succeeded}, {@link #failed} or {@link #released}
+     */
+    synchronized boolean tryAcquire(long now)
+    {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= probes) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    synchronized void succeeded()
+    {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= probes) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * @return whether this failure opened the circuit
+     */
+    synchronized boolean failed(long now)
+    {
+        if (state == State.HALF_OPEN) {
+            open(now);
+            return true;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRate * recorded) {
+                open(now);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A call that ended without telling anything about the service, e.g. the caller's deadline
+     * expired before it was sent
+     */
+    synchronized void released()
+    {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    private void record(boolean failure)
+    {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open(long now)
+    {
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    private void close()
+    {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,257 @@
+package edu.fudan.common.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import edu.fudan.common.deadline.Deadline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Spreads the calls to a logical service, the host of its {@code http://ts-xxx-service:port/}
+ * URLs, over the replicas listed for it; calls to any other host are left alone. See
+ * {@link ReplicaPool} for the choice. A replica is ejected for {@code ejectMillis} after
+ * {@code failureThreshold} failures in a row (connection errors, 502, 503 and 504) and, like a
+ * newly listed one, comes back with a slow start of {@code slowStartMillis}. Calls cut short by
+ * the caller's deadline, a DeadlineExceededException from the deadline interceptor behind this
+ * one or a 504 once the deadline passed, are not counted against the replica.
+ * <p>
+ * Replica lists are {@code host[:port],host[:port]} per service, the port defaulting to the one
+ * in the URL. They are given to {@link #update} or read from a properties file that is checked
+ * for changes every few seconds, see {@link #watch}. Replicas keep their state across updates.
+ * <p>
+ * Ejections are counted in {@code http.client.replica.ejections}, tagged with the service.
+ *
+ * @author fdse
+ */
+public class LoadBalancerInterceptor implements ClientHttpRequestInterceptor, MeterBinder
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadBalancerInterceptor.class);
+
+    private final int failureThreshold;
+
+    private final long ejectNanos;
+
+    private final long slowStartNanos;
+
+    private final LongSupplier clock;
+
+    private final Map<String, LongAdder> ejections = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    private volatile Map<String, ReplicaPool> pools = Collections.emptyMap();
+
+    private Map<String, String> staticLists = Collections.emptyMap();
+
+    private Path file;
+
+    private long checkNanos;
+
+    private final AtomicLong nextCheck = new AtomicLong();
+
+    private volatile long lastModified = -1;
+
+    public LoadBalancerInterceptor(int failureThreshold, long ejectMillis, long slowStartMillis)
+    {
+        this(failureThreshold, ejectMillis, slowStartMillis, System::nanoTime);
+    }
+
+    LoadBalancerInterceptor(int failureThreshold, long ejectMillis, long slowStartMillis, LongSupplier clock)
+    {
+        this.failureThreshold = failureThreshold;
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectMillis);
+        this.slowStartNanos = TimeUnit.MILLISECONDS.toNanos(slowStartMillis);
+        this.clock = clock;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException
+    {
+        if (file != null) {
+            checkFile();
+        }
+        URI uri = request.getURI();
+        ReplicaPool pool = pools.get(uri.getHost());
+        if (pool == null) {
+            return execution.execute(request, body);
+        }
+        Replica replica = pool.choose(slowStartNanos, clock.getAsLong());
+        URI target = UriComponentsBuilder.fromUri(uri).host(replica.getHost())
+            .port(replica.getPort() > 0 ? replica.getPort() : uri.getPort()).build(true).toUri();
+        replica.start();
+        try {
+            ClientHttpResponse response = execution.execute(new HttpRequestWrapper(request)
+            {
+                @Override
+                public URI getURI()
+                {
+                    return target;
+                }
+            }, body);
+            int status = response.getRawStatusCode();
+            if (status == 504 && Deadline.isExpired()) {
+                //The replica answered that our own deadline ran out, which is not its failure
+                return response;
+            } else if (status == 502 || status == 503 || status == 504) {
+                failed(pool, replica);
+            } else {
+                replica.succeeded();
+            }
+            return response;
+        } catch (IOException e) {
+            failed(pool, replica);
+            throw e;
+        } finally {
+            replica.finish();
+        }
+    }
+
+    /**
+     * @param replicaLists {@code host[:port],host[:port]} by service name
+     */
+    public synchronized void update(Map<String, String> replicaLists)
+    {
+        long now = clock.getAsLong();
+        Map<String, ReplicaPool> updated = new HashMap<>();
+        for (Map.Entry<String, String> entry : replicaLists.entrySet()) {
+            String service = entry.getKey();
+            Map<String, Replica> known = new HashMap<>();
+            ReplicaPool current = pools.get(service);
+            if (current != null) {
+                for (Replica replica : current.getReplicas()) {
+                    known.put(replica.getAddress(), replica);
+                }
+            }
+            List<Replica> replicas = new ArrayList<>();
+            for (String address : StringUtils.commaDelimitedListToStringArray(entry.getValue())) {
+                address = address.trim();
+                if (address.isEmpty()) {
+                    continue;
+                }
+                int colon = address.lastIndexOf(':');
+                String host = colon < 0 ? address : address.substring(0, colon);
+                int port = colon < 0 ? -1 : Integer.parseInt(address.substring(colon + 1));
+                Replica replica = known.get(host + ":" + port);
+                replicas.add(replica != null ? replica : new Replica(host, port, now));
+            }
+            if (!replicas.isEmpty()) {
+                updated.put(service, new ReplicaPool(service, Collections.unmodifiableList(replicas)));
+                if (!ejections.containsKey(service)) {
+                    ejections.put(service, new LongAdder());
+                    register(service);
+                }
+            }
+        }
+        pools = updated;
+        LoadBalancerInterceptor.LOGGER.info("[Balancer] Replicas: {}", replicaLists);
+    }
+
+    /**
+     * Uses {@code replicaLists} plus the lists in a properties file, service name to replica
+     * list, which win for the services in both. The file is reloaded when it changed, checked at
+     * most every {@code checkMillis}.
+     */
+    public void watch(Path file, Map<String, String> replicaLists, long checkMillis)
+    {
+        this.file = file;
+        this.checkNanos = TimeUnit.MILLISECONDS.toNanos(checkMillis);
+        this.staticLists = new HashMap<>(replicaLists);
+        nextCheck.set(clock.getAsLong() + checkNanos);
+        update(staticLists);
+        reload();
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry)
+    {
+        this.registry = registry;
+        for (String service : ejections.keySet()) {
+            register(service);
+        }
+    }
+
+    Map<String, ReplicaPool> getPools()
+    {
+        return pools;
+    }
+
+    private void register(String service)
+    {
+        if (registry != null) {
+            FunctionCounter.builder("http.client.replica.ejections", ejections.get(service), LongAdder::doubleValue)
+                .tag("service", service)
+                .description("Replicas ejected after failing repeatedly")
+                .register(registry);
+        }
+    }
+
+    private void failed(ReplicaPool pool, Replica replica)
+    {
+        if (replica.failed(failureThreshold, ejectNanos, clock.getAsLong())) {
+            ejections.get(pool.getService()).increment();
+            LoadBalancerInterceptor.LOGGER.warn("[Balancer] {} replica {} ejected", pool.getService(),
+                replica.getAddress());
+        }
+    }
+
+    private void checkFile()
+    {
+        long now = clock.getAsLong();
+        long next = nextCheck.get();
+        if (now - next >= 0 && nextCheck.compareAndSet(next, now + checkNanos)) {
+            reload();
+        }
+    }
+
+    private void reload()
+    {
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == lastModified) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+            Map<String, String> replicaLists = new HashMap<>(staticLists);
+            for (String service : properties.stringPropertyNames()) {
+                replicaLists.put(service, properties.getProperty(service));
+            }
+            update(replicaLists);
+            lastModified = modified;
+        } catch (IOException | RuntimeException e) {
+            LoadBalancerInterceptor.LOGGER.warn("[Balancer] Could not read replicas from {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package edu.fudan.common.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One instance of a service, with what the balancer knows about it: the calls it has in flight,
+ * how many calls in a row failed, and whether it is ejected or still warming up.
+ *
+ * @author fdse
+ */
+class Replica
+{
+    private final String host;
+
+    private final int port;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * Nanos, 0 when not ejected
+     */
+    private volatile long ejectedUntil;
+
+    /**
+     * Nanos, when the replica was added or came back from ejection
+     */
+    private volatile long upSince;
+
+    Replica(String host, int port, long now)
+    {
+        this.host = host;
+        this.port = port;
+        this.upSince = now;
+    }
+
+    String getHost()
+    {
+        return host;
+    }
+
+    int getPort()
+    {
+        return port;
+    }
+
+    String getAddress()
+    {
+        return host + ":" + port;
+    }
+
+    int getOutstanding()
+    {
+        return outstanding.get();
+    }
+
+    void start()
+    {
+        outstanding.incrementAndGet();
+    }
+
+    void finish()
+    {
+        outstanding.decrementAndGet();
+    }
+
+    boolean isEjected(long now)
+    {
+        long until = ejectedUntil;
+        if (until == 0) {
+            return false;
+        }
+        if (now - until < 0) {
+            return true;
+        }
+        ejectedUntil = 0;
+        upSince = until;
+        return false;
+    }
+
+    /**
+     * @return whether this failure ejected the replica
+     */
+    boolean failed(int threshold, long ejectNanos, long now)
+    {
+        if (consecutiveFailures.incrementAndGet() < threshold || ejectedUntil != 0) {
+            return false;
+        }
+        consecutiveFailures.set(0);
+        ejectedUntil = now + ejectNanos;
+        return true;
+    }
+
+    void succeeded()
+    {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * Share of a full replica's traffic it should get, ramping from a tenth to all of it over the
+     * slow-start window so a fresh instance is not flooded while its caches and JIT are cold
+     */
+    double weight(long slowStartNanos, long now)
+    {
+        if (slowStartNanos <= 0) {
+            return 1.0;
+        }
+        double up = (double) (now - upSince) / slowStartNanos;
+        return Math.max(0.1, Math.min(1.0, up));
+    }
+}
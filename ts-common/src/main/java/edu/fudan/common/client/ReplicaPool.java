@@ -0,0 +1,67 @@
+package edu.fudan.common.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The replicas of one logical service. Picks by power of two choices: two replicas are drawn at
+ * random and the one with fewer outstanding calls per unit of weight wins, which keeps load even
+ * without a shared view of every replica's queue. Ejected replicas are skipped unless all are
+ * ejected, in which case a failing replica is still better than none.
+ *
+ * @author fdse
+ */
+class ReplicaPool
+{
+    private final String service;
+
+    private final List<Replica> replicas;
+
+    ReplicaPool(String service, List<Replica> replicas)
+    {
+        this.service = service;
+        this.replicas = replicas;
+    }
+
+    String getService()
+    {
+        return service;
+    }
+
+    List<Replica> getReplicas()
+    {
+        return replicas;
+    }
+
+    Replica choose(long slowStartNanos, long now)
+    {
+        List<Replica> available = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (!replica.isEjected(now)) {
+                available.add(replica);
+            }
+        }
+        if (available.isEmpty()) {
+            available = replicas;
+        }
+        int size = available.size();
+        if (size == 1) {
+            return available.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Replica a = available.get(first);
+        Replica b = available.get(second);
+        return cost(a, slowStartNanos, now) <= cost(b, slowStartNanos, now) ? a : b;
+    }
+
+    private static double cost(Replica replica, long slowStartNanos, long now)
+    {
+        return (replica.getOutstanding() + 1) / replica.weight(slowStartNanos, now);
+    }
+}
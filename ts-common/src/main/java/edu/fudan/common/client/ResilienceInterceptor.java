@@ -0,0 +1,223 @@
+package edu.fudan.common.client;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Keeps a slow or failing service from taking its callers down with it. Every service, the host
+ * of the URL, gets a bulkhead of {@code maxConcurrent} calls in flight, or its own limit from
+ * {@link #setLimits}, and a {@link CircuitBreaker}. A call beyond the bulkhead, waiting at most
+ * {@code maxWaitMillis} for a slot, and a call while the circuit is open are not sent but fail
+ * at once with {@link CallRejectedException}. Connection errors, 5xx answers and calls taking
+ * {@code slowCallMillis} or longer count as failures of the service.
+ * <p>
+ * Published per service: {@code http.client.circuit.state} (0 closed, 1 half-open, 2 open),
+ * {@code http.client.bulkhead.active} and {@code http.client.calls.rejected}, tagged with the
+ * reason {@code bulkhead} or {@code circuit}.
+ *
+ * @author fdse
+ */
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor, MeterBinder
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResilienceInterceptor.class);
+
+    private final int maxConcurrent;
+
+    private final long maxWaitNanos;
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final double failureRate;
+
+    private final long openNanos;
+
+    private final int probes;
+
+    private final long slowCallNanos;
+
+    private final LongSupplier clock;
+
+    private volatile Map<String, Integer> limits = Collections.emptyMap();
+
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    public ResilienceInterceptor(int maxConcurrent, long maxWaitMillis, int windowSize, int minimumCalls,
+        double failureRate, long openMillis, int probes, long slowCallMillis)
+    {
+        this(maxConcurrent, maxWaitMillis, windowSize, minimumCalls, failureRate, openMillis, probes, slowCallMillis,
+            System::nanoTime);
+    }
+
+    ResilienceInterceptor(int maxConcurrent, long maxWaitMillis, int windowSize, int minimumCalls,
+        double failureRate, long openMillis, int probes, long slowCallMillis, LongSupplier clock)
+    {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRate = failureRate;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.probes = probes;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @param limits calls in flight by service name, for the services that differ from
+     * {@code maxConcurrent}; applies to the services called from now on
+     */
+    public void setLimits(Map<String, Integer> limits)
+    {
+        this.limits = new HashMap<>(limits);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException
+    {
+        String service = request.getURI().getHost();
+        if (service == null) {
+            return execution.execute(request, body);
+        }
+        Guard guard = guards.computeIfAbsent(service, this::createGuard);
+        if (!acquire(guard.bulkhead)) {
+            guard.bulkheadRejections.increment();
+            throw new CallRejectedException(service + " already has " + guard.limit + " calls in flight");
+        }
+        try {
+            long start = clock.getAsLong();
+            if (!guard.circuit.tryAcquire(start)) {
+                guard.circuitRejections.increment();
+                throw new CallRejectedException("The circuit of " + service + " is open");
+            }
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException e) {
+                failed(service, guard);
+                throw e;
+            } catch (RuntimeException | Error e) {
+                guard.circuit.released();
+                throw e;
+            }
+            boolean slow = slowCallNanos > 0 && clock.getAsLong() - start >= slowCallNanos;
+            if (response.getRawStatusCode() >= 500 || slow) {
+                failed(service, guard);
+            } else {
+                guard.circuit.succeeded();
+            }
+            return response;
+        } finally {
+            guard.bulkhead.release();
+        }
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry)
+    {
+        this.registry = registry;
+        for (Map.Entry<String, Guard> entry : guards.entrySet()) {
+            register(entry.getKey(), entry.getValue());
+        }
+    }
+
+    CircuitBreaker.State getState(String service)
+    {
+        Guard guard = guards.get(service);
+        return guard == null ? CircuitBreaker.State.CLOSED : guard.circuit.getState();
+    }
+
+    private synchronized Guard createGuard(String service)
+    {
+        Guard guard = new Guard(limits.getOrDefault(service, maxConcurrent),
+            new CircuitBreaker(windowSize, minimumCalls, failureRate, openNanos, probes));
+        register(service, guard);
+        return guard;
+    }
+
+    private void register(String service, Guard guard)
+    {
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("http.client.circuit.state", guard, g -> g.circuit.getState().ordinal())
+            .tag("service", service)
+            .description("State of the service's circuit, 0 closed, 1 half-open, 2 open")
+            .register(registry);
+        Gauge.builder("http.client.bulkhead.active", guard, g -> g.limit - g.bulkhead.availablePermits())
+            .tag("service", service)
+            .description("Calls in flight to the service")
+            .register(registry);
+        FunctionCounter.builder("http.client.calls.rejected", guard.bulkheadRejections, LongAdder::doubleValue)
+            .tags("service", service, "reason", "bulkhead")
+            .description("Calls not sent to protect the caller")
+            .register(registry);
+        FunctionCounter.builder("http.client.calls.rejected", guard.circuitRejections, LongAdder::doubleValue)
+            .tags("service", service, "reason", "circuit")
+            .description("Calls not sent to protect the caller")
+            .register(registry);
+    }
+
+    private boolean acquire(Semaphore bulkhead)
+    {
+        if (maxWaitNanos <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void failed(String service, Guard guard)
+    {
+        if (guard.circuit.failed(clock.getAsLong())) {
+            ResilienceInterceptor.LOGGER.warn("[Resilience] Circuit of {} opened", service);
+        }
+    }
+
+    private static class Guard
+    {
+        private final int limit;
+
+        private final Semaphore bulkhead;
+
+        private final CircuitBreaker circuit;
+
+        private final LongAdder bulkheadRejections = new LongAdder();
+
+        private final LongAdder circuitRejections = new LongAdder();
+
+        Guard(int limit, CircuitBreaker circuit)
+        {
+            this.limit = limit;
+            this.bulkhead = new Semaphore(limit);
+            this.circuit = circuit;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package edu.fudan.common.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StreamUtils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Lets identical GETs that are in flight at the same time share one downstream call. The
+ * first caller sends the request and buffers the response; callers arriving before it is
+ * back wait for it and each get their own copy of status, headers and body. Nothing is
+ * kept once the call is done, so this only saves the bursts, it is not a cache.
+ * <p>
+ * Only paths matching one of the configured Ant patterns are coalesced. Requests are the
+ * same when URI, {@code Authorization} and {@code Accept} are, so an answer is never handed
+ * to a caller with another token or expecting another encoding.
+ * <p>
+ * Counted in {@code http.client.singleflight}, {@code result=sent} for the calls that went
+ * downstream and {@code result=coalesced} for the ones that waited for them.
+ *
+ * @author fdse
+ */
+public class SingleFlightInterceptor implements ClientHttpRequestInterceptor, MeterBinder
+{
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<String> paths;
+
+    private final ConcurrentMap<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder sent = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlightInterceptor(List<String> paths)
+    {
+        this.paths = paths;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException
+    {
+        if (request.getMethod() != HttpMethod.GET || !matches(request.getURI().getPath())) {
+            return execution.execute(request, body);
+        }
+        String key = request.getURI() + "\n" + request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION) + "\n"
+            + request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        CompletableFuture<BufferedResponse> call = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return await(running).copy();
+        }
+        sent.increment();
+        try {
+            BufferedResponse response = BufferedResponse.read(execution.execute(request, body));
+            call.complete(response);
+            return response.copy();
+        } catch (IOException | RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        FunctionCounter.builder("http.client.singleflight", sent, LongAdder::doubleValue)
+            .tag("result", "sent")
+            .description("Coalescable GETs sent downstream")
+            .register(registry);
+        FunctionCounter.builder("http.client.singleflight", coalesced, LongAdder::doubleValue)
+            .tag("result", "coalesced")
+            .description("GETs answered by an identical call already in flight")
+            .register(registry);
+    }
+
+    public long getSent()
+    {
+        return sent.sum();
+    }
+
+    public long getCoalesced()
+    {
+        return coalesced.sum();
+    }
+
+    private boolean matches(String path)
+    {
+        for (String pattern : paths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BufferedResponse await(CompletableFuture<BufferedResponse> running) throws IOException
+    {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an identical request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * A response read to the end, handed out as fresh copies
+     */
+    private static class BufferedResponse
+    {
+        private final int rawStatusCode;
+
+        private final String statusText;
+
+        private final HttpHeaders headers;
+
+        private final byte[] body;
+
+        private BufferedResponse(int rawStatusCode, String statusText, HttpHeaders headers, byte[] body)
+        {
+            this.rawStatusCode = rawStatusCode;
+            this.statusText = statusText;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        static BufferedResponse read(ClientHttpResponse response) throws IOException
+        {
+            try {
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(response.getHeaders());
+                return new BufferedResponse(response.getRawStatusCode(), response.getStatusText(),
+                    HttpHeaders.readOnlyHttpHeaders(headers), StreamUtils.copyToByteArray(response.getBody()));
+            } finally {
+                response.close();
+            }
+        }
+
+        ClientHttpResponse copy()
+        {
+            InputStream stream = new ByteArrayInputStream(body);
+            return new ClientHttpResponse()
+            {
+                @Override
+                public HttpStatus getStatusCode()
+                {
+                    return HttpStatus.valueOf(rawStatusCode);
+                }
+
+                @Override
+                public int getRawStatusCode()
+                {
+                    return rawStatusCode;
+                }
+
+                @Override
+                public String getStatusText()
+                {
+                    return statusText;
+                }
+
+                @Override
+                public HttpHeaders getHeaders()
+                {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody()
+                {
+                    return stream;
+                }
+
+                @Override
+                public void close()
+                {
+                    //Nothing to release, the connection was closed when the body was read
+                }
+            };
+        }
+    }
+}
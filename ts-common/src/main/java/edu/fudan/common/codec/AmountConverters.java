@@ -0,0 +1,53 @@
+package edu.fudan.common.codec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import edu.fudan.common.util.Amount;
+
+/**
+ * Mongo converters storing an {@link Amount} as its decimal string, so documents with an Amount
+ * property read and write the same field as the {@code String} prices and balances stored so far.
+ * Registered by {@link edu.fudan.common.config.AmountConfig}.
+ *
+ * @author fdse
+ */
+public final class AmountConverters
+{
+    private AmountConverters()
+    {
+    }
+
+    public static List<Converter<?, ?>> converters()
+    {
+        return Arrays.asList(AmountToStringConverter.INSTANCE, StringToAmountConverter.INSTANCE);
+    }
+
+    @WritingConverter
+    public enum AmountToStringConverter implements Converter<Amount, String>
+    {
+        INSTANCE;
+
+        @Override
+        public String convert(Amount source)
+        {
+            return source.toString();
+        }
+    }
+
+    @ReadingConverter
+    public enum StringToAmountConverter implements Converter<String, Amount>
+    {
+        INSTANCE;
+
+        @Override
+        public Amount convert(String source)
+        {
+            return Amount.parse(source);
+        }
+    }
+}
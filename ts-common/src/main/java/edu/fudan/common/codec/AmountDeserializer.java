@@ -0,0 +1,41 @@
+package edu.fudan.common.codec;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import edu.fudan.common.util.Amount;
+
+/**
+ * Reads an {@link Amount} from a decimal string, the format the services exchange, or from a
+ * number, which clients and the binary formats may send instead.
+ *
+ * @author fdse
+ */
+public class AmountDeserializer extends StdScalarDeserializer<Amount>
+{
+    public AmountDeserializer()
+    {
+        super(Amount.class);
+    }
+
+    @Override
+    public Amount deserialize(JsonParser parser, DeserializationContext context) throws IOException
+    {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT
+            && token != JsonToken.VALUE_NUMBER_FLOAT)
+        {
+            return (Amount) context.handleUnexpectedToken(Amount.class, parser);
+        }
+        String text = parser.getText();
+        try {
+            return Amount.parse(text);
+        } catch (NumberFormatException e) {
+            return (Amount) context.handleWeirdStringValue(Amount.class, text, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package edu.fudan.common.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import edu.fudan.common.admission.WaitingRoom;
+
+/**
+ * The waiting room of the booking endpoints, see {@link WaitingRoom}. {@code ts.admission.tokens}
+ * bookings of a train and day run at a time and {@code ts.admission.max-waiting} wait; with 0
+ * tokens every booking goes straight through.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissionConfig
+{
+    @Value("${ts.admission.tokens:4}")
+    private int tokens;
+
+    @Value("${ts.admission.max-waiting:1000}")
+    private int maxWaiting;
+
+    @Value("${ts.admission.sold-out-ms:10000}")
+    private long soldOutMillis;
+
+    @Bean
+    public WaitingRoom waitingRoom(ObjectProvider<TaskDecorator> taskDecorator)
+    {
+        return new WaitingRoom(tokens, maxWaiting, soldOutMillis, taskDecorator.getIfAvailable());
+    }
+}
@@ -0,0 +1,31 @@
+package edu.fudan.common.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import edu.fudan.common.codec.AmountConverters;
+
+/**
+ * Lets Mongo documents have {@link edu.fudan.common.util.Amount} properties, stored as decimal
+ * strings. Comes before Spring Boot's Mongo data configuration, which backs off when there is a
+ * {@code MongoCustomConversions} already; a service declaring its own has to add
+ * {@link AmountConverters#converters()} to it.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass(MongoCustomConversions.class)
+@AutoConfigureBefore(name = "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration")
+public class AmountConfig
+{
+    @Bean
+    @ConditionalOnMissingBean
+    public MongoCustomConversions mongoCustomConversions()
+    {
+        return new MongoCustomConversions(AmountConverters.converters());
+    }
+}
@@ -0,0 +1,81 @@
+package edu.fudan.common.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import edu.fudan.common.async.AsyncEndpoints;
+
+/**
+ * Executors of the fan-out endpoints that run off the servlet threads, see {@link AsyncEndpoints}.
+ * The endpoint executor works on {@code ts.async.threads} requests at a time, each blocking its
+ * thread on downstream calls, so that is the bound on requests in progress. It holds up to
+ * {@code ts.async.queue-capacity} requests that have not started, which cost memory, not
+ * servlet threads. The executors are not beans, so the {@code @Async} and
+ * Spring MVC defaults stay as they are.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AsyncConfig
+{
+    @Value("${ts.async.threads:16}")
+    private int threads;
+
+    @Value("${ts.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${ts.async.fan-out-threads:16}")
+    private int fanOutThreads;
+
+    /**
+     * Upper bound for every asynchronous request, the endpoints answer their fallback earlier
+     */
+    @Value("${ts.async.timeout-ms:300000}")
+    private long timeoutMillis;
+
+    @Bean
+    public AsyncEndpoints asyncEndpoints(ObjectProvider<TaskDecorator> taskDecorator)
+    {
+        ThreadPoolTaskExecutor endpointExecutor = new ThreadPoolTaskExecutor();
+        endpointExecutor.setThreadNamePrefix("async-endpoint-");
+        endpointExecutor.setCorePoolSize(threads);
+        endpointExecutor.setMaxPoolSize(threads);
+        endpointExecutor.setQueueCapacity(queueCapacity);
+        taskDecorator.ifAvailable(endpointExecutor::setTaskDecorator);
+        endpointExecutor.initialize();
+
+        ThreadPoolTaskExecutor fanOutExecutor = new ThreadPoolTaskExecutor();
+        fanOutExecutor.setThreadNamePrefix("async-fan-out-");
+        fanOutExecutor.setCorePoolSize(fanOutThreads);
+        fanOutExecutor.setMaxPoolSize(fanOutThreads);
+        fanOutExecutor.setQueueCapacity(0);
+        fanOutExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        taskDecorator.ifAvailable(fanOutExecutor::setTaskDecorator);
+        fanOutExecutor.initialize();
+
+        return new AsyncEndpoints(endpointExecutor, fanOutExecutor);
+    }
+
+    @Bean
+    public WebMvcConfigurer asyncTimeoutConfigurer()
+    {
+        return new WebMvcConfigurer()
+        {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer)
+            {
+                configurer.setDefaultTimeout(timeoutMillis);
+            }
+        };
+    }
+}
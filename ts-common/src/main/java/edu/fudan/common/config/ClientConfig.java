@@ -0,0 +1,169 @@
+package edu.fudan.common.config;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+
+import edu.fudan.common.client.LoadBalancerInterceptor;
+import edu.fudan.common.client.ResilienceInterceptor;
+import edu.fudan.common.client.SingleFlightInterceptor;
+
+/**
+ * Behaviour added to the RestTemplates the services build from the RestTemplateBuilder.
+ *
+ * @author fdse
+ */
+@Configuration
+public class ClientConfig
+{
+    /**
+     * Coalesces concurrent identical GETs to the paths listed, comma separated, in
+     * {@code ts.singleflight.paths}, e.g. {@code /api/v1/routeservice/routes/*}. Off unless paths
+     * are set, since only reads whose answer does not depend on the moment are safe to share.
+     */
+    @Configuration
+    @ConditionalOnExpression("!'${ts.singleflight.paths:}'.isEmpty()")
+    static class SingleFlightConfig
+    {
+        @Value("${ts.singleflight.paths}")
+        private String[] paths;
+
+        @Bean
+        public SingleFlightInterceptor singleFlightInterceptor()
+        {
+            return new SingleFlightInterceptor(Arrays.asList(paths));
+        }
+
+        /**
+         * Ahead of the balancer, identical calls are coalesced before they are spread
+         */
+        @Bean
+        @Order(0)
+        public RestTemplateCustomizer singleFlightRestTemplateCustomizer(SingleFlightInterceptor interceptor)
+        {
+            return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+        }
+    }
+
+    /**
+     * Client-side load balancing over the replicas of a service, listed per service name in
+     * {@code ts.balancer.replicas}, e.g. {@code ts.balancer.replicas.ts-seat-service=seat-1,seat-2},
+     * and/or in the properties file {@code ts.balancer.file}, reloaded when it changes. Services
+     * without replicas are called by their URL as before.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "ts.balancer.enabled", havingValue = "true")
+    static class LoadBalancerConfig
+    {
+        @Value("${ts.balancer.failure-threshold:5}")
+        private int failureThreshold;
+
+        @Value("${ts.balancer.eject-ms:30000}")
+        private long ejectMillis;
+
+        @Value("${ts.balancer.slow-start-ms:30000}")
+        private long slowStartMillis;
+
+        @Value("${ts.balancer.file:}")
+        private String file;
+
+        @Value("${ts.balancer.file-check-ms:5000}")
+        private long fileCheckMillis;
+
+        @Bean
+        public LoadBalancerInterceptor loadBalancerInterceptor(Environment environment)
+        {
+            Map<String, String> replicaLists = Binder.get(environment)
+                .bind("ts.balancer.replicas", Bindable.mapOf(String.class, String.class))
+                .orElseGet(Collections::emptyMap);
+            LoadBalancerInterceptor interceptor = new LoadBalancerInterceptor(failureThreshold, ejectMillis,
+                slowStartMillis);
+            if (file.isEmpty()) {
+                interceptor.update(replicaLists);
+            } else {
+                interceptor.watch(Paths.get(file), replicaLists, fileCheckMillis);
+            }
+            return interceptor;
+        }
+
+        /**
+         * Behind the single-flight interceptor, so calls are coalesced by logical service before
+         * the replica is picked, and ahead of the deadline interceptor, see {@link DeadlineConfig}
+         */
+        @Bean
+        @Order(Ordered.LOWEST_PRECEDENCE - 1)
+        public RestTemplateCustomizer loadBalancerRestTemplateCustomizer(LoadBalancerInterceptor interceptor)
+        {
+            return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+        }
+    }
+
+    /**
+     * A bulkhead and a circuit breaker per called service, see {@link ResilienceInterceptor}.
+     * Limits for single services go in {@code ts.resilience.limits}, e.g.
+     * {@code ts.resilience.limits.ts-notification-service=10}.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "ts.resilience.enabled", havingValue = "true")
+    static class ResilienceConfig
+    {
+        @Value("${ts.resilience.max-concurrent:50}")
+        private int maxConcurrent;
+
+        @Value("${ts.resilience.max-wait-ms:0}")
+        private long maxWaitMillis;
+
+        @Value("${ts.resilience.window-size:50}")
+        private int windowSize;
+
+        @Value("${ts.resilience.minimum-calls:20}")
+        private int minimumCalls;
+
+        @Value("${ts.resilience.failure-rate:0.5}")
+        private double failureRate;
+
+        @Value("${ts.resilience.open-ms:10000}")
+        private long openMillis;
+
+        @Value("${ts.resilience.probes:3}")
+        private int probes;
+
+        @Value("${ts.resilience.slow-call-ms:5000}")
+        private long slowCallMillis;
+
+        @Bean
+        public ResilienceInterceptor resilienceInterceptor(Environment environment)
+        {
+            ResilienceInterceptor interceptor = new ResilienceInterceptor(maxConcurrent, maxWaitMillis, windowSize,
+                minimumCalls, failureRate, openMillis, probes, slowCallMillis);
+            interceptor.setLimits(Binder.get(environment)
+                .bind("ts.resilience.limits", Bindable.mapOf(String.class, Integer.class))
+                .orElseGet(Collections::emptyMap));
+            return interceptor;
+        }
+
+        /**
+         * After single-flight, so coalesced calls hold one slot, and ahead of the balancer, so
+         * the limits are per service rather than per replica
+         */
+        @Bean
+        @Order(1)
+        public RestTemplateCustomizer resilienceRestTemplateCustomizer(ResilienceInterceptor interceptor)
+        {
+            return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.fudan.common.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import edu.fudan.common.codec.BinaryCodecCustomizer;
+
+/**
+ * Binary encodings for the calls between the services. Every service answers
+ * {@code application/x-jackson-smile} and {@code application/cbor} when asked for them and
+ * accepts request bodies in both; the converters come after the JSON one, so browsers and
+ * clients accepting any type keep getting JSON.
+ * <p>
+ * The RestTemplates built from the RestTemplateBuilder send and ask for the format set with
+ * {@code ts.codec.binary} ({@code smile} by default, {@code cbor}, or {@code none} to stay on
+ * JSON). Both converters use the ObjectMapper settings of the JSON one
+ * ({@code spring.jackson.*}), so dates and nulls come out the same in every format.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass({SmileFactory.class, CBORFactory.class})
+public class CodecConfig
+{
+    /**
+     * Replaces the default Smile converter in the HttpMessageConverters shared by Spring MVC and
+     * the RestTemplateBuilder, keeping its place after the JSON converter
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder)
+    {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder)
+    {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ts.codec.binary", havingValue = "smile", matchIfMissing = true)
+    public RestTemplateCustomizer smileRestTemplateCustomizer(MappingJackson2SmileHttpMessageConverter converter)
+    {
+        return new BinaryCodecCustomizer(converter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ts.codec.binary", havingValue = "cbor")
+    public RestTemplateCustomizer cborRestTemplateCustomizer(MappingJackson2CborHttpMessageConverter converter)
+    {
+        return new BinaryCodecCustomizer(converter);
+    }
+}
@@ -0,0 +1,92 @@
+package edu.fudan.common.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import edu.fudan.common.deadline.DeadlineFilter;
+import edu.fudan.common.deadline.DeadlineHystrixPropagator;
+import edu.fudan.common.deadline.DeadlineInterceptor;
+import edu.fudan.common.deadline.DeadlineRequestFactory;
+import edu.fudan.common.hystrix.ContextPropagatingConcurrencyStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Propagates request deadlines through the call graph: requests get a deadline on arrival
+ * ({@code ts.deadline.default-ms} when the caller did not send one), outbound calls of the
+ * RestTemplates built from the RestTemplateBuilder carry what is left of it and time out with
+ * it, and work whose deadline passed ends with 504. Expired requests and calls are counted in
+ * {@code deadline.expired}, tagged {@code stage=inbound} or {@code stage=outbound}. A service
+ * with endpoints allowed to run longer than the default, e.g. a booking in ts-preserve-service,
+ * raises its {@code default-ms} to the longest of their timeouts, otherwise the deadline would
+ * cut them short.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "ts.deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineConfig
+{
+    @Value("${ts.deadline.default-ms:30000}")
+    private long defaultBudgetMillis;
+
+    @Value("${ts.deadline.connect-timeout-ms:0}")
+    private int connectTimeout;
+
+    @Value("${ts.deadline.read-timeout-ms:0}")
+    private int readTimeout;
+
+    /**
+     * Ahead of the security filters, a request that is answered 504 needs no token check
+     */
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(ObjectProvider<MeterRegistry> meterRegistry)
+    {
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(
+            new DeadlineFilter(defaultBudgetMillis, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public DeadlineInterceptor deadlineInterceptor(ObjectProvider<MeterRegistry> meterRegistry)
+    {
+        return new DeadlineInterceptor(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Last, inside the balancer: a call cut short by the deadline ends as a
+     * DeadlineExceededException, which is not held against the replica that was called
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public RestTemplateCustomizer deadlineRestTemplateCustomizer(DeadlineInterceptor interceptor)
+    {
+        return restTemplate -> {
+            restTemplate.setRequestFactory(new DeadlineRequestFactory(connectTimeout, readTimeout));
+            restTemplate.getInterceptors().add(interceptor);
+        };
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "com.netflix.hystrix.strategy.HystrixPlugins")
+    static class HystrixDeadlineConfig
+    {
+        @Bean
+        public SmartInitializingSingleton deadlineHystrixRegistration()
+        {
+            return () -> ContextPropagatingConcurrencyStrategy.register(new DeadlineHystrixPropagator());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package edu.fudan.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import edu.fudan.common.idempotency.IdempotencyAspect;
+import edu.fudan.common.idempotency.IdempotencyStore;
+
+/**
+ * Registers the Idempotency-Key handling for every service depending on ts-common.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnProperty(name = "ts.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig
+{
+    @Value("${ts.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${ts.idempotency.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${ts.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotencyStore idempotencyStore()
+    {
+        return new IdempotencyStore(maxEntries, ttlSeconds * 1000, waitSeconds * 1000);
+    }
+
+    @Bean
+    public IdempotencyAspect idempotencyAspect(IdempotencyStore idempotencyStore)
+    {
+        return new IdempotencyAspect(idempotencyStore);
+    }
+}
@@ -0,0 +1,32 @@
+package edu.fudan.common.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import edu.fudan.common.local.LocalServiceRegistrar;
+
+/**
+ * In-process binding for services hosted in one JVM, see ts-colocated. Enabled with
+ * {@code ts.local.enabled=true}; the service is found under {@code ts.local.name}, by default
+ * {@code spring.application.name}, which is also the host name the other services call it by.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "ts.local.enabled", havingValue = "true")
+public class LocalServiceConfig
+{
+    /**
+     * Static, it post-processes the RestTemplate beans
+     */
+    @Bean
+    public static LocalServiceRegistrar localServiceRegistrar(Environment environment)
+    {
+        return new LocalServiceRegistrar(environment.getProperty("ts.local.name",
+            environment.getProperty("spring.application.name", "")));
+    }
+}
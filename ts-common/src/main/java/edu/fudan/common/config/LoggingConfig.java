@@ -0,0 +1,57 @@
+package edu.fudan.common.config;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import ch.qos.logback.classic.LoggerContext;
+import edu.fudan.common.logging.SamplingTurboFilter;
+
+/**
+ * Installs the per-logger sampling of INFO and lower events for every service depending on
+ * ts-common. Rates are read from {@code ts.logging.sample-rate.<logger name>}, e.g.
+ * {@code ts.logging.sample-rate.seat.service.SeatServiceImpl=0.01} keeps one event in a hundred.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass(LoggerContext.class)
+public class LoggingConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingConfig.class);
+
+    private static final String FILTER_NAME = "ts-sampling";
+
+    @Bean
+    public SamplingTurboFilter samplingTurboFilter(Environment environment)
+    {
+        Map<String, Double> rates = Binder.get(environment)
+            .bind("ts.logging.sample-rate", Bindable.mapOf(String.class, Double.class))
+            .orElse(Collections.emptyMap());
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setName(FILTER_NAME);
+        filter.setRates(rates);
+
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (loggerFactory instanceof LoggerContext) {
+            LoggerContext context = (LoggerContext) loggerFactory;
+            context.getTurboFilterList().removeIf(existing -> FILTER_NAME.equals(existing.getName()));
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+            if (!rates.isEmpty()) {
+                LoggingConfig.LOGGER.info("[Logging] Sampling loggers {}", rates);
+            }
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,85 @@
+package edu.fudan.common.config;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTagsProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+
+import edu.fudan.common.metrics.ExecutorMetrics;
+import edu.fudan.common.metrics.ServiceExchangeTagsProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+
+/**
+ * Metrics every service depending on ts-common exposes on {@code /actuator/prometheus}.
+ * Spring Boot already times controller endpoints ({@code http.server.requests}) and
+ * RestTemplate calls ({@code http.client.requests}, tagged with the target service as
+ * {@code clientName}); this adds bounded uri tags for the outbound calls, Mongo command
+ * latencies ({@code mongodb.driver.commands}) and thread pool gauges ({@code executor.*}).
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(name = "ts.metrics.enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureBefore(name = "org.springframework.boot.actuate.autoconfigure.metrics.web.client."
+    + "HttpClientMetricsAutoConfiguration")
+public class MetricsConfig
+{
+    @Bean
+    @ConditionalOnMissingBean
+    public RestTemplateExchangeTagsProvider serviceExchangeTagsProvider()
+    {
+        return new ServiceExchangeTagsProvider();
+    }
+
+    @Bean
+    public ExecutorMetrics executorMetrics(ListableBeanFactory beanFactory, MeterRegistry meterRegistry)
+    {
+        return new ExecutorMetrics(beanFactory, meterRegistry);
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "com.mongodb.MongoClientSettings")
+    static class MongoMetricsConfig
+    {
+        @Bean
+        public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(MeterRegistry meterRegistry)
+        {
+            return builder -> builder.addCommandListener(new MongoMetricsCommandListener(meterRegistry));
+        }
+    }
+
+    /**
+     * Lets Prometheus scrape without a token. Ordered before the services' own security
+     * configuration, which keeps the default order of 100.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(WebSecurityConfigurerAdapter.class)
+    @Order(99)
+    static class ScrapeSecurityConfig extends WebSecurityConfigurerAdapter
+    {
+        @Override
+        protected void configure(HttpSecurity http) throws Exception
+        {
+            http.requestMatcher(EndpointRequest.to(PrometheusScrapeEndpoint.class, HealthEndpoint.class))
+                .authorizeRequests().anyRequest().permitAll()
+                .and().csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package edu.fudan.common.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Actuator defaults, with the lowest precedence so a service can still override them: the
+ * scrape endpoint is exposed, meters carry the application name and the request and Mongo
+ * timers publish histogram buckets, so latency percentiles can be aggregated across instances.
+ *
+ * @author fdse
+ */
+public class MetricsEnvironmentPostProcessor implements EnvironmentPostProcessor
+{
+    private static final String SOURCE_NAME = "tsMetricsDefaults";
+
+    private static final String HISTOGRAM = "management.metrics.distribution.percentiles-histogram.";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application)
+    {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("management.endpoints.web.exposure.include", "health,info,prometheus,traces");
+        defaults.put("management.metrics.tags.application", "${spring.application.name:unknown}");
+        defaults.put(HISTOGRAM + "http.server.requests", "true");
+        defaults.put(HISTOGRAM + "http.client.requests", "true");
+        defaults.put(HISTOGRAM + "mongodb.driver.commands", "true");
+        environment.getPropertySources().addLast(new MapPropertySource(SOURCE_NAME, defaults));
+    }
+}
@@ -0,0 +1,89 @@
+package edu.fudan.common.config;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import edu.fudan.common.mongo.CollectionScanAspect;
+import edu.fudan.common.mongo.MongoIndexes;
+import edu.fudan.common.mongo.QueryPlans;
+import edu.fudan.common.mongo.SlowQueryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Indexes and query profiling for the services storing in Mongo. The indexes declared in
+ * {@code ts.mongo.indexes.<collection>} are ensured at startup, see {@link MongoIndexes}. Queries
+ * are timed per filter shape and the ones slower than {@code ts.mongo.slow-query-ms} logged with
+ * their plan, see {@link SlowQueryListener}. With {@code ts.mongo.fail-on-collscan=true}, which
+ * the services set in their test resources, a repository call whose query scans its collection
+ * fails.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass(name = {"com.mongodb.MongoClientSettings", "org.springframework.data.mongodb.core.MongoTemplate"})
+@ConditionalOnProperty(name = "ts.mongo.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoConfig
+{
+    @Value("${ts.mongo.slow-query-ms:100}")
+    private long slowQueryMillis;
+
+    /**
+     * Resolves the MongoTemplate when a query is explained, as the template needs the client the
+     * listener is added to
+     */
+    @Bean
+    public QueryPlans queryPlans(ObjectProvider<MongoTemplate> mongoTemplate)
+    {
+        return new QueryPlans(command -> mongoTemplate.getObject().getDb().runCommand(command));
+    }
+
+    @Bean
+    public SlowQueryListener slowQueryListener(QueryPlans queryPlans, ObjectProvider<MeterRegistry> meterRegistry)
+    {
+        return new SlowQueryListener(slowQueryMillis, queryPlans, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(SlowQueryListener slowQueryListener)
+    {
+        return builder -> builder.addCommandListener(slowQueryListener);
+    }
+
+    /**
+     * Before the web server starts, so requests find the indexes in place
+     */
+    @Bean
+    public SmartInitializingSingleton mongoIndexBootstrap(ObjectProvider<MongoTemplate> mongoTemplate,
+        Environment environment)
+    {
+        Map<String, String> declarations = Binder.get(environment)
+            .bind("ts.mongo.indexes", Bindable.mapOf(String.class, String.class))
+            .orElse(Collections.emptyMap());
+        return () -> {
+            MongoTemplate template = mongoTemplate.getIfAvailable();
+            if (template != null && !declarations.isEmpty()) {
+                MongoIndexes.ensure(template, declarations);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ts.mongo.fail-on-collscan", havingValue = "true")
+    public CollectionScanAspect collectionScanAspect(QueryPlans queryPlans)
+    {
+        return new CollectionScanAspect(queryPlans);
+    }
+}
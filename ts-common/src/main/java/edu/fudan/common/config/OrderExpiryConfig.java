@@ -0,0 +1,52 @@
+package edu.fudan.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import edu.fudan.common.expiry.OrderExpiryScheduler;
+
+/**
+ * Expiry of unpaid orders, see {@link OrderExpiryScheduler}, for the services that keep orders
+ * in the collection named by {@code ts.order.expiry.collection}. {@code ts.order.expiry.enabled}
+ * turns it off.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass(name = "org.springframework.data.mongodb.core.MongoTemplate")
+@ConditionalOnProperty(name = "ts.order.expiry.collection")
+public class OrderExpiryConfig
+{
+    @Value("${ts.order.expiry.collection}")
+    private String collection;
+
+    @Value("${ts.order.expiry.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${ts.order.expiry.tick-millis:1000}")
+    private long tickMillis;
+
+    @Value("${ts.order.expiry.wheel-size:4096}")
+    private int wheelSize;
+
+    @Value("${ts.order.expiry.max-pending:2000000}")
+    private int maxPending;
+
+    @Value("${ts.order.expiry.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${ts.order.expiry.sweep-minutes:5}")
+    private long sweepMinutes;
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "ts.order.expiry.enabled", havingValue = "true", matchIfMissing = true)
+    public OrderExpiryScheduler orderExpiryScheduler(MongoTemplate mongoTemplate)
+    {
+        return new OrderExpiryScheduler(mongoTemplate, collection, timeoutMinutes, tickMillis, wheelSize, maxPending,
+            batchSize, sweepMinutes);
+    }
+}
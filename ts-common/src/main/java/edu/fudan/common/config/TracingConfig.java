@@ -0,0 +1,100 @@
+package edu.fudan.common.config;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import edu.fudan.common.hystrix.ContextPropagatingConcurrencyStrategy;
+import edu.fudan.common.tracing.JaegerSpanReporter;
+import edu.fudan.common.tracing.RepositoryTracingAspect;
+import edu.fudan.common.tracing.SpanCollector;
+import edu.fudan.common.tracing.TracesEndpoint;
+import edu.fudan.common.tracing.TracingHystrixPropagator;
+import edu.fudan.common.tracing.TracingTaskDecorator;
+import io.jaegertracing.spi.Reporter;
+import io.opentracing.Tracer;
+
+/**
+ * Completes the opentracing setup every service gets from ts-common. Controller and
+ * RestTemplate spans come from the opentracing web starter; this adds the propagation into
+ * Hystrix and {@code @Async} threads, repository spans and, unless a Jaeger agent is
+ * configured, keeps the spans in process where {@code /actuator/traces} and the span file
+ * ({@code ts.tracing.file}) make them available without a tracing backend.
+ *
+ * @author fdse
+ */
+@Configuration
+@ConditionalOnClass(Tracer.class)
+@ConditionalOnProperty(name = "ts.tracing.enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureBefore(name = "io.opentracing.contrib.java.spring.jaeger.starter.JaegerAutoConfiguration")
+public class TracingConfig
+{
+    @Value("${spring.application.name:unknown}")
+    private String serviceName;
+
+    @Value("${ts.tracing.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${ts.tracing.file:}")
+    private String file;
+
+    @Value("${ts.tracing.file-queue-size:10000}")
+    private int fileQueueSize;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SpanCollector spanCollector()
+    {
+        return new SpanCollector(bufferSize, file.isEmpty() ? null : Paths.get(file), fileQueueSize);
+    }
+
+    /**
+     * Takes the place of the starter's remote reporter, which would send to an agent nobody runs
+     */
+    @Bean
+    @ConditionalOnExpression("'${opentracing.jaeger.udp-sender.host:}'.isEmpty()"
+        + " and '${opentracing.jaeger.http-sender.url:}'.isEmpty()")
+    public Reporter jaegerSpanReporter(SpanCollector spanCollector)
+    {
+        return new JaegerSpanReporter(serviceName, spanCollector);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    public TaskDecorator tracingTaskDecorator(Tracer tracer)
+    {
+        return new TracingTaskDecorator(tracer);
+    }
+
+    @Bean
+    public SmartInitializingSingleton tracingHystrixRegistration(Tracer tracer)
+    {
+        return () -> ContextPropagatingConcurrencyStrategy.register(new TracingHystrixPropagator(tracer));
+    }
+
+    @Bean
+    public TracesEndpoint tracesEndpoint(SpanCollector spanCollector)
+    {
+        return new TracesEndpoint(spanCollector);
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.data.repository.Repository")
+    static class RepositoryTracingConfig
+    {
+        @Bean
+        public RepositoryTracingAspect repositoryTracingAspect(Tracer tracer)
+        {
+            return new RepositoryTracingAspect(tracer);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package edu.fudan.common.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Defaults for the Jaeger starter, with the lowest precedence so a service can still override
+ * them. Without an agent the starter would sample one request in a thousand and log every
+ * span; here requests are sampled at {@code ts.tracing.sample-rate} and spans are not logged.
+ *
+ * @author fdse
+ */
+public class TracingEnvironmentPostProcessor implements EnvironmentPostProcessor
+{
+    private static final String SOURCE_NAME = "tsTracingDefaults";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application)
+    {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("opentracing.jaeger.log-spans", "false");
+        defaults.put("opentracing.jaeger.probabilistic-sampler.sampling-rate", "${ts.tracing.sample-rate:1.0}");
+        environment.getPropertySources().addLast(new MapPropertySource(SOURCE_NAME, defaults));
+    }
+}
@@ -0,0 +1,88 @@
+package edu.fudan.common.deadline;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time by which the request handled by the current thread has to be answered.
+ * It travels between services as the milliseconds left in {@link #HEADER}: every service
+ * turns the header into a deadline on arrival and every outbound call sends what is left of
+ * it, so the budget shrinks by the time spent at each hop.
+ *
+ * @author fdse
+ */
+public final class Deadline
+{
+    /**
+     * Milliseconds the caller is still willing to wait for the answer
+     */
+    public static final String HEADER = "X-Deadline-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private Deadline()
+    {
+    }
+
+    /**
+     * @return the previous deadline of the thread, to be passed to {@link #restore}
+     */
+    public static Long start(long budgetMillis)
+    {
+        Long previous = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        return previous;
+    }
+
+    public static void restore(Long previous)
+    {
+        if (previous == null) {
+            DEADLINE_NANOS.remove();
+        } else {
+            DEADLINE_NANOS.set(previous);
+        }
+    }
+
+    public static boolean isSet()
+    {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    /**
+     * @return the milliseconds left, 0 or less once the deadline passed, {@link Long#MAX_VALUE}
+     * when the thread has no deadline
+     */
+    public static long remainingMillis()
+    {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    public static boolean isExpired()
+    {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Runs the callable under the deadline of the calling thread, for work handed to other threads
+     */
+    public static <T> Callable<T> wrap(Callable<T> callable)
+    {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return callable;
+        }
+        return () -> {
+            Long previous = DEADLINE_NANOS.get();
+            DEADLINE_NANOS.set(deadline);
+            try {
+                return callable.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package edu.fudan.common.deadline;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Starts the deadline of every request from {@link Deadline#HEADER}. A request without the
+ * header comes from outside, e.g. through ts-ui-dashboard, and gets the default budget. A
+ * request whose budget is already used up is answered 504 right away, without running it.
+ *
+ * @author fdse
+ */
+public class DeadlineFilter extends OncePerRequestFilter
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    private final long defaultBudgetMillis;
+
+    private final Counter expired;
+
+    public DeadlineFilter(long defaultBudgetMillis, MeterRegistry registry)
+    {
+        this.defaultBudgetMillis = defaultBudgetMillis;
+        this.expired = Counter.builder("deadline.expired")
+            .tag("stage", "inbound")
+            .description("Requests arriving after their deadline")
+            .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException
+    {
+        long budget = budgetMillis(request.getHeader(Deadline.HEADER));
+        if (budget <= 0) {
+            expired.increment();
+            DeadlineFilter.LOGGER.debug("[Deadline] {} {} arrived after its deadline", request.getMethod(),
+                request.getRequestURI());
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Deadline exceeded");
+            return;
+        }
+        Long previous = Deadline.start(budget);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Deadline.restore(previous);
+        }
+    }
+
+    private long budgetMillis(String header)
+    {
+        if (header == null || header.isEmpty()) {
+            return defaultBudgetMillis;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            DeadlineFilter.LOGGER.warn("[Deadline] Ignore malformed {} header: {}", Deadline.HEADER, header);
+            return defaultBudgetMillis;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.fudan.common.deadline;
+
+import java.util.concurrent.Callable;
+
+import edu.fudan.common.hystrix.HystrixContextPropagator;
+
+/**
+ * Carries the request's deadline into Hystrix command threads, without this the downstream
+ * calls of a controller running as a Hystrix command would not know the deadline.
+ *
+ * @author fdse
+ */
+public class DeadlineHystrixPropagator implements HystrixContextPropagator
+{
+    @Override
+    public <T> Callable<T> wrap(Callable<T> callable)
+    {
+        return Deadline.wrap(callable);
+    }
+}
@@ -0,0 +1,57 @@
+package edu.fudan.common.deadline;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import edu.fudan.common.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends what is left of the current deadline with every outbound call, and does not send the
+ * call at all once nothing is left. The DeadlineExceededException ends the work of the
+ * request, e.g. the remaining per-trip calls of a trip search, and answers it with 504; a call
+ * that times out because of the deadline ends the same way.
+ *
+ * @author fdse
+ */
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor
+{
+    private final Counter expired;
+
+    public DeadlineInterceptor(MeterRegistry registry)
+    {
+        this.expired = Counter.builder("deadline.expired")
+            .tag("stage", "outbound")
+            .description("Outbound calls dropped or cut short by the deadline")
+            .register(registry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException
+    {
+        if (!Deadline.isSet()) {
+            return execution.execute(request, body);
+        }
+        long remaining = Deadline.remainingMillis();
+        if (remaining <= 0) {
+            expired.increment();
+            throw new DeadlineExceededException("Deadline exceeded before calling " + request.getURI());
+        }
+        request.getHeaders().set(Deadline.HEADER, String.valueOf(remaining));
+        try {
+            return execution.execute(request, body);
+        } catch (IOException e) {
+            if (Deadline.isExpired()) {
+                expired.increment();
+                throw new DeadlineExceededException("Deadline exceeded calling " + request.getURI(), e);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package edu.fudan.common.deadline;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * JDK HTTP client whose connect and read timeouts are cut to the time left of the current
+ * deadline, so a slow downstream service cannot hold a request past it.
+ *
+ * @author fdse
+ */
+public class DeadlineRequestFactory extends SimpleClientHttpRequestFactory
+{
+    private final int connectTimeout;
+
+    private final int readTimeout;
+
+    /**
+     * @param connectTimeout milliseconds, 0 for none, used when it is shorter than the deadline
+     * @param readTimeout milliseconds, 0 for none, used when it is shorter than the deadline
+     */
+    public DeadlineRequestFactory(int connectTimeout, int readTimeout)
+    {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        setConnectTimeout(connectTimeout);
+        setReadTimeout(readTimeout);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException
+    {
+        super.prepareConnection(connection, httpMethod);
+        if (!Deadline.isSet()) {
+            return;
+        }
+        //At least 1ms, 0 would mean no timeout
+        int remaining = (int) Math.max(1, Math.min(Deadline.remainingMillis(), Integer.MAX_VALUE));
+        connection.setConnectTimeout(shorter(connectTimeout, remaining));
+        connection.setReadTimeout(shorter(readTimeout, remaining));
+    }
+
+    private static int shorter(int timeout, int remaining)
+    {
+        return timeout > 0 ? Math.min(timeout, remaining) : remaining;
+    }
+}
@@ -0,0 +1,23 @@
+package edu.fudan.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The time the caller gave the request ran out before the work was done
+ *
+ * @author fdse
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends BaseException
+{
+    public DeadlineExceededException(String message)
+    {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package edu.fudan.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * @author fdse
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyException extends BaseException
+{
+    public IdempotencyException(String message)
+    {
+        super(message);
+    }
+
+    public IdempotencyException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
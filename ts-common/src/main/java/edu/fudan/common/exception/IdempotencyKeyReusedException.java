@@ -0,0 +1,18 @@
+package edu.fudan.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An idempotency key was sent again with a different request than the one it was first used for
+ *
+ * @author fdse
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends BaseException
+{
+    public IdempotencyKeyReusedException(String message)
+    {
+        super(message);
+    }
+}
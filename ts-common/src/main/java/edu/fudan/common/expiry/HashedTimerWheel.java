@@ -0,0 +1,176 @@
+package edu.fudan.common.expiry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hashed timer wheel of UUID deadlines. Every slot keeps its entries in parallel primitive
+ * arrays (two id halves and the deadline), so a pending entry costs 24 bytes and no object.
+ * The wheel refuses new entries once {@code maxEntries} is reached; callers are expected to
+ * cover the overflow with a periodic database sweep. An id is kept once per slot, so scheduling
+ * the same id and deadline again, e.g. on every save of an entity, does not add entries.
+ *
+ * @author fdse
+ */
+public class HashedTimerWheel
+{
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+
+    private final long tickMillis;
+
+    private final int mask;
+
+    private final int maxEntries;
+
+    private final long[][] mostSigBits;
+
+    private final long[][] leastSigBits;
+
+    private final long[][] deadlines;
+
+    private final int[] counts;
+
+    private int size;
+
+    private long lastTick;
+
+    /**
+     * @param tickMillis length of one tick
+     * @param wheelSize number of slots, rounded up to a power of two
+     * @param maxEntries upper bound of pending entries
+     * @param now current time, used as the first tick
+     */
+    public HashedTimerWheel(long tickMillis, int wheelSize, int maxEntries, long now)
+    {
+        if (tickMillis <= 0 || wheelSize <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("tickMillis, wheelSize and maxEntries must be positive");
+        }
+        int slots = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (slots <= 0) {
+            slots = 1;
+        }
+        this.tickMillis = tickMillis;
+        this.mask = slots - 1;
+        this.maxEntries = maxEntries;
+        this.mostSigBits = new long[slots][];
+        this.leastSigBits = new long[slots][];
+        this.deadlines = new long[slots][];
+        this.counts = new int[slots];
+        this.lastTick = now / tickMillis;
+    }
+
+    /**
+     * Adds a deadline. Deadlines in the past fire on the next tick. When the id is already in the
+     * slot of the deadline, its deadline is replaced instead.
+     *
+     * @return false if the wheel is full
+     */
+    public synchronized boolean schedule(UUID id, long deadline)
+    {
+        int slot = (int) (Math.max(deadline / tickMillis, lastTick + 1) & mask);
+        int count = counts[slot];
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        for (int i = 0; i < count; i++) {
+            if (mostSigBits[slot][i] == most && leastSigBits[slot][i] == least) {
+                deadlines[slot][i] = deadline;
+                return true;
+            }
+        }
+        if (size >= maxEntries) {
+            return false;
+        }
+        if (deadlines[slot] == null) {
+            mostSigBits[slot] = new long[INITIAL_SLOT_CAPACITY];
+            leastSigBits[slot] = new long[INITIAL_SLOT_CAPACITY];
+            deadlines[slot] = new long[INITIAL_SLOT_CAPACITY];
+        } else if (count == deadlines[slot].length) {
+            int capacity = count << 1;
+            mostSigBits[slot] = Arrays.copyOf(mostSigBits[slot], capacity);
+            leastSigBits[slot] = Arrays.copyOf(leastSigBits[slot], capacity);
+            deadlines[slot] = Arrays.copyOf(deadlines[slot], capacity);
+        }
+        mostSigBits[slot][count] = most;
+        leastSigBits[slot][count] = least;
+        deadlines[slot][count] = deadline;
+        counts[slot] = count + 1;
+        size++;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to {@code now} and moves the due entries into {@code due}.
+     *
+     * @param limit maximum number of entries to return, the rest stays for the next call
+     * @return number of entries added to {@code due}
+     */
+    public synchronized int advance(long now, List<UUID> due, int limit)
+    {
+        long currentTick = now / tickMillis;
+        long ticks = currentTick - lastTick;
+        if (ticks <= 0) {
+            return 0;
+        }
+        //A full revolution visits every slot, no need to go round again
+        int slotsToVisit = (int) Math.min(ticks, mask + 1L);
+        int added = 0;
+        for (int i = 1; i <= slotsToVisit && added < limit; i++) {
+            int slot = (int) ((lastTick + i) & mask);
+            added += drainSlot(slot, now, due, limit - added);
+            if (added >= limit) {
+                //Resume from this slot next time
+                lastTick = lastTick + i - 1;
+                return added;
+            }
+        }
+        lastTick = currentTick;
+        return added;
+    }
+
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    public synchronized void clear()
+    {
+        for (int slot = 0; slot <= mask; slot++) {
+            mostSigBits[slot] = null;
+            leastSigBits[slot] = null;
+            deadlines[slot] = null;
+            counts[slot] = 0;
+        }
+        size = 0;
+    }
+
+    private int drainSlot(int slot, long now, List<UUID> due, int limit)
+    {
+        int count = counts[slot];
+        int added = 0;
+        long[] slotDeadlines = deadlines[slot];
+        int i = 0;
+        while (i < count && added < limit) {
+            if (slotDeadlines[i] <= now) {
+                due.add(new UUID(mostSigBits[slot][i], leastSigBits[slot][i]));
+                added++;
+                //Swap the last entry in and look at index i again
+                count--;
+                mostSigBits[slot][i] = mostSigBits[slot][count];
+                leastSigBits[slot][i] = leastSigBits[slot][count];
+                slotDeadlines[i] = slotDeadlines[count];
+            } else {
+                i++;
+            }
+        }
+        counts[slot] = count;
+        size -= added;
+        if (count == 0 && slotDeadlines != null && slotDeadlines.length > INITIAL_SLOT_CAPACITY) {
+            //Give memory of drained hot slots back
+            mostSigBits[slot] = null;
+            leastSigBits[slot] = null;
+            deadlines[slot] = null;
+        }
+        return added;
+    }
+}
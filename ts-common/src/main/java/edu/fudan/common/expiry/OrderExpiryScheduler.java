@@ -0,0 +1,222 @@
+package edu.fudan.common.expiry;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * Cancels orders that stay NOTPAID longer than the payment timeout, so that abandoned checkouts
+ * stop holding seats. Deadlines of the orders saved by this instance are kept in a hashed timer
+ * wheel; every tick expires the due orders with one conditional multi-document update. A
+ * periodic sweep over the database covers orders of other replicas and wheel overflow.
+ * <p>
+ * Works on the order documents of ts-order-service and ts-order-other-service alike: their
+ * {@code _id} is the order's UUID, {@code status} the OrderStatus code and {@code boughtDate}
+ * the time of booking.
+ * <p>
+ * Nothing is notified of the expiry: a cancelled order stops counting as sold, so ts-seat-service
+ * sees the seat free on its next read of the sold tickets. In stateless mode that is the next
+ * request; a partitioned inventory keeps the expired seat sold until its next refresh, at most
+ * {@code ts.seat.partition.refresh-ms} later.
+ *
+ * @author fdse
+ */
+public class OrderExpiryScheduler extends AbstractMongoEventListener<Object>
+{
+    /**
+     * OrderStatus codes of the order services
+     */
+    private static final int NOTPAID = 0;
+
+    private static final int CANCEL = 4;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderExpiryScheduler.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String collection;
+
+    private final long timeoutMillis;
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    private final int maxPending;
+
+    private final int batchSize;
+
+    private final long sweepMinutes;
+
+    private volatile HashedTimerWheel wheel;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param collection the collection of the orders
+     * @param timeoutMinutes how long an order may stay unpaid
+     * @param tickMillis length of one tick of the wheel
+     * @param wheelSize number of slots of the wheel
+     * @param maxPending deadlines kept in the wheel, the others are left to the sweep
+     * @param batchSize orders expired with one update
+     * @param sweepMinutes interval of the sweep
+     */
+    public OrderExpiryScheduler(MongoTemplate mongoTemplate, String collection, long timeoutMinutes,
+        long tickMillis, int wheelSize, int maxPending, int batchSize, long sweepMinutes)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.collection = collection;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.sweepMinutes = sweepMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        wheel = new HashedTimerWheel(tickMillis, wheelSize, maxPending, System.currentTimeMillis());
+        rebuild();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::safeTick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::safeSweep, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+    }
+
+    public void stop()
+    {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event)
+    {
+        Document order = event.getDocument();
+        if (wheel == null || order == null || !collection.equals(event.getCollectionName())) {
+            return;
+        }
+        Object id = order.get("_id");
+        Object status = order.get("status");
+        if (id instanceof UUID && status instanceof Integer && (Integer) status == OrderExpiryScheduler.NOTPAID) {
+            schedule((UUID) id, order.getDate("boughtDate"));
+        }
+    }
+
+    /**
+     * Loads the deadlines of every unpaid order, streaming only the id and bought date.
+     */
+    void rebuild()
+    {
+        Query query = new Query(Criteria.where("status").is(OrderExpiryScheduler.NOTPAID));
+        query.fields().include("_id").include("boughtDate");
+        int loaded = 0;
+        try (CloseableIterator<Document> orders = mongoTemplate.stream(query, Document.class, collection)) {
+            while (orders.hasNext()) {
+                Document order = orders.next();
+                Object id = order.get("_id");
+                if (id instanceof UUID && schedule((UUID) id, order.getDate("boughtDate"))) {
+                    loaded++;
+                }
+            }
+        }
+        OrderExpiryScheduler.LOGGER.info("[Order Expiry] Rebuilt timer wheel with {} unpaid orders", loaded);
+    }
+
+    void tick()
+    {
+        List<UUID> due = new ArrayList<>();
+        while (wheel.advance(System.currentTimeMillis(), due, batchSize) > 0) {
+            expire(due);
+            due.clear();
+        }
+    }
+
+    /**
+     * Expires unpaid orders whose deadline passed without being in the wheel.
+     */
+    void sweep()
+    {
+        Date boughtBefore = new Date(System.currentTimeMillis() - timeoutMillis);
+        Query query = new Query(Criteria.where("status").is(OrderExpiryScheduler.NOTPAID)
+            .and("boughtDate").lt(boughtBefore)).limit(batchSize);
+        query.fields().include("_id");
+        List<Document> overdue;
+        do {
+            overdue = mongoTemplate.find(query, Document.class, collection);
+            List<UUID> ids = new ArrayList<>(overdue.size());
+            for (Document order : overdue) {
+                Object id = order.get("_id");
+                if (id instanceof UUID) {
+                    ids.add((UUID) id);
+                }
+            }
+            if (!ids.isEmpty()) {
+                expire(ids);
+            }
+        } while (overdue.size() == batchSize);
+    }
+
+    /**
+     * Cancels the given orders if they are still unpaid. Their seats are not released anywhere,
+     * see the class comment.
+     */
+    void expire(List<UUID> ids)
+    {
+        Query unpaid = new Query(Criteria.where("_id").in(ids).and("status").is(OrderExpiryScheduler.NOTPAID));
+        Update cancel = Update.update("status", OrderExpiryScheduler.CANCEL);
+        long expired = mongoTemplate.updateMulti(unpaid, cancel, collection).getModifiedCount();
+        if (expired > 0) {
+            OrderExpiryScheduler.LOGGER.info("[Order Expiry] Expired {} unpaid orders", expired);
+        }
+    }
+
+    private boolean schedule(UUID id, Date boughtDate)
+    {
+        long bought = boughtDate == null ? System.currentTimeMillis() : boughtDate.getTime();
+        //A save of an order already in the wheel replaces its entry; when the wheel is full the order is left
+        //to the sweep
+        return wheel.schedule(id, bought + timeoutMillis);
+    }
+
+    private void safeTick()
+    {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            OrderExpiryScheduler.LOGGER.error("[Order Expiry] Tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void safeSweep()
+    {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            OrderExpiryScheduler.LOGGER.error("[Order Expiry] Sweep failed: {}", e.getMessage());
+        }
+    }
+}
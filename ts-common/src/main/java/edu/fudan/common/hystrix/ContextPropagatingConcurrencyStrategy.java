@@ -0,0 +1,115 @@
+package edu.fudan.common.hystrix;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariable;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableLifecycle;
+import com.netflix.hystrix.strategy.eventnotifier.HystrixEventNotifier;
+import com.netflix.hystrix.strategy.executionhook.HystrixCommandExecutionHook;
+import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisher;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesStrategy;
+import com.netflix.hystrix.strategy.properties.HystrixProperty;
+
+/**
+ * Carries the state of the calling thread into Hystrix command threads, through the
+ * registered {@link HystrixContextPropagator}s. Most controllers run as Hystrix commands,
+ * without this their downstream calls would lose the trace and the deadline of the request.
+ * Hystrix takes a single concurrency strategy, so the propagators share this one, which wraps
+ * the strategy that was registered before, if any.
+ *
+ * @author fdse
+ */
+public class ContextPropagatingConcurrencyStrategy extends HystrixConcurrencyStrategy
+{
+    private final HystrixConcurrencyStrategy delegate;
+
+    private final List<HystrixContextPropagator> propagators = new CopyOnWriteArrayList<>();
+
+    ContextPropagatingConcurrencyStrategy(HystrixConcurrencyStrategy delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Adds a propagator, once per type. The first call replaces the registered concurrency
+     * strategy, keeping the other Hystrix plugins.
+     */
+    public static synchronized void register(HystrixContextPropagator propagator)
+    {
+        HystrixPlugins plugins = HystrixPlugins.getInstance();
+        HystrixConcurrencyStrategy existing = plugins.getConcurrencyStrategy();
+        if (existing instanceof ContextPropagatingConcurrencyStrategy) {
+            ((ContextPropagatingConcurrencyStrategy) existing).add(propagator);
+            return;
+        }
+        HystrixCommandExecutionHook executionHook = plugins.getCommandExecutionHook();
+        HystrixEventNotifier eventNotifier = plugins.getEventNotifier();
+        HystrixMetricsPublisher metricsPublisher = plugins.getMetricsPublisher();
+        HystrixPropertiesStrategy propertiesStrategy = plugins.getPropertiesStrategy();
+        HystrixPlugins.reset();
+        plugins = HystrixPlugins.getInstance();
+        ContextPropagatingConcurrencyStrategy strategy = new ContextPropagatingConcurrencyStrategy(existing);
+        strategy.add(propagator);
+        plugins.registerConcurrencyStrategy(strategy);
+        plugins.registerCommandExecutionHook(executionHook);
+        plugins.registerEventNotifier(eventNotifier);
+        plugins.registerMetricsPublisher(metricsPublisher);
+        plugins.registerPropertiesStrategy(propertiesStrategy);
+    }
+
+    void add(HystrixContextPropagator propagator)
+    {
+        for (HystrixContextPropagator registered : propagators) {
+            if (registered.getClass() == propagator.getClass()) {
+                return;
+            }
+        }
+        propagators.add(propagator);
+    }
+
+    @Override
+    public <T> Callable<T> wrapCallable(Callable<T> callable)
+    {
+        Callable<T> wrapped = delegate.wrapCallable(callable);
+        for (HystrixContextPropagator propagator : propagators) {
+            wrapped = propagator.wrap(wrapped);
+        }
+        return wrapped;
+    }
+
+    @Override
+    public ThreadPoolExecutor getThreadPool(HystrixThreadPoolKey threadPoolKey,
+        HystrixProperty<Integer> corePoolSize, HystrixProperty<Integer> maximumPoolSize,
+        HystrixProperty<Integer> keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue)
+    {
+        return delegate.getThreadPool(threadPoolKey, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
+    }
+
+    @Override
+    public ThreadPoolExecutor getThreadPool(HystrixThreadPoolKey threadPoolKey,
+        HystrixThreadPoolProperties threadPoolProperties)
+    {
+        return delegate.getThreadPool(threadPoolKey, threadPoolProperties);
+    }
+
+    @Override
+    public BlockingQueue<Runnable> getBlockingQueue(int maxQueueSize)
+    {
+        return delegate.getBlockingQueue(maxQueueSize);
+    }
+
+    @Override
+    public <T> HystrixRequestVariable<T> getRequestVariable(HystrixRequestVariableLifecycle<T> rv)
+    {
+        return delegate.getRequestVariable(rv);
+    }
+}
@@ -0,0 +1,19 @@
+package edu.fudan.common.hystrix;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Carries state of the calling thread, such as the active span or the deadline, into the
+ * Hystrix command thread that runs the callable. See {@link ContextPropagatingConcurrencyStrategy}.
+ *
+ * @author fdse
+ */
+public interface HystrixContextPropagator
+{
+    /**
+     * Called on the calling thread
+     *
+     * @return a callable that runs the given one with the calling thread's state
+     */
+    <T> Callable<T> wrap(Callable<T> callable);
+}
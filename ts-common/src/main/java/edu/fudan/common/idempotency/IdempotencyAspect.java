@@ -0,0 +1,114 @@
+package edu.fudan.common.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fudan.common.util.Response;
+
+/**
+ * Replays stored results of {@link Idempotent} controller methods. The key is scoped by the
+ * invoked method and the caller's Authorization header, so two users can never share a
+ * result. The arguments other than the headers, i.e. the request body and path variables, are
+ * hashed into the fingerprint of the request, so a key sent again with another request gets 422
+ * instead of the first request's result. Runs before the Hystrix aspect so retries are answered
+ * without a command thread.
+ *
+ * @author fdse
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdempotencyAspect
+{
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyAspect.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final IdempotencyStore store;
+
+    public IdempotencyAspect(IdempotencyStore store)
+    {
+        this.store = store;
+    }
+
+    @Around("@annotation(edu.fudan.common.idempotency.Idempotent)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        HttpHeaders headers = findHeaders(joinPoint.getArgs());
+        String idempotencyKey = headers == null ? null : headers.getFirst(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return joinPoint.proceed();
+        }
+
+        String key = joinPoint.getSignature().toLongString() + "|" + idempotencyKey + "|"
+            + headers.getFirst(HttpHeaders.AUTHORIZATION);
+        IdempotencyAspect.LOGGER.debug("[Idempotency] Execute {} with key {}",
+            joinPoint.getSignature().getName(), idempotencyKey);
+        return store.execute(key, IdempotencyAspect.fingerprint(joinPoint.getArgs()), joinPoint::proceed,
+            IdempotencyAspect::isReplayable);
+    }
+
+    /**
+     * SHA-256 of the JSON of every argument except the headers
+     */
+    static String fingerprint(Object[] args)
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Object arg : args) {
+            if (arg instanceof HttpHeaders) {
+                continue;
+            }
+            byte[] json;
+            try {
+                json = IdempotencyAspect.MAPPER.writeValueAsBytes(arg);
+            } catch (JsonProcessingException e) {
+                json = String.valueOf(arg).getBytes(StandardCharsets.UTF_8);
+            }
+            digest.update(json);
+            //Separates the arguments, so ("ab", "c") and ("a", "bc") differ
+            digest.update((byte) 0);
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /**
+     * Hystrix fallbacks answer with an empty {@link Response}; those must not be replayed,
+     * otherwise a timed out request could never be retried.
+     */
+    static boolean isReplayable(Object result)
+    {
+        Object body = result instanceof HttpEntity ? ((HttpEntity) result).getBody() : result;
+        return !(body instanceof Response) || ((Response) body).getStatus() != null;
+    }
+
+    private static HttpHeaders findHeaders(Object[] args)
+    {
+        for (Object arg : args) {
+            if (arg instanceof HttpHeaders) {
+                return (HttpHeaders) arg;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package edu.fudan.common.idempotency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import edu.fudan.common.exception.IdempotencyException;
+import edu.fudan.common.exception.IdempotencyKeyReusedException;
+
+/**
+ * Bounded result store for idempotent requests. Completed results are kept for a fixed time
+ * to live in an LRU map; executions that are still running are tracked separately so that a
+ * concurrent retry waits for the first execution instead of running the call again. Each key
+ * remembers the fingerprint of the request it was first used with; a retry with another
+ * fingerprint is rejected instead of being answered with the result of a different request.
+ *
+ * @author fdse
+ */
+public class IdempotencyStore
+{
+    /**
+     * A call whose result may be stored
+     */
+    public interface IdempotentCall
+    {
+        Object call() throws Throwable;
+    }
+
+    /**
+     * Decides whether a finished result may be replayed to later retries
+     */
+    public interface ResultFilter
+    {
+        boolean isReplayable(Object result);
+    }
+
+    private static final class Entry
+    {
+        private final String fingerprint;
+
+        private final Object result;
+
+        private final long expiresAt;
+
+        private Entry(String fingerprint, Object result, long expiresAt)
+        {
+            this.fingerprint = fingerprint;
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Execution
+    {
+        private final String fingerprint;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Execution(String fingerprint)
+        {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final long ttlMillis;
+
+    private final long waitMillis;
+
+    private final Map<String, Entry> completed;
+
+    private final ConcurrentHashMap<String, Execution> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(final int maxEntries, long ttlMillis, long waitMillis)
+    {
+        this.ttlMillis = ttlMillis;
+        this.waitMillis = waitMillis;
+        this.completed = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Runs the call once per key, for callers that do not fingerprint their requests.
+     */
+    public Object execute(String key, IdempotentCall call, ResultFilter filter) throws Throwable
+    {
+        return execute(key, null, call, filter);
+    }
+
+    /**
+     * Runs the call once per key. A stored result is returned directly, a running execution for
+     * the same key is awaited, and exceptions are propagated without being stored.
+     *
+     * @param fingerprint identifies the request, e.g. a hash of its body
+     * @throws IdempotencyKeyReusedException when the key was used with another fingerprint
+     */
+    public Object execute(String key, String fingerprint, IdempotentCall call, ResultFilter filter) throws Throwable
+    {
+        Entry entry = getCompleted(key);
+        if (entry != null) {
+            return IdempotencyStore.replay(fingerprint, entry);
+        }
+
+        Execution execution = new Execution(fingerprint);
+        Execution running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            IdempotencyStore.checkFingerprint(fingerprint, running.fingerprint);
+            return await(running.future);
+        }
+
+        try {
+            //The previous owner may have finished between the lookup and the registration
+            entry = getCompleted(key);
+            if (entry != null) {
+                execution.future.complete(entry.result);
+                inFlight.remove(key, execution);
+                return IdempotencyStore.replay(fingerprint, entry);
+            }
+            Object result = call.call();
+            if (result instanceof CompletableFuture) {
+                //An asynchronous endpoint: duplicates share the future, its value is stored once it is there
+                execution.future.complete(result);
+                ((CompletableFuture<?>) result).whenComplete((value, error) -> {
+                    if (error == null && filter.isReplayable(value)) {
+                        putCompleted(key, fingerprint, CompletableFuture.completedFuture(value));
+                    }
+                    inFlight.remove(key, execution);
+                });
+                return result;
+            }
+            if (filter.isReplayable(result)) {
+                putCompleted(key, fingerprint, result);
+            }
+            execution.future.complete(result);
+            inFlight.remove(key, execution);
+            return result;
+        } catch (Throwable t) {
+            execution.future.completeExceptionally(t);
+            inFlight.remove(key, execution);
+            throw t;
+        }
+    }
+
+    public synchronized int size()
+    {
+        return completed.size();
+    }
+
+    public int inFlightSize()
+    {
+        return inFlight.size();
+    }
+
+    private static Object replay(String fingerprint, Entry entry)
+    {
+        IdempotencyStore.checkFingerprint(fingerprint, entry.fingerprint);
+        return entry.result;
+    }
+
+    private static void checkFingerprint(String fingerprint, String original)
+    {
+        if (!Objects.equals(fingerprint, original)) {
+            throw new IdempotencyKeyReusedException("The idempotency key was already used for another request");
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) throws Throwable
+    {
+        try {
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new IdempotencyException("A request with the same idempotency key is still in progress", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyException("Interrupted while waiting for the original request", e);
+        }
+    }
+
+    private synchronized Entry getCompleted(String key)
+    {
+        Entry entry = completed.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            completed.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void putCompleted(String key, String fingerprint, Object result)
+    {
+        completed.put(key, new Entry(fingerprint, result, System.currentTimeMillis() + ttlMillis));
+    }
+}
@@ -0,0 +1,21 @@
+package edu.fudan.common.idempotency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method whose result is replayed for retries carrying the same
+ * {@value IdempotencyAspect#IDEMPOTENCY_KEY_HEADER} header. Requests without the header are
+ * executed as usual.
+ *
+ * @author fdse
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent
+{
+}
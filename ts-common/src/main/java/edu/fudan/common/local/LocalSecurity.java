@@ -0,0 +1,82 @@
+package edu.fudan.common.local;
+
+import java.util.Collection;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+
+/**
+ * The URL authorization of a service, asked whether it lets a request through without a
+ * token. Only such requests are called in process: the token check and the other servlet
+ * filters of the called service do not run for a local call, so anything they would have to
+ * decide, like an admin endpoint, is left to HTTP.
+ *
+ * @author fdse
+ */
+public class LocalSecurity
+{
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken("local", "anonymousUser",
+        AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+    private final FilterChainProxy filterChainProxy;
+
+    /**
+     * @param filterChainProxy the service's Spring Security filters, null when it has none
+     */
+    public LocalSecurity(FilterChainProxy filterChainProxy)
+    {
+        this.filterChainProxy = filterChainProxy;
+    }
+
+    public boolean permitsAnonymous(HttpMethod method, String path, String query)
+    {
+        if (filterChainProxy == null) {
+            return true;
+        }
+        FilterInvocation invocation = new FilterInvocation(null, path, null, query, method.name());
+        HttpServletRequest request = invocation.getHttpRequest();
+        try {
+            for (SecurityFilterChain chain : filterChainProxy.getFilterChains()) {
+                if (chain.matches(request)) {
+                    return permits(chain, invocation);
+                }
+            }
+            return true;
+        } catch (AccessDeniedException | InsufficientAuthenticationException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            //A matcher or rule needs more of the request than a path and a method, e.g. the client address
+            return false;
+        }
+    }
+
+    private static boolean permits(SecurityFilterChain chain, FilterInvocation invocation)
+    {
+        for (Filter filter : chain.getFilters()) {
+            if (filter instanceof FilterSecurityInterceptor) {
+                FilterSecurityInterceptor interceptor = (FilterSecurityInterceptor) filter;
+                Collection<ConfigAttribute> attributes = interceptor.obtainSecurityMetadataSource()
+                    .getAttributes(invocation);
+                if (attributes == null || attributes.isEmpty()) {
+                    return !interceptor.isRejectPublicInvocations();
+                }
+                AccessDecisionManager accessDecisionManager = interceptor.getAccessDecisionManager();
+                accessDecisionManager.decide(LocalSecurity.ANONYMOUS, invocation, attributes);
+            }
+        }
+        return true;
+    }
+}
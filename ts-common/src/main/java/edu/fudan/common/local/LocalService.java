@@ -0,0 +1,327 @@
+package edu.fudan.common.local;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The controllers of a service running in this JVM, called directly instead of over HTTP.
+ * The handler is looked up like Spring MVC does, by method and path pattern, and invoked on the
+ * controller bean, so its Hystrix and idempotency aspects still apply. Request and response
+ * objects are handed over with {@link ObjectMapper#convertValue}, which copies them into the
+ * other service's own entity classes without writing JSON.
+ * <p>
+ * The servlet filters of the called service, its token check among them, do not run, so only
+ * requests its security lets through without a token are called directly, see
+ * {@link LocalSecurity}; the others go over HTTP. Controllers taking anything other than path
+ * variables, request parameters, headers and a request body are left to HTTP as well.
+ * Exceptions thrown by the controller reach the caller as the status DispatcherServlet would
+ * answer with.
+ *
+ * @author fdse
+ */
+public class LocalService
+{
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final String name;
+
+    private final ObjectMapper objectMapper;
+
+    private final LocalSecurity security;
+
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    public LocalService(String name, RequestMappingHandlerMapping handlerMapping, ObjectMapper objectMapper,
+        LocalSecurity security)
+    {
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.security = security;
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handlerMethod = entry.getValue();
+            if (!isSupported(handlerMethod)) {
+                continue;
+            }
+            Set<RequestMethod> methods = entry.getKey().getMethodsCondition().getMethods();
+            for (String pattern : entry.getKey().getPatternsCondition().getPatterns()) {
+                endpoints.add(new Endpoint(pattern, methods, handlerMethod.createWithResolvedBean()));
+            }
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @param responseType in the type system of the caller's ObjectMapper
+     * @return the answer, or null when no controller takes the request, or the service's security
+     * does not let it through without a token, and it has to go over HTTP
+     * @throws HttpClientErrorException when the controller answers or throws 4xx, like RestTemplate would
+     * @throws HttpServerErrorException when the controller answers or throws 5xx, like RestTemplate would
+     */
+    public <T> ResponseEntity<T> dispatch(HttpMethod method, URI uri, HttpEntity<?> request,
+        ObjectMapper callerMapper, JavaType responseType)
+    {
+        String path = uri.getPath();
+        Endpoint endpoint = find(method, path);
+        if (endpoint == null || !security.permitsAnonymous(method, path, uri.getRawQuery())) {
+            return null;
+        }
+        Object[] arguments;
+        try {
+            arguments = arguments(endpoint, path, uri, request);
+        } catch (ConversionException | IllegalArgumentException e) {
+            //Answered 400 by Spring MVC, which fails to read the argument before calling the controller
+            throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                new HttpHeaders(), null, null);
+        }
+        Object result;
+        try {
+            result = await(invoke(endpoint, arguments));
+        } catch (RuntimeException e) {
+            throw LocalService.toStatus(e);
+        }
+
+        HttpStatus status = HttpStatus.OK;
+        HttpHeaders headers = new HttpHeaders();
+        Object body = result;
+        if (result instanceof HttpEntity) {
+            HttpEntity<?> entity = (HttpEntity<?>) result;
+            headers.putAll(entity.getHeaders());
+            body = entity.getBody();
+            if (entity instanceof ResponseEntity) {
+                status = ((ResponseEntity<?>) entity).getStatusCode();
+            }
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(endpoint.handler.getMethod(),
+            ResponseStatus.class);
+        if (responseStatus != null) {
+            status = responseStatus.code();
+        }
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, status.getReasonPhrase(), headers, null, null);
+        }
+        if (status.is5xxServerError()) {
+            throw HttpServerErrorException.create(status, status.getReasonPhrase(), headers, null, null);
+        }
+        T converted = body == null ? null : callerMapper.convertValue(body, responseType);
+        return new ResponseEntity<>(converted, headers, status);
+    }
+
+    /**
+     * The status an exception of the controller is answered with, like DispatcherServlet's
+     * ResponseStatusExceptionResolver does, 500 when it does not name one
+     */
+    private static HttpStatusCodeException toStatus(RuntimeException e)
+    {
+        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+        String reason = null;
+        if (e instanceof ResponseStatusException) {
+            status = ((ResponseStatusException) e).getStatus();
+            reason = ((ResponseStatusException) e).getReason();
+        } else {
+            ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(),
+                ResponseStatus.class);
+            if (responseStatus != null) {
+                status = responseStatus.code();
+                reason = responseStatus.reason().isEmpty() ? null : responseStatus.reason();
+            }
+        }
+        String statusText = reason != null ? reason : status.getReasonPhrase();
+        HttpStatusCodeException converted = status.is4xxClientError()
+            ? HttpClientErrorException.create(status, statusText, new HttpHeaders(), null, null)
+            : HttpServerErrorException.create(status, statusText, new HttpHeaders(), null, null);
+        converted.initCause(e);
+        return converted;
+    }
+
+    private Endpoint find(HttpMethod method, String path)
+    {
+        RequestMethod requestMethod = RequestMethod.valueOf(method.name());
+        Comparator<String> specificity = pathMatcher.getPatternComparator(path);
+        Endpoint best = null;
+        for (Endpoint endpoint : endpoints) {
+            if ((endpoint.methods.isEmpty() || endpoint.methods.contains(requestMethod))
+                && pathMatcher.match(endpoint.pattern, path)
+                && (best == null || specificity.compare(endpoint.pattern, best.pattern) < 0))
+            {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    private Object[] arguments(Endpoint endpoint, String path, URI uri, HttpEntity<?> request)
+    {
+        Map<String, String> pathVariables = pathMatcher.extractUriTemplateVariables(endpoint.pattern, path);
+        MultiValueMap<String, String> queryParams = null;
+        MethodParameter[] parameters = endpoint.handler.getMethodParameters();
+        Object[] arguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            MethodParameter parameter = parameters[i];
+            parameter.initParameterNameDiscovery(PARAMETER_NAMES);
+            if (parameter.hasParameterAnnotation(PathVariable.class)) {
+                PathVariable pathVariable = parameter.getParameterAnnotation(PathVariable.class);
+                String variable = name(pathVariable.value(), pathVariable.name(), parameter);
+                arguments[i] = convert(pathVariables.get(variable), parameter);
+            } else if (parameter.hasParameterAnnotation(RequestParam.class)) {
+                if (queryParams == null) {
+                    queryParams = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+                }
+                RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+                String value = queryParams.getFirst(name(requestParam.value(), requestParam.name(), parameter));
+                arguments[i] = convert(value == null ? null : UriUtils.decode(value, "UTF-8"), parameter);
+            } else if (parameter.hasParameterAnnotation(RequestHeader.class)) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(request.getHeaders());
+                if (HttpHeaders.class.isAssignableFrom(parameter.getParameterType())) {
+                    arguments[i] = headers;
+                } else {
+                    RequestHeader requestHeader = parameter.getParameterAnnotation(RequestHeader.class);
+                    String header = name(requestHeader.value(), requestHeader.name(), parameter);
+                    arguments[i] = convert(headers.getFirst(header), parameter);
+                }
+            } else {
+                Object body = request.getBody();
+                arguments[i] = body == null ? null
+                    : objectMapper.convertValue(body, objectMapper.constructType(parameter.getGenericParameterType()));
+            }
+        }
+        return arguments;
+    }
+
+    private Object convert(String value, MethodParameter parameter)
+    {
+        return conversionService.convert(value, TypeDescriptor.valueOf(String.class), new TypeDescriptor(parameter));
+    }
+
+    private static String name(String value, String name, MethodParameter parameter)
+    {
+        if (!value.isEmpty()) {
+            return value;
+        }
+        return name.isEmpty() ? parameter.getParameterName() : name;
+    }
+
+    private static Object invoke(Endpoint endpoint, Object[] arguments)
+    {
+        Method method = endpoint.handler.getBridgedMethod();
+        ReflectionUtils.makeAccessible(method);
+        try {
+            return method.invoke(endpoint.handler.getBean(), arguments);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getTargetException();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RestClientException("Local call to " + method + " failed", cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The value of an asynchronous controller, waited for like the HTTP caller would
+     */
+    private static Object await(Object result)
+    {
+        if (!(result instanceof CompletionStage)) {
+            return result;
+        }
+        try {
+            return ((CompletionStage<?>) result).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Every parameter is a path variable, a request parameter, a header or the request body
+     */
+    private static boolean isSupported(HandlerMethod handlerMethod)
+    {
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            if (!parameter.hasParameterAnnotation(PathVariable.class)
+                && !parameter.hasParameterAnnotation(RequestParam.class)
+                && !parameter.hasParameterAnnotation(RequestHeader.class)
+                && !parameter.hasParameterAnnotation(RequestBody.class))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Endpoint
+    {
+        private final String pattern;
+
+        private final Set<RequestMethod> methods;
+
+        private final HandlerMethod handler;
+
+        Endpoint(String pattern, Set<RequestMethod> methods, HandlerMethod handler)
+        {
+            this.pattern = pattern;
+            this.methods = methods;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package edu.fudan.common.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Makes a service take part in a co-located deployment: once its context is up, its
+ * controllers are registered in {@link LocalServices} under {@code name}, and the RestTemplate
+ * beans it built from the RestTemplateBuilder are swapped for {@link LocalRestTemplate}s.
+ *
+ * @author fdse
+ */
+public class LocalServiceRegistrar implements BeanPostProcessor, BeanFactoryAware, SmartInitializingSingleton,
+    DisposableBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalServiceRegistrar.class);
+
+    private final String name;
+
+    private BeanFactory beanFactory;
+
+    private LocalService service;
+
+    public LocalServiceRegistrar(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException
+    {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Only plain RestTemplates, a bean of a subclass was made that way on purpose
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException
+    {
+        if (bean.getClass() != RestTemplate.class) {
+            return bean;
+        }
+        LocalServiceRegistrar.LOGGER.info("[Local] RestTemplate {} calls co-located services directly", beanName);
+        return beanFactory.getBean(RestTemplateBuilder.class).build(LocalRestTemplate.class);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated()
+    {
+        RequestMappingHandlerMapping handlerMapping = beanFactory.getBean("requestMappingHandlerMapping",
+            RequestMappingHandlerMapping.class);
+        ObjectMapper objectMapper = beanFactory.getBeanProvider(ObjectMapper.class).getIfUnique(ObjectMapper::new);
+        FilterChainProxy filterChainProxy = beanFactory.getBeanProvider(FilterChainProxy.class).getIfAvailable();
+        service = new LocalService(name, handlerMapping, objectMapper, new LocalSecurity(filterChainProxy));
+        LocalServices.register(service);
+        LocalServiceRegistrar.LOGGER.info("[Local] {} registered for in-process calls", name);
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (service != null) {
+            LocalServices.unregister(service);
+        }
+    }
+}
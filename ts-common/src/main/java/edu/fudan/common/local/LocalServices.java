@@ -0,0 +1,37 @@
+package edu.fudan.common.local;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The services running in this JVM, by the host name the other services call them with,
+ * e.g. {@code ts-station-service}. Shared by all Spring contexts of a co-located deployment.
+ *
+ * @author fdse
+ */
+public final class LocalServices
+{
+    private static final Map<String, LocalService> SERVICES = new ConcurrentHashMap<>();
+
+    private LocalServices()
+    {
+    }
+
+    public static void register(LocalService service)
+    {
+        SERVICES.put(service.getName(), service);
+    }
+
+    public static void unregister(LocalService service)
+    {
+        SERVICES.remove(service.getName(), service);
+    }
+
+    /**
+     * @return the service, or null when it runs elsewhere
+     */
+    public static LocalService find(String host)
+    {
+        return host == null ? null : SERVICES.get(host);
+    }
+}
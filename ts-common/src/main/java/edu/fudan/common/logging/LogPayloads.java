@@ -0,0 +1,155 @@
+package edu.fudan.common.logging;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+
+import edu.fudan.common.util.Response;
+
+/**
+ * Log arguments that describe a payload by its type, size and id instead of its body. The
+ * returned objects are lazy, nothing is computed unless the message is actually written.
+ * <pre>
+ *     LOGGER.info("[Seat Service] Sold tickets: {}", LogPayloads.summary(re3.getBody()));
+ * </pre>
+ * logs {@code Response[status=1, msg=Success, data=LeftTicketInfo]} rather than every ticket.
+ *
+ * @author fdse
+ */
+public class LogPayloads
+{
+    private static final int MAX_TEXT = 64;
+
+    private static final int MAX_IDS = 5;
+
+    private static final ClassValue<Method> ID_GETTERS = new ClassValue<Method>()
+    {
+        @Override
+        protected Method computeValue(Class<?> type)
+        {
+            try {
+                Method getter = type.getMethod("getId");
+                boolean usable = !Modifier.isStatic(getter.getModifiers()) && getter.getReturnType() != void.class;
+                return usable ? getter : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private LogPayloads()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Type, size and id of a payload; responses and http entities are unwrapped one level
+     */
+    public static Object summary(Object payload)
+    {
+        return new Lazy(() -> summarize(payload, true));
+    }
+
+    /**
+     * Number of items and the ids of the first few of them
+     */
+    public static <T> Object ids(Collection<T> items, Function<? super T, ?> id)
+    {
+        return new Lazy(() -> {
+            if (items == null) {
+                return "null";
+            }
+            StringBuilder builder = new StringBuilder("[size=").append(items.size()).append(", ids=");
+            Iterator<T> iterator = items.iterator();
+            for (int i = 0; i < MAX_IDS && iterator.hasNext(); i++) {
+                builder.append(i == 0 ? "" : ",").append(id.apply(iterator.next()));
+            }
+            if (iterator.hasNext()) {
+                builder.append(",...");
+            }
+            return builder.append(']').toString();
+        });
+    }
+
+    static String summarize(Object payload, boolean unwrap)
+    {
+        if (payload == null) {
+            return "null";
+        }
+        if (payload instanceof CharSequence) {
+            CharSequence text = (CharSequence) payload;
+            return text.length() <= MAX_TEXT ? text.toString()
+                : text.subSequence(0, MAX_TEXT) + "...(" + text.length() + " chars)";
+        }
+        if (payload instanceof Number || payload instanceof Boolean || payload instanceof Character
+            || payload instanceof Enum || payload instanceof UUID || payload instanceof Date
+            || payload instanceof TemporalAccessor) {
+            return payload.toString();
+        }
+        if (payload instanceof Collection) {
+            return payload.getClass().getSimpleName() + "[size=" + ((Collection<?>) payload).size() + "]";
+        }
+        if (payload instanceof Map) {
+            return payload.getClass().getSimpleName() + "[size=" + ((Map<?, ?>) payload).size() + "]";
+        }
+        if (payload.getClass().isArray()) {
+            return payload.getClass().getComponentType().getSimpleName() + "[length="
+                + Array.getLength(payload) + "]";
+        }
+        if (unwrap && payload instanceof Response) {
+            Response<?> response = (Response<?>) payload;
+            return "Response[status=" + response.getStatus() + ", msg=" + response.getMsg() + ", data="
+                + summarize(response.getData(), false) + "]";
+        }
+        if (unwrap && payload instanceof ResponseEntity) {
+            ResponseEntity<?> entity = (ResponseEntity<?>) payload;
+            return "ResponseEntity[status=" + entity.getStatusCodeValue() + ", body="
+                + summarize(entity.getBody(), true) + "]";
+        }
+        if (unwrap && payload instanceof HttpEntity) {
+            return "HttpEntity[body=" + summarize(((HttpEntity<?>) payload).getBody(), true) + "]";
+        }
+        return withId(payload);
+    }
+
+    private static String withId(Object payload)
+    {
+        String type = payload.getClass().getSimpleName();
+        Method getter = ID_GETTERS.get(payload.getClass());
+        if (getter == null) {
+            return type;
+        }
+        try {
+            return type + "[id=" + getter.invoke(payload) + "]";
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return type;
+        }
+    }
+
+    private static final class Lazy
+    {
+        private final Supplier<String> text;
+
+        private Lazy(Supplier<String> text)
+        {
+            this.text = text;
+        }
+
+        @Override
+        public String toString()
+        {
+            return text.get();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package edu.fudan.common.logging;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Lets only a fraction of the INFO and lower events of chosen loggers through. Rates are set
+ * per logger name and apply to its children, the most specific name wins; WARN and ERROR
+ * are never sampled. The decision is taken before the message is formatted, so dropped
+ * events cost neither {@code toString} nor appender time.
+ *
+ * @author fdse
+ */
+public class SamplingTurboFilter extends TurboFilter
+{
+    private static final Double ALL = 1.0;
+
+    private volatile Map<String, Double> rates = Collections.emptyMap();
+
+    private final Map<String, Double> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * @param rates fraction of events to keep, between 0 and 1, by logger name
+     */
+    public void setRates(Map<String, Double> rates)
+    {
+        this.rates = new ConcurrentHashMap<>(rates);
+        resolved.clear();
+    }
+
+    public Map<String, Double> getRates()
+    {
+        return Collections.unmodifiableMap(rates);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+        Throwable t)
+    {
+        if (rates.isEmpty() || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = rateOf(logger.getName());
+        if (rate >= 1) {
+            return FilterReply.NEUTRAL;
+        }
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    double rateOf(String loggerName)
+    {
+        Double rate = resolved.get(loggerName);
+        if (rate == null) {
+            rate = ALL;
+            String name = loggerName;
+            while (name != null) {
+                Double configured = rates.get(name);
+                if (configured != null) {
+                    rate = configured;
+                    break;
+                }
+                int dot = name.lastIndexOf('.');
+                name = dot < 0 ? null : name.substring(0, dot);
+            }
+            resolved.put(loggerName, rate);
+        }
+        return rate;
+    }
+}
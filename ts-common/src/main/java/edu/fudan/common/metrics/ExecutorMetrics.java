@@ -0,0 +1,65 @@
+package edu.fudan.common.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Pool size, active threads, queue length and completed tasks of every thread pool bean,
+ * e.g. inside-payment's {@code mySimpleAsync}, tagged with the bean name. Bound once all
+ * singletons exist, because executors are often declared as plain {@code Executor} beans.
+ *
+ * @author fdse
+ */
+public class ExecutorMetrics implements SmartInitializingSingleton
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorMetrics.class);
+
+    private final ListableBeanFactory beanFactory;
+
+    private final MeterRegistry registry;
+
+    public ExecutorMetrics(ListableBeanFactory beanFactory, MeterRegistry registry)
+    {
+        this.beanFactory = beanFactory;
+        this.registry = registry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated()
+    {
+        Map<String, ThreadPoolTaskExecutor> executors = beanFactory.getBeansOfType(ThreadPoolTaskExecutor.class,
+            false, false);
+        for (Map.Entry<String, ThreadPoolTaskExecutor> executor : executors.entrySet()) {
+            try {
+                bind(executor.getKey(), executor.getValue().getThreadPoolExecutor());
+            } catch (IllegalStateException e) {
+                ExecutorMetrics.LOGGER.warn("[Metrics] Executor {} is not initialized", executor.getKey());
+            }
+        }
+        Map<String, ThreadPoolTaskScheduler> schedulers = beanFactory.getBeansOfType(ThreadPoolTaskScheduler.class,
+            false, false);
+        for (Map.Entry<String, ThreadPoolTaskScheduler> scheduler : schedulers.entrySet()) {
+            try {
+                bind(scheduler.getKey(), scheduler.getValue().getScheduledThreadPoolExecutor());
+            } catch (IllegalStateException e) {
+                ExecutorMetrics.LOGGER.warn("[Metrics] Scheduler {} is not initialized", scheduler.getKey());
+            }
+        }
+    }
+
+    private void bind(String name, ExecutorService executor)
+    {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+    }
+}
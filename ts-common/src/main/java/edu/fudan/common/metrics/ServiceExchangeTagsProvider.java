@@ -0,0 +1,64 @@
+package edu.fudan.common.metrics;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTags;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTagsProvider;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.Tag;
+
+/**
+ * Tags of the {@code http.client.requests} timers. Services build their request urls by
+ * concatenation, so the default uri tag would carry every order id and date; here path
+ * segments holding digits, other than the api version, are replaced by {@code {id}}, which
+ * keeps one timer per operation of the target service ({@code clientName}).
+ *
+ * @author fdse
+ */
+public class ServiceExchangeTagsProvider implements RestTemplateExchangeTagsProvider
+{
+    private static final String ID = "{id}";
+
+    private static final Pattern VERSION = Pattern.compile("v\\d+");
+
+    @Override
+    public Iterable<Tag> getTags(String urlTemplate, HttpRequest request, ClientHttpResponse response)
+    {
+        return Arrays.asList(RestTemplateExchangeTags.method(request),
+            Tag.of("uri", normalize(request.getURI().getPath())),
+            RestTemplateExchangeTags.status(response),
+            RestTemplateExchangeTags.clientName(request),
+            RestTemplateExchangeTags.outcome(response));
+    }
+
+    static String normalize(String path)
+    {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        StringBuilder normalized = new StringBuilder(path.length());
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            normalized.append('/').append(isId(segment) ? ID : segment);
+        }
+        return normalized.length() == 0 ? "/" : normalized.toString();
+    }
+
+    private static boolean isId(String segment)
+    {
+        if (VERSION.matcher(segment).matches()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.fudan.common.mongo;
+
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Fails every Spring Data repository call whose queries with a filter run as a collection scan,
+ * so a test run catches a lookup that has no index. Each filter shape is explained once. Reads of
+ * a whole collection, like {@code findAll}, are not checked.
+ *
+ * @author fdse
+ */
+@Aspect
+public class CollectionScanAspect
+{
+    private final QueryPlans queryPlans;
+
+    public CollectionScanAspect(QueryPlans queryPlans)
+    {
+        this.queryPlans = queryPlans;
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        List<MongoQuery> queries = SlowQueryListener.startRecording();
+        if (queries == null) {
+            return joinPoint.proceed();
+        }
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            SlowQueryListener.stopRecording();
+        }
+        for (MongoQuery query : queries) {
+            if (query.hasFilter() && QueryPlans.isCollectionScan(queryPlans.explain(query))) {
+                throw new IllegalStateException(joinPoint.getSignature().toShortString() + " ran as a COLLSCAN: "
+                    + query + ", declare an index for it in ts.mongo.indexes." + query.getCollection());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package edu.fudan.common.mongo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * The indexes a service declares per collection, e.g.
+ * {@code ts.mongo.indexes.orders=accountId, travelDate+trainNumber}: indexes are separated by
+ * commas, the fields of a compound index joined by {@code +}, and a {@code -} before a field makes
+ * it descending. Ensuring an index that exists already does nothing.
+ *
+ * @author fdse
+ */
+public final class MongoIndexes
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoIndexes.class);
+
+    private MongoIndexes()
+    {
+    }
+
+    /**
+     * @throws IllegalArgumentException when an index has an empty field
+     */
+    public static List<Index> parse(String declaration)
+    {
+        List<Index> indexes = new ArrayList<>();
+        for (String fields : declaration.split(",")) {
+            if (fields.trim().isEmpty()) {
+                continue;
+            }
+            Index index = new Index();
+            for (String field : fields.split("\\+")) {
+                field = field.trim();
+                if (field.isEmpty() || "-".equals(field)) {
+                    throw new IllegalArgumentException("Index " + fields.trim() + " has an empty field");
+                }
+                if (field.startsWith("-")) {
+                    index.on(field.substring(1), Sort.Direction.DESC);
+                } else {
+                    index.on(field, Sort.Direction.ASC);
+                }
+            }
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
+    /**
+     * Creates the missing indexes. An index that cannot be created, e.g. because one with the same
+     * fields and other options exists, is logged and skipped; when the database cannot be reached
+     * the rest are skipped too.
+     *
+     * @param declarations the indexes of each collection
+     * @return how many indexes are in place
+     */
+    public static int ensure(MongoOperations mongo, Map<String, String> declarations)
+    {
+        int ensured = 0;
+        for (Map.Entry<String, String> collection : declarations.entrySet()) {
+            for (Index index : MongoIndexes.parse(collection.getValue())) {
+                try {
+                    mongo.indexOps(collection.getKey()).ensureIndex(index);
+                    ensured++;
+                } catch (DataAccessResourceFailureException e) {
+                    MongoIndexes.LOGGER.warn("[Mongo] Indexes not ensured, the database is unreachable: {}",
+                        e.getMessage());
+                    return ensured;
+                } catch (RuntimeException e) {
+                    MongoIndexes.LOGGER.warn("[Mongo] Index {} on {} not ensured: {}", index.getIndexKeys().toJson(),
+                        collection.getKey(), e.getMessage());
+                }
+            }
+        }
+        MongoIndexes.LOGGER.info("[Mongo] {} indexes ensured on {} collections", ensured, declarations.size());
+        return ensured;
+    }
+}
@@ -0,0 +1,183 @@
+package edu.fudan.common.mongo;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * A query command sent to Mongo: its collection, the shape of its filter, with the values left
+ * out, e.g. {@code {accountId: ?}}, and the command itself without the driver's session and
+ * transaction fields, so it can be explained. Immutable.
+ *
+ * @author fdse
+ */
+public final class MongoQuery
+{
+    private static final Set<String> COMMANDS = new HashSet<>(Arrays.asList("find", "count", "distinct",
+        "aggregate", "findAndModify", "update", "delete"));
+
+    private static final Set<String> LOGICAL_OPERATORS = new HashSet<>(Arrays.asList("$and", "$or", "$nor"));
+
+    private final String commandName;
+
+    private final String collection;
+
+    private final BsonDocument filter;
+
+    private final String shape;
+
+    private final BsonDocument command;
+
+    private MongoQuery(String commandName, String collection, BsonDocument filter, BsonDocument command)
+    {
+        this.commandName = commandName;
+        this.collection = collection;
+        this.filter = filter;
+        this.shape = MongoQuery.shape(filter);
+        this.command = command;
+    }
+
+    /**
+     * @param command the command as sent, only read during the call
+     * @return null when the command does not query a collection
+     */
+    public static MongoQuery of(String commandName, BsonDocument command)
+    {
+        if (!MongoQuery.COMMANDS.contains(commandName)) {
+            return null;
+        }
+        BsonDocument explainable = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            String name = field.getKey();
+            if (!name.startsWith("$") && !"lsid".equals(name) && !"txnNumber".equals(name)
+                && !"autocommit".equals(name) && !"startTransaction".equals(name)
+                && !"readConcern".equals(name) && !"writeConcern".equals(name))
+            {
+                explainable.put(name, field.getValue());
+            }
+        }
+        BsonValue collection = explainable.get(commandName);
+        if (collection == null || !collection.isString()) {
+            return null;
+        }
+        return new MongoQuery(commandName, collection.asString().getValue(),
+            MongoQuery.filterOf(commandName, explainable), explainable);
+    }
+
+    /**
+     * @return the filter with every value replaced by {@code ?}, keeping the fields and operators
+     */
+    public static String shape(BsonDocument filter)
+    {
+        StringBuilder shape = new StringBuilder();
+        MongoQuery.appendShape(shape, filter);
+        return shape.toString();
+    }
+
+    public String getCommandName()
+    {
+        return commandName;
+    }
+
+    public String getCollection()
+    {
+        return collection;
+    }
+
+    public String getShape()
+    {
+        return shape;
+    }
+
+    /**
+     * @return whether the query selects documents, as opposed to reading the whole collection
+     */
+    public boolean hasFilter()
+    {
+        return !filter.isEmpty();
+    }
+
+    BsonDocument getCommand()
+    {
+        return command;
+    }
+
+    @Override
+    public String toString()
+    {
+        return commandName + " " + collection + " " + shape;
+    }
+
+    private static BsonDocument filterOf(String commandName, BsonDocument command)
+    {
+        BsonValue filter;
+        switch (commandName) {
+            case "find":
+                filter = command.get("filter");
+                break;
+            case "update":
+            case "delete":
+                filter = MongoQuery.first(command.get(commandName.equals("update") ? "updates" : "deletes"), "q");
+                break;
+            case "aggregate":
+                filter = MongoQuery.first(command.get("pipeline"), "$match");
+                break;
+            default:
+                filter = command.get("query");
+                break;
+        }
+        return filter != null && filter.isDocument() ? filter.asDocument() : new BsonDocument();
+    }
+
+    private static BsonValue first(BsonValue array, String field)
+    {
+        if (array == null || !array.isArray() || array.asArray().isEmpty()) {
+            return null;
+        }
+        BsonValue first = array.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get(field) : null;
+    }
+
+    private static void appendShape(StringBuilder shape, BsonDocument document)
+    {
+        shape.append('{');
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> field : document.entrySet()) {
+            if (!first) {
+                shape.append(", ");
+            }
+            first = false;
+            shape.append(field.getKey()).append(": ");
+            BsonValue value = field.getValue();
+            if (value.isDocument()) {
+                MongoQuery.appendShape(shape, value.asDocument());
+            } else if (value.isArray() && MongoQuery.LOGICAL_OPERATORS.contains(field.getKey())) {
+                MongoQuery.appendShapes(shape, value.asArray());
+            } else {
+                shape.append('?');
+            }
+        }
+        shape.append('}');
+    }
+
+    private static void appendShapes(StringBuilder shape, BsonArray clauses)
+    {
+        shape.append('[');
+        for (int i = 0; i < clauses.size(); i++) {
+            if (i > 0) {
+                shape.append(", ");
+            }
+            if (clauses.get(i).isDocument()) {
+                MongoQuery.appendShape(shape, clauses.get(i).asDocument());
+            } else {
+                shape.append('?');
+            }
+        }
+        shape.append(']');
+    }
+}
@@ -0,0 +1,147 @@
+package edu.fudan.common.mongo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Explains queries and sums up the winning plan, e.g. {@code FETCH(IXSCAN {accountId: 1})} or
+ * {@code COLLSCAN}. Plans are kept per collection and filter shape, so a shape is explained once;
+ * explaining only asks the planner and does not run the query.
+ *
+ * @author fdse
+ */
+public class QueryPlans
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryPlans.class);
+
+    private static final int MAX_PLANS = 1000;
+
+    private static final String UNAVAILABLE = "unavailable";
+
+    private final Function<Document, Document> runCommand;
+
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param runCommand runs a command on the service's database
+     */
+    public QueryPlans(Function<Document, Document> runCommand)
+    {
+        this.runCommand = runCommand;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+            task -> {
+                Thread thread = new Thread(task, "mongo-explain");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * @return the plan summary, {@code unavailable} when the query could not be explained
+     */
+    public String explain(MongoQuery query)
+    {
+        String key = query.toString();
+        String plan = plans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        try {
+            plan = QueryPlans.summary(runCommand.apply(new Document("explain", query.getCommand())
+                .append("verbosity", "queryPlanner")));
+        } catch (RuntimeException e) {
+            QueryPlans.LOGGER.debug("[Mongo] Could not explain {}: {}", query, e.getMessage());
+            return QueryPlans.UNAVAILABLE;
+        }
+        if (plans.size() < QueryPlans.MAX_PLANS) {
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Hands the plan summary to the action, at once when the shape was explained before and on
+     * a background thread otherwise, so the thread that ran the query is not held up
+     */
+    public void explainLater(MongoQuery query, Consumer<String> action)
+    {
+        String plan = plans.get(query.toString());
+        if (plan != null) {
+            action.accept(plan);
+            return;
+        }
+        try {
+            executor.execute(() -> action.accept(explain(query)));
+        } catch (RejectedExecutionException e) {
+            action.accept(QueryPlans.UNAVAILABLE);
+        }
+    }
+
+    public static boolean isCollectionScan(String plan)
+    {
+        return plan.contains("COLLSCAN");
+    }
+
+    /**
+     * @param explained the answer to an explain command, of a replica set or of mongos
+     */
+    static String summary(Document explained)
+    {
+        Document planner = explained.get("queryPlanner", Document.class);
+        if (planner == null) {
+            //aggregations explain the query of their first stage
+            List<?> stages = explained.get("stages", List.class);
+            Object cursor = stages == null || stages.isEmpty() ? null : ((Document) stages.get(0)).get("$cursor");
+            planner = cursor instanceof Document ? ((Document) cursor).get("queryPlanner", Document.class) : null;
+        }
+        return planner == null ? "unknown" : QueryPlans.stage(planner.get("winningPlan", Document.class));
+    }
+
+    private static String stage(Document plan)
+    {
+        if (plan == null) {
+            return "unknown";
+        }
+        StringBuilder summary = new StringBuilder(plan.get("stage", "?"));
+        Document keyPattern = plan.get("keyPattern", Document.class);
+        if (keyPattern != null) {
+            summary.append(" {");
+            boolean first = true;
+            for (Map.Entry<String, Object> key : keyPattern.entrySet()) {
+                summary.append(first ? "" : ", ").append(key.getKey()).append(": ").append(key.getValue());
+                first = false;
+            }
+            summary.append('}');
+        }
+        List<Document> inputs = new ArrayList<>();
+        if (plan.get("inputStage") instanceof Document) {
+            inputs.add(plan.get("inputStage", Document.class));
+        }
+        for (String children : new String[] {"inputStages", "shards"}) {
+            if (plan.get(children) instanceof List) {
+                for (Object child : plan.get(children, List.class)) {
+                    Document stage = (Document) child;
+                    inputs.add(stage.containsKey("winningPlan") ? stage.get("winningPlan", Document.class) : stage);
+                }
+            }
+        }
+        for (int i = 0; i < inputs.size(); i++) {
+            summary.append(i == 0 ? "(" : ", ").append(QueryPlans.stage(inputs.get(i)));
+        }
+        return inputs.isEmpty() ? summary.toString() : summary.append(')').toString();
+    }
+}
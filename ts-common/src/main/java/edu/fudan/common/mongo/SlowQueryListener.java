@@ -0,0 +1,122 @@
+package edu.fudan.common.mongo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times the queries of a service per collection, command and filter shape
+ * ({@code mongodb.queries}) and logs the ones slower than the threshold with their filter shape
+ * and plan, e.g. {@code [Mongo] Slow find on orders: 230 ms, filter {accountId: ?}, plan
+ * COLLSCAN}. Inserts and other commands are left to {@code mongodb.driver.commands}.
+ * <p>
+ * Also records the queries a thread sends while {@link #startRecording} is on, for
+ * {@link CollectionScanAspect}; the synchronous driver sends the events on the calling thread.
+ *
+ * @author fdse
+ */
+public class SlowQueryListener implements CommandListener
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private static final ThreadLocal<List<MongoQuery>> RECORDED = new ThreadLocal<>();
+
+    private final long slowNanos;
+
+    private final QueryPlans queryPlans;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Integer, MongoQuery> running = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry null to only log
+     */
+    public SlowQueryListener(long slowMillis, QueryPlans queryPlans, MeterRegistry meterRegistry)
+    {
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.queryPlans = queryPlans;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the queries the current thread sends until {@link #stopRecording}
+     *
+     * @return the list they are added to, null when the thread is recording already
+     */
+    static List<MongoQuery> startRecording()
+    {
+        if (SlowQueryListener.RECORDED.get() != null) {
+            return null;
+        }
+        List<MongoQuery> queries = new ArrayList<>();
+        SlowQueryListener.RECORDED.set(queries);
+        return queries;
+    }
+
+    static void stopRecording()
+    {
+        SlowQueryListener.RECORDED.remove();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event)
+    {
+        MongoQuery query = MongoQuery.of(event.getCommandName(), event.getCommand());
+        if (query == null) {
+            return;
+        }
+        running.put(event.getRequestId(), query);
+        List<MongoQuery> recorded = SlowQueryListener.RECORDED.get();
+        if (recorded != null) {
+            recorded.add(query);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event)
+    {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event)
+    {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void finished(int requestId, long nanos)
+    {
+        MongoQuery query = running.remove(requestId);
+        if (query == null) {
+            return;
+        }
+        if (meterRegistry != null) {
+            Timer.builder("mongodb.queries")
+                .tag("collection", query.getCollection())
+                .tag("command", query.getCommandName())
+                .tag("shape", query.getShape())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (nanos >= slowNanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            queryPlans.explainLater(query, plan -> SlowQueryListener.LOGGER.warn(
+                "[Mongo] Slow {} on {}: {} ms, filter {}, plan {}", query.getCommandName(), query.getCollection(),
+                millis, query.getShape(), plan));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package edu.fudan.common.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A snapshot mapped by {@link SnapshotFile#open}. Entries are read from the mapping when asked
+ * for, not when the snapshot is opened. Thread-safe.
+ *
+ * @author fdse
+ */
+public class Snapshot
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(Snapshot.class);
+
+    private final ByteBuffer buffer;
+
+    private final long position;
+
+    private final int count;
+
+    private final int offsets;
+
+    Snapshot(ByteBuffer buffer, long position, int count, int offsets)
+    {
+        this.buffer = buffer;
+        this.position = position;
+        this.count = count;
+        this.offsets = offsets;
+    }
+
+    /**
+     * The change-log position the entries are at
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * @return a read-only view of the entry, null when there is none or it is corrupted
+     */
+    public ByteBuffer get(String key)
+    {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared;
+            try {
+                compared = SnapshotFile.readString(buffer, offset(middle)).compareTo(key);
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                Snapshot.LOGGER.warn("[Snapshot] Entry {} is corrupted", middle);
+                return null;
+            }
+            if (compared < 0) {
+                low = middle + 1;
+            } else if (compared > 0) {
+                high = middle - 1;
+            } else {
+                return read(middle, key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visits every entry that is not corrupted, in key order
+     */
+    public void forEach(BiConsumer<String, ByteBuffer> action)
+    {
+        for (int i = 0; i < count; i++) {
+            String key;
+            try {
+                key = SnapshotFile.readString(buffer, offset(i));
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                Snapshot.LOGGER.warn("[Snapshot] Entry {} is corrupted", i);
+                continue;
+            }
+            ByteBuffer entry = read(i, key);
+            if (entry != null) {
+                action.accept(key, entry);
+            }
+        }
+    }
+
+    private int offset(int index)
+    {
+        long offset = buffer.getLong(offsets + 8 * index);
+        if (offset < 0 || offset > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Entry " + index + " at " + offset);
+        }
+        return (int) offset;
+    }
+
+    private ByteBuffer read(int index, String key)
+    {
+        try {
+            int at = offset(index);
+            at += 4 + buffer.getInt(at);
+            int length = buffer.getInt(at);
+            int crc = buffer.getInt(at + 4);
+            ByteBuffer entry = buffer.duplicate();
+            entry.limit(at + 8 + length).position(at + 8);
+            entry = entry.slice().asReadOnlyBuffer();
+            CRC32 check = new CRC32();
+            check.update(entry.duplicate());
+            if ((int) check.getValue() != crc) {
+                Snapshot.LOGGER.warn("[Snapshot] Entry {} is corrupted", key);
+                return null;
+            }
+            return entry;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            Snapshot.LOGGER.warn("[Snapshot] Entry {} is corrupted", key);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package edu.fudan.common.tracing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.jaegertracing.internal.JaegerSpan;
+import io.jaegertracing.spi.Reporter;
+
+/**
+ * Jaeger reporter handing finished spans to the {@link SpanCollector} instead of sending them
+ * to an agent.
+ *
+ * @author fdse
+ */
+public class JaegerSpanReporter implements Reporter
+{
+    private final String service;
+
+    private final SpanCollector collector;
+
+    public JaegerSpanReporter(String service, SpanCollector collector)
+    {
+        this.service = service;
+        this.collector = collector;
+    }
+
+    @Override
+    public void report(JaegerSpan span)
+    {
+        //Span contexts print as traceId:spanId:parentId:flags in hex
+        String[] context = span.context().toString().split(":");
+        Map<String, String> tags = new HashMap<>();
+        for (Map.Entry<String, Object> tag : span.getTags().entrySet()) {
+            tags.put(tag.getKey(), String.valueOf(tag.getValue()));
+        }
+        collector.collect(new SpanRecord(context[0], context[1], context[2], service, span.getOperationName(),
+            span.getStart(), span.getDuration(), tags));
+    }
+
+    @Override
+    public void close()
+    {
+        collector.close();
+    }
+}
@@ -0,0 +1,65 @@
+package edu.fudan.common.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+
+/**
+ * Records a span for every Spring Data repository call made while serving a traced request.
+ * Calls outside of a trace, e.g. scheduled sweeps, are not recorded.
+ *
+ * @author fdse
+ */
+@Aspect
+public class RepositoryTracingAspect
+{
+    private static final String COMPONENT = "spring-data";
+
+    private static final ClassValue<String> REPOSITORY_NAMES = new ClassValue<String>()
+    {
+        @Override
+        protected String computeValue(Class<?> type)
+        {
+            //Repository proxies implement the user's repository interface first
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (!candidate.getName().startsWith("org.springframework.")) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        }
+    };
+
+    private final Tracer tracer;
+
+    public RepositoryTracingAspect(Tracer tracer)
+    {
+        this.tracer = tracer;
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable
+    {
+        if (tracer.activeSpan() == null) {
+            return joinPoint.proceed();
+        }
+        Span span = tracer.buildSpan(REPOSITORY_NAMES.get(joinPoint.getThis().getClass()) + "."
+            + joinPoint.getSignature().getName())
+            .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT)
+            .withTag(Tags.COMPONENT.getKey(), COMPONENT)
+            .start();
+        try (Scope scope = tracer.scopeManager().activate(span, false)) {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            Tags.ERROR.set(span, true);
+            throw t;
+        } finally {
+            span.finish();
+        }
+    }
+}
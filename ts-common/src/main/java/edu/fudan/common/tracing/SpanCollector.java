@@ -0,0 +1,191 @@
+package edu.fudan.common.tracing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * In-process span store. The last {@code capacity} finished spans are kept in a ring buffer
+ * that can be queried by trace id; when a file is configured every span is also appended to
+ * it as a JSON line by a background writer, so traces can be analysed after the service is
+ * gone with {@link TraceReport}. Reporting never blocks: spans that do not fit in the write
+ * queue are counted and dropped from the file, the ring buffer always gets them.
+ *
+ * @author fdse
+ */
+public class SpanCollector
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpanCollector.class);
+
+    private static final int WRITE_BATCH = 256;
+
+    private final SpanRecord[] ring;
+
+    private long written;
+
+    private final BlockingQueue<SpanRecord> fileQueue;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity number of spans kept in memory
+     * @param file span file, or null to keep spans in memory only
+     * @param queueSize spans waiting to be written before new ones are dropped
+     */
+    public SpanCollector(int capacity, Path file, int queueSize)
+    {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new SpanRecord[capacity];
+        if (file == null) {
+            this.fileQueue = null;
+        } else {
+            this.fileQueue = new ArrayBlockingQueue<>(queueSize);
+            Thread writer = new Thread(() -> writeLoop(file), "span-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public void collect(SpanRecord span)
+    {
+        synchronized (ring) {
+            ring[(int) (written % ring.length)] = span;
+            written++;
+        }
+        if (fileQueue != null && !fileQueue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Spans of one trace ordered by start time
+     */
+    public List<SpanRecord> trace(String traceId)
+    {
+        List<SpanRecord> spans = new ArrayList<>();
+        for (SpanRecord span : snapshot()) {
+            if (traceId.equals(span.getTraceId())) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong(SpanRecord::getStart));
+        return spans;
+    }
+
+    /**
+     * Root spans of the latest traces, newest first
+     */
+    public List<SpanRecord> recentRoots(int limit)
+    {
+        List<SpanRecord> spans = snapshot();
+        List<SpanRecord> roots = new ArrayList<>();
+        for (int i = spans.size() - 1; i >= 0 && roots.size() < limit; i--) {
+            if (spans.get(i).isRoot()) {
+                roots.add(spans.get(i));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Root spans of the slowest traces still in memory, slowest first
+     */
+    public List<SpanRecord> slowestRoots(int limit)
+    {
+        Map<String, SpanRecord> roots = new LinkedHashMap<>();
+        for (SpanRecord span : snapshot()) {
+            if (span.isRoot()) {
+                roots.put(span.getTraceId(), span);
+            }
+        }
+        List<SpanRecord> slowest = new ArrayList<>(roots.values());
+        slowest.sort(Comparator.comparingLong(SpanRecord::getDuration).reversed());
+        return slowest.subList(0, Math.min(limit, slowest.size()));
+    }
+
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    public void close()
+    {
+        //The writer drains the queue and stops within a second
+        running = false;
+    }
+
+    /**
+     * Spans in memory, oldest first
+     */
+    private List<SpanRecord> snapshot()
+    {
+        synchronized (ring) {
+            int size = (int) Math.min(written, ring.length);
+            List<SpanRecord> spans = new ArrayList<>(size);
+            for (long i = written - size; i < written; i++) {
+                spans.add(ring[(int) (i % ring.length)]);
+            }
+            return spans;
+        }
+    }
+
+    private void writeLoop(Path file)
+    {
+        List<SpanRecord> batch = new ArrayList<>(WRITE_BATCH);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                while (running || !fileQueue.isEmpty()) {
+                    SpanRecord first = fileQueue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    fileQueue.drainTo(batch, WRITE_BATCH - 1);
+                    for (SpanRecord span : batch) {
+                        out.write(toJson(span));
+                        out.newLine();
+                    }
+                    out.flush();
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            SpanCollector.LOGGER.error("[Tracing] Cannot write spans to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private String toJson(SpanRecord span) throws JsonProcessingException
+    {
+        return mapper.writeValueAsString(span);
+    }
+}
@@ -0,0 +1,51 @@
+package edu.fudan.common.tracing;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Finished span as kept by the {@link SpanCollector} and written to the span file, one JSON
+ * object per line. Ids are hexadecimal, the parent id of a root span is {@code "0"}.
+ *
+ * @author fdse
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpanRecord
+{
+    public static final String NO_PARENT = "0";
+
+    private String traceId;
+
+    private String spanId;
+
+    private String parentId;
+
+    private String service;
+
+    private String operation;
+
+    /**
+     * epoch microseconds
+     */
+    private long start;
+
+    /**
+     * microseconds
+     */
+    private long duration;
+
+    private Map<String, String> tags;
+
+    @JsonIgnore
+    public boolean isRoot()
+    {
+        return parentId == null || NO_PARENT.equals(parentId);
+    }
+}
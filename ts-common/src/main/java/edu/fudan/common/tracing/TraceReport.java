@@ -0,0 +1,161 @@
+package edu.fudan.common.tracing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-hop latency breakdown of a trace. Every span is printed below its parent with its
+ * offset from the start of the trace, its total and self time and a bar showing where it
+ * falls on the trace's time line, so the slow hop of a request stands out at a glance.
+ * <p>
+ * Span files of several services can be merged offline:
+ * <pre>
+ *     java -cp ts-common.jar edu.fudan.common.tracing.TraceReport spans/*.jsonl [traceId]
+ * </pre>
+ * prints the given trace, or the ten slowest traces found in the files.
+ *
+ * @author fdse
+ */
+public class TraceReport
+{
+    private static final int BAR_WIDTH = 40;
+
+    private static final int SLOWEST = 10;
+
+    private TraceReport()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Renders the spans of one trace, spans whose parent is missing are printed as roots
+     */
+    public static String render(List<SpanRecord> spans)
+    {
+        if (spans.isEmpty()) {
+            return "no spans\n";
+        }
+        Set<String> ids = new HashSet<>();
+        for (SpanRecord span : spans) {
+            ids.add(span.getSpanId());
+        }
+        Map<String, List<SpanRecord>> children = new HashMap<>();
+        List<SpanRecord> roots = new ArrayList<>();
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (SpanRecord span : spans) {
+            if (span.isRoot() || !ids.contains(span.getParentId())) {
+                roots.add(span);
+            } else {
+                children.computeIfAbsent(span.getParentId(), parent -> new ArrayList<>()).add(span);
+            }
+            start = Math.min(start, span.getStart());
+            end = Math.max(end, span.getStart() + span.getDuration());
+        }
+        Comparator<SpanRecord> byStart = Comparator.comparingLong(SpanRecord::getStart);
+        roots.sort(byStart);
+        for (List<SpanRecord> list : children.values()) {
+            list.sort(byStart);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("trace %s, %d spans, %.1f ms%n", spans.get(0).getTraceId(), spans.size(),
+            (end - start) / 1000.0));
+        out.append(String.format("%9s %9s %9s  %-" + BAR_WIDTH + "s  %s%n", "offset", "total", "self", "",
+            "service / operation"));
+        for (SpanRecord root : roots) {
+            renderSpan(out, root, 0, children, start, Math.max(1, end - start));
+        }
+        return out.toString();
+    }
+
+    private static void renderSpan(StringBuilder out, SpanRecord span, int depth,
+        Map<String, List<SpanRecord>> children, long traceStart, long traceLength)
+    {
+        List<SpanRecord> own = children.getOrDefault(span.getSpanId(), Collections.emptyList());
+        long childTime = 0;
+        for (SpanRecord child : own) {
+            childTime += child.getDuration();
+        }
+        long self = Math.max(0, span.getDuration() - childTime);
+
+        int from = (int) ((span.getStart() - traceStart) * BAR_WIDTH / traceLength);
+        int width = Math.max(1, (int) (span.getDuration() * BAR_WIDTH / traceLength));
+        char[] bar = new char[BAR_WIDTH];
+        for (int i = 0; i < BAR_WIDTH; i++) {
+            bar[i] = i >= from && i < from + width ? '#' : '.';
+        }
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            indent.append("  ");
+        }
+        out.append(String.format("%9.1f %9.1f %9.1f  %s  %s%s %s%n", (span.getStart() - traceStart) / 1000.0,
+            span.getDuration() / 1000.0, self / 1000.0, new String(bar), indent, span.getService(),
+            span.getOperation()));
+        for (SpanRecord child : own) {
+            renderSpan(out, child, depth + 1, children, traceStart, traceLength);
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0) {
+            System.err.println("usage: TraceReport <span file>... [trace id]");
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, List<SpanRecord>> traces = new HashMap<>();
+        String traceId = null;
+        for (String arg : args) {
+            if (!Files.isRegularFile(Paths.get(arg))) {
+                traceId = arg;
+                continue;
+            }
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(arg), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        SpanRecord span = mapper.readValue(line, SpanRecord.class);
+                        traces.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(span);
+                    }
+                }
+            }
+        }
+
+        PrintStream out = System.out;
+        if (traceId != null) {
+            out.print(render(traces.getOrDefault(traceId, Collections.emptyList())));
+            return;
+        }
+        List<List<SpanRecord>> slowest = new ArrayList<>(traces.values());
+        slowest.sort(Comparator.comparingLong(TraceReport::length).reversed());
+        for (List<SpanRecord> trace : slowest.subList(0, Math.min(SLOWEST, slowest.size()))) {
+            out.println(render(trace));
+        }
+    }
+
+    private static long length(List<SpanRecord> spans)
+    {
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (SpanRecord span : spans) {
+            start = Math.min(start, span.getStart());
+            end = Math.max(end, span.getStart() + span.getDuration());
+        }
+        return end - start;
+    }
+}
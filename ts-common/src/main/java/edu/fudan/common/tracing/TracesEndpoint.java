@@ -0,0 +1,50 @@
+package edu.fudan.common.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+/**
+ * Actuator endpoint over the in-memory spans. {@code /actuator/traces} lists the latest and
+ * the slowest traces, {@code /actuator/traces/{traceId}} returns the spans of one trace with
+ * its breakdown as rendered by {@link TraceReport}.
+ *
+ * @author fdse
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint
+{
+    private static final int LIMIT = 20;
+
+    private final SpanCollector collector;
+
+    public TracesEndpoint(SpanCollector collector)
+    {
+        this.collector = collector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> traces()
+    {
+        Map<String, Object> traces = new LinkedHashMap<>();
+        traces.put("recent", collector.recentRoots(LIMIT));
+        traces.put("slowest", collector.slowestRoots(LIMIT));
+        traces.put("droppedFromFile", collector.getDropped());
+        return traces;
+    }
+
+    @ReadOperation
+    public Map<String, Object> trace(@Selector String traceId)
+    {
+        List<SpanRecord> spans = collector.trace(traceId);
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceId", traceId);
+        trace.put("breakdown", TraceReport.render(spans));
+        trace.put("spans", spans);
+        return trace;
+    }
+}
@@ -0,0 +1,38 @@
+package edu.fudan.common.tracing;
+
+import java.util.concurrent.Callable;
+
+import edu.fudan.common.hystrix.HystrixContextPropagator;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+/**
+ * Carries the active span into Hystrix command threads, without this every downstream call of
+ * a controller running as a Hystrix command would start a trace of its own.
+ *
+ * @author fdse
+ */
+public class TracingHystrixPropagator implements HystrixContextPropagator
+{
+    private final Tracer tracer;
+
+    public TracingHystrixPropagator(Tracer tracer)
+    {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public <T> Callable<T> wrap(Callable<T> callable)
+    {
+        Span span = tracer.activeSpan();
+        if (span == null) {
+            return callable;
+        }
+        return () -> {
+            try (Scope scope = tracer.scopeManager().activate(span, false)) {
+                return callable.call();
+            }
+        };
+    }
+}
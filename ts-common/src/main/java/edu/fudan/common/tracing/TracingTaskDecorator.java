@@ -0,0 +1,37 @@
+package edu.fudan.common.tracing;
+
+import org.springframework.core.task.TaskDecorator;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+/**
+ * Carries the active span of the submitting thread into {@code @Async} tasks, so that the
+ * calls made by the task belong to the request's trace.
+ *
+ * @author fdse
+ */
+public class TracingTaskDecorator implements TaskDecorator
+{
+    private final Tracer tracer;
+
+    public TracingTaskDecorator(Tracer tracer)
+    {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable)
+    {
+        Span span = tracer.activeSpan();
+        if (span == null) {
+            return runnable;
+        }
+        return () -> {
+            try (Scope scope = tracer.scopeManager().activate(span, false)) {
+                runnable.run();
+            }
+        };
+    }
+}
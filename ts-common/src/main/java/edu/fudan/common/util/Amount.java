@@ -0,0 +1,213 @@
+package edu.fudan.common.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import edu.fudan.common.codec.AmountDeserializer;
+
+/**
+ * An amount of money as a whole number of cents, for prices, balances, refunds and price
+ * differences, which the services exchange and store as decimal strings ({@code "95.0"},
+ * {@code "40.00"}). Parsing and adding work on a {@code long} instead of a {@code BigDecimal} or
+ * a {@code double}: folding a ledger or comparing prices allocates nothing per entry, and
+ * 0.1 + 0.2 is 0.3. Digits after the cents are rounded half up. Immutable.
+ * <p>
+ * {@link #toString} is the shortest string with at least one decimal, the way {@code "" + double}
+ * prints a whole price, so the strings clients get stay the same; {@link #toPlainString} always
+ * has two. In JSON an amount is that string and is read from a string or a number; in Mongo it is
+ * stored as the string, see {@link edu.fudan.common.codec.AmountConverters}. So a field can
+ * change from a {@code String} to an Amount without changing what other services or the stored
+ * documents see.
+ *
+ * @author fdse
+ */
+@JsonSerialize(using = ToStringSerializer.class)
+@JsonDeserialize(using = AmountDeserializer.class)
+public final class Amount implements Comparable<Amount>
+{
+    public static final Amount ZERO = new Amount(0);
+
+    private final long minorUnits;
+
+    private Amount(long minorUnits)
+    {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Amount ofMinorUnits(long minorUnits)
+    {
+        return minorUnits == 0 ? Amount.ZERO : new Amount(minorUnits);
+    }
+
+    /**
+     * @return the nearest cent to the value, for amounts computed from rates
+     */
+    public static Amount of(double value)
+    {
+        return Amount.ofMinorUnits(Math.round(value * 100));
+    }
+
+    /**
+     * @throws NumberFormatException when the text is not a decimal number or is out of range
+     */
+    public static Amount parse(CharSequence text)
+    {
+        return Amount.ofMinorUnits(Amount.parseMinorUnits(text));
+    }
+
+    /**
+     * Parses the text to cents without creating an Amount, for folds over many strings
+     *
+     * @throws NumberFormatException when the text is not a decimal number or is out of range
+     */
+    public static long parseMinorUnits(CharSequence text)
+    {
+        if (text == null) {
+            throw new NumberFormatException("null");
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = start;
+        boolean negative = i < end && text.charAt(i) == '-';
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        try {
+            long units = 0;
+            long cents = 0;
+            int fraction = -1;
+            boolean digits = false;
+            boolean roundUp = false;
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && fraction < 0) {
+                    fraction = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    return Amount.parseExponent(text.subSequence(start, end).toString());
+                }
+                digits = true;
+                if (fraction < 0) {
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                } else if (fraction < 2) {
+                    cents = cents * 10 + (c - '0');
+                    fraction++;
+                } else if (fraction == 2) {
+                    roundUp = c >= '5';
+                    fraction++;
+                }
+            }
+            if (!digits) {
+                throw new NumberFormatException("Not an amount: \"" + text + "\"");
+            }
+            for (; fraction < 2; fraction++) {
+                cents *= 10;
+            }
+            long minorUnits = Math.addExact(Math.multiplyExact(units, 100), roundUp ? cents + 1 : cents);
+            return negative ? -minorUnits : minorUnits;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: \"" + text + "\"");
+        }
+    }
+
+    public long getMinorUnits()
+    {
+        return minorUnits;
+    }
+
+    public Amount plus(Amount other)
+    {
+        return Amount.ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Amount minus(Amount other)
+    {
+        return Amount.ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * @return the amount times the factor, to the nearest cent
+     */
+    public Amount times(double factor)
+    {
+        return Amount.ofMinorUnits(Math.round(minorUnits * factor));
+    }
+
+    public int signum()
+    {
+        return Long.signum(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Amount other)
+    {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Amount && ((Amount) other).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * @return {@code "150.0"}, {@code "12.5"}, {@code "-0.05"}
+     */
+    @Override
+    public String toString()
+    {
+        int cents = (int) Math.abs(minorUnits % 100);
+        StringBuilder text = wholeUnits();
+        if (cents % 10 == 0) {
+            return text.append(cents / 10).toString();
+        }
+        return text.append(cents < 10 ? "0" : "").append(cents).toString();
+    }
+
+    /**
+     * @return {@code "150.00"}, {@code "12.50"}, {@code "-0.05"}
+     */
+    public String toPlainString()
+    {
+        int cents = (int) Math.abs(minorUnits % 100);
+        return wholeUnits().append(cents < 10 ? "0" : "").append(cents).toString();
+    }
+
+    private StringBuilder wholeUnits()
+    {
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        return text.append(Math.abs(minorUnits / 100)).append('.');
+    }
+
+    /**
+     * The rare strings the loop does not take, like {@code "1.0E7"} from a large double
+     */
+    private static long parseExponent(String text)
+    {
+        try {
+            return new BigDecimal(text).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: \"" + text + "\"");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.fudan.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of named members. Every member is placed on the ring at
+ * {@code virtualNodes} points, and a key belongs to the member at the first point at or after
+ * the key's hash. Adding or removing a member only moves the keys between it and its
+ * neighbours, about 1/n of them. Immutable, a membership change builds a new ring.
+ *
+ * @author fdse
+ */
+public class ConsistentHashRing
+{
+    private final Set<String> members;
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes)
+    {
+        this.members = Collections.unmodifiableSet(new LinkedHashSet<>(members));
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(ConsistentHashRing.hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    public Set<String> getMembers()
+    {
+        return members;
+    }
+
+    /**
+     * @return the member owning the key, null when the ring is empty
+     */
+    public String owner(String key)
+    {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = ring.ceilingEntry(ConsistentHashRing.hash(key));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that keys differing
+     * in the last characters only still land far apart
+     */
+    static long hash(String key)
+    {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConsistentHashRing" + members;
+    }
+}
@@ -0,0 +1,114 @@
+package edu.fudan.common.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Encodes the owning order service in the order id, so callers can go straight to
+ * ts-order-service or ts-order-other-service instead of probing both.
+ * <p>
+ * Ids minted here are version 8 (custom) UUIDs; the owner code sits in the low byte of the
+ * most significant half, the remaining 114 bits are random. Ids of any other version, like
+ * the random UUIDs of orders created before, are reported as {@link Owner#UNKNOWN} and the
+ * caller falls back to probing.
+ *
+ * @author fdse
+ */
+public class OrderIdLocator
+{
+    /**
+     * Service that stores an order
+     */
+    public enum Owner
+    {
+        /**
+         * owner is not encoded in the id
+         */
+        UNKNOWN(0),
+        /**
+         * ts-order-service, G and D trains
+         */
+        ORDER(1),
+        /**
+         * ts-order-other-service, all other trains
+         */
+        ORDER_OTHER(2);
+
+        private final int code;
+
+        Owner(int code)
+        {
+            this.code = code;
+        }
+
+        public int getCode()
+        {
+            return code;
+        }
+
+        static Owner fromCode(int code)
+        {
+            for (Owner owner : values()) {
+                if (owner.code == code) {
+                    return owner;
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    private static final int VERSION = 8;
+
+    private static final long VERSION_MASK = 0xF000L;
+
+    private static final long OWNER_MASK = 0xFFL;
+
+    private OrderIdLocator()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static UUID newOrderId(Owner owner)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = random.nextLong();
+        long lsb = random.nextLong();
+        msb = (msb & ~VERSION_MASK & ~OWNER_MASK) | ((long) VERSION << 12) | owner.getCode();
+        //IETF variant
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    public static Owner ownerOf(UUID orderId)
+    {
+        if (orderId == null || orderId.variant() != 2 || orderId.version() != VERSION) {
+            return Owner.UNKNOWN;
+        }
+        return Owner.fromCode((int) (orderId.getMostSignificantBits() & OWNER_MASK));
+    }
+
+    public static Owner ownerOf(String orderId)
+    {
+        if (orderId == null) {
+            return Owner.UNKNOWN;
+        }
+        try {
+            return ownerOf(UUID.fromString(orderId));
+        } catch (IllegalArgumentException e) {
+            return Owner.UNKNOWN;
+        }
+    }
+
+    /**
+     * Owner of an order by id, falling back to the train number convention (G and D trains are
+     * stored by ts-order-service) when the id does not carry one.
+     */
+    public static Owner ownerOf(String orderId, String tripId)
+    {
+        Owner owner = ownerOf(orderId);
+        if (owner != Owner.UNKNOWN || tripId == null) {
+            return owner;
+        }
+        return tripId.startsWith("G") || tripId.startsWith("D") ? Owner.ORDER : Owner.ORDER_OTHER;
+    }
+}
@@ -0,0 +1,264 @@
+package edu.fudan.common.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A route compiled for lookups: the stations in order, their distances from the start as an
+ * {@code int[]} and a hash table from station id to position, so finding a station, checking
+ * that one comes before another and the distance between two are O(1) and box nothing, where
+ * {@code List<String>.indexOf} scans the station ids. Every station also has an ordinal, the
+ * same in every route, to compare stations of different routes as ints. Immutable.
+ * <p>
+ * Compiling hashes every station and allocates the tables, which costs more than the one or two
+ * {@code indexOf} scans of a single lookup, so services get their routes with
+ * {@link #of(String, long, List, List)}: a route is compiled once per version, which
+ * ts-route-service changes on every write of the route, so telling that the compiled route is
+ * still current compares two longs. Only routes written before they had versions are compared
+ * station by station. A station that is on the route twice is at its first position, like
+ * {@code indexOf}.
+ *
+ * @author fdse
+ */
+public final class RouteGeometry
+{
+    private static final int MAX_ROUTES = 1000;
+
+    private static final Map<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+    private static final Map<String, RouteGeometry> ROUTES = new ConcurrentHashMap<>();
+
+    private final String[] stations;
+
+    private final int[] distances;
+
+    private final String[] keys;
+
+    private final int[] positions;
+
+    private final long version;
+
+    private RouteGeometry(List<String> stations, List<Integer> distances, long version)
+    {
+        int size = stations.size();
+        this.version = version;
+        this.stations = stations.toArray(new String[0]);
+        this.distances = new int[distances.size()];
+        for (int i = 0; i < this.distances.length; i++) {
+            Integer distance = distances.get(i);
+            this.distances[i] = distance == null ? 0 : distance;
+        }
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) * 2;
+        this.keys = new String[capacity];
+        this.positions = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            String station = this.stations[i];
+            if (station == null) {
+                continue;
+            }
+            int slot = slot(station);
+            while (keys[slot] != null && !keys[slot].equals(station)) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (keys[slot] == null) {
+                keys[slot] = station;
+                positions[slot] = i;
+            }
+        }
+    }
+
+    /**
+     * @param stations null for a route without stations
+     * @param distances from the first station, null when they are not needed
+     */
+    public static RouteGeometry of(List<String> stations, List<Integer> distances)
+    {
+        return RouteGeometry.compile(stations, distances, 0);
+    }
+
+    /**
+     * The compiled route, from the routes compiled before when it has the same version
+     *
+     * @param routeId null to compile without keeping the route
+     * @param version of the route in ts-route-service, 0 for a route written before routes had
+     * versions, then the stations and distances are compared instead
+     * @param stations null for a route without stations
+     * @param distances from the first station, null when they are not needed
+     */
+    public static RouteGeometry of(String routeId, long version, List<String> stations, List<Integer> distances)
+    {
+        if (routeId == null) {
+            return RouteGeometry.of(stations, distances);
+        }
+        RouteGeometry geometry = RouteGeometry.ROUTES.get(routeId);
+        if (geometry != null && geometry.isCurrent(version, stations, distances)) {
+            return geometry;
+        }
+        geometry = RouteGeometry.compile(stations, distances, version);
+        if (RouteGeometry.ROUTES.size() < RouteGeometry.MAX_ROUTES || RouteGeometry.ROUTES.containsKey(routeId)) {
+            RouteGeometry.ROUTES.put(routeId, geometry);
+        }
+        return geometry;
+    }
+
+    /**
+     * Forgets the compiled route, when the route is deleted
+     */
+    public static void evict(String routeId)
+    {
+        RouteGeometry.ROUTES.remove(routeId);
+    }
+
+    /**
+     * @return the station's ordinal, the same for the life of the process
+     */
+    public static int ordinal(String station)
+    {
+        Integer ordinal = RouteGeometry.ORDINALS.get(station);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (RouteGeometry.ORDINALS) {
+            return RouteGeometry.ORDINALS.computeIfAbsent(station, s -> RouteGeometry.ORDINALS.size());
+        }
+    }
+
+    public int size()
+    {
+        return stations.length;
+    }
+
+    public String station(int position)
+    {
+        return stations[position];
+    }
+
+    public int ordinalAt(int position)
+    {
+        return RouteGeometry.ordinal(stations[position]);
+    }
+
+    public String first()
+    {
+        return stations.length == 0 ? null : stations[0];
+    }
+
+    public String last()
+    {
+        return stations.length == 0 ? null : stations[stations.length - 1];
+    }
+
+    /**
+     * @return the station's position, -1 when it is not on the route
+     */
+    public int positionOf(String station)
+    {
+        if (station == null) {
+            return -1;
+        }
+        int slot = slot(station);
+        while (keys[slot] != null) {
+            if (keys[slot].equals(station)) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return -1;
+    }
+
+    public boolean contains(String station)
+    {
+        return positionOf(station) >= 0;
+    }
+
+    /**
+     * @return whether both stations are on the route and the first comes before the second
+     */
+    public boolean isInOrder(String from, String to)
+    {
+        int start = positionOf(from);
+        return start >= 0 && start < positionOf(to);
+    }
+
+    /**
+     * @return the distance from the first station to the station at the position
+     */
+    public int distanceAt(int position)
+    {
+        return distances[position] - distances[0];
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException when a station is not on the route or has no distance
+     */
+    public int distance(String from, String to)
+    {
+        return distances[positionOf(to)] - distances[positionOf(from)];
+    }
+
+    private static RouteGeometry compile(List<String> stations, List<Integer> distances, long version)
+    {
+        return new RouteGeometry(stations == null ? Collections.emptyList() : stations,
+            distances == null ? Collections.emptyList() : distances, version);
+    }
+
+    /**
+     * @param distances null when they are not needed, then a route compiled without them is current
+     */
+    private boolean isCurrent(long version, List<String> stations, List<Integer> distances)
+    {
+        if (version == 0) {
+            return matches(stations, distances);
+        }
+        if (version != this.version) {
+            return false;
+        }
+        return distances == null || distances.size() == this.distances.length;
+    }
+
+    /**
+     * @param distances null when they are not needed, then any distances match
+     * @return whether the route was compiled from these stations and distances
+     */
+    private boolean matches(List<String> stations, List<Integer> distances)
+    {
+        int size = stations == null ? 0 : stations.size();
+        if (size != this.stations.length) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(stations.get(i), this.stations[i])) {
+                return false;
+            }
+        }
+        if (distances == null) {
+            return true;
+        }
+        if (distances.size() != this.distances.length) {
+            return false;
+        }
+        for (int i = 0; i < this.distances.length; i++) {
+            Integer distance = distances.get(i);
+            if ((distance == null ? 0 : distance) != this.distances[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(stations);
+    }
+
+    private int slot(String station)
+    {
+        int hash = station.hashCode();
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+}
@@ -0,0 +1,216 @@
+package edu.fudan.common.admission;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(JUnit4.class)
+public class WaitingRoomTest
+{
+    private static final String KEY = WaitingRoom.key("G1234", new Date(0));
+
+    private static final String SECOND = WaitingRoom.inventory(KEY, 2, "shanghai", "nanjing");
+
+    private static final String FIRST = WaitingRoom.inventory(KEY, 3, "shanghai", "nanjing");
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    /**
+     * 2 bookings at a time, 2 waiting, sold out for 1 s
+     */
+    private final WaitingRoom waitingRoom = new WaitingRoom(2, 2, 1000, null, clock::get);
+
+    private final List<CompletableFuture<String>> running = new ArrayList<>();
+
+    @Test
+    public void testWaitersAreAdmittedInOrder()
+    {
+        CompletableFuture<String> first = enter(SECOND, null);
+        enter(SECOND, null);
+        CompletableFuture<String> third = enter(SECOND, null);
+        CompletableFuture<String> fourth = enter(SECOND, null);
+        Assert.assertEquals(2, running.size());
+
+        finish(0, "booked");
+
+        Assert.assertEquals("booked", first.join());
+        Assert.assertEquals(3, running.size());
+        finish(2, "third");
+        Assert.assertEquals("third", third.join());
+        Assert.assertFalse(fourth.isDone());
+        Assert.assertEquals(4, running.size());
+    }
+
+    @Test
+    public void testOtherTrainsDoNotWait()
+    {
+        enter(SECOND, null);
+        enter(SECOND, null);
+
+        String other = WaitingRoom.key("G1235", new Date(0));
+        waitingRoom.enter(other, other + "|2", null, this::start, reason -> reason);
+
+        Assert.assertEquals(3, running.size());
+    }
+
+    @Test
+    public void testTurnedAwayWhenTheQueueIsFull()
+    {
+        for (int i = 0; i < 4; i++) {
+            enter(SECOND, null);
+        }
+
+        Assert.assertEquals(WaitingRoom.FULL, enter(SECOND, null).join());
+        Assert.assertEquals(2, running.size());
+    }
+
+    @Test
+    public void testSoldOutTurnsWaitersAway()
+    {
+        enter(SECOND, null);
+        enter(SECOND, null);
+        CompletableFuture<String> waiting = enter(SECOND, null);
+        CompletableFuture<String> otherClass = enter(FIRST, null);
+
+        waitingRoom.soldOut(KEY, SECOND);
+
+        Assert.assertEquals(WaitingRoom.SOLD_OUT, waiting.join());
+        Assert.assertEquals(WaitingRoom.SOLD_OUT, enter(SECOND, null).join());
+        finish(0, "booked");
+        Assert.assertEquals(3, running.size());
+        finish(2, "first class");
+        Assert.assertEquals("first class", otherClass.join());
+    }
+
+    @Test
+    public void testSoldOutIsPerInterval()
+    {
+        waitingRoom.soldOut(KEY, SECOND);
+
+        Assert.assertTrue(waitingRoom.isSoldOut(SECOND));
+        Assert.assertFalse(waitingRoom.isSoldOut(WaitingRoom.inventory(KEY, 2, "nanjing", "beijing")));
+        enter(WaitingRoom.inventory(KEY, 2, "nanjing", "beijing"), null);
+        Assert.assertEquals(1, running.size());
+    }
+
+    @Test
+    public void testSoldOutExpires()
+    {
+        waitingRoom.soldOut(KEY, SECOND);
+        Assert.assertTrue(waitingRoom.isSoldOut(SECOND));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        Assert.assertFalse(waitingRoom.isSoldOut(SECOND));
+        enter(SECOND, null);
+        Assert.assertEquals(1, running.size());
+    }
+
+    @Test
+    public void testPositionOfTicket()
+    {
+        enter(SECOND, null);
+        enter(SECOND, null);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        finish(0, "booked");
+        enter(SECOND, null);
+        enter(SECOND, null);
+        enter(SECOND, "ticket");
+
+        Assert.assertEquals(new WaitingPosition(2, 400), waitingRoom.position("ticket"));
+        Assert.assertNull(waitingRoom.position("unknown"));
+
+        finish(1, "booked");
+        finish(2, "booked");
+        Assert.assertNull(waitingRoom.position("ticket"));
+    }
+
+    @Test
+    public void testCancelledWaiterLeavesTheQueue()
+    {
+        enter(SECOND, null);
+        enter(SECOND, null);
+        CompletableFuture<String> abandoned = enter(SECOND, "ticket");
+        CompletableFuture<String> next = enter(SECOND, null);
+
+        abandoned.cancel(false);
+
+        Assert.assertNull(waitingRoom.position("ticket"));
+        finish(0, "booked");
+        Assert.assertEquals(3, running.size());
+        finish(2, "next");
+        Assert.assertEquals("next", next.join());
+    }
+
+    @Test
+    public void testBookingsCompletingAtOnceDoNotDeepenTheStack()
+    {
+        WaitingRoom single = new WaitingRoom(1, 100000, 1000, null, clock::get);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        single.enter(KEY, SECOND, null, () -> first, reason -> reason);
+        List<CompletableFuture<String>> waiting = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            waiting.add(single.enter(KEY, SECOND, null, () -> CompletableFuture.completedFuture("fallback"),
+                reason -> reason));
+        }
+
+        first.complete("booked");
+
+        for (CompletableFuture<String> booking : waiting) {
+            Assert.assertEquals("fallback", booking.getNow(null));
+        }
+    }
+
+    @Test
+    public void testNoTokensLetsEveryRequestThrough()
+    {
+        WaitingRoom open = new WaitingRoom(0, 0, 1000, null, clock::get);
+        for (int i = 0; i < 5; i++) {
+            open.enter(KEY, SECOND, null, this::start, reason -> reason);
+        }
+
+        Assert.assertEquals(5, running.size());
+    }
+
+    @Test
+    public void testWaitingAndRejectionsArePublished()
+    {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        waitingRoom.bindTo(registry);
+        for (int i = 0; i < 5; i++) {
+            enter(SECOND, null);
+        }
+
+        Assert.assertEquals(2.0, registry.get("admission.waiting").gauge().value(), 0.0);
+        Assert.assertEquals(1.0, registry.get("admission.rejected").tag("reason", "full").functionCounter().count(),
+            0.0);
+    }
+
+    private CompletableFuture<String> enter(String inventory, String ticket)
+    {
+        return waitingRoom.enter(KEY, inventory, ticket, this::start, reason -> reason);
+    }
+
+    private CompletableFuture<String> start()
+    {
+        CompletableFuture<String> booking = new CompletableFuture<>();
+        running.add(booking);
+        return booking;
+    }
+
+    private void finish(int index, String answer)
+    {
+        running.get(index).complete(answer);
+    }
+}
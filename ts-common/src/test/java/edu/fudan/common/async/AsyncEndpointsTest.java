@@ -0,0 +1,182 @@
+package edu.fudan.common.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import edu.fudan.common.deadline.Deadline;
+import edu.fudan.common.exception.DeadlineExceededException;
+
+@RunWith(JUnit4.class)
+public class AsyncEndpointsTest
+{
+    private final AsyncEndpoints asyncEndpoints = new AsyncEndpoints(executor(1, 1), executor(2, 0));
+
+    @After
+    public void tearDown()
+    {
+        Deadline.restore(null);
+        asyncEndpoints.destroy();
+    }
+
+    @Test
+    public void testResultIsAnsweredOffTheCallingThread() throws Exception
+    {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Boolean> result = asyncEndpoints.supply(5000, () -> Thread.currentThread() != caller,
+            () -> false);
+
+        Assert.assertTrue(result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailureAnswersFallback() throws Exception
+    {
+        CompletableFuture<String> result = asyncEndpoints.supply(5000, () -> {
+            throw new IllegalStateException("downstream failed");
+        }, () -> "fallback");
+
+        Assert.assertEquals("fallback", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutAnswersFallback() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> result = asyncEndpoints.supply(50, () -> {
+            await(release);
+            return "late";
+        }, () -> "fallback");
+
+        Assert.assertEquals("fallback", result.get(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void testTimeoutInterruptsTheWork() throws Exception
+    {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> result = asyncEndpoints.supply(50, () -> {
+            try {
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, () -> "fallback");
+
+        Assert.assertEquals("fallback", result.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWorkHasNoDeadlineBeyondTheTimeout() throws Exception
+    {
+        CompletableFuture<Boolean> result = asyncEndpoints.supply(5000,
+            () -> Deadline.isSet() && Deadline.remainingMillis() <= 5000, () -> false);
+
+        Assert.assertTrue(result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutDeadlineAnswersFallback() throws Exception
+    {
+        CompletableFuture<String> result = asyncEndpoints.supply(50, () -> {
+            while (!Deadline.isExpired()) {
+                Thread.yield();
+            }
+            throw new DeadlineExceededException("expired");
+        }, () -> "fallback");
+
+        Assert.assertEquals("fallback", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFullExecutorAnswersFallback() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        asyncEndpoints.supply(5000, () -> await(release), () -> null);
+        asyncEndpoints.supply(5000, () -> await(release), () -> null);
+
+        CompletableFuture<String> rejected = asyncEndpoints.supply(5000, () -> "served", () -> "fallback");
+        Assert.assertEquals("fallback", rejected.getNow(null));
+        release.countDown();
+    }
+
+    @Test
+    public void testDeadlineGoesWithTheWork() throws Exception
+    {
+        Deadline.start(0);
+        CompletableFuture<String> result = asyncEndpoints.supply(5000, () -> {
+            if (Deadline.isExpired()) {
+                throw new DeadlineExceededException("expired");
+            }
+            return "served";
+        }, () -> "fallback");
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof DeadlineExceededException);
+        }
+    }
+
+    @Test
+    public void testForkedCallsRunInParallel() throws Exception
+    {
+        CountDownLatch both = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = asyncEndpoints.fork(() -> countDownAndAwait(both));
+        CompletableFuture<Boolean> second = asyncEndpoints.fork(() -> countDownAndAwait(both));
+
+        Assert.assertTrue(AsyncEndpoints.join(first));
+        Assert.assertTrue(AsyncEndpoints.join(second));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testJoinThrowsTheForkedException()
+    {
+        AsyncEndpoints.join(asyncEndpoints.fork(() -> {
+            throw new IllegalStateException("downstream failed");
+        }));
+    }
+
+    private static ThreadPoolTaskExecutor executor(int threads, int queueCapacity)
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    private static String await(CountDownLatch latch)
+    {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static boolean countDownAndAwait(CountDownLatch latch)
+    {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
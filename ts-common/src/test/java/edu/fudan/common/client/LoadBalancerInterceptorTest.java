@@ -0,0 +1,173 @@
+package edu.fudan.common.client;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import edu.fudan.common.deadline.Deadline;
+import edu.fudan.common.deadline.DeadlineInterceptor;
+import edu.fudan.common.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(JUnit4.class)
+public class LoadBalancerInterceptorTest
+{
+    private static final String SEAT = "http://ts-seat-service:18898/api/v1/seatservice/seats/left_tickets";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private final LoadBalancerInterceptor interceptor = new LoadBalancerInterceptor(2, 1000, 10000, clock::get);
+
+    private final Map<String, Integer> hits = new HashMap<>();
+
+    private final ClientHttpRequestExecution execution = (request, body) -> {
+        hits.merge(request.getURI().getAuthority(), 1, Integer::sum);
+        return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+    };
+
+    @Test
+    public void testCallIsSentToAReplica() throws Exception
+    {
+        interceptor.update(Collections.singletonMap("ts-seat-service", "seat-1:8001,seat-2"));
+
+        for (int i = 0; i < 100; i++) {
+            interceptor.intercept(request(SEAT), new byte[0], execution);
+        }
+
+        Assert.assertEquals(2, hits.size());
+        Assert.assertTrue(hits.containsKey("seat-1:8001"));
+        Assert.assertTrue(hits.containsKey("seat-2:18898"));
+    }
+
+    @Test
+    public void testOtherServicesAreLeftAlone() throws Exception
+    {
+        interceptor.update(Collections.singletonMap("ts-seat-service", "seat-1,seat-2"));
+
+        interceptor.intercept(request("http://ts-order-service:12031/api/v1/orderservice/order"), new byte[0],
+            execution);
+
+        Assert.assertEquals(Collections.singletonMap("ts-order-service:12031", 1), hits);
+    }
+
+    @Test
+    public void testBusyReplicaIsAvoided()
+    {
+        interceptor.update(Collections.singletonMap("ts-seat-service", "seat-1,seat-2"));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        ReplicaPool pool = interceptor.getPools().get("ts-seat-service");
+        Replica busy = pool.getReplicas().get(0);
+        busy.start();
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertSame(pool.getReplicas().get(1), pool.choose(TimeUnit.SECONDS.toNanos(10), clock.get()));
+        }
+    }
+
+    @Test
+    public void testFailingReplicaIsEjectedAndComesBackSlowly() throws Exception
+    {
+        interceptor.update(Collections.singletonMap("ts-seat-service", "seat-1,seat-2"));
+        ClientHttpRequestExecution failing = (request, body) -> {
+            if (request.getURI().getHost().equals("seat-1")) {
+                throw new ConnectException("Connection refused");
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        int failures = 0;
+        for (int i = 0; i < 50; i++) {
+            try {
+                interceptor.intercept(request(SEAT), new byte[0], failing);
+            } catch (IOException e) {
+                failures++;
+            }
+        }
+        Assert.assertEquals(2, failures);
+
+        Replica ejected = interceptor.getPools().get("ts-seat-service").getReplicas().get(0);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assert.assertFalse(ejected.isEjected(clock.get()));
+        Assert.assertEquals(0.1, ejected.weight(TimeUnit.SECONDS.toNanos(10), clock.get()), 0.01);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(1.0, ejected.weight(TimeUnit.SECONDS.toNanos(10), clock.get()), 0.0);
+    }
+
+    @Test
+    public void testDeadlineTimeoutIsNotAReplicaFailure() throws Exception
+    {
+        interceptor.update(Collections.singletonMap("ts-seat-service", "seat-1"));
+        DeadlineInterceptor deadlineInterceptor = new DeadlineInterceptor(new SimpleMeterRegistry());
+        ClientHttpRequestExecution timingOut = (request, body) -> {
+            //The read timeout was cut to the deadline and fires once it passed
+            Deadline.start(0);
+            throw new SocketTimeoutException("Read timed out");
+        };
+        ClientHttpRequestExecution deadline = (request, body) -> deadlineInterceptor.intercept(request, body,
+            timingOut);
+        ClientHttpRequestExecution answered504 = (request, body) -> {
+            Deadline.start(0);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.GATEWAY_TIMEOUT);
+        };
+        for (int i = 0; i < 5; i++) {
+            Long previous = Deadline.start(1000);
+            try {
+                interceptor.intercept(request(SEAT), new byte[0], deadline);
+                Assert.fail();
+            } catch (DeadlineExceededException e) {
+                //Expected, the request ends with 504
+            } finally {
+                Deadline.restore(previous);
+            }
+            previous = Deadline.start(1000);
+            try {
+                interceptor.intercept(request(SEAT), new byte[0], answered504);
+            } finally {
+                Deadline.restore(previous);
+            }
+        }
+
+        Replica replica = interceptor.getPools().get("ts-seat-service").getReplicas().get(0);
+        Assert.assertFalse(replica.isEjected(clock.get()));
+    }
+
+    @Test
+    public void testReplicasAreReadFromFile() throws Exception
+    {
+        Path file = Files.createTempFile("replicas", ".properties");
+        try {
+            Files.write(file, "ts-seat-service=seat-3:8003\n".getBytes(StandardCharsets.ISO_8859_1));
+            interceptor.watch(file, Collections.singletonMap("ts-order-service", "order-1"), 1000);
+
+            interceptor.intercept(request(SEAT), new byte[0], execution);
+
+            Assert.assertEquals(Collections.singletonMap("seat-3:8003", 1), hits);
+            Assert.assertTrue(interceptor.getPools().containsKey("ts-order-service"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static MockClientHttpRequest request(String uri)
+    {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create(uri));
+    }
+}
@@ -0,0 +1,213 @@
+package edu.fudan.common.client;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(JUnit4.class)
+public class ResilienceInterceptorTest
+{
+    private static final String NOTIFY = "http://ts-notification-service:17853/api/v1/notifyservice/notification";
+
+    private static final String ORDER = "http://ts-order-service:12031/api/v1/orderservice/order";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    /**
+     * Opens after 2 failures out of at least 4 calls, for 1 s, closes after 2 probes; calls of
+     * 500 ms or more are slow
+     */
+    private final ResilienceInterceptor interceptor = new ResilienceInterceptor(2, 0, 10, 4, 0.5, 1000, 2, 500,
+        clock::get);
+
+    private final ClientHttpRequestExecution ok = (request, body) -> new MockClientHttpResponse(new byte[0],
+        HttpStatus.OK);
+
+    private final ClientHttpRequestExecution unavailable = (request, body) -> new MockClientHttpResponse(new byte[0],
+        HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final ClientHttpRequestExecution refused = (request, body) -> {
+        throw new ConnectException("Connection refused");
+    };
+
+    @Test
+    public void testCallsBeyondTheBulkheadAreRejected() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution blocking = (request, body) -> {
+            started.countDown();
+            await(release);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        Future<ClientHttpResponse> first = inBackground(blocking);
+        Future<ClientHttpResponse> second = inBackground(blocking);
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            interceptor.intercept(request(NOTIFY), new byte[0], ok);
+            Assert.fail();
+        } catch (CallRejectedException e) {
+            //expected
+        }
+        interceptor.intercept(request(ORDER), new byte[0], ok);
+
+        release.countDown();
+        Assert.assertEquals(HttpStatus.OK, first.get(5, TimeUnit.SECONDS).getStatusCode());
+        Assert.assertEquals(HttpStatus.OK, second.get(5, TimeUnit.SECONDS).getStatusCode());
+        interceptor.intercept(request(NOTIFY), new byte[0], ok);
+    }
+
+    @Test
+    public void testServiceLimitOverridesDefault() throws Exception
+    {
+        interceptor.setLimits(Collections.singletonMap("ts-notification-service", 0));
+
+        try {
+            interceptor.intercept(request(NOTIFY), new byte[0], ok);
+            Assert.fail();
+        } catch (CallRejectedException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testCircuitOpensAtFailureRate() throws Exception
+    {
+        interceptor.intercept(request(NOTIFY), new byte[0], ok);
+        interceptor.intercept(request(NOTIFY), new byte[0], ok);
+        interceptor.intercept(request(NOTIFY), new byte[0], unavailable);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState("ts-notification-service"));
+
+        fail(refused);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, interceptor.getState("ts-notification-service"));
+        assertRejected();
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState("ts-order-service"));
+    }
+
+    @Test
+    public void testSlowCallsCountAsFailures() throws Exception
+    {
+        ClientHttpRequestExecution slow = (request, body) -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        for (int i = 0; i < 4; i++) {
+            interceptor.intercept(request(NOTIFY), new byte[0], slow);
+        }
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, interceptor.getState("ts-notification-service"));
+    }
+
+    @Test
+    public void testSuccessfulProbesCloseTheCircuit() throws Exception
+    {
+        open();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        interceptor.intercept(request(NOTIFY), new byte[0], ok);
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, interceptor.getState("ts-notification-service"));
+        interceptor.intercept(request(NOTIFY), new byte[0], ok);
+
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState("ts-notification-service"));
+    }
+
+    @Test
+    public void testFailedProbeOpensTheCircuitAgain() throws Exception
+    {
+        open();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        interceptor.intercept(request(NOTIFY), new byte[0], unavailable);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, interceptor.getState("ts-notification-service"));
+        assertRejected();
+    }
+
+    @Test
+    public void testStateAndRejectionsArePublished() throws Exception
+    {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+        open();
+        assertRejected();
+
+        Assert.assertEquals(2.0, registry.get("http.client.circuit.state").tag("service", "ts-notification-service")
+            .gauge().value(), 0.0);
+        Assert.assertEquals(1.0, registry.get("http.client.calls.rejected").tag("service", "ts-notification-service")
+            .tag("reason", "circuit").functionCounter().count(), 0.0);
+    }
+
+    private void open() throws Exception
+    {
+        for (int i = 0; i < 4; i++) {
+            fail(refused);
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, interceptor.getState("ts-notification-service"));
+    }
+
+    private void fail(ClientHttpRequestExecution execution)
+    {
+        try {
+            interceptor.intercept(request(NOTIFY), new byte[0], execution);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertFalse(e instanceof CallRejectedException);
+        }
+    }
+
+    private void assertRejected() throws Exception
+    {
+        try {
+            interceptor.intercept(request(NOTIFY), new byte[0], (request, body) -> {
+                throw new AssertionError("sent while the circuit is open");
+            });
+            Assert.fail();
+        } catch (CallRejectedException e) {
+            //expected
+        }
+    }
+
+    private Future<ClientHttpResponse> inBackground(ClientHttpRequestExecution execution)
+    {
+        FutureTask<ClientHttpResponse> task = new FutureTask<>(
+            () -> interceptor.intercept(request(NOTIFY), new byte[0], execution));
+        new Thread(task).start();
+        return task;
+    }
+
+    private static void await(CountDownLatch latch) throws IOException
+    {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static MockClientHttpRequest request(String uri)
+    {
+        return new MockClientHttpRequest(HttpMethod.POST, URI.create(uri));
+    }
+}
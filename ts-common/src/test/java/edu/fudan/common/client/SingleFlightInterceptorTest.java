@@ -0,0 +1,150 @@
+package edu.fudan.common.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+@RunWith(JUnit4.class)
+public class SingleFlightInterceptorTest
+{
+    private static final String ROUTE = "http://ts-route-service:11178/api/v1/routeservice/routes/route-1";
+
+    private final SingleFlightInterceptor interceptor = new SingleFlightInterceptor(
+        Collections.singletonList("/api/v1/routeservice/routes/*"));
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown()
+    {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalGetsShareOneCall() throws Exception
+    {
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch answer = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ClientHttpRequestExecution execution = (request, body) -> {
+            calls.incrementAndGet();
+            sent.countDown();
+            await(answer);
+            return new MockClientHttpResponse("{\"status\":1}".getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        };
+
+        Future<String> first = callers.submit(() -> call(request(HttpMethod.GET, ROUTE, "Bearer a"), execution));
+        sent.await(5, TimeUnit.SECONDS);
+        Future<String> second = callers.submit(() -> call(request(HttpMethod.GET, ROUTE, "Bearer a"), execution));
+        while (interceptor.getCoalesced() == 0) {
+            Thread.sleep(1);
+        }
+        answer.countDown();
+
+        Assert.assertEquals("{\"status\":1}", first.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("{\"status\":1}", second.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(1, interceptor.getSent());
+    }
+
+    @Test
+    public void testOtherTokenIsNotCoalesced() throws Exception
+    {
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch answer = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ClientHttpRequestExecution execution = (request, body) -> {
+            calls.incrementAndGet();
+            sent.countDown();
+            await(answer);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        Future<String> first = callers.submit(() -> call(request(HttpMethod.GET, ROUTE, "Bearer a"), execution));
+        sent.await(5, TimeUnit.SECONDS);
+        call(request(HttpMethod.GET, ROUTE, "Bearer b"), (request, body) -> {
+            calls.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+        answer.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, calls.get());
+        Assert.assertEquals(0, interceptor.getCoalesced());
+    }
+
+    @Test
+    public void testOnlyConfiguredGetsAreCoalesced() throws Exception
+    {
+        ClientHttpRequestExecution execution = (request, body) -> new MockClientHttpResponse(new byte[0],
+            HttpStatus.OK);
+
+        call(request(HttpMethod.POST, ROUTE, null), execution);
+        call(request(HttpMethod.GET, "http://ts-order-service:12031/api/v1/orderservice/order/1", null), execution);
+
+        Assert.assertEquals(0, interceptor.getSent());
+    }
+
+    @Test
+    public void testFailureReachesEveryCaller() throws Exception
+    {
+        try {
+            call(request(HttpMethod.GET, ROUTE, null), (request, body) -> {
+                throw new IOException("Connection refused");
+            });
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Connection refused", e.getMessage());
+        }
+        //Nothing is left behind for the next caller
+        Assert.assertEquals("",
+            call(request(HttpMethod.GET, ROUTE, null), (request, body) -> new MockClientHttpResponse(new byte[0],
+                HttpStatus.OK)));
+    }
+
+    private String call(MockClientHttpRequest request, ClientHttpRequestExecution execution) throws IOException
+    {
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution)) {
+            return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static MockClientHttpRequest request(HttpMethod method, String uri, String authorization)
+    {
+        MockClientHttpRequest request = new MockClientHttpRequest(method, URI.create(uri));
+        if (authorization != null) {
+            request.getHeaders().set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) throws IOException
+    {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package edu.fudan.common.codec;
+
+import java.util.Collections;
+
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fudan.common.util.Response;
+
+@RunWith(JUnit4.class)
+public class BinaryCodecCustomizerTest
+{
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private ObjectMapper smileMapper;
+
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer server;
+
+    @Before
+    public void setUp()
+    {
+        smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        restTemplate = new RestTemplate();
+        new BinaryCodecCustomizer(new MappingJackson2SmileHttpMessageConverter(smileMapper)).customize(restTemplate);
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    public void testSmileIsPreferredOverJson() throws Exception
+    {
+        Response<String> answer = new Response<>(1, "Success", "G1234");
+        server.expect(MockRestRequestMatchers.requestTo("http://ts-order-service:12031/api/v1/orderservice/order"))
+            .andExpect(MockRestRequestMatchers.method(HttpMethod.POST))
+            .andExpect(MockRestRequestMatchers.header("Accept", Matchers.startsWith(SMILE.toString())))
+            .andExpect(MockRestRequestMatchers.header("Content-Type", SMILE.toString()))
+            .andRespond(MockRestResponseCreators.withSuccess(smileMapper.writeValueAsBytes(answer), SMILE));
+
+        Response response = restTemplate.postForObject("http://ts-order-service:12031/api/v1/orderservice/order",
+            Collections.singletonMap("tripId", "G1234"), Response.class);
+
+        server.verify();
+        Assert.assertEquals(Integer.valueOf(1), response.getStatus());
+        Assert.assertEquals("G1234", response.getData());
+    }
+
+    @Test
+    public void testJsonAnswerIsStillRead()
+    {
+        server.expect(MockRestRequestMatchers.requestTo("http://ts-station-service:12345/api/v1/stationservice"))
+            .andRespond(MockRestResponseCreators.withSuccess("{\"status\":1,\"msg\":\"Success\",\"data\":\"shanghai\"}",
+                MediaType.APPLICATION_JSON));
+
+        Response response = restTemplate.getForObject("http://ts-station-service:12345/api/v1/stationservice",
+            Response.class);
+
+        Assert.assertEquals("shanghai", response.getData());
+    }
+
+    @Test
+    public void testConverterIsNotAddedTwice()
+    {
+        int before = restTemplate.getMessageConverters().size();
+        new BinaryCodecCustomizer(new MappingJackson2SmileHttpMessageConverter(smileMapper)).customize(restTemplate);
+
+        Assert.assertEquals(before, restTemplate.getMessageConverters().size());
+    }
+}
@@ -0,0 +1,106 @@
+package edu.fudan.common.deadline;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import edu.fudan.common.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(JUnit4.class)
+public class DeadlineInterceptorTest
+{
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(registry);
+
+    private final MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+        URI.create("http://ts-route-service:11178/api/v1/routeservice/routes/route-1"));
+
+    @After
+    public void tearDown()
+    {
+        Deadline.restore(null);
+    }
+
+    @Test
+    public void testRemainingBudgetIsSent() throws Exception
+    {
+        Deadline.start(5000);
+        interceptor.intercept(request, new byte[0], (sent, body) -> new MockClientHttpResponse(new byte[0],
+            HttpStatus.OK));
+
+        long budget = Long.parseLong(request.getHeaders().getFirst(Deadline.HEADER));
+        Assert.assertTrue(budget > 0 && budget <= 5000);
+    }
+
+    @Test
+    public void testExpiredCallIsNotSent() throws Exception
+    {
+        Deadline.start(0);
+        try {
+            interceptor.intercept(request, new byte[0], (sent, body) -> {
+                throw new AssertionError("sent after the deadline");
+            });
+            Assert.fail();
+        } catch (DeadlineExceededException e) {
+            Assert.assertEquals(1.0, registry.counter("deadline.expired", "stage", "outbound").count(), 0.0);
+        }
+    }
+
+    @Test
+    public void testTimeoutAfterDeadlineIsDeadlineExceeded() throws Exception
+    {
+        Deadline.start(1);
+        try {
+            interceptor.intercept(request, new byte[0], (sent, body) -> {
+                sleep(20);
+                throw new SocketTimeoutException("Read timed out");
+            });
+            Assert.fail();
+        } catch (DeadlineExceededException e) {
+            Assert.assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+    }
+
+    @Test
+    public void testNoDeadlineLeavesRequestAlone() throws Exception
+    {
+        interceptor.intercept(request, new byte[0], (sent, body) -> new MockClientHttpResponse(new byte[0],
+            HttpStatus.OK));
+
+        Assert.assertNull(request.getHeaders().getFirst(Deadline.HEADER));
+    }
+
+    @Test
+    public void testWrapCarriesDeadlineToOtherThread() throws Exception
+    {
+        Deadline.start(5000);
+        Callable<Boolean> task = Deadline.wrap(Deadline::isSet);
+        Deadline.restore(null);
+
+        Assert.assertTrue(task.call());
+        Assert.assertFalse(Deadline.isSet());
+    }
+
+    private static void sleep(long millis) throws IOException
+    {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package edu.fudan.common.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HashedTimerWheelTest
+{
+    @Test
+    public void testDueEntriesAreReturnedOnce()
+    {
+        HashedTimerWheel wheel = new HashedTimerWheel(1000, 8, 100, 0);
+        UUID early = UUID.randomUUID();
+        UUID late = UUID.randomUUID();
+        wheel.schedule(early, 2000);
+        wheel.schedule(late, 5000);
+
+        List<UUID> due = new ArrayList<>();
+        Assert.assertEquals(1, wheel.advance(3000, due, 100));
+        Assert.assertEquals(early, due.get(0));
+
+        due.clear();
+        Assert.assertEquals(0, wheel.advance(3000, due, 100));
+        Assert.assertEquals(1, wheel.advance(6000, due, 100));
+        Assert.assertEquals(late, due.get(0));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRescheduledIdIsKeptOnce()
+    {
+        HashedTimerWheel wheel = new HashedTimerWheel(1000, 8, 1, 0);
+        UUID id = UUID.randomUUID();
+        Assert.assertTrue(wheel.schedule(id, 2000));
+        Assert.assertTrue(wheel.schedule(id, 2000));
+        Assert.assertEquals(1, wheel.size());
+
+        List<UUID> due = new ArrayList<>();
+        Assert.assertEquals(1, wheel.advance(3000, due, 100));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineBeyondOneRevolutionWaits()
+    {
+        HashedTimerWheel wheel = new HashedTimerWheel(1000, 4, 100, 0);
+        UUID id = UUID.randomUUID();
+        wheel.schedule(id, 100000);
+        List<UUID> due = new ArrayList<>();
+        Assert.assertEquals(0, wheel.advance(50000, due, 100));
+        Assert.assertEquals(1, wheel.advance(100000, due, 100));
+        Assert.assertEquals(id, due.get(0));
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextTick()
+    {
+        HashedTimerWheel wheel = new HashedTimerWheel(1000, 8, 100, 10000);
+        wheel.schedule(UUID.randomUUID(), 0);
+        List<UUID> due = new ArrayList<>();
+        Assert.assertEquals(1, wheel.advance(11000, due, 100));
+    }
+
+    @Test
+    public void testWheelIsBounded()
+    {
+        HashedTimerWheel wheel = new HashedTimerWheel(1000, 8, 2, 0);
+        Assert.assertTrue(wheel.schedule(UUID.randomUUID(), 1000));
+        Assert.assertTrue(wheel.schedule(UUID.randomUUID(), 1000));
+        Assert.assertFalse(wheel.schedule(UUID.randomUUID(), 1000));
+        Assert.assertEquals(2, wheel.size());
+    }
+
+    @Test
+    public void testLimitKeepsRemainingEntries()
+    {
+        HashedTimerWheel wheel = new HashedTimerWheel(1000, 8, 100, 0);
+        for (int i = 0; i < 10; i++) {
+            wheel.schedule(UUID.randomUUID(), 1000);
+        }
+        List<UUID> due = new ArrayList<>();
+        Assert.assertEquals(4, wheel.advance(2000, due, 4));
+        Assert.assertEquals(6, wheel.advance(2000, due, 100));
+        Assert.assertEquals(10, due.size());
+    }
+}
@@ -0,0 +1,81 @@
+package edu.fudan.common.hystrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesStrategy;
+
+@RunWith(JUnit4.class)
+public class ContextPropagatingConcurrencyStrategyTest
+{
+    private static final List<String> WRAPPED = new ArrayList<>();
+
+    @After
+    public void tearDown()
+    {
+        HystrixPlugins.reset();
+        WRAPPED.clear();
+    }
+
+    @Test
+    public void testPropagatorsShareOneStrategy() throws Exception
+    {
+        ContextPropagatingConcurrencyStrategy.register(new First());
+        HystrixConcurrencyStrategy registered = HystrixPlugins.getInstance().getConcurrencyStrategy();
+        ContextPropagatingConcurrencyStrategy.register(new Second());
+
+        Assert.assertSame(registered, HystrixPlugins.getInstance().getConcurrencyStrategy());
+        Assert.assertEquals("result", registered.wrapCallable(() -> "result").call());
+        Assert.assertEquals(2, WRAPPED.size());
+        Assert.assertEquals("first", WRAPPED.get(0));
+        Assert.assertEquals("second", WRAPPED.get(1));
+    }
+
+    @Test
+    public void testPropagatorIsRegisteredOncePerType() throws Exception
+    {
+        ContextPropagatingConcurrencyStrategy.register(new First());
+        ContextPropagatingConcurrencyStrategy.register(new First());
+
+        HystrixPlugins.getInstance().getConcurrencyStrategy().wrapCallable(() -> "result").call();
+        Assert.assertEquals(1, WRAPPED.size());
+    }
+
+    @Test
+    public void testOtherPluginsAreKept()
+    {
+        HystrixPropertiesStrategy propertiesStrategy = HystrixPlugins.getInstance().getPropertiesStrategy();
+        ContextPropagatingConcurrencyStrategy.register(new First());
+
+        Assert.assertSame(propertiesStrategy, HystrixPlugins.getInstance().getPropertiesStrategy());
+    }
+
+    static class First implements HystrixContextPropagator
+    {
+        @Override
+        public <T> Callable<T> wrap(Callable<T> callable)
+        {
+            WRAPPED.add("first");
+            return callable;
+        }
+    }
+
+    static class Second implements HystrixContextPropagator
+    {
+        @Override
+        public <T> Callable<T> wrap(Callable<T> callable)
+        {
+            WRAPPED.add("second");
+            return callable;
+        }
+    }
+}
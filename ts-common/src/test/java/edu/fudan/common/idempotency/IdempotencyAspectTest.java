@@ -0,0 +1,36 @@
+package edu.fudan.common.idempotency;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(JUnit4.class)
+public class IdempotencyAspectTest
+{
+    @Test
+    public void testFingerprintIgnoresHeaders()
+    {
+        HttpHeaders first = new HttpHeaders();
+        first.set(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "k");
+        HttpHeaders retry = new HttpHeaders();
+        retry.set(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "k");
+        retry.set("X-Request-Id", "retry");
+
+        Assert.assertEquals(IdempotencyAspect.fingerprint(new Object[]{Collections.singletonMap("seat", 1), first}),
+            IdempotencyAspect.fingerprint(new Object[]{Collections.singletonMap("seat", 1), retry}));
+    }
+
+    @Test
+    public void testFingerprintDependsOnBodyAndPathVariables()
+    {
+        String body = IdempotencyAspect.fingerprint(new Object[]{Collections.singletonMap("seat", 1)});
+
+        Assert.assertNotEquals(body, IdempotencyAspect.fingerprint(new Object[]{Collections.singletonMap("seat", 2)}));
+        Assert.assertNotEquals(IdempotencyAspect.fingerprint(new Object[]{"order-1", "user"}),
+            IdempotencyAspect.fingerprint(new Object[]{"order-2", "user"}));
+    }
+}
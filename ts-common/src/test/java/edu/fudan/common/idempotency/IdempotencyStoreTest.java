@@ -0,0 +1,167 @@
+package edu.fudan.common.idempotency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import edu.fudan.common.exception.IdempotencyKeyReusedException;
+
+@RunWith(JUnit4.class)
+public class IdempotencyStoreTest
+{
+    private final IdempotencyStore.ResultFilter always = result -> true;
+
+    @Test
+    public void testReplayStoredResult() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        Object first = store.execute("key", calls::incrementAndGet, always);
+        Object second = store.execute("key", calls::incrementAndGet, always);
+        Assert.assertEquals(1, first);
+        Assert.assertEquals(1, second);
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testExpiredResultIsExecutedAgain() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, -1, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("key", calls::incrementAndGet, always);
+        store.execute("key", calls::incrementAndGet, always);
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testStoreIsBounded() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(2, 60000, 1000);
+        for (int i = 0; i < 5; i++) {
+            store.execute("key" + i, () -> "result", always);
+        }
+        Assert.assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testFailureIsNotStored() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 1000);
+        try {
+            store.execute("key", () -> {
+                throw new IllegalStateException("downstream failure");
+            }, always);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("downstream failure", e.getMessage());
+        }
+        Assert.assertEquals("retried", store.execute("key", () -> "retried", always));
+    }
+
+    @Test
+    public void testKeyReusedForAnotherRequestIsRejected() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        Assert.assertEquals(1, store.execute("key", "body-a", calls::incrementAndGet, always));
+        Assert.assertEquals(1, store.execute("key", "body-a", calls::incrementAndGet, always));
+        try {
+            store.execute("key", "body-b", calls::incrementAndGet, always);
+            Assert.fail();
+        } catch (IdempotencyKeyReusedException e) {
+            Assert.assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    public void testKeyReusedWhileInFlightIsRejected() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 1000);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        store.execute("key", "body-a", () -> pending, always);
+        try {
+            store.execute("key", "body-b", () -> "other", always);
+            Assert.fail();
+        } catch (IdempotencyKeyReusedException e) {
+            Assert.assertEquals(1, store.inFlightSize());
+        }
+    }
+
+    @Test
+    public void testRejectedResultIsNotStored() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("key", calls::incrementAndGet, result -> false);
+        store.execute("key", calls::incrementAndGet, result -> false);
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testConcurrentRetryWaitsForFirstExecution() throws Exception
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 5000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> {
+                try {
+                    return store.execute("key", () -> {
+                        started.countDown();
+                        release.await();
+                        return calls.incrementAndGet();
+                    }, always);
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            });
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Object> retry = executor.submit(() -> {
+                try {
+                    return store.execute("key", calls::incrementAndGet, always);
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            });
+            release.countDown();
+            Assert.assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, retry.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsynchronousResultIsStoredWhenComplete() throws Throwable
+    {
+        IdempotencyStore store = new IdempotencyStore(10, 60000, 1000);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyStore.IdempotentCall call = () -> {
+            calls.incrementAndGet();
+            return pending;
+        };
+
+        Assert.assertSame(pending, store.execute("key", call, always));
+        Assert.assertSame(pending, store.execute("key", call, always));
+        Assert.assertEquals(0, store.size());
+
+        pending.complete("result");
+        Object replayed = store.execute("key", call, always);
+        Assert.assertEquals("result", ((CompletableFuture<?>) replayed).get());
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(0, store.inFlightSize());
+    }
+}
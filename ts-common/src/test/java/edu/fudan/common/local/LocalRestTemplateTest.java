@@ -0,0 +1,250 @@
+package edu.fudan.common.local;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.security.web.access.expression.ExpressionBasedFilterInvocationSecurityMetadataSource;
+import org.springframework.security.web.access.expression.WebExpressionVoter;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fudan.common.exception.DeadlineExceededException;
+import edu.fudan.common.util.Response;
+
+@RunWith(JUnit4.class)
+public class LocalRestTemplateTest
+{
+    private static final String STATIONS = "http://ts-station-service:12345/api/v1/stationservice/stations";
+
+    private GenericApplicationContext context;
+
+    private LocalService service;
+
+    private final LocalRestTemplate restTemplate = new LocalRestTemplate();
+
+    @Before
+    public void setUp()
+    {
+        context = new GenericApplicationContext();
+        context.registerBean(StationController.class);
+        context.refresh();
+        RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.afterPropertiesSet();
+        service = new LocalService("ts-station-service", handlerMapping, new ObjectMapper(),
+            new LocalSecurity(LocalRestTemplateTest.filterChainProxy()));
+        LocalServices.register(service);
+    }
+
+    @After
+    public void tearDown()
+    {
+        LocalServices.unregister(service);
+        context.close();
+    }
+
+    @Test
+    public void testGetIsCalledInProcess()
+    {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Trace", "abc");
+        ResponseEntity<Response> re = restTemplate.exchange(STATIONS + "/id/{name}", HttpMethod.GET,
+            new HttpEntity<>(headers), Response.class, "nan jing");
+
+        Assert.assertEquals(HttpStatus.OK, re.getStatusCode());
+        Assert.assertEquals("nan jing/abc", re.getBody().getData());
+    }
+
+    @Test
+    public void testBodyIsConvertedBothWays()
+    {
+        ResponseEntity<Response<Map<String, Object>>> re = restTemplate.exchange(STATIONS, HttpMethod.POST,
+            new HttpEntity<>(new Station("shanghai", 10)),
+            new ParameterizedTypeReference<Response<Map<String, Object>>>() { });
+
+        Assert.assertEquals(HttpStatus.CREATED, re.getStatusCode());
+        Assert.assertEquals("shanghai", re.getBody().getData().get("name"));
+        Assert.assertEquals(11, re.getBody().getData().get("stayTime"));
+    }
+
+    @Test(expected = HttpClientErrorException.NotFound.class)
+    public void testErrorStatusThrowsLikeRestTemplate()
+    {
+        restTemplate.exchange(STATIONS + "/id/{name}", HttpMethod.GET, null, Response.class, "unknown");
+    }
+
+    @Test
+    public void testUnsupportedHandlerGoesOverHttp()
+    {
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(MockRestRequestMatchers.requestTo(STATIONS + "/raw"))
+            .andRespond(MockRestResponseCreators.withSuccess("{\"status\":1}", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Response> re = restTemplate.exchange(STATIONS + "/raw", HttpMethod.GET, null, Response.class);
+
+        Assert.assertEquals(Integer.valueOf(1), re.getBody().getStatus());
+        server.verify();
+    }
+
+    @Test
+    public void testAdminEndpointGoesOverHttp()
+    {
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(MockRestRequestMatchers.requestTo(STATIONS + "/admin/shanghai"))
+            .andRespond(MockRestResponseCreators.withStatus(HttpStatus.FORBIDDEN));
+
+        try {
+            restTemplate.exchange(STATIONS + "/admin/{name}", HttpMethod.DELETE, null, Response.class, "shanghai");
+            Assert.fail();
+        } catch (HttpClientErrorException.Forbidden e) {
+            server.verify();
+        }
+    }
+
+    @Test(expected = HttpServerErrorException.GatewayTimeout.class)
+    public void testResponseStatusExceptionIsMapped()
+    {
+        restTemplate.exchange(STATIONS + "/id/{name}", HttpMethod.GET, null, Response.class, "slow");
+    }
+
+    @Test(expected = HttpServerErrorException.InternalServerError.class)
+    public void testOtherExceptionIsInternalServerError()
+    {
+        restTemplate.exchange(STATIONS + "/id/{name}", HttpMethod.GET, null, Response.class, "broken");
+    }
+
+    /**
+     * Like the services' SecurityConfig: everything is public except the admin endpoints
+     */
+    private static FilterChainProxy filterChainProxy()
+    {
+        LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> rules = new LinkedHashMap<>();
+        rules.put(new AntPathRequestMatcher("/api/v1/stationservice/stations/admin/**"),
+            SecurityConfig.createList("hasRole('ADMIN')"));
+        rules.put(new AntPathRequestMatcher("/api/v1/stationservice/**"), SecurityConfig.createList("permitAll"));
+        rules.put(AnyRequestMatcher.INSTANCE, SecurityConfig.createList("authenticated"));
+        FilterSecurityInterceptor interceptor = new FilterSecurityInterceptor();
+        interceptor.setSecurityMetadataSource(new ExpressionBasedFilterInvocationSecurityMetadataSource(rules,
+            new DefaultWebSecurityExpressionHandler()));
+        interceptor.setAccessDecisionManager(
+            new AffirmativeBased(Collections.<AccessDecisionVoter<?>>singletonList(new WebExpressionVoter())));
+        return new FilterChainProxy(new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE, interceptor));
+    }
+
+    @RestController
+    static class StationController
+    {
+        @GetMapping("/api/v1/stationservice/stations/id/{name}")
+        public HttpEntity<Response<String>> queryId(@PathVariable String name, @RequestHeader HttpHeaders headers)
+        {
+            if ("unknown".equals(name)) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if ("slow".equals(name)) {
+                throw new DeadlineExceededException("no time left");
+            }
+            if ("broken".equals(name)) {
+                throw new IllegalStateException("broken");
+            }
+            return ResponseEntity.ok(new Response<>(1, "Success", name + "/" + headers.getFirst("X-Trace")));
+        }
+
+        @PostMapping("/api/v1/stationservice/stations")
+        public ResponseEntity<Response<Station>> create(@RequestBody Station station)
+        {
+            station.setStayTime(station.getStayTime() + 1);
+            return new ResponseEntity<>(new Response<>(1, "Create success", station), HttpStatus.CREATED);
+        }
+
+        @DeleteMapping("/api/v1/stationservice/stations/admin/{name}")
+        public Response<String> delete(@PathVariable String name)
+        {
+            return new Response<>(1, "Delete success", name);
+        }
+
+        @GetMapping("/api/v1/stationservice/stations/raw")
+        public Response<String> raw(HttpServletRequest request)
+        {
+            return new Response<>(1, "Success", request.getRequestURI());
+        }
+    }
+
+    public static class Station
+    {
+        private String name;
+
+        private int stayTime;
+
+        public Station()
+        {
+        }
+
+        Station(String name, int stayTime)
+        {
+            this.name = name;
+            this.stayTime = stayTime;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public int getStayTime()
+        {
+            return stayTime;
+        }
+
+        public void setStayTime(int stayTime)
+        {
+            this.stayTime = stayTime;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package edu.fudan.common.logging;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import edu.fudan.common.util.Response;
+
+@RunWith(JUnit4.class)
+public class LogPayloadsTest
+{
+    public static class Item
+    {
+        private final String id;
+
+        public Item(String id)
+        {
+            this.id = id;
+        }
+
+        public String getId()
+        {
+            return id;
+        }
+
+        @Override
+        public String toString()
+        {
+            throw new AssertionError("toString must not be called");
+        }
+    }
+
+    @Test
+    public void testSummaryUsesTypeAndId()
+    {
+        Assert.assertEquals("Item[id=a]", LogPayloads.summary(new Item("a")).toString());
+        Assert.assertEquals("null", LogPayloads.summary(null).toString());
+        Assert.assertEquals("Object", LogPayloads.summary(new Object()).toString());
+    }
+
+    @Test
+    public void testSummaryUnwrapsResponses()
+    {
+        Response<List<Item>> response = new Response<>(1, "Success", Arrays.asList(new Item("a"), new Item("b")));
+        Assert.assertEquals("Response[status=1, msg=Success, data=ArrayList[size=2]]",
+            LogPayloads.summary(response).toString());
+        Assert.assertEquals("ResponseEntity[status=200, body=Response[status=1, msg=Success, data=ArrayList[size=2]]]",
+            LogPayloads.summary(new ResponseEntity<>(response, HttpStatus.OK)).toString());
+    }
+
+    @Test
+    public void testSummaryTruncatesLongText()
+    {
+        char[] text = new char[100];
+        Arrays.fill(text, 'x');
+        String summary = LogPayloads.summary(new String(text)).toString();
+        Assert.assertTrue(summary.endsWith("...(100 chars)"));
+        Assert.assertEquals("short", LogPayloads.summary("short").toString());
+    }
+
+    @Test
+    public void testIdsListsFirstIds()
+    {
+        List<Item> items = Arrays.asList(new Item("1"), new Item("2"), new Item("3"), new Item("4"),
+            new Item("5"), new Item("6"));
+        Assert.assertEquals("[size=6, ids=1,2,3,4,5,...]", LogPayloads.ids(items, Item::getId).toString());
+        Assert.assertEquals("[size=0, ids=]",
+            LogPayloads.ids(Collections.<Item>emptyList(), Item::getId).toString());
+    }
+}
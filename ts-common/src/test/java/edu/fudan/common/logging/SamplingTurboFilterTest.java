@@ -0,0 +1,69 @@
+package edu.fudan.common.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+@RunWith(JUnit4.class)
+public class SamplingTurboFilterTest
+{
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    public void testMostSpecificRateWins()
+    {
+        SamplingTurboFilter filter = filter("seat", 0.5, "seat.service", 0.0);
+        Assert.assertEquals(0.0, filter.rateOf("seat.service.SeatServiceImpl"), 0);
+        Assert.assertEquals(0.5, filter.rateOf("seat.controller.SeatController"), 0);
+        Assert.assertEquals(1.0, filter.rateOf("travel.service.TravelServiceImpl"), 0);
+    }
+
+    @Test
+    public void testDropsSampledOutInfo()
+    {
+        SamplingTurboFilter filter = filter("seat", 0.0);
+        Logger logger = context.getLogger("seat.service.SeatServiceImpl");
+        Assert.assertEquals(FilterReply.DENY, filter.decide(null, logger, Level.INFO, "msg", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.WARN, "msg", null, null));
+        Assert.assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.ERROR, "msg", null, null));
+    }
+
+    @Test
+    public void testUnconfiguredLoggersPass()
+    {
+        SamplingTurboFilter filter = filter("seat", 0.0);
+        Logger logger = context.getLogger("travel.service.TravelServiceImpl");
+        Assert.assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, "msg", null, null));
+    }
+
+    @Test
+    public void testSetRatesResetsResolvedRates()
+    {
+        SamplingTurboFilter filter = filter("seat", 0.0);
+        Assert.assertEquals(0.0, filter.rateOf("seat.service.SeatServiceImpl"), 0);
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("seat", 0.25);
+        filter.setRates(rates);
+        Assert.assertEquals(0.25, filter.rateOf("seat.service.SeatServiceImpl"), 0);
+    }
+
+    private static SamplingTurboFilter filter(Object... nameAndRate)
+    {
+        Map<String, Double> rates = new HashMap<>();
+        for (int i = 0; i < nameAndRate.length; i += 2) {
+            rates.put((String) nameAndRate[i], (Double) nameAndRate[i + 1]);
+        }
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRates(rates);
+        return filter;
+    }
+}
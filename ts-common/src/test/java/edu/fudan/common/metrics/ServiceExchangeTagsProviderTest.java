@@ -0,0 +1,28 @@
+package edu.fudan.common.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ServiceExchangeTagsProviderTest
+{
+    @Test
+    public void testIdsAreReplaced()
+    {
+        Assert.assertEquals("/api/v1/orderservice/order/{id}/{id}",
+            ServiceExchangeTagsProvider.normalize("/api/v1/orderservice/order/2013-01-01/G1234"));
+        Assert.assertEquals("/api/v1/orderservice/order/{id}",
+            ServiceExchangeTagsProvider.normalize("/api/v1/orderservice/order/5ad7750b-a68b-49c0-a8c0-32776b067703"));
+    }
+
+    @Test
+    public void testOperationPathIsKept()
+    {
+        Assert.assertEquals("/api/v1/seatservice/seats/left_tickets",
+            ServiceExchangeTagsProvider.normalize("/api/v1/seatservice/seats/left_tickets"));
+        Assert.assertEquals("/", ServiceExchangeTagsProvider.normalize(""));
+        Assert.assertEquals("/", ServiceExchangeTagsProvider.normalize("/"));
+    }
+}
@@ -0,0 +1,72 @@
+package edu.fudan.common.mongo;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+@RunWith(JUnit4.class)
+public class MongoIndexesTest
+{
+    @Test
+    public void testParse()
+    {
+        List<Index> indexes = MongoIndexes.parse("accountId, travelDate + trainNumber,, status+-boughtDate");
+
+        Assert.assertEquals(3, indexes.size());
+        Assert.assertEquals(new Document("accountId", 1), indexes.get(0).getIndexKeys());
+        Assert.assertEquals(new Document("travelDate", 1).append("trainNumber", 1), indexes.get(1).getIndexKeys());
+        Assert.assertEquals(new Document("status", 1).append("boughtDate", -1), indexes.get(2).getIndexKeys());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyField()
+    {
+        MongoIndexes.parse("travelDate+");
+    }
+
+    @Test
+    public void testEnsure()
+    {
+        MongoOperations mongo = Mockito.mock(MongoOperations.class);
+        IndexOperations orders = Mockito.mock(IndexOperations.class);
+        IndexOperations payment = Mockito.mock(IndexOperations.class);
+        Mockito.when(mongo.indexOps("orders")).thenReturn(orders);
+        Mockito.when(mongo.indexOps("payment")).thenReturn(payment);
+        Mockito.when(orders.ensureIndex(Mockito.any())).thenThrow(new IllegalStateException("conflict"))
+            .thenReturn("travelDate_1_trainNumber_1");
+        Map<String, String> declarations = new LinkedHashMap<>();
+        declarations.put("orders", "accountId, travelDate+trainNumber");
+        declarations.put("payment", "userId");
+
+        Assert.assertEquals(2, MongoIndexes.ensure(mongo, declarations));
+        Mockito.verify(orders, Mockito.times(2)).ensureIndex(Mockito.any());
+        Mockito.verify(payment).ensureIndex(Mockito.any());
+    }
+
+    @Test
+    public void testUnreachableDatabase()
+    {
+        MongoOperations mongo = Mockito.mock(MongoOperations.class);
+        IndexOperations orders = Mockito.mock(IndexOperations.class);
+        Mockito.when(mongo.indexOps("orders")).thenReturn(orders);
+        Mockito.when(orders.ensureIndex(Mockito.any())).thenThrow(new DataAccessResourceFailureException("timeout"));
+        Map<String, String> declarations = new LinkedHashMap<>();
+        declarations.put("orders", "accountId, travelDate+trainNumber");
+        declarations.put("payment", "userId");
+
+        Assert.assertEquals(0, MongoIndexes.ensure(mongo, declarations));
+        Mockito.verify(orders).ensureIndex(Mockito.any());
+        Mockito.verify(mongo, Mockito.never()).indexOps("payment");
+    }
+}
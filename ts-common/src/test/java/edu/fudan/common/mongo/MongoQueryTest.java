@@ -0,0 +1,62 @@
+package edu.fudan.common.mongo;
+
+import org.bson.BsonDocument;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MongoQueryTest
+{
+    @Test
+    public void testFind()
+    {
+        MongoQuery query = MongoQuery.of("find", BsonDocument.parse("{find: 'orders', "
+            + "filter: {travelDate: {$gte: {$date: 0}}, trainNumber: 'G1234'}, limit: 10, $db: 'ts', "
+            + "lsid: {id: 1}, $readPreference: {mode: 'primary'}}"));
+
+        Assert.assertEquals("orders", query.getCollection());
+        Assert.assertEquals("{travelDate: {$gte: ?}, trainNumber: ?}", query.getShape());
+        Assert.assertTrue(query.hasFilter());
+        Assert.assertEquals(BsonDocument.parse("{find: 'orders', "
+            + "filter: {travelDate: {$gte: {$date: 0}}, trainNumber: 'G1234'}, limit: 10}"), query.getCommand());
+    }
+
+    @Test
+    public void testLogicalOperators()
+    {
+        Assert.assertEquals("{$or: [{accountId: ?}, {status: {$in: ?}}]}",
+            MongoQuery.shape(BsonDocument.parse("{$or: [{accountId: 'a'}, {status: {$in: [0, 1]}}]}")));
+    }
+
+    @Test
+    public void testFilterOfOtherCommands()
+    {
+        Assert.assertEquals("{orderId: ?}", MongoQuery.of("delete",
+            BsonDocument.parse("{delete: 'assurance', deletes: [{q: {orderId: 'o'}, limit: 1}]}")).getShape());
+        Assert.assertEquals("{_id: ?}", MongoQuery.of("update",
+            BsonDocument.parse("{update: 'orders', updates: [{q: {_id: 'o'}, u: {$set: {status: 1}}}]}")).getShape());
+        Assert.assertEquals("{name: ?}", MongoQuery.of("count",
+            BsonDocument.parse("{count: 'station', query: {name: 'Shang Hai'}}")).getShape());
+        Assert.assertEquals("{routeId: ?}", MongoQuery.of("aggregate",
+            BsonDocument.parse("{aggregate: 'trip', pipeline: [{$match: {routeId: 'r'}}], cursor: {}}")).getShape());
+    }
+
+    @Test
+    public void testWholeCollection()
+    {
+        MongoQuery query = MongoQuery.of("find", BsonDocument.parse("{find: 'station'}"));
+
+        Assert.assertEquals("{}", query.getShape());
+        Assert.assertFalse(query.hasFilter());
+    }
+
+    @Test
+    public void testOtherCommandsAreNotQueries()
+    {
+        Assert.assertNull(MongoQuery.of("insert", BsonDocument.parse("{insert: 'orders', documents: [{}]}")));
+        Assert.assertNull(MongoQuery.of("getMore", BsonDocument.parse("{getMore: 1, collection: 'orders'}")));
+        Assert.assertNull(MongoQuery.of("aggregate", BsonDocument.parse("{aggregate: 1, pipeline: []}")));
+    }
+}
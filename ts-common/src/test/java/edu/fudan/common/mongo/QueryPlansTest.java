@@ -0,0 +1,82 @@
+package edu.fudan.common.mongo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QueryPlansTest
+{
+    private static final MongoQuery BY_ACCOUNT = MongoQuery.of("find",
+        BsonDocument.parse("{find: 'orders', filter: {accountId: 'a'}}"));
+
+    @Test
+    public void testIndexScan()
+    {
+        Assert.assertEquals("FETCH(IXSCAN {accountId: 1})", QueryPlans.summary(Document.parse("{queryPlanner: "
+            + "{winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN', keyPattern: {accountId: 1}}}}}")));
+    }
+
+    @Test
+    public void testCollectionScan()
+    {
+        String plan = QueryPlans.summary(Document.parse("{queryPlanner: {winningPlan: {stage: 'SORT', "
+            + "inputStage: {stage: 'COLLSCAN', direction: 'forward'}}}}"));
+
+        Assert.assertEquals("SORT(COLLSCAN)", plan);
+        Assert.assertTrue(QueryPlans.isCollectionScan(plan));
+    }
+
+    @Test
+    public void testSeveralInputs()
+    {
+        Assert.assertEquals("OR(IXSCAN {a: 1}, IXSCAN {b: -1})", QueryPlans.summary(Document.parse(
+            "{queryPlanner: {winningPlan: {stage: 'OR', inputStages: [{stage: 'IXSCAN', keyPattern: {a: 1}}, "
+                + "{stage: 'IXSCAN', keyPattern: {b: -1}}]}}}")));
+        Assert.assertEquals("SINGLE_SHARD(COLLSCAN)", QueryPlans.summary(Document.parse("{queryPlanner: "
+            + "{winningPlan: {stage: 'SINGLE_SHARD', "
+            + "shards: [{shardName: 's0', winningPlan: {stage: 'COLLSCAN'}}]}}}")));
+    }
+
+    @Test
+    public void testAggregation()
+    {
+        Assert.assertEquals("IXSCAN {routeId: 1}", QueryPlans.summary(Document.parse("{stages: [{$cursor: "
+            + "{queryPlanner: {winningPlan: {stage: 'IXSCAN', keyPattern: {routeId: 1}}}}}]}")));
+    }
+
+    @Test
+    public void testShapeIsExplainedOnce()
+    {
+        AtomicInteger explained = new AtomicInteger();
+        QueryPlans plans = new QueryPlans(command -> {
+            explained.incrementAndGet();
+            Assert.assertEquals("queryPlanner", command.get("verbosity"));
+            return Document.parse("{queryPlanner: {winningPlan: {stage: 'COLLSCAN'}}}");
+        });
+
+        Assert.assertEquals("COLLSCAN", plans.explain(QueryPlansTest.BY_ACCOUNT));
+        Assert.assertEquals("COLLSCAN", plans.explain(MongoQuery.of("find",
+            BsonDocument.parse("{find: 'orders', filter: {accountId: 'b'}}"))));
+        Assert.assertEquals(1, explained.get());
+    }
+
+    @Test
+    public void testUnavailablePlanIsNotKept()
+    {
+        AtomicInteger explained = new AtomicInteger();
+        QueryPlans plans = new QueryPlans(command -> {
+            explained.incrementAndGet();
+            throw new IllegalStateException("not connected");
+        });
+
+        Assert.assertEquals("unavailable", plans.explain(QueryPlansTest.BY_ACCOUNT));
+        Assert.assertEquals("unavailable", plans.explain(QueryPlansTest.BY_ACCOUNT));
+        Assert.assertEquals(2, explained.get());
+    }
+}
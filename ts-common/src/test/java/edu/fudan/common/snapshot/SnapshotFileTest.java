@@ -0,0 +1,137 @@
+package edu.fudan.common.snapshot;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SnapshotFileTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEntriesAreReadBack() throws Exception
+    {
+        Path file = folder.getRoot().toPath().resolve("seats.snapshot");
+        Map<String, ByteBuffer> entries = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put("G" + i + "|2026-10-19|2", entry("seats of G" + i));
+        }
+        SnapshotFile.write(file, "seat-inventory", 1, 42L, entries);
+
+        Snapshot snapshot = SnapshotFile.open(file, "seat-inventory", 1);
+
+        Assert.assertEquals(42L, snapshot.getPosition());
+        Assert.assertEquals(1000, snapshot.size());
+        Assert.assertEquals("seats of G0", text(snapshot.get("G0|2026-10-19|2")));
+        Assert.assertEquals("seats of G999", text(snapshot.get("G999|2026-10-19|2")));
+        Assert.assertNull(snapshot.get("G1000|2026-10-19|2"));
+    }
+
+    @Test
+    public void testEntriesAreVisitedInKeyOrder() throws Exception
+    {
+        Path file = folder.getRoot().toPath().resolve("seats.snapshot");
+        Map<String, ByteBuffer> entries = new HashMap<>();
+        entries.put("b", entry("2"));
+        entries.put("a", entry("1"));
+        entries.put("c", entry(""));
+        SnapshotFile.write(file, "seat-inventory", 1, 0L, entries);
+
+        List<String> visited = new ArrayList<>();
+        SnapshotFile.open(file, "seat-inventory", 1).forEach((key, entry) -> visited.add(key + "=" + text(entry)));
+
+        Assert.assertEquals("[a=1, b=2, c=]", visited.toString());
+    }
+
+    @Test
+    public void testMissingSnapshot() throws Exception
+    {
+        Assert.assertNull(SnapshotFile.open(folder.getRoot().toPath().resolve("none"), "seat-inventory", 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherVersionIsRefused() throws Exception
+    {
+        Path file = folder.getRoot().toPath().resolve("seats.snapshot");
+        SnapshotFile.write(file, "seat-inventory", 1, 0L, new HashMap<>());
+
+        SnapshotFile.open(file, "seat-inventory", 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFileIsRefused() throws Exception
+    {
+        Path file = folder.newFile("other").toPath();
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.writeBytes("{\"not\":\"a snapshot\"}");
+        }
+
+        SnapshotFile.open(file, "seat-inventory", 1);
+    }
+
+    @Test
+    public void testCorruptedEntryIsSkipped() throws Exception
+    {
+        Path file = folder.getRoot().toPath().resolve("seats.snapshot");
+        Map<String, ByteBuffer> entries = new HashMap<>();
+        entries.put("a", entry("first"));
+        entries.put("b", entry("second"));
+        SnapshotFile.write(file, "seat-inventory", 1, 0L, entries);
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.seek(out.length() - 1);
+            out.write('X');
+        }
+
+        Snapshot snapshot = SnapshotFile.open(file, "seat-inventory", 1);
+
+        Assert.assertEquals("first", text(snapshot.get("a")));
+        Assert.assertNull(snapshot.get("b"));
+    }
+
+    @Test
+    public void testOpenSnapshotSurvivesReplacement() throws Exception
+    {
+        Path file = folder.getRoot().toPath().resolve("seats.snapshot");
+        Map<String, ByteBuffer> entries = new HashMap<>();
+        entries.put("a", entry("old"));
+        SnapshotFile.write(file, "seat-inventory", 1, 1L, entries);
+        Snapshot old = SnapshotFile.open(file, "seat-inventory", 1);
+
+        entries.put("a", old.get("a"));
+        entries.put("b", entry("new"));
+        SnapshotFile.write(file, "seat-inventory", 1, 2L, entries);
+
+        Assert.assertEquals("old", text(old.get("a")));
+        Snapshot current = SnapshotFile.open(file, "seat-inventory", 1);
+        Assert.assertEquals(2L, current.getPosition());
+        Assert.assertEquals("old", text(current.get("a")));
+        Assert.assertEquals("new", text(current.get("b")));
+    }
+
+    private static ByteBuffer entry(String text)
+    {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer entry)
+    {
+        byte[] bytes = new byte[entry.remaining()];
+        entry.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package edu.fudan.common.tracing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SpanCollectorTest
+{
+    @Test
+    public void testTraceReturnsSpansByStart()
+    {
+        SpanCollector collector = new SpanCollector(10, null, 0);
+        collector.collect(span("t1", "b", "a", "GET", 1200, 300));
+        collector.collect(span("t2", "c", SpanRecord.NO_PARENT, "POST", 1000, 50));
+        collector.collect(span("t1", "a", SpanRecord.NO_PARENT, "preserve", 1000, 1000));
+
+        List<SpanRecord> trace = collector.trace("t1");
+        Assert.assertEquals(2, trace.size());
+        Assert.assertEquals("a", trace.get(0).getSpanId());
+        Assert.assertEquals("b", trace.get(1).getSpanId());
+    }
+
+    @Test
+    public void testOldSpansAreOverwritten()
+    {
+        SpanCollector collector = new SpanCollector(2, null, 0);
+        collector.collect(span("t1", "a", SpanRecord.NO_PARENT, "first", 0, 10));
+        collector.collect(span("t2", "b", SpanRecord.NO_PARENT, "second", 10, 30));
+        collector.collect(span("t3", "c", SpanRecord.NO_PARENT, "third", 20, 20));
+
+        Assert.assertTrue(collector.trace("t1").isEmpty());
+        List<SpanRecord> recent = collector.recentRoots(10);
+        Assert.assertEquals(Arrays.asList("t3", "t2"),
+            Arrays.asList(recent.get(0).getTraceId(), recent.get(1).getTraceId()));
+        Assert.assertEquals("t2", collector.slowestRoots(1).get(0).getTraceId());
+    }
+
+    @Test
+    public void testReportShowsSelfTimeBelowParent()
+    {
+        String report = TraceReport.render(Arrays.asList(
+            span("t1", "a", SpanRecord.NO_PARENT, "preserve", 0, 10000),
+            span("t1", "b", "a", "GET", 1000, 6000)));
+
+        String[] lines = report.split("\n");
+        Assert.assertEquals(4, lines.length);
+        Assert.assertTrue(lines[2].contains("10.0") && lines[2].contains("4.0") && lines[2].endsWith("svc preserve"));
+        Assert.assertTrue(lines[3].endsWith("  svc GET"));
+        Assert.assertEquals("no spans\n", TraceReport.render(Collections.emptyList()));
+    }
+
+    private static SpanRecord span(String traceId, String spanId, String parentId, String operation, long start,
+        long duration)
+    {
+        return new SpanRecord(traceId, spanId, parentId, "svc", operation, start, duration,
+            Collections.emptyMap());
+    }
+}
@@ -0,0 +1,86 @@
+package edu.fudan.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(JUnit4.class)
+public class AmountTest
+{
+    @Test
+    public void testParse()
+    {
+        Assert.assertEquals(10000, Amount.parseMinorUnits("100.0"));
+        Assert.assertEquals(9500, Amount.parseMinorUnits("95"));
+        Assert.assertEquals(5000, Amount.parseMinorUnits("50."));
+        Assert.assertEquals(1234, Amount.parseMinorUnits(" 12.34 "));
+        Assert.assertEquals(-5, Amount.parseMinorUnits("-0.05"));
+        Assert.assertEquals(50, Amount.parseMinorUnits("+.5"));
+        Assert.assertEquals(0, Amount.parseMinorUnits("0"));
+    }
+
+    @Test
+    public void testParseRoundsToCents()
+    {
+        Assert.assertEquals(45500, Amount.parseMinorUnits("454.99999999999994"));
+        Assert.assertEquals(1235, Amount.parseMinorUnits("12.345"));
+        Assert.assertEquals(1234, Amount.parseMinorUnits("12.3449"));
+        Assert.assertEquals(-1235, Amount.parseMinorUnits("-12.345"));
+        Assert.assertEquals(1000000000, Amount.parseMinorUnits("1.0E7"));
+    }
+
+    @Test
+    public void testNotAnAmount()
+    {
+        for (String text : new String[] {null, "", "-", ".", "money", "1.2.3", "12a", "99999999999999999999"}) {
+            try {
+                Amount.parse(text);
+                Assert.fail(text);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testToString()
+    {
+        Assert.assertEquals("150.0", Amount.parse("150").toString());
+        Assert.assertEquals("12.5", Amount.parse("12.50").toString());
+        Assert.assertEquals("12.34", Amount.parse("12.34").toString());
+        Assert.assertEquals("0.05", Amount.parse("0.05").toString());
+        Assert.assertEquals("-0.05", Amount.parse("-0.05").toString());
+        Assert.assertEquals("0.0", Amount.ZERO.toString());
+        Assert.assertEquals("" + 95.0, Amount.of(95.0).toString());
+        Assert.assertEquals("150.00", Amount.parse("150").toPlainString());
+        Assert.assertEquals("-0.05", Amount.parse("-0.05").toPlainString());
+    }
+
+    @Test
+    public void testArithmetic()
+    {
+        Amount tenth = Amount.parse("0.1");
+
+        Assert.assertEquals(Amount.parse("0.3"), tenth.plus(Amount.parse("0.2")));
+        Assert.assertEquals(Amount.parse("-0.9"), tenth.minus(Amount.parse("1")));
+        Assert.assertEquals(Amount.parse("32.0"), Amount.parse("40").times(0.8));
+        Assert.assertEquals(Amount.parse("0.01"), Amount.parse("0.01").times(0.5));
+        Assert.assertEquals(Amount.parse("455"), Amount.of(350 * 1.3));
+        Assert.assertTrue(Amount.parse("2").compareTo(Amount.parse("10")) < 0);
+        Assert.assertEquals(-1, tenth.minus(Amount.parse("1")).signum());
+    }
+
+    @Test
+    public void testJson() throws Exception
+    {
+        ObjectMapper mapper = new ObjectMapper();
+
+        Assert.assertEquals("\"12.5\"", mapper.writeValueAsString(Amount.parse("12.50")));
+        Assert.assertEquals(Amount.parse("12.5"), mapper.readValue("\"12.50\"", Amount.class));
+        Assert.assertEquals(Amount.parse("12.5"), mapper.readValue("12.5", Amount.class));
+        Assert.assertEquals(Amount.parse("12"), mapper.readValue("12", Amount.class));
+    }
+}
@@ -0,0 +1,56 @@
+package edu.fudan.common.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConsistentHashRingTest
+{
+    private static final int KEYS = 20000;
+
+    @Test
+    public void testKeysAreSpreadEvenly()
+    {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("seat-1", "seat-2", "seat-3", "seat-4"), 160);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.owner("G" + i + "|2026-10-19"), 1, Integer::sum);
+        }
+
+        Assert.assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            Assert.assertTrue("uneven share " + counts, Math.abs(count - KEYS / 4) < KEYS / 4 * 0.2);
+        }
+    }
+
+    @Test
+    public void testAddingMemberOnlyMovesKeysToIt()
+    {
+        ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("seat-1", "seat-2", "seat-3"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("seat-1", "seat-2", "seat-3", "seat-4"), 160);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "G" + i + "|2026-10-19";
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+                Assert.assertEquals("seat-4", owner);
+                moved++;
+            }
+        }
+
+        Assert.assertTrue("moved " + moved, moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2);
+    }
+
+    @Test
+    public void testEmptyRingHasNoOwner()
+    {
+        Assert.assertNull(new ConsistentHashRing(Collections.emptyList(), 160).owner("G1234|2026-10-19"));
+    }
+}
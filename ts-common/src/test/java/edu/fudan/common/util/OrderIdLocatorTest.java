@@ -0,0 +1,40 @@
+package edu.fudan.common.util;
+
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class OrderIdLocatorTest
+{
+    @Test
+    public void testOwnerRoundTrip()
+    {
+        UUID orderId = OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER);
+        UUID orderOtherId = OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER_OTHER);
+        Assert.assertEquals(OrderIdLocator.Owner.ORDER, OrderIdLocator.ownerOf(orderId.toString()));
+        Assert.assertEquals(OrderIdLocator.Owner.ORDER_OTHER, OrderIdLocator.ownerOf(orderOtherId));
+        Assert.assertEquals(2, orderId.variant());
+    }
+
+    @Test
+    public void testLegacyIdIsUnknown()
+    {
+        Assert.assertEquals(OrderIdLocator.Owner.UNKNOWN, OrderIdLocator.ownerOf(UUID.randomUUID()));
+        Assert.assertEquals(OrderIdLocator.Owner.UNKNOWN, OrderIdLocator.ownerOf("not-an-id"));
+        Assert.assertEquals(OrderIdLocator.Owner.UNKNOWN, OrderIdLocator.ownerOf((String) null));
+    }
+
+    @Test
+    public void testTripIdFallback()
+    {
+        String legacyId = UUID.randomUUID().toString();
+        Assert.assertEquals(OrderIdLocator.Owner.ORDER, OrderIdLocator.ownerOf(legacyId, "G1234"));
+        Assert.assertEquals(OrderIdLocator.Owner.ORDER_OTHER, OrderIdLocator.ownerOf(legacyId, "Z1234"));
+        String otherId = OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER_OTHER).toString();
+        Assert.assertEquals(OrderIdLocator.Owner.ORDER_OTHER, OrderIdLocator.ownerOf(otherId, "G1234"));
+    }
+}
@@ -0,0 +1,151 @@
+package edu.fudan.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RouteGeometryTest
+{
+    private final RouteGeometry geometry = RouteGeometry.of(Arrays.asList("shanghai", "suzhou", "nanjing", "beijing"),
+        Arrays.asList(0, 100, 300, 1200));
+
+    @Test
+    public void testPositionsMatchIndexOf()
+    {
+        List<String> stations = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            stations.add("station-" + i);
+        }
+        RouteGeometry large = RouteGeometry.of(stations, null);
+
+        for (int i = 0; i < 60; i++) {
+            Assert.assertEquals(i, large.positionOf("station-" + i));
+        }
+        Assert.assertEquals(-1, large.positionOf("station-60"));
+        Assert.assertEquals(-1, large.positionOf(null));
+        Assert.assertEquals(60, large.size());
+    }
+
+    @Test
+    public void testOrder()
+    {
+        Assert.assertTrue(geometry.isInOrder("suzhou", "beijing"));
+        Assert.assertFalse(geometry.isInOrder("beijing", "suzhou"));
+        Assert.assertFalse(geometry.isInOrder("suzhou", "suzhou"));
+        Assert.assertFalse(geometry.isInOrder("suzhou", "taiyuan"));
+        Assert.assertFalse(geometry.isInOrder("taiyuan", "suzhou"));
+        Assert.assertTrue(geometry.contains("nanjing"));
+        Assert.assertFalse(geometry.contains("taiyuan"));
+        Assert.assertEquals("shanghai", geometry.first());
+        Assert.assertEquals("beijing", geometry.last());
+    }
+
+    @Test
+    public void testDistances()
+    {
+        RouteGeometry offset = RouteGeometry.of(Arrays.asList("a", "b", "c"), Arrays.asList(50, 80, 150));
+
+        Assert.assertEquals(900, geometry.distance("nanjing", "beijing"));
+        Assert.assertEquals(300, geometry.distanceAt(2));
+        Assert.assertEquals(100, offset.distanceAt(2));
+        Assert.assertEquals(70, offset.distance("b", "c"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testDistanceOffTheRoute()
+    {
+        geometry.distance("taiyuan", "beijing");
+    }
+
+    @Test
+    public void testRepeatedStationIsAtItsFirstPosition()
+    {
+        RouteGeometry loop = RouteGeometry.of(Arrays.asList("a", "b", "a"), null);
+
+        Assert.assertEquals(0, loop.positionOf("a"));
+    }
+
+    @Test
+    public void testOrdinalsAreSharedBetweenRoutes()
+    {
+        RouteGeometry other = RouteGeometry.of(Arrays.asList("nanjing", "hefei"), null);
+
+        Assert.assertEquals(geometry.ordinalAt(2), other.ordinalAt(0));
+        Assert.assertEquals(RouteGeometry.ordinal("nanjing"), other.ordinalAt(0));
+        Assert.assertNotEquals(other.ordinalAt(0), other.ordinalAt(1));
+    }
+
+    @Test
+    public void testRouteIsCompiledOncePerVersion()
+    {
+        RouteGeometry compiled = RouteGeometry.of("route-reused", 1, Arrays.asList("a", "b", "c"),
+            Arrays.asList(0, 5, 9));
+
+        Assert.assertSame(compiled, RouteGeometry.of("route-reused", 1, new ArrayList<>(Arrays.asList("a", "b", "c")),
+            Arrays.asList(0, 5, 9)));
+        Assert.assertSame(compiled, RouteGeometry.of("route-reused", 1, Arrays.asList("a", "b", "c"), null));
+    }
+
+    @Test
+    public void testNewVersionIsCompiledAgain()
+    {
+        RouteGeometry compiled = RouteGeometry.of("route-changed", 1, Arrays.asList("a", "b", "c"),
+            Arrays.asList(0, 5, 9));
+        RouteGeometry moved = RouteGeometry.of("route-changed", 2, Arrays.asList("a", "c", "b"),
+            Arrays.asList(0, 5, 9));
+
+        Assert.assertNotSame(compiled, moved);
+        Assert.assertEquals(1, moved.positionOf("c"));
+        Assert.assertSame(moved, RouteGeometry.of("route-changed", 2, Arrays.asList("a", "c", "b"), null));
+    }
+
+    @Test
+    public void testDistancesAreAddedToARouteCompiledWithout()
+    {
+        RouteGeometry withoutDistances = RouteGeometry.of("route-distances", 1, Arrays.asList("a", "b"), null);
+        RouteGeometry withDistances = RouteGeometry.of("route-distances", 1, Arrays.asList("a", "b"),
+            Arrays.asList(0, 7));
+
+        Assert.assertNotSame(withoutDistances, withDistances);
+        Assert.assertEquals(7, withDistances.distance("a", "b"));
+    }
+
+    @Test
+    public void testRouteWithoutVersionIsCompared()
+    {
+        RouteGeometry compiled = RouteGeometry.of("route-unversioned", 0, Arrays.asList("a", "b", "c"),
+            Arrays.asList(0, 5, 9));
+
+        Assert.assertSame(compiled, RouteGeometry.of("route-unversioned", 0, Arrays.asList("a", "b", "c"), null));
+        RouteGeometry longer = RouteGeometry.of("route-unversioned", 0, Arrays.asList("a", "b", "c"),
+            Arrays.asList(0, 5, 12));
+        Assert.assertNotSame(compiled, longer);
+        Assert.assertEquals(12, longer.distance("a", "c"));
+    }
+
+    @Test
+    public void testEvictedRouteIsCompiledAgain()
+    {
+        RouteGeometry compiled = RouteGeometry.of("route-deleted", 1, Arrays.asList("a", "b"), null);
+
+        RouteGeometry.evict("route-deleted");
+
+        Assert.assertNotSame(compiled, RouteGeometry.of("route-deleted", 1, Arrays.asList("a", "b"), null));
+    }
+
+    @Test
+    public void testEmptyRoute()
+    {
+        RouteGeometry empty = RouteGeometry.of(null, null);
+
+        Assert.assertEquals(0, empty.size());
+        Assert.assertNull(empty.first());
+        Assert.assertFalse(empty.isInOrder("a", "b"));
+    }
+}
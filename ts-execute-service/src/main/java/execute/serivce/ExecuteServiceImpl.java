@@ -1,5 +1,6 @@
 package execute.serivce;
 
+import edu.fudan.common.util.OrderIdLocator;
 import edu.fudan.common.util.Response;
 import execute.entity.*;
 
@@ -154,6 +155,10 @@ public class ExecuteServiceImpl implements ExecuteService
 
     private Response<Order> getOrderByIdFromOrder(String orderId, HttpHeaders headers)
     {
+        if (OrderIdLocator.ownerOf(orderId) == OrderIdLocator.Owner.ORDER_OTHER) {
+            //The id says the order lives in ts-order-other-service, skip the round trip
+            return new Response<>(0, "Order Not Found", null);
+        }
         ExecuteServiceImpl.LOGGER.info("[Execute Service][Get Order] Getting....");
         HttpEntity requestEntity = new HttpEntity(headers);
         ResponseEntity<Response<Order>> re = restTemplate.exchange(
@@ -168,6 +173,9 @@ public class ExecuteServiceImpl implements ExecuteService
 
     private Response<Order> getOrderByIdFromOrderOther(String orderId, HttpHeaders headers)
     {
+        if (OrderIdLocator.ownerOf(orderId) == OrderIdLocator.Owner.ORDER) {
+            return new Response<>(0, "Order Not Found", null);
+        }
         ExecuteServiceImpl.LOGGER.info("[Execute Service][Get Order] Getting....");
         HttpEntity requestEntity = new HttpEntity(headers);
         ResponseEntity<Response<Order>> re = restTemplate.exchange(
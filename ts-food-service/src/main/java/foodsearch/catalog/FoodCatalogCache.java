@@ -0,0 +1,108 @@
+package foodsearch.catalog;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-trip food catalogs and the station name to id lookups they are sliced with. Entries
+ * expire after {@code ts.food.catalog.ttl-seconds}, which bounds how long changes of food
+ * stores, train food or routes made behind the back of this service stay invisible; admins
+ * can drop entries right away through the catalog endpoints.
+ */
+@Component
+public class FoodCatalogCache
+{
+    private final long ttlMillis;
+
+    private final int maxEntries;
+
+    private final Map<String, Entry<TripFoodCatalog>> catalogs = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry<String>> stationIds = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FoodCatalogCache(@Value("${ts.food.catalog.ttl-seconds:300}") long ttlSeconds,
+        @Value("${ts.food.catalog.max-entries:10000}") int maxEntries)
+    {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    public TripFoodCatalog getCatalog(String tripId)
+    {
+        return get(catalogs, tripId);
+    }
+
+    public void putCatalog(String tripId, TripFoodCatalog catalog)
+    {
+        put(catalogs, tripId, catalog);
+    }
+
+    public String getStationId(String stationName)
+    {
+        return get(stationIds, stationName);
+    }
+
+    public void putStationId(String stationName, String stationId)
+    {
+        put(stationIds, stationName, stationId);
+    }
+
+    public void invalidate(String tripId)
+    {
+        catalogs.remove(tripId);
+    }
+
+    public void invalidateAll()
+    {
+        catalogs.clear();
+        stationIds.clear();
+    }
+
+    public int size()
+    {
+        return catalogs.size();
+    }
+
+    private <T> T get(Map<String, Entry<T>> entries, String key)
+    {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private <T> void put(Map<String, Entry<T>> entries, String key, T value)
+    {
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, new Entry<>(value, now + ttlMillis));
+    }
+
+    private static final class Entry<T>
+    {
+        private final T value;
+
+        private final long expiresAt;
+
+        private Entry(T value, long expiresAt)
+        {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
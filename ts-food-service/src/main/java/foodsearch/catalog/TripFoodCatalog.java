@@ -0,0 +1,79 @@
+package foodsearch.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import foodsearch.entity.AllTripFood;
+import foodsearch.entity.FoodStore;
+import foodsearch.entity.TrainFood;
+
+/**
+ * Food available on one trip: the train food and, for every station of the route, the food
+ * stores at that station. Stores are grouped by route position once, a menu for a part of the
+ * trip is a slice of that array.
+ */
+public class TripFoodCatalog
+{
+    private final List<TrainFood> trainFoodList;
+
+    private final String[] stationIds;
+
+    private final List<List<FoodStore>> storesByPosition;
+
+    private final Map<String, Integer> positions;
+
+    public TripFoodCatalog(List<TrainFood> trainFoodList, List<String> stations, List<FoodStore> foodStores)
+    {
+        this.trainFoodList = Collections.unmodifiableList(new ArrayList<>(trainFoodList));
+        this.stationIds = stations.toArray(new String[0]);
+        this.positions = new HashMap<>(stationIds.length * 2);
+        List<List<FoodStore>> grouped = new ArrayList<>(stationIds.length);
+        for (int i = 0; i < stationIds.length; i++) {
+            positions.putIfAbsent(stationIds[i], i);
+            grouped.add(new ArrayList<>());
+        }
+        for (FoodStore foodStore : foodStores) {
+            Integer position = positions.get(foodStore.getStationId());
+            if (position != null) {
+                grouped.get(position).add(foodStore);
+            }
+        }
+        for (int i = 0; i < stationIds.length; i++) {
+            grouped.set(i, Collections.unmodifiableList(grouped.get(i)));
+        }
+        this.storesByPosition = grouped;
+    }
+
+    /**
+     * Food between two stations of the route, both included. A station that is null or not on
+     * the route leaves that end of the trip open.
+     */
+    public AllTripFood slice(String startStationId, String endStationId)
+    {
+        int from = position(startStationId, 0);
+        int to = position(endStationId, stationIds.length - 1);
+        Map<String, List<FoodStore>> foodStoreListMap = new LinkedHashMap<>();
+        for (int i = from; i <= to; i++) {
+            foodStoreListMap.put(stationIds[i], storesByPosition.get(i));
+        }
+        AllTripFood allTripFood = new AllTripFood();
+        allTripFood.setTrainFoodList(trainFoodList);
+        allTripFood.setFoodStoreListMap(foodStoreListMap);
+        return allTripFood;
+    }
+
+    public int getStationCount()
+    {
+        return stationIds.length;
+    }
+
+    private int position(String stationId, int defaultPosition)
+    {
+        Integer position = stationId == null ? null : positions.get(stationId);
+        return position == null ? defaultPosition : position;
+    }
+}
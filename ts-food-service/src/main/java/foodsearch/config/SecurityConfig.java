@@ -76,6 +76,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter
             .antMatchers(HttpMethod.DELETE, "/api/v1/foodservice/orders/*").hasAnyRole(admin)
             .antMatchers(HttpMethod.PUT, "/api/v1/foodservice/orders").hasAnyRole(admin)
             .antMatchers(HttpMethod.POST, "/api/v1/foodservice/orders").hasAnyRole(admin)
+            .antMatchers(HttpMethod.DELETE, "/api/v1/foodservice/catalogs/**").hasAnyRole(admin)
             .antMatchers("/swagger-ui.html", "/webjars/**", "/images/**",
                 "/configuration/**", "/swagger-resources/**", "/v2/**").permitAll()
             .anyRequest().authenticated()
@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 import foodsearch.entity.FoodOrder;
 import foodsearch.service.FoodService;
@@ -77,11 +78,25 @@ public class FoodController
         return ok(foodService.findByOrderId(orderId, headers));
     }
 
+    @DeleteMapping(path = "/catalogs")
+    public HttpEntity invalidateAllFoodCatalogs(@RequestHeader HttpHeaders headers)
+    {
+        FoodController.LOGGER.info("[Food Service]Try to Invalidate all Food Catalogs!");
+        return ok(foodService.invalidateFoodCatalog(null, headers));
+    }
+
+    @DeleteMapping(path = "/catalogs/{tripId}")
+    public HttpEntity invalidateFoodCatalog(@PathVariable String tripId, @RequestHeader HttpHeaders headers)
+    {
+        FoodController.LOGGER.info("[Food Service]Try to Invalidate a Food Catalog!");
+        return ok(foodService.invalidateFoodCatalog(tripId, headers));
+    }
+
     // This relies on a lot of other services, not completely modified
     @GetMapping(path = "/foods/{date}/{startStation}/{endStation}/{tripId}")
     @HystrixCommand(fallbackMethod = "getAllFoodFallback", commandProperties = {
         @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "50000")
-    })
+    }, ignoreExceptions = DeadlineExceededException.class)
     public HttpEntity getAllFood(@PathVariable String date, @PathVariable String startStation,
         @PathVariable String endStation, @PathVariable String tripId,
         @RequestHeader HttpHeaders headers)
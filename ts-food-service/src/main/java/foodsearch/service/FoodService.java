@@ -18,4 +18,6 @@ public interface FoodService
     Response findAllFoodOrder(HttpHeaders headers);
 
     Response getAllFood(String date, String startStation, String endStation, String tripId, HttpHeaders headers);
+
+    Response invalidateFoodCatalog(String tripId, HttpHeaders headers);
 }
@@ -1,10 +1,7 @@
 package foodsearch.service;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +16,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import edu.fudan.common.util.Response;
+import foodsearch.catalog.FoodCatalogCache;
+import foodsearch.catalog.TripFoodCatalog;
 import foodsearch.entity.AllTripFood;
 import foodsearch.entity.FoodOrder;
 import foodsearch.entity.FoodStore;
@@ -41,6 +40,9 @@ public class FoodServiceImpl implements FoodService
     @Autowired
     private FoodOrderRepository foodOrderRepository;
 
+    @Autowired
+    private FoodCatalogCache foodCatalogCache;
+
     @Value("${ts.station.service.url:ts-station-service}")
     private String tsStationServiceUrl;
 
@@ -148,17 +150,60 @@ public class FoodServiceImpl implements FoodService
     public Response getAllFood(String date, String startStation, String endStation, String tripId, HttpHeaders headers)
     {
         FoodServiceImpl.LOGGER.info("data={} start={} end={} tripid={}", date, startStation, endStation, tripId);
-        AllTripFood allTripFood = new AllTripFood();
 
         if (null == tripId || tripId.length() <= 2) {
             return new Response<>(0, "Trip id is not suitable", null);
         }
 
-        // need return this tow element
+        TripFoodCatalog catalog = foodCatalogCache.getCatalog(tripId);
         List<TrainFood> trainFoodList = null;
-        Map<String, List<FoodStore>> foodStoreListMap = new HashMap<>();
+        Route route = null;
+        if (catalog == null) {
+            trainFoodList = queryTrainFoods(tripId, headers);
+            if (trainFoodList == null) {
+                FoodServiceImpl.LOGGER.info("[Food Service]Get the Get Food Request Failed!");
+                return new Response<>(0, "Get the Get Food Request Failed!", null);
+            }
+            FoodServiceImpl.LOGGER.info("[Food Service]Get Train Food List!");
+            //车次途经的车站
+            route = queryRoute(tripId, headers);
+            if (route == null) {
+                return new Response<>(0, "Get All Food Failed", new AllTripFood());
+            }
+        }
+
+        //去除不经过的站，如果起点终点有的话
+        String startStationId = queryStationId(startStation, headers);
+        String endStationId = queryStationId(endStation, headers);
+
+        if (catalog == null) {
+            List<FoodStore> foodStoresListResult = queryFoodStores(route.getStations(), headers);
+            if (foodStoresListResult == null || foodStoresListResult.isEmpty()) {
+                return new Response<>(0, "Get All Food Failed", new AllTripFood());
+            }
+            catalog = new TripFoodCatalog(trainFoodList, route.getStations(), foodStoresListResult);
+            foodCatalogCache.putCatalog(tripId, catalog);
+            FoodServiceImpl.LOGGER.info("[Food Service][Food Catalog] Built catalog of trip {}, {} stations", tripId,
+                catalog.getStationCount());
+        }
+        return new Response<>(1, "Get All Food Success", catalog.slice(startStationId, endStationId));
+    }
 
-        /**--------------------------------------------------------------------------------------*/
+    @Override
+    public Response invalidateFoodCatalog(String tripId, HttpHeaders headers)
+    {
+        if (tripId == null) {
+            foodCatalogCache.invalidateAll();
+        } else {
+            foodCatalogCache.invalidate(tripId);
+        }
+        FoodServiceImpl.LOGGER.info("[Food Service][Food Catalog] Invalidated catalog of trip {}",
+            tripId == null ? "all" : tripId);
+        return new Response<>(1, success, null);
+    }
+
+    private List<TrainFood> queryTrainFoods(String tripId, HttpHeaders headers)
+    {
         HttpEntity requestEntityGetTrainFoodListResult = new HttpEntity(headers);
         ResponseEntity<Response<List<TrainFood>>> reGetTrainFoodListResult = restTemplate.exchange(
             "http://" + tsFoodMapServiceUrl + ":" + tsFoodMapServicePort + "/api/v1/foodmapservice/trainfoods/" + tripId,
@@ -167,98 +212,61 @@ public class FoodServiceImpl implements FoodService
             new ParameterizedTypeReference<Response<List<TrainFood>>>()
             {
             });
+        return reGetTrainFoodListResult.getBody().getData();
+    }
 
-        List<TrainFood> trainFoodListResult = reGetTrainFoodListResult.getBody().getData();
-
-        if (trainFoodListResult != null) {
-            trainFoodList = trainFoodListResult;
-            FoodServiceImpl.LOGGER.info("[Food Service]Get Train Food List!");
-        } else {
-            FoodServiceImpl.LOGGER.info("[Food Service]Get the Get Food Request Failed!");
-            return new Response<>(0, "Get the Get Food Request Failed!", null);
-        }
-        //车次途经的车站
-        /**--------------------------------------------------------------------------------------*/
-        //Fails because, body was send in GET request
+    private Route queryRoute(String tripId, HttpHeaders headers)
+    {
         HttpEntity requestEntityGetRouteResult = new HttpEntity(null, headers);
         ResponseEntity<Response<Route>> reGetRouteResult = restTemplate.exchange(
-            "http://" + tsTravelServiceUrl + ":" + tsTravelServicePort +"/api/v1/travelservice/routes/" + tripId,
+            "http://" + tsTravelServiceUrl + ":" + tsTravelServicePort + "/api/v1/travelservice/routes/" + tripId,
             HttpMethod.GET,
             requestEntityGetRouteResult,
             new ParameterizedTypeReference<Response<Route>>()
             {
             });
         Response<Route> stationResult = reGetRouteResult.getBody();
+        if (stationResult.getStatus() != 1 || stationResult.getData() == null
+            || stationResult.getData().getStations() == null) {
+            return null;
+        }
+        return stationResult.getData();
+    }
 
-        if (stationResult.getStatus() == 1) {
-            Route route = stationResult.getData();
-            List<String> stations = route.getStations();
-            //去除不经过的站，如果起点终点有的话
-            if (null != startStation && !"".equals(startStation)) {
-                /**--------------------------------------------------------------------------------------*/
-                HttpEntity requestEntityStartStationId = new HttpEntity(headers);
-                ResponseEntity<Response<String>> reStartStationId = restTemplate.exchange(
-                    "http://" + tsStationServiceUrl + ":" + tsStationServicePort + "/api/v1/stationservice/stations/id/" + startStation,
-                    HttpMethod.GET,
-                    requestEntityStartStationId,
-                    new ParameterizedTypeReference<Response<String>>()
-                    {
-                    });
-                Response<String> startStationId = reStartStationId.getBody();
-
-                for (int i = 0; i < stations.size(); i++) {
-                    if (stations.get(i).equals(startStationId.getData())) {
-                        break;
-                    } else {
-                        stations.remove(i);
-                    }
-                }
-            }
-            if (null != endStation && !"".equals(endStation)) {
-                /**--------------------------------------------------------------------------------------*/
-                HttpEntity requestEntityEndStationId = new HttpEntity(headers);
-                ResponseEntity<Response<String>> reEndStationId = restTemplate.exchange(
-                    "http://" + tsStationServiceUrl + ":" + tsStationServicePort + "/api/v1/stationservice/stations/id/" + endStation,
-                    HttpMethod.GET,
-                    requestEntityEndStationId,
-                    new ParameterizedTypeReference<Response<String>>()
-                    {
-                    });
-                Response endStationId = reEndStationId.getBody();
-
-                for (int i = stations.size() - 1; i >= 0; i--) {
-                    if (stations.get(i).equals(endStationId.getData())) {
-                        break;
-                    } else {
-                        stations.remove(i);
-                    }
-                }
-            }
-
-            HttpEntity requestEntityFoodStoresListResult = new HttpEntity(stations, headers);
-            ResponseEntity<Response<List<FoodStore>>> reFoodStoresListResult = restTemplate.exchange(
-                "http://" + tsFoodMapServiceUrl + ":" + tsFoodMapServicePort + "/api/v1/foodmapservice/foodstores",
-                HttpMethod.POST,
-                requestEntityFoodStoresListResult,
-                new ParameterizedTypeReference<Response<List<FoodStore>>>()
-                {
-                });
-            List<FoodStore> foodStoresListResult = reFoodStoresListResult.getBody().getData();
-            if (foodStoresListResult != null && !foodStoresListResult.isEmpty()) {
-                for (String stationId : stations) {
-                    List<FoodStore> res = foodStoresListResult.stream()
-                        .filter(foodStore -> (foodStore.getStationId().equals(stationId)))
-                        .collect(Collectors.toList());
-                    foodStoreListMap.put(stationId, res);
-                }
-            } else {
-                return new Response<>(0, "Get All Food Failed", allTripFood);
-            }
-        } else {
-            return new Response<>(0, "Get All Food Failed", allTripFood);
+    private String queryStationId(String stationName, HttpHeaders headers)
+    {
+        if (null == stationName || "".equals(stationName)) {
+            return null;
         }
-        allTripFood.setTrainFoodList(trainFoodList);
-        allTripFood.setFoodStoreListMap(foodStoreListMap);
-        return new Response<>(1, "Get All Food Success", allTripFood);
+        String stationId = foodCatalogCache.getStationId(stationName);
+        if (stationId != null) {
+            return stationId;
+        }
+        HttpEntity requestEntityStationId = new HttpEntity(headers);
+        ResponseEntity<Response<String>> reStationId = restTemplate.exchange(
+            "http://" + tsStationServiceUrl + ":" + tsStationServicePort + "/api/v1/stationservice/stations/id/" + stationName,
+            HttpMethod.GET,
+            requestEntityStationId,
+            new ParameterizedTypeReference<Response<String>>()
+            {
+            });
+        stationId = reStationId.getBody().getData();
+        if (stationId != null) {
+            foodCatalogCache.putStationId(stationName, stationId);
+        }
+        return stationId;
+    }
+
+    private List<FoodStore> queryFoodStores(List<String> stations, HttpHeaders headers)
+    {
+        HttpEntity requestEntityFoodStoresListResult = new HttpEntity(stations, headers);
+        ResponseEntity<Response<List<FoodStore>>> reFoodStoresListResult = restTemplate.exchange(
+            "http://" + tsFoodMapServiceUrl + ":" + tsFoodMapServicePort + "/api/v1/foodmapservice/foodstores",
+            HttpMethod.POST,
+            requestEntityFoodStoresListResult,
+            new ParameterizedTypeReference<Response<List<FoodStore>>>()
+            {
+            });
+        return reFoodStoresListResult.getBody().getData();
     }
 }
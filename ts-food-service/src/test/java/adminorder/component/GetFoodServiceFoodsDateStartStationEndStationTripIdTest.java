@@ -1,6 +1,7 @@
 package adminorder.component;
 
 import com.fasterxml.jackson.databind.type.TypeFactory;
+import foodsearch.catalog.FoodCatalogCache;
 import foodsearch.entity.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +43,9 @@ public class GetFoodServiceFoodsDateStartStationEndStationTripIdTest extends Bas
 	@Autowired
 	private RestTemplate restTemplate;
 
+	@Autowired
+	private FoodCatalogCache foodCatalogCache;
+
 	private MockRestServiceServer mockServer;
 
 	private final String url = "/api/v1/foodservice/foods/{date}/{startStation}/{endStation}/{tripId}";
@@ -49,6 +53,7 @@ public class GetFoodServiceFoodsDateStartStationEndStationTripIdTest extends Bas
 	@BeforeEach
 	public void setUp() {
 		mockServer = MockRestServiceServer.createServer(restTemplate);
+		foodCatalogCache.invalidateAll();
 	}
 
 	private List<TrainFood> createSampleTrainFood() {
@@ -125,4 +125,15 @@ public class FoodControllerTest
             .andReturn().getResponse().getContentAsString();
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
     }
+
+    @Test
+    public void testInvalidateFoodCatalog() throws Exception
+    {
+        Mockito.when(foodService.invalidateFoodCatalog(Mockito.anyString(), Mockito.any(HttpHeaders.class)))
+            .thenReturn(response);
+        String result = mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/foodservice/catalogs/trip_id"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
+    }
 }
@@ -1,7 +1,10 @@
 package adminorder.service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.Assert;
@@ -13,10 +16,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestTemplate;
 
 import edu.fudan.common.util.Response;
+import foodsearch.catalog.FoodCatalogCache;
+import foodsearch.catalog.TripFoodCatalog;
+import foodsearch.entity.AllTripFood;
 import foodsearch.entity.FoodOrder;
+import foodsearch.entity.FoodStore;
+import foodsearch.entity.TrainFood;
 import foodsearch.repository.FoodOrderRepository;
 import foodsearch.service.FoodServiceImpl;
 
@@ -29,6 +39,12 @@ public class FoodServiceImplTest
     @Mock
     private FoodOrderRepository foodOrderRepository;
 
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Spy
+    private FoodCatalogCache foodCatalogCache = new FoodCatalogCache(300, 100);
+
     private HttpHeaders headers = new HttpHeaders();
 
     @Before
@@ -140,4 +156,38 @@ public class FoodServiceImplTest
     {
 
     }
+
+    @Test
+    public void testGetAllFoodFromCatalog()
+    {
+        FoodStore fs = new FoodStore();
+        fs.setStationId("station_2");
+        List<FoodStore> foodStores = new ArrayList<>();
+        foodStores.add(fs);
+        List<TrainFood> trainFoods = new ArrayList<>();
+        trainFoods.add(new TrainFood());
+        foodCatalogCache.putCatalog("G1234",
+            new TripFoodCatalog(trainFoods, Arrays.asList("station_1", "station_2", "station_3"), foodStores));
+        foodCatalogCache.putStationId("start_station", "station_2");
+        foodCatalogCache.putStationId("end_station", "station_3");
+        Response result = foodServiceImpl.getAllFood("date", "start_station", "end_station", "G1234", headers);
+        Map<String, List<FoodStore>> foodStoreListMap = new HashMap<>();
+        foodStoreListMap.put("station_2", foodStores);
+        foodStoreListMap.put("station_3", new ArrayList<>());
+        AllTripFood allTripFood = new AllTripFood();
+        allTripFood.setTrainFoodList(trainFoods);
+        allTripFood.setFoodStoreListMap(foodStoreListMap);
+        Assert.assertEquals(new Response<>(1, "Get All Food Success", allTripFood), result);
+        Mockito.verifyZeroInteractions(restTemplate);
+    }
+
+    @Test
+    public void testInvalidateFoodCatalog()
+    {
+        foodCatalogCache.putCatalog("G1234",
+            new TripFoodCatalog(new ArrayList<>(), Arrays.asList("station_1"), new ArrayList<>()));
+        Response result = foodServiceImpl.invalidateFoodCatalog("G1234", headers);
+        Assert.assertEquals(new Response<>(1, "Success.", null), result);
+        Assert.assertNull(foodCatalogCache.getCatalog("G1234"));
+    }
 }
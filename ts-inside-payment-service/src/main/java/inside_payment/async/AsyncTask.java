@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -29,7 +30,13 @@ public class AsyncTask
     public Future<Boolean> sendAsyncCallToPaymentService(OutsidePaymentInfo outsidePaymentInfo)
     {
         AsyncTask.LOG.info("[Inside Payment Service][Async Task] Begin.");
-        Boolean value = restTemplate.getForObject("http://rest-service-external:16100/greet", Boolean.class);
+        Boolean value;
+        try {
+            value = restTemplate.getForObject("http://rest-service-external:16100/greet", Boolean.class);
+        } catch (RestClientException e) {
+            AsyncTask.LOG.warn("[Inside Payment Service][Async Task] Payment service unavailable: {}", e.getMessage());
+            return new AsyncResult<>(false);
+        }
         AsyncTask.LOG.info("[Inside Payment Service][Async Task] Receive call Value directly back: {}", value);
         return new AsyncResult<>(value);
     }
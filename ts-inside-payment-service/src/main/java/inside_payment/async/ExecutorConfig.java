@@ -3,8 +3,10 @@ package inside_payment.async;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -21,6 +23,12 @@ public class ExecutorConfig
 
     private int queueCapacity = 10;
 
+    /**
+     * carries the trace of the caller into the executor's threads
+     */
+    @Autowired(required = false)
+    private TaskDecorator taskDecorator;
+
     @Bean
     public Executor mySimpleAsync()
     {
@@ -29,6 +37,7 @@ public class ExecutorConfig
         executor.setMaxPoolSize(maxPoolSize);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("MySimpleExecutor-");
+        executor.setTaskDecorator(taskDecorator);
         executor.initialize();
         return executor;
     }
@@ -41,6 +50,7 @@ public class ExecutorConfig
         executor.setMaxPoolSize(maxPoolSize);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("MyExecutor-");
+        executor.setTaskDecorator(taskDecorator);
 
         // rejection-policy：当pool已经达到max size的时候，如何处理新任务  
         // CALLER_RUNS：不在新线程中执行任务，而是有调用者所在的线程来执行  
@@ -4,6 +4,8 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
+import edu.fudan.common.idempotency.Idempotent;
 import edu.fudan.common.util.Response;
 import inside_payment.entity.*;
 import inside_payment.service.InsidePaymentService;
@@ -24,7 +26,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/inside_pay_service")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class InsidePaymentController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(InsidePaymentController.class);
@@ -39,6 +41,7 @@ public class InsidePaymentController
     }
 
     @PostMapping(value = "/inside_payment")
+    @Idempotent
     @HystrixCommand
     public HttpEntity pay(@RequestBody PaymentInfo info, @RequestHeader HttpHeaders headers)
     {
@@ -79,6 +82,7 @@ public class InsidePaymentController
     }
 
     @PostMapping(value = "/inside_payment/difference")
+    @Idempotent
     @HystrixCommand
     public HttpEntity payDifference(@RequestBody PaymentInfo info, @RequestHeader HttpHeaders headers)
     {
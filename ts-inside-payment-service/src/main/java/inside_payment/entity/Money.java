@@ -1,5 +1,6 @@
 package inside_payment.entity;
 
+import edu.fudan.common.util.Amount;
 import lombok.Data;
 
 import org.springframework.data.annotation.Id;
@@ -28,7 +29,7 @@ public class Money
 
     @Valid
     @NotNull
-    private String money; //NOSONAR
+    private Amount money; //NOSONAR
 
     @Valid
     @NotNull
@@ -38,6 +39,6 @@ public class Money
     {
         this.id = UUID.randomUUID().toString();
         this.userId = "";
-        this.money = "";
+        this.money = Amount.ZERO;
     }
 }
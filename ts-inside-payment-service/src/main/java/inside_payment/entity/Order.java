@@ -2,6 +2,8 @@ package inside_payment.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import edu.fudan.common.util.Amount;
+
 import lombok.Data;
 
 import java.util.Date;
@@ -50,7 +52,7 @@ public class Order
 
     private int status;
 
-    private String price;
+    private Amount price;
 
     public Order()
     {
@@ -63,7 +65,7 @@ public class Order
         from = "shanghai";
         to = "太原";
         status = OrderStatus.PAID.getCode();
-        price = "0.0";
+        price = Amount.ZERO;
     }
 
     @Override
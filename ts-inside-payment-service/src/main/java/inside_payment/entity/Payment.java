@@ -1,5 +1,6 @@
 package inside_payment.entity;
 
+import edu.fudan.common.util.Amount;
 import lombok.Data;
 
 import org.springframework.data.annotation.Id;
@@ -32,7 +33,7 @@ public class Payment
 
     @NotNull
     @Valid
-    private String price;
+    private Amount price;
 
     @NotNull
     @Valid
@@ -43,6 +44,6 @@ public class Payment
         this.id = UUID.randomUUID().toString().replace("-", "").toUpperCase();
         this.orderId = "";
         this.userId = "";
-        this.price = "";
+        this.price = Amount.ZERO;
     }
 }
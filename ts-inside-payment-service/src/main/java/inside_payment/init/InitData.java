@@ -1,5 +1,6 @@
 package inside_payment.init;
 
+import edu.fudan.common.util.Amount;
 import inside_payment.entity.*;
 import inside_payment.repository.AddMoneyRepository;
 import inside_payment.repository.PaymentRepository;
@@ -35,7 +36,7 @@ public class InitData implements CommandLineRunner
         Payment payment = new Payment();
         payment.setId("5ad7750ba68b49c0a8c035276b321701");
         payment.setOrderId("5ad7750b-a68b-49c0-a8c0-32776b067702");
-        payment.setPrice("100.0");
+        payment.setPrice(Amount.parse("100.0"));
         payment.setUserId("4d2a46c7-71cb-4cf1-b5bb-b68406d9da6f");
         payment.setType(PaymentType.P);
         service.initPayment(payment, null);
@@ -1,9 +1,7 @@
 package inside_payment.service;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,6 +18,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import edu.fudan.common.util.Amount;
+import edu.fudan.common.util.OrderIdLocator;
 import edu.fudan.common.util.Response;
 import inside_payment.entity.AccountInfo;
 import inside_payment.entity.Balance;
@@ -76,7 +76,7 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
         String userId = info.getUserId();
 
         String requestOrderURL = "";
-        if (info.getTripId().startsWith("G") || info.getTripId().startsWith("D")) {
+        if (OrderIdLocator.ownerOf(info.getOrderId(), info.getTripId()) == OrderIdLocator.Owner.ORDER) {
             requestOrderURL = "http://" + tsOrderServiceUrl + ":" + tsOrderServicePort + "/api/v1/orderservice/order/" + info.getOrderId();
         } else {
             requestOrderURL =
@@ -106,25 +106,11 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
             payment.setUserId(userId);
 
             //判断一下账户余额够不够，不够要去站外支付
-            List<Payment> payments = paymentRepository.findByUserId(userId);
-            List<Money> addMonies = addMoneyRepository.findByUserId(userId);
-            Iterator<Payment> paymentsIterator = payments.iterator();
-            Iterator<Money> addMoniesIterator = addMonies.iterator();
-
-            BigDecimal totalExpand = new BigDecimal("0");
-            while (paymentsIterator.hasNext()) {
-                Payment p = paymentsIterator.next();
-                totalExpand = totalExpand.add(new BigDecimal(p.getPrice()));
-            }
-            totalExpand = totalExpand.add(new BigDecimal(order.getPrice()));
-
-            BigDecimal money = new BigDecimal("0");
-            while (addMoniesIterator.hasNext()) {
-                Money addMoney = addMoniesIterator.next();
-                money = money.add(new BigDecimal(addMoney.getMoney()));
-            }
+            long totalExpand = Math.addExact(totalPayments(paymentRepository.findByUserId(userId)),
+                order.getPrice().getMinorUnits());
+            long money = totalMoney(addMoneyRepository.findByUserId(userId));
 
-            if (totalExpand.compareTo(money) > 0) {
+            if (totalExpand > money) {
                 //站外支付
                 Payment outsidePaymentInfo = new Payment();
                 outsidePaymentInfo.setOrderId(info.getOrderId());
@@ -142,16 +128,22 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
                 Response outsidePaySuccess = reOutsidePaySuccess.getBody();
 
                 InsidePaymentServiceImpl.LOGGER.info("Out pay result: {}", outsidePaySuccess.toString());
-                if (outsidePaySuccess.getStatus() == 1) {
-                    payment.setType(PaymentType.O);
-                    paymentRepository.save(payment);
-                    setOrderStatus(info.getTripId(), info.getOrderId(), headers);
-                    return new Response<>(1, "Payment Success " + outsidePaySuccess.getMsg(), null);
-                } else {
+                if (outsidePaySuccess.getStatus() != 1) {
                     return new Response<>(0, "Payment Failed:  " + outsidePaySuccess.getMsg(), null);
                 }
+                if (!setOrderStatus(info.getTripId(), info.getOrderId(), headers)) {
+                    //The order was cancelled or paid meanwhile, the amount charged outside goes to the account
+                    saveMoney(userId, order.getPrice(), MoneyType.D);
+                    return orderNotPayable(info.getOrderId());
+                }
+                payment.setType(PaymentType.O);
+                paymentRepository.save(payment);
+                return new Response<>(1, "Payment Success " + outsidePaySuccess.getMsg(), null);
             } else {
-                setOrderStatus(info.getTripId(), info.getOrderId(), headers);
+                //The order is marked paid before the payment is recorded, a failed transition charges nothing
+                if (!setOrderStatus(info.getTripId(), info.getOrderId(), headers)) {
+                    return orderNotPayable(info.getOrderId());
+                }
                 payment.setType(PaymentType.P);
                 paymentRepository.save(payment);
             }
@@ -164,13 +156,14 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
     @Override
     public Response createAccount(AccountInfo info, HttpHeaders headers)
     {
+        //An account opened without money starts at 0
+        Amount money = info.getMoney() == null ? Amount.ZERO : InsidePaymentServiceImpl.parseAmount(info.getMoney());
+        if (money == null) {
+            return new Response<>(0, "Create Account Failed", null);
+        }
         List<Money> list = addMoneyRepository.findByUserId(info.getUserId());
         if (list.isEmpty()) {
-            Money addMoney = new Money();
-            addMoney.setMoney(info.getMoney());
-            addMoney.setUserId(info.getUserId());
-            addMoney.setType(MoneyType.A);
-            addMoneyRepository.save(addMoney);
+            saveMoney(info.getUserId(), money, MoneyType.A);
             return new Response<>(1, "Create Account Success", null);
         } else {
             return new Response<>(0, "Create Account Failed, Account already Exists", null);
@@ -180,12 +173,9 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
     @Override
     public Response addMoney(String userId, String money, HttpHeaders headers)
     {
-        if (addMoneyRepository.findByUserId(userId) != null) {
-            Money addMoney = new Money();
-            addMoney.setUserId(userId);
-            addMoney.setMoney(money);
-            addMoney.setType(MoneyType.A);
-            addMoneyRepository.save(addMoney);
+        Amount amount = InsidePaymentServiceImpl.parseAmount(money);
+        if (amount != null && addMoneyRepository.findByUserId(userId) != null) {
+            saveMoney(userId, amount, MoneyType.A);
             return new Response<>(1, "Add Money Success", null);
         } else {
             return new Response<>(0, "Add Money Failed", null);
@@ -197,36 +187,17 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
     {
         List<Balance> result = new ArrayList<>();
         List<Money> list = addMoneyRepository.findAll();
-        Iterator<Money> ite = list.iterator();
-        HashMap<String, String> map = new HashMap<>();
-        while (ite.hasNext()) {
-            Money addMoney = ite.next();
-            if (map.containsKey(addMoney.getUserId())) {
-                BigDecimal money = new BigDecimal(map.get(addMoney.getUserId()));
-                map.put(addMoney.getUserId(), money.add(new BigDecimal(addMoney.getMoney())).toString());
-            } else {
-                map.put(addMoney.getUserId(), addMoney.getMoney());
-            }
+        Map<String, Long> map = new HashMap<>();
+        for (Money addMoney : list) {
+            map.merge(addMoney.getUserId(), addMoney.getMoney().getMinorUnits(), Math::addExact);
         }
 
-        Iterator ite1 = map.entrySet().iterator();
-        while (ite1.hasNext()) {
-            Map.Entry entry = (Map.Entry) ite1.next();
-            String userId = (String) entry.getKey();
-            String money = (String) entry.getValue();
-
-            List<Payment> payments = paymentRepository.findByUserId(userId);
-            Iterator<Payment> iterator = payments.iterator();
-            String totalExpand = "0";
-            while (iterator.hasNext()) {
-                Payment p = iterator.next();
-                BigDecimal expand = new BigDecimal(totalExpand);
-                totalExpand = expand.add(new BigDecimal(p.getPrice())).toString();
-            }
-            String balanceMoney = new BigDecimal(money).subtract(new BigDecimal(totalExpand)).toString();
+        for (Map.Entry<String, Long> entry : map.entrySet()) {
+            String userId = entry.getKey();
+            long totalExpand = totalPayments(paymentRepository.findByUserId(userId));
             Balance balance = new Balance();
             balance.setUserId(userId);
-            balance.setBalance(balanceMoney);
+            balance.setBalance(Amount.ofMinorUnits(Math.subtractExact(entry.getValue(), totalExpand)).toString());
             result.add(balance);
         }
 
@@ -235,24 +206,9 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
 
     public String queryAccount(String userId, HttpHeaders headers)
     {
-        List<Payment> payments = paymentRepository.findByUserId(userId);
-        List<Money> addMonies = addMoneyRepository.findByUserId(userId);
-        Iterator<Payment> paymentsIterator = payments.iterator();
-        Iterator<Money> addMoniesIterator = addMonies.iterator();
-
-        BigDecimal totalExpand = new BigDecimal("0");
-        while (paymentsIterator.hasNext()) {
-            Payment p = paymentsIterator.next();
-            totalExpand.add(new BigDecimal(p.getPrice()));
-        }
-
-        BigDecimal money = new BigDecimal("0");
-        while (addMoniesIterator.hasNext()) {
-            Money addMoney = addMoniesIterator.next();
-            money.add(new BigDecimal(addMoney.getMoney()));
-        }
-
-        return money.subtract(totalExpand).toString();
+        long totalExpand = totalPayments(paymentRepository.findByUserId(userId));
+        long money = totalMoney(addMoneyRepository.findByUserId(userId));
+        return Amount.ofMinorUnits(Math.subtractExact(money, totalExpand)).toString();
     }
 
     @Override
@@ -269,12 +225,9 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
     @Override
     public Response drawBack(String userId, String money, HttpHeaders headers)
     {
-        if (addMoneyRepository.findByUserId(userId) != null) {
-            Money addMoney = new Money();
-            addMoney.setUserId(userId);
-            addMoney.setMoney(money);
-            addMoney.setType(MoneyType.D);
-            addMoneyRepository.save(addMoney);
+        Amount amount = InsidePaymentServiceImpl.parseAmount(money);
+        if (amount != null && addMoneyRepository.findByUserId(userId) != null) {
+            saveMoney(userId, amount, MoneyType.D);
             return new Response<>(1, "Draw Back Money Success", null);
         } else {
             return new Response<>(0, "Draw Back Money Failed", null);
@@ -289,33 +242,19 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
 
         Payment payment = new Payment();
         payment.setOrderId(info.getOrderId());
-        payment.setPrice(info.getPrice());
+        payment.setPrice(Amount.parse(info.getPrice()));
         payment.setUserId(info.getUserId());
 
-        List<Payment> payments = paymentRepository.findByUserId(userId);
-        List<Money> addMonies = addMoneyRepository.findByUserId(userId);
-        Iterator<Payment> paymentsIterator = payments.iterator();
-        Iterator<Money> addMoniesIterator = addMonies.iterator();
-
-        BigDecimal totalExpand = new BigDecimal("0");
-        while (paymentsIterator.hasNext()) {
-            Payment p = paymentsIterator.next();
-            totalExpand.add(new BigDecimal(p.getPrice()));
-        }
-        totalExpand.add(new BigDecimal(info.getPrice()));
-
-        BigDecimal money = new BigDecimal("0");
-        while (addMoniesIterator.hasNext()) {
-            Money addMoney = addMoniesIterator.next();
-            money.add(new BigDecimal(addMoney.getMoney()));
-        }
+        long totalExpand = Math.addExact(totalPayments(paymentRepository.findByUserId(userId)),
+            payment.getPrice().getMinorUnits());
+        long money = totalMoney(addMoneyRepository.findByUserId(userId));
 
-        if (totalExpand.compareTo(money) > 0) {
+        if (totalExpand > money) {
             //站外支付
             Payment outsidePaymentInfo = new Payment();
             outsidePaymentInfo.setOrderId(info.getOrderId());
             outsidePaymentInfo.setUserId(userId);
-            outsidePaymentInfo.setPrice(info.getPrice());
+            outsidePaymentInfo.setPrice(payment.getPrice());
 
             HttpEntity requestEntityOutsidePaySuccess = new HttpEntity(outsidePaymentInfo, headers);
             ResponseEntity<Response> reOutsidePaySuccess = restTemplate.exchange(
@@ -362,13 +301,26 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
         }
     }
 
-    private Response setOrderStatus(String tripId, String orderId, HttpHeaders headers)
+    private Response orderNotPayable(String orderId)
+    {
+        InsidePaymentServiceImpl.LOGGER.info(
+            "[Inside Payment Service][Pay] Order {} is no longer unpaid, payment not recorded", orderId);
+        return new Response<>(0, "Error. Order status Not allowed to Pay.", null);
+    }
+
+    /**
+     * Marks the order paid. The order service only moves an unpaid order to paid, so this fails
+     * when the order was cancelled or paid since it was read.
+     *
+     * @return whether the order was moved to paid
+     */
+    private boolean setOrderStatus(String tripId, String orderId, HttpHeaders headers)
     {
 
         //order paid and not collected
         int orderStatus = 1;
         Response result;
-        if (tripId.startsWith("G") || tripId.startsWith("D")) {
+        if (OrderIdLocator.ownerOf(orderId, tripId) == OrderIdLocator.Owner.ORDER) {
 
             HttpEntity requestEntityModifyOrderStatusResult = new HttpEntity(headers);
             ResponseEntity<Response> reModifyOrderStatusResult = restTemplate.exchange(
@@ -387,6 +339,52 @@ public class InsidePaymentServiceImpl implements InsidePaymentService
                 Response.class);
             result = reModifyOrderStatusResult.getBody();
         }
-        return result;
+        return result != null && result.getStatus() == 1;
+    }
+
+    /**
+     * @return null when the text is not an amount, which the ledger could not sum
+     */
+    private static Amount parseAmount(String text)
+    {
+        try {
+            return Amount.parse(text);
+        } catch (NumberFormatException e) {
+            InsidePaymentServiceImpl.LOGGER.warn("[Inside Payment Service] Not an amount: {}", text);
+            return null;
+        }
+    }
+
+    private void saveMoney(String userId, Amount money, MoneyType type)
+    {
+        Money addMoney = new Money();
+        addMoney.setUserId(userId);
+        addMoney.setMoney(money);
+        addMoney.setType(type);
+        addMoneyRepository.save(addMoney);
+    }
+
+    /**
+     * @return the sum of the prices in cents
+     */
+    private static long totalPayments(List<Payment> payments)
+    {
+        long total = 0;
+        for (Payment payment : payments) {
+            total = Math.addExact(total, payment.getPrice().getMinorUnits());
+        }
+        return total;
+    }
+
+    /**
+     * @return the sum of the money added and drawn back in cents
+     */
+    private static long totalMoney(List<Money> monies)
+    {
+        long total = 0;
+        for (Money money : monies) {
+            total = Math.addExact(total, money.getMoney().getMinorUnits());
+        }
+        return total;
     }
 }
@@ -1,6 +1,7 @@
 package inside_payment.component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.fudan.common.util.Amount;
 import inside_payment.entity.AccountInfo;
 import inside_payment.entity.Money;
 import inside_payment.entity.Payment;
@@ -60,14 +61,14 @@ public abstract class BaseComponentTest {
     protected Money createSampleMoney() {
         Money money = new Money();
         money.setUserId("123");
-        money.setMoney("200.0");
+        money.setMoney(Amount.parse("200.0"));
         return money;
     }
 
     protected Payment createSamplePayment() {
         Payment payment = new Payment();
         payment.setOrderId(UUID.randomUUID().toString());
-        payment.setPrice("100.0");
+        payment.setPrice(Amount.parse("100.0"));
         payment.setUserId("123");
         payment.setType(PaymentType.P);
         return payment;
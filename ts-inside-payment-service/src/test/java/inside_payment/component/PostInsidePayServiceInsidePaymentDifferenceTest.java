@@ -8,10 +8,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -82,6 +90,13 @@ public class PostInsidePayServiceInsidePaymentDifferenceTest extends BaseCompone
 		addMoneyRepository.save(createSampleMoney());
 		paymentRepository.save(createSamplePayment());
 
+		Response<String> responsePayment = new Response<>(1, "Pay Success", null);
+		URI uri = UriComponentsBuilder.fromUriString("http://ts-payment-service:19001/api/v1/paymentservice/payment").build().toUri();
+
+		mockServer.expect(ExpectedCount.once(), requestTo(uri))
+				.andExpect(method(HttpMethod.POST))
+				.andRespond(withSuccess(objectMapper.writeValueAsString(responsePayment), MediaType.APPLICATION_JSON));
+
 		String jsonRequest = objectMapper.writeValueAsString(paymentInfo);
 		String result = mockMvc.perform(post(url)
 						.contentType(MediaType.APPLICATION_JSON)
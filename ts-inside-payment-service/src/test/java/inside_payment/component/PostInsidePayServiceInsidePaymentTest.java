@@ -1,6 +1,7 @@
 package inside_payment.component;
 
 import com.fasterxml.jackson.databind.type.TypeFactory;
+import edu.fudan.common.util.Amount;
 import edu.fudan.common.util.Response;
 import inside_payment.entity.*;
 import org.junit.jupiter.api.Assertions;
@@ -71,7 +72,7 @@ public class PostInsidePayServiceInsidePaymentTest extends BaseComponentTest
 		Order order = new Order();
 		order.setId(UUID.fromString(paymentInfo.getOrderId()));
 		order.setStatus(OrderStatus.NOTPAID.getCode());
-		order.setPrice("50.0");
+		order.setPrice(Amount.parse("50.0"));
 
 		Response<Order> responseOrder = new Response<>(1, "Success.", order);
 		URI uri = UriComponentsBuilder.fromUriString("http://ts-order-service:12031/api/v1/orderservice/order/" + paymentInfo.getOrderId()).build().toUri();
@@ -119,7 +120,7 @@ public class PostInsidePayServiceInsidePaymentTest extends BaseComponentTest
 		Order order = new Order();
 		order.setId(UUID.fromString(paymentInfo.getOrderId()));
 		order.setStatus(OrderStatus.NOTPAID.getCode());
-		order.setPrice("300.0");
+		order.setPrice(Amount.parse("300.0"));
 
 		Response<Order> responseOrder = new Response<>(1, "Success", order);
 		URI uri = UriComponentsBuilder.fromUriString("http://ts-order-other-service:12032/api/v1/orderOtherService/orderOther/" + paymentInfo.getOrderId()).build().toUri();
@@ -118,7 +118,6 @@ public class PostInsidePayServiceInsidePaymentDifferenceTest {
      * The test is designed to verify that the endpoint for creating a new payment works correctly, for the case that the user has not enough money,
      * but the payment with that order id already exists in the ts-payment-service
      * It ensures that the endpoint returns a response with the appropriate message and no content.
-     * The test fails because of incorrect service implementation, so that ts-payment-service is never called
      */
     @Test
     @Order(2)
@@ -141,8 +140,7 @@ public class PostInsidePayServiceInsidePaymentDifferenceTest {
     /*
      * The test is designed to verify that the endpoint for creating a new payment works correctly, for the case that the price is negative
      * It ensures that the endpoint returns a successful response with the appropriate message and no content.
-     * The test fails because of incorrect service implementation, so that ts-payment-service is never called. With the correct implementation
-     * the test would still fail because the implementation allows negative values as price.
+     * The test fails because the implementation allows negative values as price, so a negative difference is paid from the balance.
      */
     @Test
     @Order(3)
@@ -168,8 +166,7 @@ public class PostInsidePayServiceInsidePaymentDifferenceTest {
      * This  defect-based test ensures that the application handles scenarios where the
      * ts-payment-service is unavailable. If a dependent service is unavailable, the application should
      * handle this gracefully without crashing or providing misleading information.
-     * The test fails because of incorrect service implementation, so that ts-payment-service is never called. With the correct implementation
-     * the test would still fail because the implementation returns a 200 status with null values when the service is unavailable.
+     * The test fails because the implementation does not handle the exception when the payment service cannot be reached.
      */
     @Test
     @Order(4)
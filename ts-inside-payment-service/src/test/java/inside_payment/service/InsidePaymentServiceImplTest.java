@@ -21,6 +21,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import edu.fudan.common.util.Amount;
 import edu.fudan.common.util.Response;
 import inside_payment.entity.AccountInfo;
 import inside_payment.entity.Money;
@@ -63,7 +64,7 @@ public class InsidePaymentServiceImplTest
         PaymentInfo info = new PaymentInfo("user_id", "order_id", "G", "1.0");
         Order order = new Order();
         order.setStatus(0);
-        order.setPrice("1.0");
+        order.setPrice(Amount.parse("1.0"));
         Response<Order> response = new Response<>(1, null, order);
         ResponseEntity<Response<Order>> re = new ResponseEntity<>(response, HttpStatus.OK);
         Mockito.when(restTemplate.exchange(
@@ -77,7 +78,7 @@ public class InsidePaymentServiceImplTest
         List<Payment> payments = new ArrayList<>();
         List<Money> monies = new ArrayList<>();
         Money money = new Money();
-        money.setMoney("2.0");
+        money.setMoney(Amount.parse("2.0"));
         monies.add(money);
         Mockito.when(paymentRepository.findByUserId(Mockito.anyString())).thenReturn(payments);
         Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(monies);
@@ -94,6 +95,42 @@ public class InsidePaymentServiceImplTest
         Assert.assertEquals(new Response<>(1, "Payment Success", null), result);
     }
 
+    @Test
+    public void testPayOrderCancelledMeanwhile()
+    {
+        PaymentInfo info = new PaymentInfo("user_id", "order_id", "G", "1.0");
+        Order order = new Order();
+        order.setStatus(0);
+        order.setPrice(Amount.parse("1.0"));
+        Response<Order> response = new Response<>(1, null, order);
+        ResponseEntity<Response<Order>> re = new ResponseEntity<>(response, HttpStatus.OK);
+        Mockito.when(restTemplate.exchange(
+            "http://ts-order-service:12031/api/v1/orderservice/order/order_id",
+            HttpMethod.GET,
+            httpEntity,
+            new ParameterizedTypeReference<Response<Order>>()
+            {
+            })).thenReturn(re);
+
+        List<Money> monies = new ArrayList<>();
+        Money money = new Money();
+        money.setMoney(Amount.parse("2.0"));
+        monies.add(money);
+        Mockito.when(paymentRepository.findByUserId(Mockito.anyString())).thenReturn(new ArrayList<>());
+        Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(monies);
+        //the order service refuses the transition to paid
+        Response response2 = new Response(0, "Order Status Not Allowed", null);
+        ResponseEntity<Response> re2 = new ResponseEntity<>(response2, HttpStatus.OK);
+        Mockito.when(restTemplate.exchange(
+            "http://ts-order-service:12031/api/v1/orderservice/order/status/" + "order_id" + "/" + 1,
+            HttpMethod.GET,
+            httpEntity,
+            Response.class)).thenReturn(re2);
+        Response result = insidePaymentServiceImpl.pay(info, headers);
+        Assert.assertEquals(new Response<>(0, "Error. Order status Not allowed to Pay.", null), result);
+        Mockito.verify(paymentRepository, Mockito.never()).save(Mockito.any(Payment.class));
+    }
+
     @Test
     public void testCreateAccount1()
     {
@@ -122,7 +159,7 @@ public class InsidePaymentServiceImplTest
         List<Money> list = new ArrayList<>();
         Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(list);
         Mockito.when(addMoneyRepository.save(Mockito.any(Money.class))).thenReturn(null);
-        Response result = insidePaymentServiceImpl.addMoney("user_id", "money", headers);
+        Response result = insidePaymentServiceImpl.addMoney("user_id", "10.0", headers);
         Assert.assertEquals(new Response<>(1, "Add Money Success", null), result);
     }
 
@@ -130,8 +167,17 @@ public class InsidePaymentServiceImplTest
     public void testAddMoney2()
     {
         Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(null);
+        Response result = insidePaymentServiceImpl.addMoney("user_id", "10.0", headers);
+        Assert.assertEquals(new Response<>(0, "Add Money Failed", null), result);
+    }
+
+    @Test
+    public void testAddMoneyThatIsNotAnAmount()
+    {
+        Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(new ArrayList<>());
         Response result = insidePaymentServiceImpl.addMoney("user_id", "money", headers);
         Assert.assertEquals(new Response<>(0, "Add Money Failed", null), result);
+        Mockito.verify(addMoneyRepository, times(0)).save(Mockito.any(Money.class));
     }
 
     @Test
@@ -167,7 +213,7 @@ public class InsidePaymentServiceImplTest
         List<Money> list = new ArrayList<>();
         Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(list);
         Mockito.when(addMoneyRepository.save(Mockito.any(Money.class))).thenReturn(null);
-        Response result = insidePaymentServiceImpl.drawBack("user_id", "money", headers);
+        Response result = insidePaymentServiceImpl.drawBack("user_id", "10.0", headers);
         Assert.assertEquals(new Response<>(1, "Draw Back Money Success", null), result);
     }
 
@@ -175,7 +221,7 @@ public class InsidePaymentServiceImplTest
     public void testDrawBack2()
     {
         Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(null);
-        Response result = insidePaymentServiceImpl.drawBack("user_id", "money", headers);
+        Response result = insidePaymentServiceImpl.drawBack("user_id", "10.0", headers);
         Assert.assertEquals(new Response<>(0, "Draw Back Money Failed", null), result);
     }
 
@@ -186,7 +232,7 @@ public class InsidePaymentServiceImplTest
         List<Payment> payments = new ArrayList<>();
         List<Money> monies = new ArrayList<>();
         Money money = new Money();
-        money.setMoney("2.0");
+        money.setMoney(Amount.parse("2.0"));
         monies.add(money);
         Mockito.when(paymentRepository.findByUserId(Mockito.anyString())).thenReturn(payments);
         Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(monies);
@@ -195,6 +241,44 @@ public class InsidePaymentServiceImplTest
         Assert.assertEquals(new Response<>(1, "Pay Difference Success", null), result);
     }
 
+    @Test
+    public void testPayDifferenceOverBalance()
+    {
+        PaymentInfo info = new PaymentInfo("user_id", "order_id", "G", "2.5");
+        Payment paid = new Payment();
+        paid.setPrice(Amount.parse("1.0"));
+        List<Payment> payments = new ArrayList<>();
+        payments.add(paid);
+        List<Money> monies = new ArrayList<>();
+        Money money = new Money();
+        money.setMoney(Amount.parse("3.0"));
+        monies.add(money);
+        Mockito.when(paymentRepository.findByUserId(Mockito.anyString())).thenReturn(payments);
+        Mockito.when(addMoneyRepository.findByUserId(Mockito.anyString())).thenReturn(monies);
+        ResponseEntity<Response> re = new ResponseEntity<>(new Response<>(0, "", null), HttpStatus.OK);
+        Mockito.when(restTemplate.exchange(Mockito.anyString(), Mockito.eq(HttpMethod.POST),
+            Mockito.any(HttpEntity.class), Mockito.eq(Response.class))).thenReturn(re);
+        Response result = insidePaymentServiceImpl.payDifference(info, headers);
+        Assert.assertEquals(new Response<>(0, "Pay Difference Failed", null), result);
+        Mockito.verify(paymentRepository, Mockito.never()).save(Mockito.any(Payment.class));
+    }
+
+    @Test
+    public void testQueryAccountOfUser()
+    {
+        Payment paid = new Payment();
+        paid.setPrice(Amount.parse("1.5"));
+        List<Payment> payments = new ArrayList<>();
+        payments.add(paid);
+        List<Money> monies = new ArrayList<>();
+        Money money = new Money();
+        money.setMoney(Amount.parse("10.0"));
+        monies.add(money);
+        Mockito.when(paymentRepository.findByUserId("user_id")).thenReturn(payments);
+        Mockito.when(addMoneyRepository.findByUserId("user_id")).thenReturn(monies);
+        Assert.assertEquals("8.5", insidePaymentServiceImpl.queryAccount("user_id", headers));
+    }
+
     @Test
     public void testQueryAddMoney1()
     {
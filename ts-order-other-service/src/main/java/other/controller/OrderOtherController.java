@@ -3,6 +3,7 @@ package other.controller;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -18,6 +19,7 @@ import other.service.OrderOtherService;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 import static org.springframework.http.ResponseEntity.ok;
@@ -80,7 +82,7 @@ public class OrderOtherController
     @PostMapping(path = "/orderOther/refresh")
     @HystrixCommand(fallbackMethod = "queryOrdersForRefreshFallback", commandProperties = {
         @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-    })
+    }, ignoreExceptions = DeadlineExceededException.class)
     public HttpEntity queryOrdersForRefresh(@RequestBody QueryInfo qi,
         @RequestHeader HttpHeaders headers)
     {
@@ -133,6 +135,15 @@ public class OrderOtherController
         return ok(orderService.modifyOrder(orderId, status, headers));
     }
 
+    @CrossOrigin(origins = "*")
+    @PostMapping(path = "/orderOther/status/batch/{status}")
+    public HttpEntity modifyOrders(@RequestBody List<String> orderIds, @PathVariable int status,
+        @RequestHeader HttpHeaders headers)
+    {
+        OrderOtherController.LOGGER.info("[Order Other Service][Modify Orders Status] Orders: {}", orderIds.size());
+        return ok(orderService.modifyOrders(orderIds, status, headers));
+    }
+
     @CrossOrigin(origins = "*")
     @GetMapping(path = "/orderOther/security/{checkDate}/{accountId}")
     //changed @PathVariable from Date to string, so that Spring can convert it correctly
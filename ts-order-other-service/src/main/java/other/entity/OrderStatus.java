@@ -1,5 +1,9 @@
 package other.entity;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author fdse
  */
@@ -64,4 +68,33 @@ public enum OrderStatus
         }
         return orderStatusSet[0].getName();
     }
+
+    /**
+     * Statuses an order has to be in to move to the given status. Used as the predicate of
+     * the conditional status updates, so two concurrent transitions cannot both succeed. The
+     * sources follow the checks of the callers: paying (inside-payment, pay) needs NOTPAID,
+     * collecting (execute) PAID or CHANGE, entering the station (execute) COLLECTED, rebooking
+     * PAID, and cancelling (cancel, expiry) NOTPAID, PAID or CHANGE. NOTPAID is unreachable, an
+     * order only has it when it is created.
+     *
+     * @param code target status
+     * @return allowed current statuses, empty if the status can not be reached by a transition
+     */
+    public static List<Integer> getSourceCodes(int code)
+    {
+        if (code == PAID.code) {
+            return Collections.singletonList(NOTPAID.code);
+        } else if (code == COLLECTED.code) {
+            return Arrays.asList(PAID.code, CHANGE.code);
+        } else if (code == USED.code) {
+            return Collections.singletonList(COLLECTED.code);
+        } else if (code == CHANGE.code) {
+            return Collections.singletonList(PAID.code);
+        } else if (code == CANCEL.code) {
+            return Arrays.asList(NOTPAID.code, PAID.code, CHANGE.code);
+        } else if (code == REFUNDS.code) {
+            return Collections.singletonList(CANCEL.code);
+        }
+        return Collections.emptyList();
+    }
 }
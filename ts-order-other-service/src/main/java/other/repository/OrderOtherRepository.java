@@ -14,7 +14,7 @@ import java.util.UUID;
  * @author fdse
  */
 @Repository
-public interface OrderOtherRepository extends MongoRepository<Order, String>
+public interface OrderOtherRepository extends MongoRepository<Order, String>, OrderOtherRepositoryCustom
 {
     /**
      * find order by id
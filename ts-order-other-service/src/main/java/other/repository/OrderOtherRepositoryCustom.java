@@ -0,0 +1,45 @@
+package other.repository;
+
+import other.entity.Order;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Single round trip updates of orders, implemented with findAndModify and $set instead of
+ * reading and saving the whole document.
+ *
+ * @author fdse
+ */
+public interface OrderOtherRepositoryCustom
+{
+    /**
+     * set the status of an order if it is currently in one of the expected statuses
+     *
+     * @param id order id
+     * @param expectedStatuses statuses the order has to be in, null for any
+     * @param status new status
+     * @return the updated order, null if no order with this id is in an expected status
+     */
+    Order updateStatus(UUID id, Collection<Integer> expectedStatuses, int status);
+
+    /**
+     * set the status of all given orders that are currently in one of the expected statuses
+     *
+     * @param ids order ids
+     * @param expectedStatuses statuses the orders have to be in, null for any
+     * @param status new status
+     * @return number of updated orders
+     */
+    long updateStatus(Collection<UUID> ids, Collection<Integer> expectedStatuses, int status);
+
+    /**
+     * overwrite the fields of an existing order if it is currently in one of the expected
+     * statuses, does not create it
+     *
+     * @param order order with the new values
+     * @param expectedStatuses statuses the order has to be in, null for any
+     * @return the updated order, null if no order with this id is in an expected status
+     */
+    Order updateOrder(Order order, Collection<Integer> expectedStatuses);
+}
@@ -7,6 +7,7 @@ import org.springframework.http.HttpHeaders;
 import other.entity.*;
 
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -36,6 +37,8 @@ public interface OrderOtherService
 
     Response modifyOrder(String orderId, int status, HttpHeaders headers);
 
+    Response modifyOrders(List<String> orderIds, int status, HttpHeaders headers);
+
     Response getAllOrders(HttpHeaders headers);
 
     Response getSoldTickets(Seat seatRequest, HttpHeaders headers);
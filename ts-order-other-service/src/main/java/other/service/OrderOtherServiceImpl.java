@@ -1,5 +1,7 @@
 package other.service;
 
+import edu.fudan.common.logging.LogPayloads;
+import edu.fudan.common.util.OrderIdLocator;
 import edu.fudan.common.util.Response;
 import lombok.extern.slf4j.Slf4j;
 
@@ -54,6 +56,13 @@ public class OrderOtherServiceImpl implements OrderOtherService
         if (list != null && !list.isEmpty()) {
             Set ticketSet = new HashSet();
             for (Order tempOrder : list) {
+                //Cancelled (expired orders included) and refunded orders no longer hold their seat; rebooked,
+                //collected and used ones still do
+                if (tempOrder.getStatus() == OrderStatus.CANCEL.getCode()
+                    || tempOrder.getStatus() == OrderStatus.REFUNDS.getCode())
+                {
+                    continue;
+                }
                 Ticket ticket = new Ticket();
                 ticket.setSeatNo(Integer.parseInt(tempOrder.getSeatNumber()));
                 ticket.setStartStation(tempOrder.getFrom());
@@ -63,7 +72,7 @@ public class OrderOtherServiceImpl implements OrderOtherService
 
             LeftTicketInfo leftTicketInfo = new LeftTicketInfo();
             leftTicketInfo.setSoldTickets(ticketSet);
-            OrderOtherServiceImpl.LOGGER.info("Left ticket info is: {}", leftTicketInfo.toString());
+            OrderOtherServiceImpl.LOGGER.info("Left ticket info is: {}", LogPayloads.summary(ticketSet));
 
             return new Response<>(1, success, leftTicketInfo);
         } else {
@@ -91,7 +100,7 @@ public class OrderOtherServiceImpl implements OrderOtherService
             OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Order Create] Fail.Order already exists.");
             return new Response<>(0, "Order already exist", order);
         } else {
-            order.setId(UUID.randomUUID());
+            order.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER_OTHER));
             orderOtherRepository.save(order);
             OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Order Create] Success.");
             OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Order Create] Price: {}", order.getPrice());
@@ -122,9 +131,12 @@ public class OrderOtherServiceImpl implements OrderOtherService
             return new Response<>(0, "Old Order Does Not Exists", null);
         }
         oldOrder.setStatus(OrderStatus.CANCEL.getCode());
-        saveChanges(oldOrder, headers);
+        Response cancelled = saveChanges(oldOrder, headers);
+        if (cancelled.getStatus() != 1) {
+            return cancelled;
+        }
         Order newOrder = oai.getNewOrderInfo();
-        newOrder.setId(UUID.randomUUID());
+        newOrder.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER_OTHER));
         Response cor = create(oai.getNewOrderInfo(), headers);
         if (cor.getStatus() == 1) {
             OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Alter Order] Success.");
@@ -228,54 +240,40 @@ public class OrderOtherServiceImpl implements OrderOtherService
             new ParameterizedTypeReference<Response<List<String>>>()
             {
             });
-        OrderOtherServiceImpl.LOGGER.info("Stations name list is : {}", re.getBody().toString());
+        OrderOtherServiceImpl.LOGGER.info("Stations name list is : {}", LogPayloads.summary(re.getBody()));
         return re.getBody().getData();
     }
 
     @Override
     public Response saveChanges(Order order, HttpHeaders headers)
     {
-        Order oldOrder = orderOtherRepository.findById(order.getId());
-        if (oldOrder == null) {
-            OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Modify Order] Fail.Order not found.");
-            return new Response<>(0, orderNotFound, null);
+        //Like the status endpoints, the new status has to be reachable from the stored one, so a cancel and a
+        //rebook of the same order cannot both apply. An unpaid order is only changed while it is still unpaid
+        List<Integer> expectedStatuses = OrderStatus.getSourceCodes(order.getStatus());
+        if (expectedStatuses.isEmpty()) {
+            expectedStatuses = Collections.singletonList(order.getStatus());
+        }
+        Order updatedOrder = orderOtherRepository.updateOrder(order, expectedStatuses);
+        if (updatedOrder == null) {
+            OrderOtherServiceImpl.LOGGER.info(
+                "[Order Other Service][Modify Order] Fail.Order not found or status changed.");
+            return transitionFailed(order.getId());
         } else {
-            oldOrder.setAccountId(order.getAccountId());
-            oldOrder.setBoughtDate(order.getBoughtDate());
-            oldOrder.setTravelDate(order.getTravelDate());
-            oldOrder.setTravelTime(order.getTravelTime());
-            oldOrder.setSeatClass(order.getSeatClass());
-            oldOrder.setCoachNumber(order.getCoachNumber());
-
-            oldOrder.setSeatNumber(order.getSeatNumber());
-            oldOrder.setTo(order.getTo());
-            oldOrder.setFrom(order.getFrom());
-            oldOrder.setStatus(order.getStatus());
-            oldOrder.setTrainNumber(order.getTrainNumber());
-            oldOrder.setPrice(order.getPrice());
-            oldOrder.setContactsName(order.getContactsName());
-            oldOrder.setDocumentType(order.getDocumentType());
-            oldOrder.setContactsDocumentNumber(order.getContactsDocumentNumber());
-
-            orderOtherRepository.save(oldOrder);
             OrderOtherServiceImpl.LOGGER.info("[Order Other Service] Success.");
-            return new Response<>(1, success, oldOrder);
+            return new Response<>(1, success, updatedOrder);
         }
     }
 
     @Override
     public Response cancelOrder(UUID accountId, UUID orderId, HttpHeaders headers)
     {
-
-        Order oldOrder = orderOtherRepository.findById(orderId);
-        if (oldOrder == null) {
-            OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Cancel Order] Fail.Order not found.");
-            return new Response<>(0, orderNotFound, null);
+        Order order = transitionStatus(orderId, OrderStatus.CANCEL.getCode());
+        if (order == null) {
+            OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Cancel Order] Fail.Order not cancellable.");
+            return transitionFailed(orderId);
         } else {
-            oldOrder.setStatus(OrderStatus.CANCEL.getCode());
-            orderOtherRepository.save(oldOrder);
             OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Cancel Order] Success.");
-            return new Response<>(1, success, oldOrder);
+            return new Response<>(1, success, order);
         }
     }
 
@@ -332,16 +330,28 @@ public class OrderOtherServiceImpl implements OrderOtherService
     @Override
     public Response modifyOrder(String orderId, int status, HttpHeaders headers)
     {
-        Order order = orderOtherRepository.findById(UUID.fromString(orderId));
+        UUID id = UUID.fromString(orderId);
+        Order order = transitionStatus(id, status);
         if (order == null) {
-            return new Response<>(0, orderNotFound, null);
+            return transitionFailed(id);
         } else {
-            order.setStatus(status);
-            orderOtherRepository.save(order);
             return new Response<>(1, success, order);
         }
     }
 
+    @Override
+    public Response modifyOrders(List<String> orderIds, int status, HttpHeaders headers)
+    {
+        List<UUID> ids = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            ids.add(UUID.fromString(orderId));
+        }
+        long modified = orderOtherRepository.updateStatus(ids, OrderStatus.getSourceCodes(status), status);
+        OrderOtherServiceImpl.LOGGER.info("[Order Other Service][Modify Orders] {} of {} orders set to status {}",
+            modified, ids.size(), status);
+        return new Response<>(1, success, modified);
+    }
+
     @Override
     public Response getOrderPrice(String orderId, HttpHeaders headers)
     {
@@ -357,12 +367,11 @@ public class OrderOtherServiceImpl implements OrderOtherService
     @Override
     public Response payOrder(String orderId, HttpHeaders headers)
     {
-        Order order = orderOtherRepository.findById(UUID.fromString(orderId));
+        UUID id = UUID.fromString(orderId);
+        Order order = transitionStatus(id, OrderStatus.PAID.getCode());
         if (order == null) {
-            return new Response<>(0, orderNotFound, null);
+            return transitionFailed(id);
         } else {
-            order.setStatus(OrderStatus.PAID.getCode());
-            orderOtherRepository.save(order);
             return new Response<>(1, success, order);
         }
     }
@@ -428,7 +437,7 @@ public class OrderOtherServiceImpl implements OrderOtherService
             OrderOtherServiceImpl.LOGGER.info("[Order Service][Admin Add Order] Fail.Order already exists.");
             return new Response<>(0, "Order already exist", null);
         } else {
-            order.setId(UUID.randomUUID());
+            order.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER_OTHER));
             orderOtherRepository.save(order);
             OrderOtherServiceImpl.LOGGER.info("[Order Service][Admin Add Order] Success.");
             OrderOtherServiceImpl.LOGGER.info("[Order Service][Admin Add Order] Price: {}", order.getPrice());
@@ -466,5 +475,30 @@ public class OrderOtherServiceImpl implements OrderOtherService
             return new Response<>(1, success, oldOrder);
         }
     }
-}
 
+    /**
+     * Moves an order to a status in one findAndModify, only if its current status allows it.
+     *
+     * @return the updated order, null if the order is missing or in the wrong status
+     */
+    private Order transitionStatus(UUID orderId, int status)
+    {
+        return orderOtherRepository.updateStatus(orderId, OrderStatus.getSourceCodes(status), status);
+    }
+
+    /**
+     * Response for a conditional update that matched nothing, tells a missing order from one
+     * in the wrong status. Only this failure path reads the order.
+     */
+    private Response transitionFailed(UUID orderId)
+    {
+        Order order = orderOtherRepository.findById(orderId);
+        if (order == null) {
+            return new Response<>(0, orderNotFound, null);
+        }
+        OrderOtherServiceImpl.LOGGER.info(
+            "[Order Other Service][Modify Order] Order {} is in status {}, transition not allowed", orderId,
+            OrderStatus.getNameByCode(order.getStatus()));
+        return new Response<>(0, "Order Status Not Allowed", order);
+    }
+}
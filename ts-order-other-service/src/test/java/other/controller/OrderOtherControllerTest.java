@@ -24,7 +24,9 @@ import other.entity.QueryInfo;
 import other.entity.Seat;
 import other.service.OrderOtherService;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 @RunWith(JUnit4.class)
 public class OrderOtherControllerTest
@@ -185,6 +187,21 @@ public class OrderOtherControllerTest
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
     }
 
+    @Test
+    public void testModifyOrders() throws Exception
+    {
+        List<String> orderIds = Collections.singletonList("order_id");
+        Mockito.when(orderService.modifyOrders(Mockito.anyList(), Mockito.anyInt(), Mockito.any(HttpHeaders.class)))
+            .thenReturn(response);
+        String requestJson = JSONObject.toJSONString(orderIds);
+        String result = mockMvc.perform(
+                MockMvcRequestBuilders.post("/api/v1/orderOtherService/orderOther/status/batch/2").contentType(MediaType.APPLICATION_JSON)
+                    .content(requestJson))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
+    }
+
     @Test
     public void testSecurityInfoCheck() throws Exception
     {
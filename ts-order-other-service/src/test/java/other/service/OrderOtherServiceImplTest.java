@@ -19,8 +19,12 @@ import other.entity.*;
 import other.repository.OrderOtherRepository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -57,6 +61,29 @@ public class OrderOtherServiceImplTest
         Assert.assertEquals("Success", result.getMsg());
     }
 
+    @Test
+    public void testGetSoldTicketsKeepsHeldSeats()
+    {
+        ArrayList<Order> list = new ArrayList<>();
+        int[] statuses = {OrderStatus.NOTPAID.getCode(), OrderStatus.PAID.getCode(), OrderStatus.COLLECTED.getCode(),
+            OrderStatus.CHANGE.getCode(), OrderStatus.CANCEL.getCode(), OrderStatus.REFUNDS.getCode(),
+            OrderStatus.USED.getCode()};
+        for (int i = 0; i < statuses.length; i++) {
+            Order order = new Order();
+            order.setSeatNumber(String.valueOf(i + 1));
+            order.setStatus(statuses[i]);
+            list.add(order);
+        }
+        Mockito.when(orderOtherRepository.findByTravelDateAndTrainNumber(Mockito.any(Date.class), Mockito.anyString()))
+            .thenReturn(list);
+        Response result = orderOtherServiceImpl.getSoldTickets(new Seat(), headers);
+        Set<Integer> seats = new HashSet<>();
+        for (Ticket ticket : ((LeftTicketInfo) result.getData()).getSoldTickets()) {
+            seats.add(ticket.getSeatNo());
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 7)), seats);
+    }
+
     @Test
     public void testGetSoldTickets2()
     {
@@ -143,7 +170,8 @@ public class OrderOtherServiceImplTest
         OrderAlterInfo oai = new OrderAlterInfo(UUID.randomUUID(), UUID.randomUUID(), "login_token", new Order());
         Order order = new Order();
         Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderOtherRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderOtherRepository.updateOrder(Mockito.any(Order.class), Mockito.anyCollection()))
+            .thenReturn(order);
         //mock create()
         ArrayList<Order> accountOrders = new ArrayList<>();
         Mockito.when(orderOtherRepository.findByAccountId(Mockito.any(UUID.class))).thenReturn(accountOrders);
@@ -221,12 +249,27 @@ public class OrderOtherServiceImplTest
     public void testSaveChanges2()
     {
         Order order = new Order();
-        Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderOtherRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderOtherRepository.updateOrder(Mockito.any(Order.class), Mockito.anyCollection()))
+            .thenReturn(order);
         Response result = orderOtherServiceImpl.saveChanges(order, headers);
         Assert.assertEquals(new Response<>(1, "Success", order), result);
     }
 
+    @Test
+    public void testSaveChangesStatusChangedMeanwhile()
+    {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.CANCEL.getCode());
+        Order cancelled = new Order();
+        cancelled.setStatus(OrderStatus.CANCEL.getCode());
+        Mockito.when(orderOtherRepository.updateOrder(order, OrderStatus.getSourceCodes(OrderStatus.CANCEL.getCode())))
+            .thenReturn(null);
+        Mockito.when(orderOtherRepository.findById(order.getId())).thenReturn(cancelled);
+        Response result = orderOtherServiceImpl.saveChanges(order, headers);
+        Assert.assertEquals(new Response<>(0, "Order Status Not Allowed", cancelled), result);
+    }
+
     @Test
     public void testCancelOrder1()
     {
@@ -239,12 +282,22 @@ public class OrderOtherServiceImplTest
     public void testCancelOrder2()
     {
         Order oldOrder = new Order();
-        Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(oldOrder);
-        Mockito.when(orderOtherRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderOtherRepository.updateStatus(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.anyInt()))
+            .thenReturn(oldOrder);
         Response result = orderOtherServiceImpl.cancelOrder(UUID.randomUUID(), UUID.randomUUID(), headers);
         Assert.assertEquals("Success", result.getMsg());
     }
 
+    @Test
+    public void testCancelOrder3()
+    {
+        Order oldOrder = new Order();
+        oldOrder.setStatus(OrderStatus.CANCEL.getCode());
+        Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(oldOrder);
+        Response result = orderOtherServiceImpl.cancelOrder(UUID.randomUUID(), UUID.randomUUID(), headers);
+        Assert.assertEquals(new Response<>(0, "Order Status Not Allowed", oldOrder), result);
+    }
+
     @Test
     public void testQueryAlreadySoldOrders()
     {
@@ -284,12 +337,40 @@ public class OrderOtherServiceImplTest
     public void testModifyOrder2()
     {
         Order order = new Order();
-        Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderOtherRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderOtherRepository.updateStatus(Mockito.any(UUID.class), Mockito.eq(OrderStatus.getSourceCodes(1)),
+            Mockito.eq(1))).thenReturn(order);
         Response result = orderOtherServiceImpl.modifyOrder(UUID.randomUUID().toString(), 1, headers);
         Assert.assertEquals("Success", result.getMsg());
     }
 
+    @Test
+    public void testModifyOrderCollectsRebookedOrder()
+    {
+        Order order = new Order();
+        Mockito.when(orderOtherRepository.updateStatus(Mockito.any(UUID.class),
+            Mockito.eq(Arrays.asList(OrderStatus.PAID.getCode(), OrderStatus.CHANGE.getCode())),
+            Mockito.eq(OrderStatus.COLLECTED.getCode()))).thenReturn(order);
+        Response result = orderOtherServiceImpl.modifyOrder(UUID.randomUUID().toString(), OrderStatus.COLLECTED.getCode(),
+            headers);
+        Assert.assertEquals("Success", result.getMsg());
+    }
+
+    @Test
+    public void testNotPaidIsUnreachable()
+    {
+        Assert.assertTrue(OrderStatus.getSourceCodes(OrderStatus.NOTPAID.getCode()).isEmpty());
+    }
+
+    @Test
+    public void testModifyOrders()
+    {
+        List<String> orderIds = Arrays.asList(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        Mockito.when(orderOtherRepository.updateStatus(Mockito.anyCollection(), Mockito.eq(OrderStatus.getSourceCodes(2)),
+            Mockito.eq(2))).thenReturn(2L);
+        Response result = orderOtherServiceImpl.modifyOrders(orderIds, 2, headers);
+        Assert.assertEquals(new Response<>(1, "Success", 2L), result);
+    }
+
     @Test
     public void testGetOrderPrice1()
     {
@@ -319,12 +400,24 @@ public class OrderOtherServiceImplTest
     public void testPayOrder2()
     {
         Order order = new Order();
-        Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderOtherRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderOtherRepository.updateStatus(Mockito.any(UUID.class),
+            Mockito.eq(Collections.singletonList(OrderStatus.NOTPAID.getCode())),
+            Mockito.eq(OrderStatus.PAID.getCode()))).thenReturn(order);
         Response result = orderOtherServiceImpl.payOrder(UUID.randomUUID().toString(), headers);
         Assert.assertEquals("Success", result.getMsg());
     }
 
+    @Test
+    public void testPayOrder3()
+    {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PAID.getCode());
+        Mockito.when(orderOtherRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
+        Response result = orderOtherServiceImpl.payOrder(UUID.randomUUID().toString(), headers);
+        Assert.assertEquals(new Response<>(0, "Order Status Not Allowed", order), result);
+        Mockito.verify(orderOtherRepository, Mockito.never()).save(Mockito.any(Order.class));
+    }
+
     @Test
     public void testGetOrderById1()
     {
@@ -3,6 +3,7 @@ package order.controller;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 import order.entity.*;
 import order.service.OrderService;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 import static org.springframework.http.ResponseEntity.ok;
@@ -58,6 +60,14 @@ public class OrderController
         return ok(orderService.create(createOrder, headers));
     }
 
+    @CrossOrigin(origins = "*")
+    @PostMapping(path = "/order/batch")
+    public HttpEntity createNewOrders(@RequestBody List<Order> createOrders, @RequestHeader HttpHeaders headers)
+    {
+        OrderController.LOGGER.info("[Order Service][Create Batch Order] Create {} Orders", createOrders.size());
+        return ok(orderService.createBatch(createOrders, headers));
+    }
+
     @CrossOrigin(origins = "*")
     @PostMapping(path = "/order/admin")
     public HttpEntity addcreateNewOrder(@RequestBody Order order, @RequestHeader HttpHeaders headers)
@@ -79,7 +89,7 @@ public class OrderController
     @PostMapping(path = "/order/refresh")
     @HystrixCommand(fallbackMethod = "queryOrdersForRefreshFallback", commandProperties = {
         @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-    })
+    }, ignoreExceptions = DeadlineExceededException.class)
     public HttpEntity queryOrdersForRefresh(@RequestBody OrderInfo qi,
         @RequestHeader HttpHeaders headers)
     {
@@ -136,6 +146,15 @@ public class OrderController
         return ok(orderService.modifyOrder(orderId, status, headers));
     }
 
+    @CrossOrigin(origins = "*")
+    @PostMapping(path = "/order/status/batch/{status}")
+    public HttpEntity modifyOrders(@RequestBody List<String> orderIds, @PathVariable int status,
+        @RequestHeader HttpHeaders headers)
+    {
+        OrderController.LOGGER.info("[Order Service][Modify Orders Status] Orders: {}", orderIds.size());
+        return ok(orderService.modifyOrders(orderIds, status, headers));
+    }
+
     @CrossOrigin(origins = "*")
     @GetMapping(path = "/order/security/{checkDate}/{accountId}")
     //changed @PathVariable from Date to string, so that Spring can convert it correctly
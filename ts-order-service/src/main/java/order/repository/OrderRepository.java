@@ -14,7 +14,7 @@ import java.util.UUID;
  * @author fdse
  */
 @Repository
-public interface OrderRepository extends MongoRepository<Order, String>
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom
 {
     @Query("{ 'id': ?0 }")
     Order findById(UUID id);
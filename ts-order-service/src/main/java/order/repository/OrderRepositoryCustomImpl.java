@@ -0,0 +1,71 @@
+package order.repository;
+
+import order.entity.Order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * @author fdse
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom
+{
+    private static final String STATUS = "status";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Order updateStatus(UUID id, Collection<Integer> expectedStatuses, int status)
+    {
+        Query query = new Query(withStatus(Criteria.where("id").is(id), expectedStatuses));
+        return mongoTemplate.findAndModify(query, Update.update(STATUS, status),
+            FindAndModifyOptions.options().returnNew(true), Order.class);
+    }
+
+    @Override
+    public long updateStatus(Collection<UUID> ids, Collection<Integer> expectedStatuses, int status)
+    {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        Query query = new Query(withStatus(Criteria.where("id").in(ids), expectedStatuses));
+        return mongoTemplate.updateMulti(query, Update.update(STATUS, status), Order.class).getModifiedCount();
+    }
+
+    @Override
+    public Order updateOrder(Order order, Collection<Integer> expectedStatuses)
+    {
+        Update update = new Update()
+            .set("accountId", order.getAccountId())
+            .set("boughtDate", order.getBoughtDate())
+            .set("travelDate", order.getTravelDate())
+            .set("travelTime", order.getTravelTime())
+            .set("coachNumber", order.getCoachNumber())
+            .set("seatClass", order.getSeatClass())
+            .set("seatNumber", order.getSeatNumber())
+            .set("from", order.getFrom())
+            .set("to", order.getTo())
+            .set(STATUS, order.getStatus())
+            .set("trainNumber", order.getTrainNumber())
+            .set("price", order.getPrice())
+            .set("contactsName", order.getContactsName())
+            .set("contactsDocumentNumber", order.getContactsDocumentNumber())
+            .set("documentType", order.getDocumentType());
+        Query query = new Query(withStatus(Criteria.where("id").is(order.getId()), expectedStatuses));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+            Order.class);
+    }
+
+    private static Criteria withStatus(Criteria criteria, Collection<Integer> expectedStatuses)
+    {
+        return expectedStatuses == null ? criteria : criteria.and(STATUS).in(expectedStatuses);
+    }
+}
@@ -6,6 +6,7 @@ import order.entity.*;
 import org.springframework.http.HttpHeaders;
 
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -17,6 +18,8 @@ public interface OrderService
 
     Response create(Order newOrder, HttpHeaders headers);
 
+    Response createBatch(List<Order> newOrders, HttpHeaders headers);
+
     Response saveChanges(Order order, HttpHeaders headers);
 
     Response cancelOrder(UUID accountId, UUID orderId, HttpHeaders headers);
@@ -33,6 +36,8 @@ public interface OrderService
 
     Response modifyOrder(String orderId, int status, HttpHeaders headers);
 
+    Response modifyOrders(List<String> orderIds, int status, HttpHeaders headers);
+
     Response getOrderPrice(String orderId, HttpHeaders headers);
 
     Response payOrder(String orderId, HttpHeaders headers);
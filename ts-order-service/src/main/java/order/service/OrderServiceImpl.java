@@ -1,5 +1,7 @@
 package order.service;
 
+import edu.fudan.common.logging.LogPayloads;
+import edu.fudan.common.util.OrderIdLocator;
 import edu.fudan.common.util.Response;
 import lombok.extern.slf4j.Slf4j;
 import order.entity.*;
@@ -53,12 +55,19 @@ public class OrderServiceImpl implements OrderService
         if (list != null && !list.isEmpty()) {
             Set ticketSet = new HashSet();
             for (Order tempOrder : list) {
+                //Cancelled (expired orders included) and refunded orders no longer hold their seat; rebooked,
+                //collected and used ones still do
+                if (tempOrder.getStatus() == OrderStatus.CANCEL.getCode()
+                    || tempOrder.getStatus() == OrderStatus.REFUNDS.getCode())
+                {
+                    continue;
+                }
                 ticketSet.add(new Ticket(Integer.parseInt(tempOrder.getSeatNumber()),
                     tempOrder.getFrom(), tempOrder.getTo()));
             }
             LeftTicketInfo leftTicketInfo = new LeftTicketInfo();
             leftTicketInfo.setSoldTickets(ticketSet);
-            OrderServiceImpl.LOGGER.info("Left ticket info is: {}", leftTicketInfo.toString());
+            OrderServiceImpl.LOGGER.info("Left ticket info is: {}", LogPayloads.summary(ticketSet));
             return new Response<>(1, success, leftTicketInfo);
         } else {
             OrderServiceImpl.LOGGER.info("Left ticket info is empty");
@@ -86,7 +95,7 @@ public class OrderServiceImpl implements OrderService
             OrderServiceImpl.LOGGER.info("[Order Service][Order Create] Fail.Order already exists.");
             return new Response<>(0, "Order already exist", null);
         } else {
-            order.setId(UUID.randomUUID());
+            order.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER));
             orderRepository.save(order);
             OrderServiceImpl.LOGGER.info("[Order Service][Order Create] Success.");
             OrderServiceImpl.LOGGER.info("[Order Service][Order Create] Price: {}", order.getPrice());
@@ -94,6 +103,30 @@ public class OrderServiceImpl implements OrderService
         }
     }
 
+    @Override
+    public Response createBatch(List<Order> orders, HttpHeaders headers)
+    {
+        OrderServiceImpl.LOGGER.info("[Order Service][Create Batch Order] Ready Create {} Orders.", orders.size());
+        if (orders.isEmpty()) {
+            return new Response<>(0, "No Order To Create", null);
+        }
+        Map<UUID, ArrayList<Order>> accountOrders = new HashMap<>();
+        for (Order order : orders) {
+            ArrayList<Order> existing = accountOrders.computeIfAbsent(order.getAccountId(),
+                orderRepository::findByAccountId);
+            if (existing.contains(order)) {
+                OrderServiceImpl.LOGGER.info("[Order Service][Create Batch Order] Fail.Order already exists.");
+                return new Response<>(0, "Order already exist", null);
+            }
+        }
+        for (Order order : orders) {
+            order.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER));
+        }
+        orderRepository.saveAll(orders);
+        OrderServiceImpl.LOGGER.info("[Order Service][Create Batch Order] Success.");
+        return new Response<>(1, success, orders);
+    }
+
     @Override
     public Response alterOrder(OrderAlterInfo oai, HttpHeaders headers)
     {
@@ -105,9 +138,12 @@ public class OrderServiceImpl implements OrderService
             return new Response<>(0, "Old Order Does Not Exists", null);
         }
         oldOrder.setStatus(OrderStatus.CANCEL.getCode());
-        saveChanges(oldOrder, headers);
+        Response cancelled = saveChanges(oldOrder, headers);
+        if (cancelled.getStatus() != 1) {
+            return cancelled;
+        }
         Order newOrder = oai.getNewOrderInfo();
-        newOrder.setId(UUID.randomUUID());
+        newOrder.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER));
         Response cor = create(oai.getNewOrderInfo(), headers);
         if (cor.getStatus() == 1) {
             OrderServiceImpl.LOGGER.info("[Order Service][Alter Order] Success.");
@@ -211,52 +247,39 @@ public class OrderServiceImpl implements OrderService
             new ParameterizedTypeReference<Response<List<String>>>()
             {
             });
-        OrderServiceImpl.LOGGER.info("Name List is: {}", re.getBody().toString());
+        OrderServiceImpl.LOGGER.info("Name List is: {}", LogPayloads.summary(re.getBody()));
         return re.getBody().getData();
     }
 
     @Override
     public Response saveChanges(Order order, HttpHeaders headers)
     {
-
-        Order oldOrder = orderRepository.findById(order.getId());
-        if (oldOrder == null) {
-            OrderServiceImpl.LOGGER.info("[Order Service][Modify Order] Fail.Order not found.");
-            return new Response<>(0, orderNotFound, null);
+        //Like the status endpoints, the new status has to be reachable from the stored one, so a cancel and a
+        //rebook of the same order cannot both apply. An unpaid order is only changed while it is still unpaid
+        List<Integer> expectedStatuses = OrderStatus.getSourceCodes(order.getStatus());
+        if (expectedStatuses.isEmpty()) {
+            expectedStatuses = Collections.singletonList(order.getStatus());
+        }
+        Order updatedOrder = orderRepository.updateOrder(order, expectedStatuses);
+        if (updatedOrder == null) {
+            OrderServiceImpl.LOGGER.info("[Order Service][Modify Order] Fail.Order not found or status changed.");
+            return transitionFailed(order.getId());
         } else {
-            oldOrder.setAccountId(order.getAccountId());
-            oldOrder.setBoughtDate(order.getBoughtDate());
-            oldOrder.setTravelDate(order.getTravelDate());
-            oldOrder.setTravelTime(order.getTravelTime());
-            oldOrder.setCoachNumber(order.getCoachNumber());
-            oldOrder.setSeatClass(order.getSeatClass());
-            oldOrder.setSeatNumber(order.getSeatNumber());
-            oldOrder.setFrom(order.getFrom());
-            oldOrder.setTo(order.getTo());
-            oldOrder.setStatus(order.getStatus());
-            oldOrder.setTrainNumber(order.getTrainNumber());
-            oldOrder.setPrice(order.getPrice());
-            oldOrder.setContactsName(order.getContactsName());
-            oldOrder.setContactsDocumentNumber(order.getContactsDocumentNumber());
-            oldOrder.setDocumentType(order.getDocumentType());
-            orderRepository.save(oldOrder);
             OrderServiceImpl.LOGGER.info("[Order Service] Success.");
-            return new Response<>(1, success, oldOrder);
+            return new Response<>(1, success, updatedOrder);
         }
     }
 
     @Override
     public Response cancelOrder(UUID accountId, UUID orderId, HttpHeaders headers)
     {
-        Order oldOrder = orderRepository.findById(orderId);
-        if (oldOrder == null) {
-            OrderServiceImpl.LOGGER.info("[Cancel Service][Cancel Order] Fail.Order not found.");
-            return new Response<>(0, orderNotFound, null);
+        Order order = transitionStatus(orderId, OrderStatus.CANCEL.getCode());
+        if (order == null) {
+            OrderServiceImpl.LOGGER.info("[Cancel Service][Cancel Order] Fail.Order not found or not cancellable.");
+            return transitionFailed(orderId);
         } else {
-            oldOrder.setStatus(OrderStatus.CANCEL.getCode());
-            orderRepository.save(oldOrder);
             OrderServiceImpl.LOGGER.info("[Cancel Service][Cancel Order] Success.");
-            return new Response<>(1, success, oldOrder);
+            return new Response<>(1, success, order);
         }
     }
 
@@ -312,16 +335,28 @@ public class OrderServiceImpl implements OrderService
     @Override
     public Response modifyOrder(String orderId, int status, HttpHeaders headers)
     {
-        Order order = orderRepository.findById(UUID.fromString(orderId));
+        UUID id = UUID.fromString(orderId);
+        Order order = transitionStatus(id, status);
         if (order == null) {
-            return new Response<>(0, orderNotFound, null);
+            return transitionFailed(id);
         } else {
-            order.setStatus(status);
-            orderRepository.save(order);
             return new Response<>(1, "Modify Order Success", order);
         }
     }
 
+    @Override
+    public Response modifyOrders(List<String> orderIds, int status, HttpHeaders headers)
+    {
+        List<UUID> ids = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            ids.add(UUID.fromString(orderId));
+        }
+        long modified = orderRepository.updateStatus(ids, OrderStatus.getSourceCodes(status), status);
+        OrderServiceImpl.LOGGER.info("[Order Service][Modify Orders] {} of {} orders set to status {}", modified,
+            ids.size(), status);
+        return new Response<>(1, success, modified);
+    }
+
     @Override
     public Response getOrderPrice(String orderId, HttpHeaders headers)
     {
@@ -338,12 +373,11 @@ public class OrderServiceImpl implements OrderService
     @Override
     public Response payOrder(String orderId, HttpHeaders headers)
     {
-        Order order = orderRepository.findById(UUID.fromString(orderId));
+        UUID id = UUID.fromString(orderId);
+        Order order = transitionStatus(id, OrderStatus.PAID.getCode());
         if (order == null) {
-            return new Response<>(0, orderNotFound, null);
+            return transitionFailed(id);
         } else {
-            order.setStatus(OrderStatus.PAID.getCode());
-            orderRepository.save(order);
             return new Response<>(1, "Pay Order Success.", order);
         }
     }
@@ -420,7 +454,7 @@ public class OrderServiceImpl implements OrderService
             OrderServiceImpl.LOGGER.info("[Order Service][Admin Add Order] Fail.Order already exists.");
             return new Response<>(0, "Order already exist", null);
         } else {
-            order.setId(UUID.randomUUID());
+            order.setId(OrderIdLocator.newOrderId(OrderIdLocator.Owner.ORDER));
             orderRepository.save(order);
             OrderServiceImpl.LOGGER.info("[Order Service][Admin Add Order] Success.");
             OrderServiceImpl.LOGGER.info("[Order Service][Admin Add Order] Price: {}", order.getPrice());
@@ -458,5 +492,29 @@ public class OrderServiceImpl implements OrderService
             return new Response<>(1, "Admin Update Order Success", oldOrder);
         }
     }
-}
 
+    /**
+     * Moves an order to a status in one findAndModify, only if its current status allows it.
+     *
+     * @return the updated order, null if the order is missing or in the wrong status
+     */
+    private Order transitionStatus(UUID orderId, int status)
+    {
+        return orderRepository.updateStatus(orderId, OrderStatus.getSourceCodes(status), status);
+    }
+
+    /**
+     * Response for a conditional update that matched nothing, tells a missing order from one
+     * in the wrong status. Only this failure path reads the order.
+     */
+    private Response transitionFailed(UUID orderId)
+    {
+        Order order = orderRepository.findById(orderId);
+        if (order == null) {
+            return new Response<>(0, orderNotFound, null);
+        }
+        OrderServiceImpl.LOGGER.info("[Order Service][Modify Order] Order {} is in status {}, transition not allowed",
+            orderId, OrderStatus.getNameByCode(order.getStatus()));
+        return new Response<>(0, "Order Status Not Allowed", order);
+    }
+}
@@ -23,7 +23,10 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 @RunWith(JUnit4.class)
 public class OrderControllerTest
@@ -83,6 +86,22 @@ public class OrderControllerTest
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
     }
 
+    @Test
+    public void testCreateNewOrders() throws Exception
+    {
+        List<Order> createOrders = new ArrayList<>();
+        createOrders.add(new Order());
+        Mockito.when(orderService.createBatch(Mockito.anyList(), Mockito.any(HttpHeaders.class)))
+            .thenReturn(response);
+        String requestJson = JSONObject.toJSONString(createOrders);
+        String result = mockMvc.perform(
+                MockMvcRequestBuilders.post("/api/v1/orderservice/order/batch").contentType(MediaType.APPLICATION_JSON)
+                    .content(requestJson))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
+    }
+
     @Test
     public void testAddCreateNewOrder() throws Exception
     {
@@ -185,6 +204,21 @@ public class OrderControllerTest
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
     }
 
+    @Test
+    public void testModifyOrders() throws Exception
+    {
+        List<String> orderIds = Collections.singletonList("order_id");
+        Mockito.when(orderService.modifyOrders(Mockito.anyList(), Mockito.anyInt(), Mockito.any(HttpHeaders.class)))
+            .thenReturn(response);
+        String requestJson = JSONObject.toJSONString(orderIds);
+        String result = mockMvc.perform(
+                MockMvcRequestBuilders.post("/api/v1/orderservice/order/status/batch/2").contentType(MediaType.APPLICATION_JSON)
+                    .content(requestJson))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
+    }
+
     @Test
     public void testSecurityInfoCheck() throws Exception
     {
@@ -18,8 +18,12 @@ import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -56,6 +60,29 @@ public class OrderServiceImplTest
         Assert.assertEquals("Success", result.getMsg());
     }
 
+    @Test
+    public void testGetSoldTicketsKeepsHeldSeats()
+    {
+        ArrayList<Order> list = new ArrayList<>();
+        int[] statuses = {OrderStatus.NOTPAID.getCode(), OrderStatus.PAID.getCode(), OrderStatus.COLLECTED.getCode(),
+            OrderStatus.CHANGE.getCode(), OrderStatus.CANCEL.getCode(), OrderStatus.REFUNDS.getCode(),
+            OrderStatus.USED.getCode()};
+        for (int i = 0; i < statuses.length; i++) {
+            Order order = new Order();
+            order.setSeatNumber(String.valueOf(i + 1));
+            order.setStatus(statuses[i]);
+            list.add(order);
+        }
+        Mockito.when(orderRepository.findByTravelDateAndTrainNumber(Mockito.any(Date.class), Mockito.anyString()))
+            .thenReturn(list);
+        Response result = orderServiceImpl.getSoldTickets(new Seat(), headers);
+        Set<Integer> seats = new HashSet<>();
+        for (Ticket ticket : ((LeftTicketInfo) result.getData()).getSoldTickets()) {
+            seats.add(ticket.getSeatNo());
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 7)), seats);
+    }
+
     @Test
     public void testGetSoldTickets2()
     {
@@ -127,6 +154,36 @@ public class OrderServiceImplTest
         Mockito.verify(orderRepository, times(0)).save(Mockito.any(Order.class));
     }
 
+    @Test
+    public void testCreateBatch1()
+    {
+        Order order = new Order();
+        order.setAccountId(UUID.randomUUID());
+        ArrayList<Order> accountOrders = new ArrayList<>();
+        accountOrders.add(order);
+        Mockito.when(orderRepository.findByAccountId(Mockito.any(UUID.class))).thenReturn(accountOrders);
+        Response result = orderServiceImpl.createBatch(Collections.singletonList(order), headers);
+        Assert.assertEquals(new Response<>(0, "Order already exist", null), result);
+    }
+
+    @Test
+    public void testCreateBatch2()
+    {
+        UUID accountId = UUID.randomUUID();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order();
+            order.setAccountId(accountId);
+            order.setSeatNumber("" + (i + 1));
+            orders.add(order);
+        }
+        Mockito.when(orderRepository.findByAccountId(Mockito.any(UUID.class))).thenReturn(new ArrayList<>());
+        Response result = orderServiceImpl.createBatch(orders, headers);
+        Assert.assertEquals("Success", result.getMsg());
+        Mockito.verify(orderRepository, times(1)).findByAccountId(accountId);
+        Mockito.verify(orderRepository, times(1)).saveAll(orders);
+    }
+
     @Test
     public void testAlterOrder1()
     {
@@ -142,7 +199,8 @@ public class OrderServiceImplTest
         OrderAlterInfo oai = new OrderAlterInfo(UUID.randomUUID(), UUID.randomUUID(), "login_token", new Order());
         Order order = new Order();
         Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderRepository.updateOrder(Mockito.any(Order.class), Mockito.anyCollection()))
+            .thenReturn(order);
         //mock create()
         ArrayList<Order> accountOrders = new ArrayList<>();
         Mockito.when(orderRepository.findByAccountId(Mockito.any(UUID.class))).thenReturn(accountOrders);
@@ -220,12 +278,27 @@ public class OrderServiceImplTest
     public void testSaveChanges2()
     {
         Order order = new Order();
-        Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderRepository.updateOrder(Mockito.any(Order.class), Mockito.anyCollection()))
+            .thenReturn(order);
         Response result = orderServiceImpl.saveChanges(order, headers);
         Assert.assertEquals(new Response<>(1, "Success", order), result);
     }
 
+    @Test
+    public void testSaveChangesStatusChangedMeanwhile()
+    {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.CANCEL.getCode());
+        Order cancelled = new Order();
+        cancelled.setStatus(OrderStatus.CANCEL.getCode());
+        Mockito.when(orderRepository.updateOrder(order, OrderStatus.getSourceCodes(OrderStatus.CANCEL.getCode())))
+            .thenReturn(null);
+        Mockito.when(orderRepository.findById(order.getId())).thenReturn(cancelled);
+        Response result = orderServiceImpl.saveChanges(order, headers);
+        Assert.assertEquals(new Response<>(0, "Order Status Not Allowed", cancelled), result);
+    }
+
     @Test
     public void testCancelOrder1()
     {
@@ -238,12 +311,22 @@ public class OrderServiceImplTest
     public void testCancelOrder2()
     {
         Order oldOrder = new Order();
-        Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(oldOrder);
-        Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderRepository.updateStatus(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.anyInt()))
+            .thenReturn(oldOrder);
         Response result = orderServiceImpl.cancelOrder(UUID.randomUUID(), UUID.randomUUID(), headers);
         Assert.assertEquals("Success", result.getMsg());
     }
 
+    @Test
+    public void testCancelOrder3()
+    {
+        Order oldOrder = new Order();
+        oldOrder.setStatus(OrderStatus.CANCEL.getCode());
+        Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(oldOrder);
+        Response result = orderServiceImpl.cancelOrder(UUID.randomUUID(), UUID.randomUUID(), headers);
+        Assert.assertEquals(new Response<>(0, "Order Status Not Allowed", oldOrder), result);
+    }
+
     @Test
     public void testQueryAlreadySoldOrders()
     {
@@ -284,12 +367,40 @@ public class OrderServiceImplTest
     public void testModifyOrder2()
     {
         Order order = new Order();
-        Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderRepository.updateStatus(Mockito.any(UUID.class), Mockito.eq(OrderStatus.getSourceCodes(1)),
+            Mockito.eq(1))).thenReturn(order);
         Response result = orderServiceImpl.modifyOrder(UUID.randomUUID().toString(), 1, headers);
         Assert.assertEquals("Modify Order Success", result.getMsg());
     }
 
+    @Test
+    public void testModifyOrderCollectsRebookedOrder()
+    {
+        Order order = new Order();
+        Mockito.when(orderRepository.updateStatus(Mockito.any(UUID.class),
+            Mockito.eq(Arrays.asList(OrderStatus.PAID.getCode(), OrderStatus.CHANGE.getCode())),
+            Mockito.eq(OrderStatus.COLLECTED.getCode()))).thenReturn(order);
+        Response result = orderServiceImpl.modifyOrder(UUID.randomUUID().toString(), OrderStatus.COLLECTED.getCode(),
+            headers);
+        Assert.assertEquals("Modify Order Success", result.getMsg());
+    }
+
+    @Test
+    public void testNotPaidIsUnreachable()
+    {
+        Assert.assertTrue(OrderStatus.getSourceCodes(OrderStatus.NOTPAID.getCode()).isEmpty());
+    }
+
+    @Test
+    public void testModifyOrders()
+    {
+        List<String> orderIds = Arrays.asList(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        Mockito.when(orderRepository.updateStatus(Mockito.anyCollection(), Mockito.eq(OrderStatus.getSourceCodes(2)),
+            Mockito.eq(2))).thenReturn(2L);
+        Response result = orderServiceImpl.modifyOrders(orderIds, 2, headers);
+        Assert.assertEquals(new Response<>(1, "Success", 2L), result);
+    }
+
     @Test
     public void testGetOrderPrice1()
     {
@@ -319,12 +430,24 @@ public class OrderServiceImplTest
     public void testPayOrder2()
     {
         Order order = new Order();
-        Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
-        Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(null);
+        Mockito.when(orderRepository.updateStatus(Mockito.any(UUID.class),
+            Mockito.eq(Collections.singletonList(OrderStatus.NOTPAID.getCode())),
+            Mockito.eq(OrderStatus.PAID.getCode()))).thenReturn(order);
         Response result = orderServiceImpl.payOrder(UUID.randomUUID().toString(), headers);
         Assert.assertEquals("Pay Order Success.", result.getMsg());
     }
 
+    @Test
+    public void testPayOrder3()
+    {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PAID.getCode());
+        Mockito.when(orderRepository.findById(Mockito.any(UUID.class))).thenReturn(order);
+        Response result = orderServiceImpl.payOrder(UUID.randomUUID().toString(), headers);
+        Assert.assertEquals(new Response<>(0, "Order Status Not Allowed", order), result);
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any(Order.class));
+    }
+
     @Test
     public void testGetOrderById1()
     {
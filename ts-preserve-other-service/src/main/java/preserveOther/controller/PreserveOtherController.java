@@ -1,8 +1,9 @@
 package preserveOther.controller;
 
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
-
+import edu.fudan.common.admission.WaitingPosition;
+import edu.fudan.common.admission.WaitingRoom;
+import edu.fudan.common.async.AsyncEndpoints;
+import edu.fudan.common.idempotency.IdempotencyAspect;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -15,6 +16,9 @@ import org.springframework.web.bind.annotation.*;
 import preserveOther.entity.OrderTicketsInfo;
 import preserveOther.service.PreserveOtherService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
@@ -26,9 +30,17 @@ public class PreserveOtherController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(PreserveOtherController.class);
 
+    private static final long PRESERVE_TIMEOUT_MILLIS = 5000;
+
     @Autowired
     private PreserveOtherService preserveService;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
+    @Autowired
+    private WaitingRoom waitingRoom;
+
     @GetMapping(path = "/welcome")
     public String home()
     {
@@ -37,19 +49,56 @@ public class PreserveOtherController
 
     @CrossOrigin(origins = "*")
     @PostMapping(value = "/preserveOther")
-    @HystrixCommand(fallbackMethod = "preserveFallback", commandProperties = {
-        @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-    })
-    public HttpEntity preserve(@RequestBody OrderTicketsInfo oti,
+    public CompletableFuture<HttpEntity> preserve(@RequestBody OrderTicketsInfo oti,
         @RequestHeader HttpHeaders headers)
     {
         PreserveOtherController.LOGGER.info("[Preserve Other Service][Preserve] Account  order from {} -----> {} at {}",
             oti.getFrom(), oti.getTo(), oti.getDate());
-        return ok(preserveService.preserve(oti, headers));
+        Supplier<CompletableFuture<HttpEntity>> booking = () -> asyncEndpoints.supply(
+            PreserveOtherController.PRESERVE_TIMEOUT_MILLIS,
+            () -> ok(preserveService.preserve(oti, headers)), () -> preserveFallback(oti, headers));
+        if (oti.getTripId() == null || oti.getDate() == null) {
+            return booking.get();
+        }
+        String key = WaitingRoom.key(oti.getTripId(), oti.getDate());
+        String inventory = WaitingRoom.inventory(key, oti.getSeatType(), oti.getFrom(), oti.getTo());
+        CompletableFuture<HttpEntity> admitted = waitingRoom.enter(key, inventory,
+            headers.getFirst(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER), () -> booking.get().thenApply(entity -> {
+                if (PreserveOtherController.isSoldOut(entity)) {
+                    waitingRoom.soldOut(key, inventory);
+                }
+                return entity;
+            }), reason -> ok(new Response<>(0, reason, null)));
+        return AsyncEndpoints.cancelWhenAbandoned(admitted);
+    }
+
+    /**
+     * Position and estimated wait of a booking sent with the Idempotency-Key header, while it
+     * waits to be admitted
+     */
+    @CrossOrigin(origins = "*")
+    @GetMapping(value = "/waitingroom/{ticket}")
+    public HttpEntity getWaitingPosition(@PathVariable String ticket, @RequestHeader HttpHeaders headers)
+    {
+        WaitingPosition position = waitingRoom.position(ticket);
+        if (position == null) {
+            return ok(new Response<>(0, "Not waiting", null));
+        }
+        return ok(new Response<>(1, "Waiting", position));
     }
 
     private HttpEntity preserveFallback(@RequestBody OrderTicketsInfo oti, @RequestHeader HttpHeaders headers)
     {
         return ok(new Response<>());
     }
+
+    /**
+     * The trip's own seat count or the seat service's check said there are no seats left
+     */
+    private static boolean isSoldOut(HttpEntity entity)
+    {
+        Object body = entity.getBody();
+        return body instanceof Response && Integer.valueOf(0).equals(((Response) body).getStatus())
+            && ((Response) body).getMsg() != null && ((Response) body).getMsg().endsWith(WaitingRoom.SOLD_OUT);
+    }
 }
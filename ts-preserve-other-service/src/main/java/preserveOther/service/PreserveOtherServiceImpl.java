@@ -13,6 +13,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import preserveOther.entity.*;
@@ -350,13 +351,18 @@ public class PreserveOtherServiceImpl implements PreserveOtherService
 
         PreserveOtherServiceImpl.LOGGER.info("[Preserve Service][Send Email]");
         HttpEntity requestEntitySendEmail = new HttpEntity(notifyInfo, httpHeaders);
-        ResponseEntity<Boolean> reSendEmail = restTemplate.exchange(
-                "http://"+ tsNotificationServiceUrl + ":" + tsNotificationServicePort + "/api/v1/notifyservice/notification/preserve_success",
-            HttpMethod.POST,
-            requestEntitySendEmail,
-            Boolean.class);
-
-        return reSendEmail.getBody();
+        try {
+            ResponseEntity<Boolean> reSendEmail = restTemplate.exchange(
+                    "http://"+ tsNotificationServiceUrl + ":" + tsNotificationServicePort + "/api/v1/notifyservice/notification/preserve_success",
+                HttpMethod.POST,
+                requestEntitySendEmail,
+                Boolean.class);
+            return reSendEmail.getBody();
+        } catch (RestClientException e) {
+            //The booking is done, it does not wait for the mail
+            PreserveOtherServiceImpl.LOGGER.warn("[Preserve Service][Send Email] Skipped: {}", e.getMessage());
+            return false;
+        }
     }
 
     public User getAccount(String accountId, HttpHeaders httpHeaders)
@@ -379,15 +385,18 @@ public class PreserveOtherServiceImpl implements PreserveOtherService
     {
         PreserveOtherServiceImpl.LOGGER.info("[Preserve Service][Add Assurance Type For Order]");
         HttpEntity requestAddAssuranceResult = new HttpEntity(httpHeaders);
-        ResponseEntity<Response<Assurance>> reAddAssuranceResult = restTemplate.exchange(
-                "http://"+ tsAssuranceServiceUrl + ":" + tsAssuranceServicePort + "/api/v1/assuranceservice/assurances/" + assuranceType + "/" + orderId,
-            HttpMethod.GET,
-            requestAddAssuranceResult,
-            new ParameterizedTypeReference<Response<Assurance>>()
-            {
-            });
-
-        return reAddAssuranceResult.getBody();
+        try {
+            ResponseEntity<Response<Assurance>> reAddAssuranceResult = restTemplate.exchange(
+                    "http://"+ tsAssuranceServiceUrl + ":" + tsAssuranceServicePort + "/api/v1/assuranceservice/assurances/" + assuranceType + "/" + orderId,
+                HttpMethod.GET,
+                requestAddAssuranceResult,
+                new ParameterizedTypeReference<Response<Assurance>>()
+                {
+                });
+            return reAddAssuranceResult.getBody();
+        } catch (RestClientException e) {
+            return PreserveOtherServiceImpl.optionalStepFailed("Assurance", e);
+        }
     }
 
     private String queryForStationId(String stationName, HttpHeaders httpHeaders)
@@ -472,13 +481,16 @@ public class PreserveOtherServiceImpl implements PreserveOtherService
         PreserveOtherServiceImpl.LOGGER.info("[Preserve Service][Add Preserve food Order] Creating....");
 
         HttpEntity requestEntityAddFoodOrderResult = new HttpEntity(afi, httpHeaders);
-        ResponseEntity<Response> reAddFoodOrderResult = restTemplate.exchange(
-                "http://"+ tsFoodServiceUrl + ":" + tsFoodServicePort + "/api/v1/foodservice/orders",
-            HttpMethod.POST,
-            requestEntityAddFoodOrderResult,
-            Response.class);
-
-        return reAddFoodOrderResult.getBody();
+        try {
+            ResponseEntity<Response> reAddFoodOrderResult = restTemplate.exchange(
+                    "http://"+ tsFoodServiceUrl + ":" + tsFoodServicePort + "/api/v1/foodservice/orders",
+                HttpMethod.POST,
+                requestEntityAddFoodOrderResult,
+                Response.class);
+            return reAddFoodOrderResult.getBody();
+        } catch (RestClientException e) {
+            return PreserveOtherServiceImpl.optionalStepFailed("Food", e);
+        }
     }
 
     private Response createConsign(Consign cr, HttpHeaders httpHeaders)
@@ -486,12 +498,26 @@ public class PreserveOtherServiceImpl implements PreserveOtherService
         PreserveOtherServiceImpl.LOGGER.info("[Preserve Service][Add Condign] Creating Consign...");
 
         HttpEntity requestEntityResultForTravel = new HttpEntity(cr, httpHeaders);
-        ResponseEntity<Response> reResultForTravel = restTemplate.exchange(
-                "http://"+ tsConsignServiceUrl + ":" + tsConsignServicePort + "/api/v1/consignservice/consigns",
-            HttpMethod.POST,
-            requestEntityResultForTravel,
-            Response.class);
+        try {
+            ResponseEntity<Response> reResultForTravel = restTemplate.exchange(
+                    "http://"+ tsConsignServiceUrl + ":" + tsConsignServicePort + "/api/v1/consignservice/consigns",
+                HttpMethod.POST,
+                requestEntityResultForTravel,
+                Response.class);
+            return reResultForTravel.getBody();
+        } catch (RestClientException e) {
+            return PreserveOtherServiceImpl.optionalStepFailed("Consign", e);
+        }
+    }
 
-        return reResultForTravel.getBody();
+    /**
+     * Assurance, food and consign are extras of a booking that is already ordered, when their
+     * service is down or rejected the call the booking succeeds without them
+     */
+    private static <T> Response<T> optionalStepFailed(String step, RestClientException e)
+    {
+        PreserveOtherServiceImpl.LOGGER.warn("[Preserve Other Service][{}] Service unavailable: {}", step,
+            e.getMessage());
+        return new Response<>(0, step + " service unavailable", null);
     }
 }
@@ -25,6 +25,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.UUID;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
@@ -166,10 +167,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -251,10 +252,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"wrongformat\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -289,10 +290,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"wrongFormat\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -336,10 +337,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"wrongFormat\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -445,10 +446,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":" + Integer.MIN_VALUE + ", \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -497,10 +498,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":3, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -574,10 +575,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2000-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -643,10 +644,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2024-01-01\", \"from\":\"1\", \"to\":\"1\", \"assurance\":1, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -743,10 +744,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":"+ Integer.MIN_VALUE + ", \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -846,10 +847,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":0, \"foodType\":" + Integer.MIN_VALUE + ", \"stationName\":\"1\", \"storeName\":\"1\", \"foodName\":\"1\", \"foodPrice\":-3.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -946,10 +947,10 @@ public class PostPreserveOtherTest {
         //Actual request to the endpoint we want to test
         String requestJson = "{\"accountId\":\"" + id + "\", \"contactsId\":\"" + id + "\", \"tripId\":\"" + id + "\", \"seatType\":2, \"date\":\"2025-01-01\", \"from\":\"stationA\", \"to\":\"stationA\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"noDate\", \"consigneeName\":\"()42397)\", \"consigneePhone\":\"noNumber\", \"consigneeWeight\":-147.14, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
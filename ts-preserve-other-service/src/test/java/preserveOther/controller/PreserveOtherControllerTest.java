@@ -2,6 +2,8 @@ package preserveOther.controller;
 
 import com.alibaba.fastjson.JSONObject;
 
+import edu.fudan.common.admission.WaitingRoom;
+import edu.fudan.common.async.AsyncEndpoints;
 import edu.fudan.common.util.Response;
 
 import org.junit.Assert;
@@ -15,6 +17,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.*;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -22,6 +25,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import preserveOther.entity.OrderTicketsInfo;
 import preserveOther.service.PreserveOtherService;
 
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 @RunWith(JUnit4.class)
 public class PreserveOtherControllerTest
 {
@@ -31,6 +38,12 @@ public class PreserveOtherControllerTest
     @Mock
     private PreserveOtherService preserveService;
 
+    @Mock
+    private AsyncEndpoints asyncEndpoints;
+
+    @Mock
+    private WaitingRoom waitingRoom;
+
     private MockMvc mockMvc;
 
     private Response response = new Response();
@@ -39,6 +52,9 @@ public class PreserveOtherControllerTest
     public void setUp()
     {
         MockitoAnnotations.initMocks(this);
+        Mockito.when(asyncEndpoints.supply(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+            .thenAnswer(
+                invocation -> CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(1).get()));
         mockMvc = MockMvcBuilders.standaloneSetup(preserveOtherController).build();
     }
 
@@ -57,10 +73,38 @@ public class PreserveOtherControllerTest
         Mockito.when(preserveService.preserve(Mockito.any(OrderTicketsInfo.class), Mockito.any(HttpHeaders.class)))
             .thenReturn(response);
         String requestJson = JSONObject.toJSONString(oti);
-        String result = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/preserveotherservice/preserveOther")
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/preserveotherservice/preserveOther")
                 .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        String result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn().getResponse().getContentAsString();
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
     }
+
+    @Test
+    public void testPreserveSoldOut() throws Exception
+    {
+        OrderTicketsInfo oti = new OrderTicketsInfo();
+        oti.setTripId("Z1234");
+        oti.setSeatType(2);
+        oti.setDate(new Date());
+        oti.setFrom("shanghai");
+        oti.setTo("nanjing");
+        Mockito.when(preserveService.preserve(Mockito.any(OrderTicketsInfo.class), Mockito.any(HttpHeaders.class)))
+            .thenReturn(new Response<>(0, "Check Seat Not Enough", null));
+        Mockito.when(waitingRoom.enter(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any(),
+                Mockito.any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+        String requestJson = JSONObject.toJSONString(oti);
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/preserveotherservice/preserveOther")
+                .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+        String key = WaitingRoom.key("Z1234", oti.getDate());
+        Mockito.verify(waitingRoom).soldOut(key, WaitingRoom.inventory(key, 2, "shanghai", "nanjing"));
+    }
 }
@@ -21,6 +21,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -396,11 +397,11 @@ public class PostPreserveOtherTest {
         mockNotificationService();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -425,11 +426,11 @@ public class PostPreserveOtherTest {
     void bodyVarAccountIdInvalidFormatTest() throws Exception{
         String requestJson = "{\"accountId\":\"wrong\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -447,11 +448,11 @@ public class PostPreserveOtherTest {
         mockNotificationService();
         String requestJson = "{\"accountId\":\"4d2a46c7-0000-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -468,11 +469,11 @@ public class PostPreserveOtherTest {
     void bodyVarContactsIdInvalidFormatTest() throws Exception{
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90000\", \"contactsId\":\"wrong\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -490,11 +491,11 @@ public class PostPreserveOtherTest {
     void bodyVarContactsIdNonExisting() throws Exception{
         String requestJson = "{\"accountId\":\"4d2a46c7-0000-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-0000-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -513,11 +514,11 @@ public class PostPreserveOtherTest {
     void bodyVarTripIdWrongFormatTest() throws Exception{
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"wrong\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -535,11 +536,11 @@ public class PostPreserveOtherTest {
         mockNotificationService();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d00000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":" + Integer.MIN_VALUE + ", \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -559,11 +560,11 @@ public class PostPreserveOtherTest {
     void bodyVarSeatTypeValidValueTooFewSeats() throws Exception {
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90001\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K8134\", \"seatType\":3, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -582,11 +583,11 @@ public class PostPreserveOtherTest {
     void bodyVarDateInValidTestDate() throws Exception {
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2000-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -605,11 +606,11 @@ public class PostPreserveOtherTest {
     void bodyVarFromToInvalidName() throws Exception {
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"no\", \"to\":\"no\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -628,11 +629,11 @@ public class PostPreserveOtherTest {
         mockNotificationService();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406000000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":100, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -652,11 +653,11 @@ public class PostPreserveOtherTest {
     void defectNoRoute() throws Exception {
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d90000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Jia Xing Nan\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -677,11 +678,11 @@ public class PostPreserveOtherTest {
 
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68400000000\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -699,11 +700,11 @@ public class PostPreserveOtherTest {
     void defectCreateOrderFail() throws Exception {
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da6f\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -713,8 +714,8 @@ public class PostPreserveOtherTest {
 
     /*
      * The response of the request to the notificationService is never checked even if it fails. Here we test the defect
-     * case, where notificationService is unavailable, which leads to the request to this service not being processed
-     * and results in an exception and null response. Any service we do not test this defect for below
+     * case, where notificationService is unavailable. The booking is done by then, so it still succeeds without the mail.
+     * Any service we do not test this defect for below
      * is used in another request chain before, which means that if the service is unavailable, we do not even reach that point,
      * where this endpoint sends a request to it directly.
      */
@@ -723,22 +724,22 @@ public class PostPreserveOtherTest {
     void defectTestUnavailableNotificationService() throws Exception {
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da64\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
-        assertEquals(new Response<>(null, null, null), JSONObject.parseObject(result, Response.class));
+        assertEquals(new Response<>(1, "Success.", "Success"), JSONObject.parseObject(result, Response.class));
 
     }
 
     /*
      * ConsignService never returns a response with status code 0, so we can't reach the case, where the consign fails. Here
-     * we test the defect case, where consignService or consignPriceService are unavailable, which leads to the request
-     * to these services not being processed and results in an exception and null response.
+     * we test the defect case, where consignService or consignPriceService are unavailable. The consign is an extra of the
+     * booking, so the booking succeeds and reports the failed consign.
      */
     @Test
     @org.junit.jupiter.api.Order(16)
@@ -747,21 +748,20 @@ public class PostPreserveOtherTest {
         consignPriceServiceContainer.stop();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da63\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"name\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
-        assertEquals(new Response<>(null, null, null), JSONObject.parseObject(result, Response.class));
+        assertEquals(new Response<>(1, "Consign Fail.", "Success"), JSONObject.parseObject(result, Response.class));
 
     }
 
     /*
-     * Here we test the defect case, where foodService is unavailable, which leads to the request to this service not being processed
-     * and results in an exception and null response.
+     * Here we test the defect case, where foodService is unavailable. The booking succeeds and reports the failed food order.
      */
     @Test
     @org.junit.jupiter.api.Order(17)
@@ -769,21 +769,20 @@ public class PostPreserveOtherTest {
         foodServiceContainer.stop();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da62\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":2, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
-        assertEquals(new Response<>(null, null, null), JSONObject.parseObject(result, Response.class));
+        assertEquals(new Response<>(1, "Success.But Buy Food Fail.", "Success"), JSONObject.parseObject(result, Response.class));
 
     }
 
     /*
-     * Here we test the defect case, where assuranceService is unavailable, which leads to the request to this service not being processed
-     * and results in an exception and null response.
+     * Here we test the defect case, where assuranceService is unavailable. The booking succeeds and reports the failed assurance.
      */
     @Test
     @org.junit.jupiter.api.Order(18)
@@ -791,15 +790,15 @@ public class PostPreserveOtherTest {
         assuranceServiceContainer.stop();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da61\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":1, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
-        assertEquals(new Response<>(null, null, null), JSONObject.parseObject(result, Response.class));
+        assertEquals(new Response<>(1, "Success.But Buy Assurance Fail.", "Success"), JSONObject.parseObject(result, Response.class));
 
     }
 
@@ -813,11 +812,11 @@ public class PostPreserveOtherTest {
         travel2ServiceContainer.stop();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da61\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -835,11 +834,11 @@ public class PostPreserveOtherTest {
         contactsServiceContainer.stop();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da61\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -859,11 +858,11 @@ public class PostPreserveOtherTest {
         orderOtherServiceContainer.stop();
         String requestJson = "{\"accountId\":\"4d2a46c7-71cb-4cf1-b5bb-b68406d9da61\", \"contactsId\":\"4d2a46c7-71cb-4cf1-a5bb-b68406d9da61\", \"tripId\":\"K1432\", \"seatType\":2, \"date\":\"2026-01-01\", \"from\":\"Nan Jing\", \"to\":\"Shang Hai\", \"assurance\":0, \"foodType\":0, \"stationName\":\"station\", \"storeName\":\"store\", \"foodName\":\"food\", \"foodPrice\":5.99, \"handleDate\":\"date\", \"consigneeName\":\"\", \"consigneePhone\":\"911\", \"consigneeWeight\":75.82, \"isWithin\":true}";
 
-        String result = mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/preserveotherservice/preserveOther")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
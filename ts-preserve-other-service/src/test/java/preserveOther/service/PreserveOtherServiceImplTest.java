@@ -13,6 +13,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import preserveOther.entity.*;
@@ -181,6 +182,20 @@ public class PreserveOtherServiceImplTest
         Assert.assertTrue(result);
     }
 
+    @Test
+    public void testSendEmailUnavailable()
+    {
+        NotifyInfo notifyInfo = new NotifyInfo();
+        HttpEntity requestEntitySendEmail = new HttpEntity<>(notifyInfo, headers);
+        Mockito.when(restTemplate.exchange(
+            "http://ts-notification-service:17853/api/v1/notifyservice/notification/preserve_success",
+            HttpMethod.POST,
+            requestEntitySendEmail,
+            Boolean.class)).thenThrow(new ResourceAccessException("Connection refused"));
+        boolean result = preserveOtherServiceImpl.sendEmail(notifyInfo, headers);
+        Assert.assertFalse(result);
+    }
+
     @Test
     public void testGetAccount()
     {
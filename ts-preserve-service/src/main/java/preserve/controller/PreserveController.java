@@ -1,8 +1,10 @@
 package preserve.controller;
 
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
-
+import edu.fudan.common.admission.WaitingPosition;
+import edu.fudan.common.admission.WaitingRoom;
+import edu.fudan.common.async.AsyncEndpoints;
+import edu.fudan.common.idempotency.IdempotencyAspect;
+import edu.fudan.common.idempotency.Idempotent;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -15,6 +17,9 @@ import org.springframework.web.bind.annotation.*;
 import preserve.entity.*;
 import preserve.service.PreserveService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
@@ -26,9 +31,20 @@ public class PreserveController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(PreserveController.class);
 
+    /**
+     * A booking calls up to a dozen services in turn, it is given as long as before
+     */
+    private static final long PRESERVE_TIMEOUT_MILLIS = 300000;
+
     @Autowired
     private PreserveService preserveService;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
+    @Autowired
+    private WaitingRoom waitingRoom;
+
     @GetMapping(path = "/welcome")
     public String home()
     {
@@ -37,19 +53,83 @@ public class PreserveController
 
     @CrossOrigin(origins = "*")
     @PostMapping(value = "/preserve")
-    @HystrixCommand(fallbackMethod = "preserveFallback", commandProperties = {
-        @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-    })
-    public HttpEntity preserve(@RequestBody OrderTicketsInfo oti,
+    @Idempotent
+    public CompletableFuture<HttpEntity> preserve(@RequestBody OrderTicketsInfo oti,
         @RequestHeader HttpHeaders headers)
     {
         PreserveController.LOGGER.info("[Preserve Service][Preserve] Account  order from {} -----> {} at {}",
             oti.getFrom(), oti.getTo(), oti.getDate());
-        return ok(preserveService.preserve(oti, headers));
+        Supplier<CompletableFuture<HttpEntity>> booking = () -> asyncEndpoints.supply(
+            PreserveController.PRESERVE_TIMEOUT_MILLIS,
+            () -> ok(preserveService.preserve(oti, headers)), () -> preserveFallback(oti, headers));
+        if (oti.getTripId() == null || oti.getDate() == null) {
+            return booking.get();
+        }
+        String key = WaitingRoom.key(oti.getTripId(), oti.getDate());
+        String inventory = WaitingRoom.inventory(key, oti.getSeatType(), oti.getFrom(), oti.getTo());
+        CompletableFuture<HttpEntity> admitted = waitingRoom.enter(key, inventory,
+            headers.getFirst(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER), () -> booking.get().thenApply(entity -> {
+                if (PreserveController.isSoldOut(entity)) {
+                    waitingRoom.soldOut(key, inventory);
+                }
+                return entity;
+            }), reason -> ok(new Response<>(0, reason, null)));
+        return AsyncEndpoints.cancelWhenAbandoned(admitted);
+    }
+
+    @CrossOrigin(origins = "*")
+    @PostMapping(value = "/preserve/group")
+    @Idempotent
+    public CompletableFuture<HttpEntity> preserveGroup(@RequestBody GroupOrderTicketsInfo goti,
+        @RequestHeader HttpHeaders headers)
+    {
+        PreserveController.LOGGER.info("[Preserve Service][Preserve Group] Account order from {} -----> {} at {}",
+            goti.getFrom(), goti.getTo(), goti.getDate());
+        Supplier<CompletableFuture<HttpEntity>> booking = () -> asyncEndpoints.supply(
+            PreserveController.PRESERVE_TIMEOUT_MILLIS,
+            () -> ok(preserveService.preserveGroup(goti, headers)), () -> preserveGroupFallback(goti, headers));
+        if (goti.getTripId() == null || goti.getDate() == null) {
+            return booking.get();
+        }
+        //A group that does not fit does not mean the train is sold out, only single bookings tell
+        String key = WaitingRoom.key(goti.getTripId(), goti.getDate());
+        String inventory = WaitingRoom.inventory(key, goti.getSeatType(), goti.getFrom(), goti.getTo());
+        CompletableFuture<HttpEntity> admitted = waitingRoom.enter(key, inventory,
+            headers.getFirst(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER), booking,
+            reason -> ok(new Response<>(0, reason, null)));
+        return AsyncEndpoints.cancelWhenAbandoned(admitted);
+    }
+
+    /**
+     * Position and estimated wait of a booking sent with the Idempotency-Key header, while it
+     * waits to be admitted
+     */
+    @CrossOrigin(origins = "*")
+    @GetMapping(value = "/waitingroom/{ticket}")
+    public HttpEntity getWaitingPosition(@PathVariable String ticket, @RequestHeader HttpHeaders headers)
+    {
+        WaitingPosition position = waitingRoom.position(ticket);
+        if (position == null) {
+            return ok(new Response<>(0, "Not waiting", null));
+        }
+        return ok(new Response<>(1, "Waiting", position));
+    }
+
+    private HttpEntity preserveGroupFallback(@RequestBody GroupOrderTicketsInfo goti,
+        @RequestHeader HttpHeaders headers)
+    {
+        return ok(new Response<>());
     }
 
     private HttpEntity preserveFallback(@RequestBody OrderTicketsInfo oti, @RequestHeader HttpHeaders headers)
     {
         return ok(new Response<>());
     }
+
+    private static boolean isSoldOut(HttpEntity entity)
+    {
+        Object body = entity.getBody();
+        return body instanceof Response && Integer.valueOf(0).equals(((Response) body).getStatus())
+            && WaitingRoom.SOLD_OUT.equals(((Response) body).getMsg());
+    }
 }
@@ -0,0 +1,40 @@
+package preserve.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Booking request for several contacts travelling together on one trip
+ *
+ * @author fdse
+ */
+@Data
+@AllArgsConstructor
+@Builder
+public class GroupOrderTicketsInfo
+{
+    private String accountId;
+
+    private List<String> contactsIds;
+
+    private String tripId;
+
+    private int seatType;
+
+    private Date date;
+
+    private String from;
+
+    private String to;
+
+    private int assurance;
+
+    public GroupOrderTicketsInfo()
+    {
+        //Default Constructor
+    }
+}
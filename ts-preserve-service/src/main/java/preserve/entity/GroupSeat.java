@@ -0,0 +1,31 @@
+package preserve.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * @author fdse
+ */
+@Data
+@AllArgsConstructor
+public class GroupSeat
+{
+    private Date travelDate;
+
+    private String trainNumber;
+
+    private String startStation;
+
+    private String destStation;
+
+    private int seatType;
+
+    private int seatCount;
+
+    public GroupSeat()
+    {
+        //Default Constructor
+    }
+}
@@ -4,6 +4,7 @@ import edu.fudan.common.util.Response;
 
 import org.springframework.http.HttpHeaders;
 
+import preserve.entity.GroupOrderTicketsInfo;
 import preserve.entity.OrderTicketsInfo;
 
 /**
@@ -12,4 +13,6 @@ import preserve.entity.OrderTicketsInfo;
 public interface PreserveService
 {
     Response preserve(OrderTicketsInfo oti, HttpHeaders headers);
+
+    Response preserveGroup(GroupOrderTicketsInfo goti, HttpHeaders headers);
 }
@@ -1,5 +1,6 @@
 package preserve.service;
 
+import edu.fudan.common.logging.LogPayloads;
 import edu.fudan.common.util.Response;
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,11 +14,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import preserve.entity.*;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -138,14 +142,14 @@ public class PreserveServiceImpl implements PreserveService
         PreserveServiceImpl.LOGGER.info("[Preserve Service] [Step 3] TripId: {}", oti.getTripId());
         Response<TripAllDetail> response = getTripAllDetailInformation(gtdi, headers);
         TripAllDetail gtdr = response.getData();
-        log.info("TripAllDetail:" + gtdr.toString());
+        log.info("TripAllDetail: {}", LogPayloads.summary(gtdr));
         if (response.getStatus() == 0) {
             PreserveServiceImpl.LOGGER.info("[Preserve Service][Search For Trip Detail Information] {}",
                 response.getMsg());
             return new Response<>(0, response.getMsg(), null);
         } else {
             TripResponse tripResponse = gtdr.getTripResponse();
-            log.info("TripResponse:" + tripResponse.toString());
+            log.info("TripResponse: {}", LogPayloads.summary(tripResponse));
             if (oti.getSeatType() == SeatClass.FIRSTCLASS.getCode()) {
                 if (tripResponse.getConfortClass() == 0) {
                     PreserveServiceImpl.LOGGER.info("[Preserve Service][Check seat is enough] ");
@@ -287,7 +291,7 @@ public class PreserveServiceImpl implements PreserveService
             consignRequest.setPhone(oti.getConsigneePhone());
             consignRequest.setWeight(oti.getConsigneeWeight());
             consignRequest.setWithin(oti.isWithin());
-            log.info("CONSIGN INFO : " + consignRequest.toString());
+            log.info("CONSIGN INFO : {}", LogPayloads.summary(consignRequest));
             Response icresult = createConsign(consignRequest, headers);
             if (icresult.getStatus() == 1) {
                 PreserveServiceImpl.LOGGER.info("[Preserve Service][Step 7] Consign Success");
@@ -322,6 +326,180 @@ public class PreserveServiceImpl implements PreserveService
         return returnResponse;
     }
 
+    @Override
+    public Response preserveGroup(GroupOrderTicketsInfo goti, HttpHeaders headers)
+    {
+        List<String> contactsIds = goti.getContactsIds();
+        if (contactsIds == null || contactsIds.isEmpty()) {
+            return new Response<>(0, "No Contacts", null);
+        }
+        int groupSize = contactsIds.size();
+
+        //1.detect ticket scalper, once for the whole group
+        PreserveServiceImpl.LOGGER.info("[Preserve Service][Group] [Step 1] Check Security");
+        Response result = checkSecurity(goti.getAccountId(), headers);
+        if (result.getStatus() == 0) {
+            return new Response<>(0, result.getMsg(), null);
+        }
+
+        //2.Querying contact information of every passenger
+        PreserveServiceImpl.LOGGER.info("[Preserve Service][Group] [Step 2] Find {} contacts", groupSize);
+        List<Contacts> contactsList = new ArrayList<>(groupSize);
+        for (String contactsId : contactsIds) {
+            Response<Contacts> gcr = getContactsById(contactsId, headers);
+            if (gcr.getStatus() == 0) {
+                PreserveServiceImpl.LOGGER.info("[Preserve Service][Group][Get Contacts] Fail. {}", gcr.getMsg());
+                return new Response<>(0, gcr.getMsg(), null);
+            }
+            contactsList.add(gcr.getData());
+        }
+
+        //3.Check the info of train and the number of remaining tickets
+        PreserveServiceImpl.LOGGER.info("[Preserve Service][Group] [Step 3] Check tickets num");
+        TripAllDetailInfo gtdi = new TripAllDetailInfo();
+        gtdi.setFrom(goti.getFrom());
+        gtdi.setTo(goti.getTo());
+        gtdi.setTravelDate(goti.getDate());
+        gtdi.setTripId(goti.getTripId());
+        Response<TripAllDetail> response = getTripAllDetailInformation(gtdi, headers);
+        if (response.getStatus() == 0) {
+            PreserveServiceImpl.LOGGER.info("[Preserve Service][Group][Search For Trip Detail Information] {}",
+                response.getMsg());
+            return new Response<>(0, response.getMsg(), null);
+        }
+        TripAllDetail gtdr = response.getData();
+        TripResponse tripResponse = gtdr.getTripResponse();
+        int seatsLeft = goti.getSeatType() == SeatClass.FIRSTCLASS.getCode()
+            ? tripResponse.getConfortClass() : tripResponse.getEconomyClass();
+        if (seatsLeft < groupSize) {
+            PreserveServiceImpl.LOGGER.info("[Preserve Service][Group][Check seat is enough] Left: {}", seatsLeft);
+            return new Response<>(0, "Seat Not Enough", null);
+        }
+
+        //4.Price the trip and dispatch all seats in one allocation
+        PreserveServiceImpl.LOGGER.info("[Preserve Service][Group] [Step 4] Do Order");
+        String fromStationId = queryForStationId(goti.getFrom(), headers);
+        String toStationId = queryForStationId(goti.getTo(), headers);
+
+        Travel query = new Travel();
+        query.setTrip(gtdr.getTrip());
+        query.setStartingPlace(goti.getFrom());
+        query.setEndPlace(goti.getTo());
+        query.setDepartureTime(new Date());
+        HttpEntity requestEntity = new HttpEntity(query, headers);
+        ResponseEntity<Response<TravelResult>> re = restTemplate.exchange(
+                "http://"+ tsTicketinfoServiceUrl + ":" + tsTicketinfoServicePort + "/api/v1/ticketinfoservice/ticketinfo",
+            HttpMethod.POST,
+            requestEntity,
+            new ParameterizedTypeReference<Response<TravelResult>>()
+            {
+            });
+        TravelResult resultForTravel = re.getBody().getData();
+
+        int seatClass;
+        String price;
+        if (goti.getSeatType() == SeatClass.FIRSTCLASS.getCode()) {
+            seatClass = SeatClass.FIRSTCLASS.getCode();
+            price = resultForTravel.getPrices().get("confortClass");
+        } else {
+            seatClass = SeatClass.SECONDCLASS.getCode();
+            price = resultForTravel.getPrices().get("economyClass");
+        }
+
+        Response<List<Ticket>> seatResult = dispatchGroupSeat(goti.getDate(), goti.getTripId(), fromStationId,
+            toStationId, seatClass, groupSize, headers);
+        if (seatResult.getStatus() == 0) {
+            PreserveServiceImpl.LOGGER.info("[Preserve Service][Group][Dispatch Seat] Fail. {}", seatResult.getMsg());
+            return new Response<>(0, seatResult.getMsg(), null);
+        }
+        List<Ticket> tickets = seatResult.getData();
+
+        Date boughtDate = new Date();
+        List<Order> orders = new ArrayList<>(groupSize);
+        for (int i = 0; i < groupSize; i++) {
+            Contacts contacts = contactsList.get(i);
+            Order order = new Order();
+            order.setId(UUID.randomUUID());
+            order.setTrainNumber(goti.getTripId());
+            order.setAccountId(UUID.fromString(goti.getAccountId()));
+            order.setFrom(fromStationId);
+            order.setTo(toStationId);
+            order.setBoughtDate(boughtDate);
+            order.setStatus(OrderStatus.NOTPAID.getCode());
+            order.setContactsDocumentNumber(contacts.getDocumentNumber());
+            order.setContactsName(contacts.getName());
+            order.setDocumentType(contacts.getDocumentType());
+            order.setTravelDate(goti.getDate());
+            order.setTravelTime(tripResponse.getStartingTime());
+            order.setSeatClass(seatClass);
+            order.setSeatNumber("" + tickets.get(i).getSeatNo());
+            order.setPrice(price);
+            orders.add(order);
+        }
+
+        Response<List<Order>> cor = createOrders(orders, headers);
+        if (cor.getStatus() == 0) {
+            PreserveServiceImpl.LOGGER.info("[Preserve Service][Group][Create Order Fail] Reason: {}", cor.getMsg());
+            return new Response<>(0, cor.getMsg(), null);
+        }
+        List<Order> createdOrders = cor.getData();
+        PreserveServiceImpl.LOGGER.info("[Preserve Service][Group] [Step 4] Do Order Complete");
+
+        Response returnResponse = new Response<>(1, "Success.", createdOrders);
+        //5.Check insurance options, one assurance per passenger
+        if (goti.getAssurance() != 0) {
+            for (Order createdOrder : createdOrders) {
+                Response addAssuranceResult = addAssuranceForOrder(
+                    goti.getAssurance(), createdOrder.getId().toString(), headers);
+                if (addAssuranceResult.getStatus() != 1) {
+                    PreserveServiceImpl.LOGGER.info("[Preserve Service][Group][Step 5] Buy Assurance Fail.");
+                    returnResponse.setMsg("Success.But Buy Assurance Fail.");
+                }
+            }
+        }
+
+        //6.send a single notification for the whole group
+        User getUser = getAccount(goti.getAccountId(), headers);
+        List<String> seatNumbers = new ArrayList<>(groupSize);
+        List<String> orderNumbers = new ArrayList<>(groupSize);
+        for (Order createdOrder : createdOrders) {
+            seatNumbers.add(createdOrder.getSeatNumber());
+            orderNumbers.add(createdOrder.getId().toString());
+        }
+
+        NotifyInfo notifyInfo = new NotifyInfo();
+        notifyInfo.setDate(new Date().toString());
+        notifyInfo.setEmail(getUser.getEmail());
+        notifyInfo.setStartingPlace(fromStationId);
+        notifyInfo.setEndPlace(toStationId);
+        notifyInfo.setUsername(getUser.getUserName());
+        notifyInfo.setSeatNumber(String.join(",", seatNumbers));
+        notifyInfo.setOrderNumber(String.join(",", orderNumbers));
+        notifyInfo.setPrice(price);
+        notifyInfo.setSeatClass(SeatClass.getNameByCode(seatClass));
+        notifyInfo.setStartingTime(tripResponse.getStartingTime().toString());
+        sendEmail(notifyInfo, headers);
+
+        return returnResponse;
+    }
+
+    public Response<List<Ticket>> dispatchGroupSeat(Date date, String tripId, String startStationId,
+        String endStationId, int seatType, int seatCount, HttpHeaders httpHeaders)
+    {
+        GroupSeat seatRequest = new GroupSeat(date, tripId, startStationId, endStationId, seatType, seatCount);
+
+        HttpEntity requestEntityTicket = new HttpEntity(seatRequest, httpHeaders);
+        ResponseEntity<Response<List<Ticket>>> reTicket = restTemplate.exchange(
+                "http://"+ tsSeatServiceUrl + ":" + tsSeatServicePort + "/api/v1/seatservice/seats/group",
+            HttpMethod.POST,
+            requestEntityTicket,
+            new ParameterizedTypeReference<Response<List<Ticket>>>()
+            {
+            });
+
+        return reTicket.getBody();
+    }
+
     public Ticket dipatchSeat(Date date, String tripId, String startStationId, String endStataionId, int seatType,
         HttpHeaders httpHeaders)
     {
@@ -348,13 +526,18 @@ public class PreserveServiceImpl implements PreserveService
     {
         PreserveServiceImpl.LOGGER.info("[Preserve Service][Send Email]");
         HttpEntity requestEntitySendEmail = new HttpEntity(notifyInfo, httpHeaders);
-        ResponseEntity<Boolean> reSendEmail = restTemplate.exchange(
-                "http://"+ tsNotificationServiceUrl + ":" + tsNotificationServicePort + "/api/v1/notifyservice/notification/preserve_success",
-            HttpMethod.POST,
-            requestEntitySendEmail,
-            Boolean.class);
-
-        return reSendEmail.getBody();
+        try {
+            ResponseEntity<Boolean> reSendEmail = restTemplate.exchange(
+                    "http://"+ tsNotificationServiceUrl + ":" + tsNotificationServicePort + "/api/v1/notifyservice/notification/preserve_success",
+                HttpMethod.POST,
+                requestEntitySendEmail,
+                Boolean.class);
+            return reSendEmail.getBody();
+        } catch (RestClientException e) {
+            //The booking is done, it does not wait for the mail
+            PreserveServiceImpl.LOGGER.warn("[Preserve Service][Send Email] Skipped: {}", e.getMessage());
+            return false;
+        }
     }
 
     public User getAccount(String accountId, HttpHeaders httpHeaders)
@@ -377,13 +560,16 @@ public class PreserveServiceImpl implements PreserveService
     {
         PreserveServiceImpl.LOGGER.info("[Preserve Service][Add Assurance For Order]");
         HttpEntity requestAddAssuranceResult = new HttpEntity(httpHeaders);
-        ResponseEntity<Response> reAddAssuranceResult = restTemplate.exchange(
-                "http://"+ tsAssuranceServiceUrl + ":" + tsAssuranceServicePort + "/api/v1/assuranceservice/assurances/" + assuranceType + "/" + orderId,
-            HttpMethod.GET,
-            requestAddAssuranceResult,
-            Response.class);
-
-        return reAddAssuranceResult.getBody();
+        try {
+            ResponseEntity<Response> reAddAssuranceResult = restTemplate.exchange(
+                    "http://"+ tsAssuranceServiceUrl + ":" + tsAssuranceServicePort + "/api/v1/assuranceservice/assurances/" + assuranceType + "/" + orderId,
+                HttpMethod.GET,
+                requestAddAssuranceResult,
+                Response.class);
+            return reAddAssuranceResult.getBody();
+        } catch (RestClientException e) {
+            return PreserveServiceImpl.optionalStepFailed("Assurance", e);
+        }
     }
 
     private String queryForStationId(String stationName, HttpHeaders httpHeaders)
@@ -464,18 +650,37 @@ public class PreserveServiceImpl implements PreserveService
         return reCreateOrderResult.getBody();
     }
 
+    private Response<List<Order>> createOrders(List<Order> orders, HttpHeaders httpHeaders)
+    {
+        PreserveServiceImpl.LOGGER.info("[Preserve Service][Create Batch Order] Creating....");
+
+        HttpEntity requestEntityCreateOrderResult = new HttpEntity(orders, httpHeaders);
+        ResponseEntity<Response<List<Order>>> reCreateOrderResult = restTemplate.exchange(
+                "http://"+ tsOrderServiceUrl + ":" + tsOrderServicePort + "/api/v1/orderservice/order/batch",
+            HttpMethod.POST,
+            requestEntityCreateOrderResult,
+            new ParameterizedTypeReference<Response<List<Order>>>()
+            {
+            });
+
+        return reCreateOrderResult.getBody();
+    }
+
     private Response createFoodOrder(FoodOrder afi, HttpHeaders httpHeaders)
     {
         PreserveServiceImpl.LOGGER.info("[Preserve Service][Add food Order] Creating....");
 
         HttpEntity requestEntityAddFoodOrderResult = new HttpEntity(afi, httpHeaders);
-        ResponseEntity<Response> reAddFoodOrderResult = restTemplate.exchange(
-                "http://"+ tsFoodServiceUrl + ":" + tsFoodServicePort + "/api/v1/foodservice/orders",
-            HttpMethod.POST,
-            requestEntityAddFoodOrderResult,
-            Response.class);
-
-        return reAddFoodOrderResult.getBody();
+        try {
+            ResponseEntity<Response> reAddFoodOrderResult = restTemplate.exchange(
+                    "http://"+ tsFoodServiceUrl + ":" + tsFoodServicePort + "/api/v1/foodservice/orders",
+                HttpMethod.POST,
+                requestEntityAddFoodOrderResult,
+                Response.class);
+            return reAddFoodOrderResult.getBody();
+        } catch (RestClientException e) {
+            return PreserveServiceImpl.optionalStepFailed("Food", e);
+        }
     }
 
     private Response createConsign(Consign cr, HttpHeaders httpHeaders)
@@ -483,11 +688,25 @@ public class PreserveServiceImpl implements PreserveService
         PreserveServiceImpl.LOGGER.info("[Preserve Service][Add Condign] Creating....");
 
         HttpEntity requestEntityResultForTravel = new HttpEntity(cr, httpHeaders);
-        ResponseEntity<Response> reResultForTravel = restTemplate.exchange(
-            "http://"+ tsConsignServiceUrl + ":" + tsConsignServicePort + "/api/v1/consignservice/consigns",
-            HttpMethod.POST,
-            requestEntityResultForTravel,
-            Response.class);
-        return reResultForTravel.getBody();
+        try {
+            ResponseEntity<Response> reResultForTravel = restTemplate.exchange(
+                "http://"+ tsConsignServiceUrl + ":" + tsConsignServicePort + "/api/v1/consignservice/consigns",
+                HttpMethod.POST,
+                requestEntityResultForTravel,
+                Response.class);
+            return reResultForTravel.getBody();
+        } catch (RestClientException e) {
+            return PreserveServiceImpl.optionalStepFailed("Consign", e);
+        }
+    }
+
+    /**
+     * Assurance, food and consign are extras of a booking that is already ordered, when their
+     * service is down or rejected the call the booking succeeds without them
+     */
+    private static Response optionalStepFailed(String step, RestClientException e)
+    {
+        PreserveServiceImpl.LOGGER.warn("[Preserve Service][{}] Service unavailable: {}", step, e.getMessage());
+        return new Response<>(0, step + " service unavailable", null);
     }
 }
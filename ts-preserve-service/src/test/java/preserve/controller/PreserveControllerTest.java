@@ -2,6 +2,9 @@ package preserve.controller;
 
 import com.alibaba.fastjson.JSONObject;
 
+import edu.fudan.common.admission.WaitingPosition;
+import edu.fudan.common.admission.WaitingRoom;
+import edu.fudan.common.async.AsyncEndpoints;
 import edu.fudan.common.util.Response;
 
 import org.junit.Assert;
@@ -15,13 +18,19 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.*;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import preserve.entity.GroupOrderTicketsInfo;
 import preserve.entity.OrderTicketsInfo;
 import preserve.service.PreserveService;
 
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 @RunWith(JUnit4.class)
 public class PreserveControllerTest
 {
@@ -31,6 +40,12 @@ public class PreserveControllerTest
     @Mock
     private PreserveService preserveService;
 
+    @Mock
+    private AsyncEndpoints asyncEndpoints;
+
+    @Mock
+    private WaitingRoom waitingRoom;
+
     private MockMvc mockMvc;
 
     private Response response = new Response();
@@ -39,6 +54,9 @@ public class PreserveControllerTest
     public void setUp()
     {
         MockitoAnnotations.initMocks(this);
+        Mockito.when(asyncEndpoints.supply(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+            .thenAnswer(
+                invocation -> CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(1).get()));
         mockMvc = MockMvcBuilders.standaloneSetup(preserveController).build();
     }
 
@@ -57,11 +75,81 @@ public class PreserveControllerTest
         Mockito.when(preserveService.preserve(Mockito.any(OrderTicketsInfo.class), Mockito.any(HttpHeaders.class)))
             .thenReturn(response);
         String requestJson = JSONObject.toJSONString(oti);
-        String result = mockMvc.perform(
+        MvcResult started = mockMvc.perform(
                 MockMvcRequestBuilders.post("/api/v1/preserveservice/preserve").contentType(MediaType.APPLICATION_JSON)
                     .content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        String result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn().getResponse().getContentAsString();
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
     }
+
+    @Test
+    public void testPreserveGroup() throws Exception
+    {
+        GroupOrderTicketsInfo goti = new GroupOrderTicketsInfo();
+        Mockito.when(preserveService.preserveGroup(Mockito.any(GroupOrderTicketsInfo.class),
+                Mockito.any(HttpHeaders.class)))
+            .thenReturn(response);
+        String requestJson = JSONObject.toJSONString(goti);
+        MvcResult started = mockMvc.perform(
+                MockMvcRequestBuilders.post("/api/v1/preserveservice/preserve/group")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        String result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
+    }
+
+    @Test
+    public void testPreserveSoldOutMarksTheInterval() throws Exception
+    {
+        OrderTicketsInfo oti = new OrderTicketsInfo();
+        oti.setTripId("G1234");
+        oti.setSeatType(2);
+        oti.setDate(new Date());
+        oti.setFrom("shanghai");
+        oti.setTo("nanjing");
+        Mockito.when(preserveService.preserve(Mockito.any(OrderTicketsInfo.class), Mockito.any(HttpHeaders.class)))
+            .thenReturn(new Response<>(0, "Seat Not Enough", null));
+        Mockito.when(waitingRoom.enter(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any(),
+                Mockito.any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+        String requestJson = JSONObject.toJSONString(oti);
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/preserveservice/preserve")
+                .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+        String key = WaitingRoom.key("G1234", oti.getDate());
+        Mockito.verify(waitingRoom).soldOut(key, WaitingRoom.inventory(key, 2, "shanghai", "nanjing"));
+    }
+
+    @Test
+    public void testGetWaitingPosition() throws Exception
+    {
+        Mockito.when(waitingRoom.position("ticket")).thenReturn(new WaitingPosition(3, 1200));
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/preserveservice/waitingroom/ticket"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Response re = JSONObject.parseObject(result, Response.class);
+        Assert.assertEquals(new Integer(1), re.getStatus());
+        Assert.assertEquals(new WaitingPosition(3, 1200),
+            JSONObject.parseObject(re.getData().toString(), WaitingPosition.class));
+    }
+
+    @Test
+    public void testGetWaitingPositionNotWaiting() throws Exception
+    {
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/preserveservice/waitingroom/ticket"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals(new Response<>(0, "Not waiting", null), JSONObject.parseObject(result, Response.class));
+    }
 }
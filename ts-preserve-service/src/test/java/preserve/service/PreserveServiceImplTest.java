@@ -17,6 +17,8 @@ import org.springframework.web.client.RestTemplate;
 
 import preserve.entity.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.UUID;
@@ -142,6 +144,42 @@ public class PreserveServiceImplTest
         Assert.assertEquals(new Response<>(1, "Success.", null), result);
     }
 
+    @Test
+    public void testPreserveGroup1()
+    {
+        GroupOrderTicketsInfo goti = GroupOrderTicketsInfo.builder()
+            .accountId(UUID.randomUUID().toString())
+            .contactsIds(new ArrayList<>())
+            .build();
+        Response result = preserveServiceImpl.preserveGroup(goti, headers);
+        Assert.assertEquals(new Response<>(0, "No Contacts", null), result);
+    }
+
+    @Test
+    public void testPreserveGroup2()
+    {
+        GroupOrderTicketsInfo goti = GroupOrderTicketsInfo.builder()
+            .accountId(UUID.randomUUID().toString())
+            .contactsIds(Arrays.asList(UUID.randomUUID().toString(), UUID.randomUUID().toString()))
+            .tripId("G1255")
+            .seatType(2)
+            .date(new Date())
+            .build();
+
+        //response for checkSecurity()
+        Response response1 = new Response<>(0, "Too many orders", null);
+        ResponseEntity<Response> re1 = new ResponseEntity<>(response1, HttpStatus.OK);
+        Mockito.when(restTemplate.exchange(
+                Mockito.anyString(),
+                Mockito.any(HttpMethod.class),
+                Mockito.any(HttpEntity.class),
+                Mockito.any(Class.class)))
+            .thenReturn(re1);
+
+        Response result = preserveServiceImpl.preserveGroup(goti, headers);
+        Assert.assertEquals(new Response<>(0, "Too many orders", null), result);
+    }
+
     @Test
     public void testDipatchSeat()
     {
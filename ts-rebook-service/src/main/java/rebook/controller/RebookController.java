@@ -4,6 +4,8 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
+import edu.fudan.common.idempotency.Idempotent;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -25,7 +27,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/rebookservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class RebookController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(RebookController.class);
@@ -40,6 +42,7 @@ public class RebookController
     }
 
     @PostMapping(value = "/rebook/difference")
+    @Idempotent
     @HystrixCommand
     public HttpEntity payDifference(@RequestBody RebookInfo info,
         @RequestHeader HttpHeaders headers)
@@ -48,6 +51,7 @@ public class RebookController
     }
 
     @PostMapping(value = "/rebook")
+    @Idempotent
     @HystrixCommand
     public HttpEntity rebook(@RequestBody RebookInfo info, @RequestHeader HttpHeaders headers)
     {
@@ -1,5 +1,7 @@
 package rebook.service;
 
+import edu.fudan.common.util.Amount;
+import edu.fudan.common.util.OrderIdLocator;
 import edu.fudan.common.util.Response;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +17,6 @@ import org.springframework.web.client.RestTemplate;
 import rebook.entity.*;
 import rebook.entity.RebookInfo;
 
-import java.math.BigDecimal;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -139,12 +140,11 @@ public class RebookServiceImpl implements RebookService
         } else if (info.getSeatType() == SeatClass.SECONDCLASS.getCode()) {
             ticketPrice = ((TripAllDetail) gtdr.getData()).getTripResponse().getPriceForEconomyClass();
         }
-        String oldPrice = order.getPrice();
-        BigDecimal priceOld = new BigDecimal(oldPrice);
-        BigDecimal priceNew = new BigDecimal(ticketPrice);
+        Amount priceOld = Amount.parse(order.getPrice());
+        Amount priceNew = Amount.parse(ticketPrice);
         if (priceOld.compareTo(priceNew) > 0) {
             //Refund the difference
-            String difference = priceOld.subtract(priceNew).toString();
+            String difference = priceOld.minus(priceNew).toString();
             if (!drawBackMoney(info.getLoginId(), difference, httpHeaders)) {
                 return new Response<>(0, "Can't draw back the difference money, please try again!", null);
             }
@@ -154,7 +154,7 @@ public class RebookServiceImpl implements RebookService
             return updateOrder(order, info, (TripAllDetail) gtdr.getData(), ticketPrice, httpHeaders);
         } else {
             //make up the difference
-            String difference = priceNew.subtract(priceOld).toString();
+            String difference = priceNew.minus(priceOld).toString();
             Order orderMoneyDifference = new Order();
             orderMoneyDifference.setDifferenceMoney(difference);
             return new Response<>(2, "Please pay the different money!", orderMoneyDifference);
@@ -187,12 +187,11 @@ public class RebookServiceImpl implements RebookService
         } else if (info.getSeatType() == SeatClass.SECONDCLASS.getCode()) {
             ticketPrice = gtdr.getTripResponse().getPriceForEconomyClass();
         }
-        String oldPrice = order.getPrice();
-        BigDecimal priceOld = new BigDecimal(oldPrice);
-        BigDecimal priceNew = new BigDecimal(ticketPrice);
+        Amount priceOld = Amount.parse(order.getPrice());
+        Amount priceNew = Amount.parse(ticketPrice);
 
         if (payDifferentMoney(info.getOrderId(), info.getTripId(), info.getLoginId(),
-            priceNew.subtract(priceOld).toString(), httpHeaders))
+            priceNew.minus(priceOld).toString(), httpHeaders))
         {
             return updateOrder(order, info, gtdr, ticketPrice, httpHeaders);
         } else {
@@ -392,7 +391,7 @@ public class RebookServiceImpl implements RebookService
         Response<Order> queryOrderResult;
         //Change can only be changed once, check the status of the order to determine whether it has been changed
         String requestUrl = "";
-        if (info.getOldTripId().startsWith("G") || info.getOldTripId().startsWith("D")) {
+        if (OrderIdLocator.ownerOf(info.getOrderId(), info.getOldTripId()) == OrderIdLocator.Owner.ORDER) {
             requestUrl = "http://"+ tsOrderServiceUrl + ":" + tsOrderServicePort + "/api/v1/orderservice/order/" + info.getOrderId();
         } else {
             requestUrl = "http://"+ tsOrderOtherServiceUrl + ":" + tsOrderOtherServicePort + "/api/v1/orderOtherService/orderOther/" + info.getOrderId();
@@ -1,9 +1,6 @@
 package plan.controller;
 
-import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
-
+import edu.fudan.common.async.AsyncEndpoints;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -16,6 +13,8 @@ import org.springframework.web.bind.annotation.*;
 import plan.entity.RoutePlanInfo;
 import plan.service.RoutePlanService;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
@@ -23,16 +22,21 @@ import static org.springframework.http.ResponseEntity.ok;
  */
 @RestController
 @RequestMapping("/api/v1/routeplanservice")
-@DefaultProperties(defaultFallback = "fallback", commandProperties = {
-    @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-})
 public class RoutePlanController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(RoutePlanController.class);
 
+    /**
+     * The searches query every trip between the stations and are answered off the servlet threads
+     */
+    private static final long SEARCH_TIMEOUT_MILLIS = 300000;
+
     @Autowired
     private RoutePlanService routePlanService;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
     @GetMapping(path = "/welcome")
     public String home()
     {
@@ -40,30 +44,33 @@ public class RoutePlanController
     }
 
     @PostMapping(value = "/routePlan/cheapestRoute")
-    @HystrixCommand
-    public HttpEntity getCheapestRoutes(@RequestBody RoutePlanInfo info, @RequestHeader HttpHeaders headers)
+    public CompletableFuture<HttpEntity> getCheapestRoutes(@RequestBody RoutePlanInfo info,
+        @RequestHeader HttpHeaders headers)
     {
         RoutePlanController.LOGGER.info("[Route Plan Service][Get Cheapest Routes] From: {} To: {} Num: {} Date: {}",
             info.getFormStationName(), info.getToStationName(), +info.getNum(), info.getTravelDate());
-        return ok(routePlanService.searchCheapestResult(info, headers));
+        return asyncEndpoints.supply(RoutePlanController.SEARCH_TIMEOUT_MILLIS,
+            () -> ok(routePlanService.searchCheapestResult(info, headers)), this::fallback);
     }
 
     @PostMapping(value = "/routePlan/quickestRoute")
-    @HystrixCommand
-    public HttpEntity getQuickestRoutes(@RequestBody RoutePlanInfo info, @RequestHeader HttpHeaders headers)
+    public CompletableFuture<HttpEntity> getQuickestRoutes(@RequestBody RoutePlanInfo info,
+        @RequestHeader HttpHeaders headers)
     {
         RoutePlanController.LOGGER.info("[Route Plan Service][Get Quickest Routes] From: {} To: {} Num: {} Date: {}",
             info.getFormStationName(), info.getToStationName(), info.getNum(), info.getTravelDate());
-        return ok(routePlanService.searchQuickestResult(info, headers));
+        return asyncEndpoints.supply(RoutePlanController.SEARCH_TIMEOUT_MILLIS,
+            () -> ok(routePlanService.searchQuickestResult(info, headers)), this::fallback);
     }
 
     @PostMapping(value = "/routePlan/minStopStations")
-    @HystrixCommand
-    public HttpEntity getMinStopStations(@RequestBody RoutePlanInfo info, @RequestHeader HttpHeaders headers)
+    public CompletableFuture<HttpEntity> getMinStopStations(@RequestBody RoutePlanInfo info,
+        @RequestHeader HttpHeaders headers)
     {
         RoutePlanController.LOGGER.info("[Route Plan Service][Get Min Stop Stations] From: {} To: {} Num: {} Date: {}",
             info.getFormStationName(), info.getToStationName(), info.getNum(), info.getTravelDate());
-        return ok(routePlanService.searchMinStopStations(info, headers));
+        return asyncEndpoints.supply(RoutePlanController.SEARCH_TIMEOUT_MILLIS,
+            () -> ok(routePlanService.searchMinStopStations(info, headers)), this::fallback);
     }
 
     private HttpEntity fallback()
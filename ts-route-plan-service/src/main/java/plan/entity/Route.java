@@ -23,6 +23,8 @@ public class Route
 
     private String terminalStationId;
 
+    private long version;
+
     public Route()
     {
         //Default Constructor
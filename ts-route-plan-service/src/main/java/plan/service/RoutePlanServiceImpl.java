@@ -1,6 +1,8 @@
 package plan.service;
 
+import edu.fudan.common.util.Amount;
 import edu.fudan.common.util.Response;
+import edu.fudan.common.util.RouteGeometry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,22 +75,22 @@ public class RoutePlanServiceImpl implements RoutePlanService
         finalResult.addAll(highSpeed);
         finalResult.addAll(normalTrain);
 
-        float minPrice;
-        int minIndex = -1;
-        int size = Math.min(5, finalResult.size());
+        long[] prices = new long[finalResult.size()];
+        for (int j = 0; j < prices.length; j++) {
+            prices[j] = Amount.parseMinorUnits(finalResult.get(j).getPriceForEconomyClass());
+        }
+        boolean[] taken = new boolean[prices.length];
+        int size = Math.min(5, prices.length);
         ArrayList<TripResponse> returnResult = new ArrayList<>();
         for (int i = 0; i < size; i++) {
-
-            minPrice = Float.MAX_VALUE;
-            for (int j = 0; j < finalResult.size(); j++) {
-                TripResponse thisRes = finalResult.get(j);
-                if (Float.parseFloat(thisRes.getPriceForEconomyClass()) < minPrice) {
-                    minPrice = Float.parseFloat(finalResult.get(j).getPriceForEconomyClass());
+            int minIndex = -1;
+            for (int j = 0; j < prices.length; j++) {
+                if (!taken[j] && (minIndex < 0 || prices[j] < prices[minIndex])) {
                     minIndex = j;
                 }
             }
+            taken[minIndex] = true;
             returnResult.add(finalResult.get(minIndex));
-            finalResult.remove(minIndex);
         }
 
         ArrayList<RoutePlanResultUnit> units = new ArrayList<>();
@@ -196,9 +198,9 @@ public class RoutePlanServiceImpl implements RoutePlanService
         //2.Calculate how many stops there are between the two stations
         ArrayList<Integer> gapList = new ArrayList<>();
         for (int i = 0; i < routeList.size(); i++) {
-            int indexStart = routeList.get(i).getStations().indexOf(fromStationId);
-            int indexEnd = routeList.get(i).getStations().indexOf(toStationId);
-            gapList.add(indexEnd - indexStart);
+            Route route = routeList.get(i);
+            RouteGeometry geometry = RouteGeometry.of(route.getId(), route.getVersion(), route.getStations(), null);
+            gapList.add(geometry.positionOf(toStationId) - geometry.positionOf(fromStationId));
         }
         //3.Pick the routes with the fewest stops
         ArrayList<String> resultRoutes = new ArrayList<>();
@@ -26,6 +26,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
@@ -118,10 +119,10 @@ public class PostCheapestRouteTest {
         RoutePlanInfo routePlanInfo = new RoutePlanInfo("StationA", "StationB", new Date(), 1);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post("/api/v1/routeplanservice/routePlan/cheapestRoute")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/routeplanservice/routePlan/cheapestRoute")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -166,10 +167,10 @@ public class PostCheapestRouteTest {
         RoutePlanInfo routePlanInfo = new RoutePlanInfo(null, null, date, Integer.MIN_VALUE);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post("/api/v1/routeplanservice/routePlan/cheapestRoute")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/routeplanservice/routePlan/cheapestRoute")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
@@ -150,10 +151,10 @@ public class PostMinStopStationsTest {
         RoutePlanInfo routePlanInfo = new RoutePlanInfo("StationA", "StationB", new Date(), 1);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post("/api/v1/routeplanservice/routePlan/minStopStations")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/routeplanservice/routePlan/minStopStations")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -208,10 +209,10 @@ public class PostMinStopStationsTest {
         RoutePlanInfo routePlanInfo = new RoutePlanInfo("StationA", "StationB", new Date(), 1);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post("/api/v1/routeplanservice/routePlan/minStopStations")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/routeplanservice/routePlan/minStopStations")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -342,10 +343,10 @@ public class PostMinStopStationsTest {
         RoutePlanInfo routePlanInfo = new RoutePlanInfo("StationA", "StationB", null, 1);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post("/api/v1/routeplanservice/routePlan/minStopStations")
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post("/api/v1/routeplanservice/routePlan/minStopStations")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                )
+                ).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -2,6 +2,7 @@ package plan.controller;
 
 import com.alibaba.fastjson.JSONObject;
 
+import edu.fudan.common.async.AsyncEndpoints;
 import edu.fudan.common.util.Response;
 
 import org.junit.Assert;
@@ -16,6 +17,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -23,6 +25,9 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import plan.entity.RoutePlanInfo;
 import plan.service.RoutePlanService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 @RunWith(JUnit4.class)
 public class RoutePlanControllerTest
 {
@@ -32,6 +37,9 @@ public class RoutePlanControllerTest
     @Mock
     private RoutePlanService routePlanService;
 
+    @Mock
+    private AsyncEndpoints asyncEndpoints;
+
     private MockMvc mockMvc;
 
     private Response response = new Response();
@@ -40,6 +48,9 @@ public class RoutePlanControllerTest
     public void setUp()
     {
         MockitoAnnotations.initMocks(this);
+        Mockito.when(asyncEndpoints.supply(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+            .thenAnswer(
+                invocation -> CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(1).get()));
         mockMvc = MockMvcBuilders.standaloneSetup(adminTravelController).build();
     }
 
@@ -59,8 +70,12 @@ public class RoutePlanControllerTest
                 routePlanService.searchCheapestResult(Mockito.any(RoutePlanInfo.class), Mockito.any(HttpHeaders.class)))
             .thenReturn(response);
         String requestJson = JSONObject.toJSONString(info);
-        String result = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/routeplanservice/routePlan/cheapestRoute")
-                .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+        MvcResult started = mockMvc.perform(
+                MockMvcRequestBuilders.post("/api/v1/routeplanservice/routePlan/cheapestRoute")
+                    .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        String result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn().getResponse().getContentAsString();
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
@@ -74,8 +89,12 @@ public class RoutePlanControllerTest
                 routePlanService.searchQuickestResult(Mockito.any(RoutePlanInfo.class), Mockito.any(HttpHeaders.class)))
             .thenReturn(response);
         String requestJson = JSONObject.toJSONString(info);
-        String result = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/routeplanservice/routePlan/quickestRoute")
-                .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+        MvcResult started = mockMvc.perform(
+                MockMvcRequestBuilders.post("/api/v1/routeplanservice/routePlan/quickestRoute")
+                    .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        String result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn().getResponse().getContentAsString();
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
@@ -89,9 +108,12 @@ public class RoutePlanControllerTest
                 routePlanService.searchMinStopStations(Mockito.any(RoutePlanInfo.class), Mockito.any(HttpHeaders.class)))
             .thenReturn(response);
         String requestJson = JSONObject.toJSONString(info);
-        String result = mockMvc.perform(
+        MvcResult started = mockMvc.perform(
                 MockMvcRequestBuilders.post("/api/v1/routeplanservice/routePlan/minStopStations")
                     .contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+        String result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn().getResponse().getContentAsString();
         Assert.assertEquals(response, JSONObject.parseObject(result, Response.class));
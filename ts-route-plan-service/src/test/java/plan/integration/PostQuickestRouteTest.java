@@ -14,6 +14,7 @@ import plan.entity.RoutePlanResultUnit;
 import java.util.ArrayList;
 import java.util.Date;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static edu.fudan.common.security.jwt.JWTGenerator.generateJwtTokenAdmin;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -41,10 +42,10 @@ public class PostQuickestRouteTest extends  BaseIntegrationTest{
         RoutePlanInfo routePlanInfo = new RoutePlanInfo("Nan Jing", "Shang Hai", new Date("Mon May 04 09:00:00 GMT+0800 2025"), 1);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                        .header("Authorization", "Bearer " + generateJwtTokenAdmin()))
+                        .header("Authorization", "Bearer " + generateJwtTokenAdmin())).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
         Response<ArrayList<RoutePlanResultUnit>> response = JSONObject.parseObject(result, new TypeReference<Response<ArrayList<RoutePlanResultUnit>>>() {});
@@ -64,10 +65,10 @@ public class PostQuickestRouteTest extends  BaseIntegrationTest{
         RoutePlanInfo routePlanInfo = new RoutePlanInfo("Station A", "Station B", new Date("Mon May 04 09:00:00 GMT+0800 2025"), 1);
         String requestJson = JSONObject.toJSONString(routePlanInfo);
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                        .header("Authorization", "Bearer " + generateJwtTokenAdmin()))
+                        .header("Authorization", "Bearer " + generateJwtTokenAdmin())).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -94,10 +95,10 @@ public class PostQuickestRouteTest extends  BaseIntegrationTest{
         // Stop the travel service container to simulate service unavailability
         travelContainer.stop();
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson)
-                        .header("Authorization", "Bearer " + generateJwtTokenAdmin()))
+                        .header("Authorization", "Bearer " + generateJwtTokenAdmin())).andReturn()))
                 .andExpect(status().isServiceUnavailable())
                 .andReturn().getResponse().getContentAsString();
         Response<ArrayList<RoutePlanResultUnit>> response = JSONObject.parseObject(result, new TypeReference<Response<ArrayList<RoutePlanResultUnit>>>() {});
@@ -30,6 +30,11 @@ public class Route
 
     private String terminalStationId;
 
+    /**
+     * Changed on every write, so the services that compiled the route can tell it changed
+     */
+    private long version;
+
     public Route()
     {
         //Default Constructor
@@ -12,6 +12,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
 import edu.fudan.common.util.Response;
+import edu.fudan.common.util.RouteGeometry;
 import route.entity.Route;
 import route.entity.RouteInfo;
 import route.repository.RouteRepository;
@@ -56,6 +57,7 @@ public class RouteServiceImpl implements RouteService
             route.setTerminalStationId(info.getEndStation());
             route.setStations(stationList);
             route.setDistances(distanceList);
+            route.setVersion(RouteServiceImpl.nextVersion(route));
             routeRepository.save(route);
             RouteServiceImpl.LOGGER.info("Save success");
 
@@ -75,6 +77,7 @@ public class RouteServiceImpl implements RouteService
             route.setTerminalStationId(info.getEndStation());
             route.setStations(stationList);
             route.setDistances(distanceList);
+            route.setVersion(RouteServiceImpl.nextVersion(route));
             routeRepository.save(route);
             RouteServiceImpl.LOGGER.info("Modify success");
             return new Response<>(1, "Modify success", route);
@@ -85,6 +88,7 @@ public class RouteServiceImpl implements RouteService
     public Response deleteRoute(String routeId, HttpHeaders headers)
     {
         routeRepository.removeRouteById(routeId);
+        RouteGeometry.evict(routeId);
         Optional<Route> route = routeRepository.findById(routeId);
         if (!route.isPresent()) {
             return new Response<>(1, "Delete Success", routeId);
@@ -111,10 +115,8 @@ public class RouteServiceImpl implements RouteService
         RouteServiceImpl.LOGGER.info("[Route Service] Find All: {}", routes.size());
         List<Route> resultList = new ArrayList<>();
         for (Route route : routes) {
-            if (route.getStations().contains(startId) &&
-                route.getStations().contains(terminalId) &&
-                route.getStations().indexOf(startId) < route.getStations().indexOf(terminalId))
-            {
+            RouteGeometry geometry = RouteGeometry.of(route.getId(), route.getVersion(), route.getStations(), null);
+            if (geometry.isInOrder(startId, terminalId)) {
                 resultList.add(route);
             }
         }
@@ -135,4 +137,12 @@ public class RouteServiceImpl implements RouteService
             return new Response<>(0, "No Content", null);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Above the versions the route had, also when it was deleted and is written again with its id
+     */
+    private static long nextVersion(Route route)
+    {
+        return Math.max(route.getVersion() + 1, System.currentTimeMillis());
+    }
+}
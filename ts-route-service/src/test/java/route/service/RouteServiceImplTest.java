@@ -64,6 +64,18 @@ public class RouteServiceImplTest
         Assert.assertEquals("Modify success", result.getMsg());
     }
 
+    @Test
+    public void testModifyChangesTheVersion()
+    {
+        Route route = new Route();
+        long version = System.currentTimeMillis() + 60000;
+        route.setVersion(version);
+        RouteInfo info = new RouteInfo("id123456789", "start_station", "end_station", "shanghai", "5");
+        Mockito.when(routeRepository.findById(Mockito.anyString())).thenReturn(Optional.of(route));
+        routeServiceImpl.createAndModify(info, headers);
+        Assert.assertEquals(version + 1, route.getVersion());
+    }
+
     @Test
     public void testDeleteRoute1()
     {
@@ -109,7 +121,7 @@ public class RouteServiceImplTest
         List<Integer> distances = new ArrayList<>();
         distances.add(5);
         distances.add(10);
-        Route route = new Route("id", stations, distances, "shanghai", "nanjing");
+        Route route = new Route("id", stations, distances, "shanghai", "nanjing", 1);
         ArrayList<Route> routes = new ArrayList<>();
         routes.add(route);
         Mockito.when(routeRepository.findAll()).thenReturn(routes);
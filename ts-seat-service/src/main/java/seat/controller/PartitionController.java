@@ -0,0 +1,64 @@
+package seat.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.fudan.common.util.Response;
+import seat.entity.SeatHandoff;
+import seat.service.SeatPartition;
+
+import static org.springframework.http.ResponseEntity.ok;
+
+/**
+ * Replica set of the partitioned mode, see {@link SeatPartition}. Admins only, see
+ * SecurityConfig.
+ *
+ * @author fdse
+ */
+@RestController
+@RequestMapping("/api/v1/seatservice/partition")
+@ConditionalOnProperty(name = "ts.seat.partition.enabled", havingValue = "true")
+public class PartitionController
+{
+    @Autowired
+    private SeatPartition partition;
+
+    @GetMapping(path = "/replicas")
+    public HttpEntity getReplicas()
+    {
+        return ok(new Response<>(1, "Success", new ArrayList<>(partition.getReplicas())));
+    }
+
+    /**
+     * Replace the replica set, on every replica
+     *
+     * @param replicas host:port of every replica
+     * @param headers the admin's token is passed on to the new owners of handed over seats
+     * @return HttpEntity
+     */
+    @PutMapping(path = "/replicas")
+    public HttpEntity setReplicas(@RequestBody List<String> replicas, @RequestHeader HttpHeaders headers)
+    {
+        partition.setReplicas(replicas, headers);
+        return ok(new Response<>(1, "Success", replicas));
+    }
+
+    @PostMapping(path = "/handoff")
+    public HttpEntity handoff(@RequestBody SeatHandoff handoff)
+    {
+        partition.receive(handoff);
+        return ok(new Response<>(1, "Success", null));
+    }
+}
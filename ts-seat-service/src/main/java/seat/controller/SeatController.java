@@ -15,7 +15,9 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
+import seat.entity.GroupSeat;
 import seat.entity.Seat;
 import seat.service.SeatService;
 
@@ -28,7 +30,7 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/seatservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class SeatController
 {
     @Autowired
@@ -71,6 +73,22 @@ public class SeatController
         return ok(seatService.getLeftTicketOfInterval(seatRequest, headers));
     }
 
+    /**
+     * Assign several seats at once, adjacent where possible
+     *
+     * @param groupSeatRequest group seat request
+     * @param headers headers
+     * @return HttpEntity
+     */
+    @CrossOrigin(origins = "*")
+    @PostMapping(value = "/seats/group")
+    @HystrixCommand
+    public HttpEntity createGroup(@RequestBody GroupSeat groupSeatRequest, @RequestHeader HttpHeaders headers)
+    {
+        // List<Ticket>
+        return ok(seatService.distributeGroupSeat(groupSeatRequest, headers));
+    }
+
     private HttpEntity fallback()
     {
         return ok(new Response<>());
@@ -0,0 +1,66 @@
+package seat.entity;
+
+import java.util.Date;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import lombok.Data;
+
+/**
+ * Seat request for several passengers travelling together
+ *
+ * @author fdse
+ */
+@Data
+public class GroupSeat
+{
+    @Valid
+    @NotNull
+    private Date travelDate;
+
+    @Valid
+    @NotNull
+    private String trainNumber;
+
+    @Valid
+    @NotNull
+    private String startStation;
+
+    @Valid
+    @NotNull
+    private String destStation;
+
+    @Valid
+    @NotNull
+    private int seatType;
+
+    /**
+     * number of seats requested
+     */
+    @Valid
+    @NotNull
+    private int seatCount;
+
+    public GroupSeat()
+    {
+        //Default Constructor
+        this.travelDate = new Date();
+        this.trainNumber = "";
+        this.startStation = "";
+        this.destStation = "";
+        this.seatType = 0;
+        this.seatCount = 1;
+    }
+
+    public Seat toSeat()
+    {
+        Seat seat = new Seat();
+        seat.setTravelDate(travelDate);
+        seat.setTrainNumber(trainNumber);
+        seat.setStartStation(startStation);
+        seat.setDestStation(destStation);
+        seat.setSeatType(seatType);
+        return seat;
+    }
+}
@@ -0,0 +1,26 @@
+package seat.entity;
+
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seats a replica assigned for one train, date and seat class that may not be in an order yet,
+ * handed to the replica taking the train over
+ *
+ * @author fdse
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatHandoff
+{
+    /**
+     * train number, travel date and seat type
+     */
+    private String key;
+
+    private Set<Ticket> tickets;
+}
@@ -0,0 +1,219 @@
+package seat.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import edu.fudan.common.util.Response;
+import seat.entity.GroupSeat;
+import seat.entity.LeftTicketInfo;
+import seat.entity.Route;
+import seat.entity.Seat;
+import seat.entity.SeatClass;
+import seat.entity.Ticket;
+import seat.entity.TrainType;
+
+/**
+ * Seat service of a replica in partitioned mode, see {@link SeatPartition}. Requests for trains
+ * this replica owns are served from the in-memory {@link SeatInventory}; the others are
+ * forwarded to their owner once. A request that was already forwarded, or whose owner cannot be
+ * reached, is served like in stateless mode by {@link SeatServiceImpl}.
+ *
+ * @author fdse
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "ts.seat.partition.enabled", havingValue = "true")
+public class PartitionedSeatService implements SeatService
+{
+    /**
+     * Set on forwarded requests, to the replica that forwarded it
+     */
+    public static final String FORWARDED_BY = "X-Seat-Forwarded-By";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedSeatService.class);
+
+    @Autowired
+    private SeatServiceImpl seatService;
+
+    @Autowired
+    private SeatPartition partition;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private final Random random = new Random();
+
+    @Override
+    public Response distributeSeat(Seat seatRequest, HttpHeaders headers)
+    {
+        String owner = partition.owner(seatRequest.getTrainNumber(), seatRequest.getTravelDate());
+        if (!partition.isSelf(owner)) {
+            Response forwarded = forward(owner, "/seats", seatRequest, headers);
+            return forwarded != null ? forwarded : seatService.distributeSeat(seatRequest, headers);
+        }
+        SeatInventory inventory = inventory(seatRequest, headers);
+        if (inventory == null || !inventory.isInterval(seatRequest.getStartStation(), seatRequest.getDestStation())) {
+            return seatService.distributeSeat(seatRequest, headers);
+        }
+        int seat = inventory.assign(seatRequest.getStartStation(), seatRequest.getDestStation(), random,
+            System.currentTimeMillis());
+        if (seat == 0) {
+            PartitionedSeatService.LOGGER.info("[PartitionedSeatService distributeSeat] No seat left on {}",
+                seatRequest.getTrainNumber());
+            return new Response<>(0, "Seat Not Enough", null);
+        }
+        Ticket ticket = new Ticket();
+        ticket.setSeatNo(seat);
+        ticket.setStartStation(seatRequest.getStartStation());
+        ticket.setDestStation(seatRequest.getDestStation());
+        PartitionedSeatService.LOGGER.info("[PartitionedSeatService distributeSeat] Use seat number {}", seat);
+        return new Response<>(1, "Use a new seat number!", ticket);
+    }
+
+    @Override
+    public Response getLeftTicketOfInterval(Seat seatRequest, HttpHeaders headers)
+    {
+        String owner = partition.owner(seatRequest.getTrainNumber(), seatRequest.getTravelDate());
+        if (!partition.isSelf(owner)) {
+            Response forwarded = forward(owner, "/seats/left_tickets", seatRequest, headers);
+            return forwarded != null ? forwarded : seatService.getLeftTicketOfInterval(seatRequest, headers);
+        }
+        SeatInventory inventory = inventory(seatRequest, headers);
+        if (inventory == null) {
+            return seatService.getLeftTicketOfInterval(seatRequest, headers);
+        }
+
+        //Same count as the stateless service, from the tickets in memory
+        int totalSeats = inventory.getTotalSeats();
+        int numOfLeftTicket = inventory.getReusableCount(seatRequest.getStartStation());
+        double directPart = seatService.getDirectProportion(headers);
+        List<String> stations = inventory.getStations();
+        if (!stations.get(0).equals(seatRequest.getStartStation())
+            || !stations.get(stations.size() - 1).equals(seatRequest.getDestStation()))
+        {
+            directPart = 1.0 - directPart;
+        }
+        numOfLeftTicket += (int) (totalSeats * directPart) - inventory.getSoldCount();
+        return new Response<>(1, "Get Left Ticket of Internal Success", numOfLeftTicket);
+    }
+
+    @Override
+    public Response distributeGroupSeat(GroupSeat groupSeatRequest, HttpHeaders headers)
+    {
+        String owner = partition.owner(groupSeatRequest.getTrainNumber(), groupSeatRequest.getTravelDate());
+        if (!partition.isSelf(owner)) {
+            Response forwarded = forward(owner, "/seats/group", groupSeatRequest, headers);
+            return forwarded != null ? forwarded : seatService.distributeGroupSeat(groupSeatRequest, headers);
+        }
+        Seat seatRequest = groupSeatRequest.toSeat();
+        int seatCount = groupSeatRequest.getSeatCount();
+        SeatInventory inventory = seatCount > 0 ? inventory(seatRequest, headers) : null;
+        if (inventory == null || !inventory.isInterval(seatRequest.getStartStation(), seatRequest.getDestStation())) {
+            return seatService.distributeGroupSeat(groupSeatRequest, headers);
+        }
+        List<Integer> seats = inventory.assignGroup(seatRequest.getStartStation(), seatRequest.getDestStation(),
+            seatCount, System.currentTimeMillis());
+        if (seats.isEmpty()) {
+            return new Response<>(0, "Seat Not Enough", null);
+        }
+        List<Ticket> tickets = new ArrayList<>(seatCount);
+        for (int seatNo : seats) {
+            Ticket ticket = new Ticket();
+            ticket.setSeatNo(seatNo);
+            ticket.setStartStation(seatRequest.getStartStation());
+            ticket.setDestStation(seatRequest.getDestStation());
+            tickets.add(ticket);
+        }
+        PartitionedSeatService.LOGGER.info("[PartitionedSeatService distributeGroupSeat] Use seat numbers {}", seats);
+        return new Response<>(1, "Distribute Group Seat Success", tickets);
+    }
+
+    /**
+     * The inventory of the train, built from the order service when missing or older than the
+     * refresh interval. Orders cancelled meanwhile, e.g. unpaid ones expired by the order
+     * services, are not announced to the seat service, so their seats stay sold here until the
+     * next refresh.
+     *
+     * @return null when the route is too long to be kept in memory
+     */
+    private SeatInventory inventory(Seat seatRequest, HttpHeaders headers)
+    {
+        String key = SeatPartition.inventoryKey(seatRequest.getTrainNumber(), seatRequest.getTravelDate(),
+            seatRequest.getSeatType());
+        long refreshMillis = partition.getRefreshMillis();
+        SeatInventory inventory = partition.get(key);
+        if (inventory != null && !inventory.isStale(System.currentTimeMillis(), refreshMillis)) {
+            return inventory;
+        }
+        synchronized (partition.lock(key)) {
+            inventory = partition.get(key);
+            long now = System.currentTimeMillis();
+            if (inventory != null && !inventory.isStale(now, refreshMillis)) {
+                return inventory;
+            }
+            Route route = seatService.queryRoute(seatRequest.getTrainNumber(), headers);
+            if (!SeatInventory.supports(route.getStations())) {
+                return null;
+            }
+            LeftTicketInfo leftTicketInfo = seatService.querySoldTickets(seatRequest, headers);
+            TrainType trainType = seatService.queryTrainType(seatRequest.getTrainNumber(), headers);
+            int totalSeats = seatRequest.getSeatType() == SeatClass.FIRSTCLASS.getCode()
+                ? trainType.getConfortClass() : trainType.getEconomyClass();
+
+            //Seats assigned here may not be in an order yet, keep them for one more refresh interval
+            Map<Ticket, Long> carried = inventory != null ? inventory.getAssignedSince(now - refreshMillis)
+                : new LinkedHashMap<>();
+            for (Ticket ticket : partition.takeHandedOver(key)) {
+                carried.put(ticket, now);
+            }
+            inventory = new SeatInventory(route.getStations(), totalSeats,
+                leftTicketInfo == null ? null : leftTicketInfo.getSoldTickets(), carried, now);
+            partition.put(key, inventory);
+            PartitionedSeatService.LOGGER.info("[PartitionedSeatService] Loaded {}, {} seats sold", key,
+                inventory.getSoldCount());
+            return inventory;
+        }
+    }
+
+    /**
+     * When this returns null the caller serves the request like in stateless mode, from the
+     * tickets the order service has sold. Seats the owner assigned that are not in an order yet
+     * are not among them, so while the owner is unreachable such a seat can be assigned twice,
+     * the same as two stateless replicas racing for it.
+     *
+     * @return the owner's answer, null when the request was forwarded already or the owner
+     * cannot be reached
+     */
+    private Response forward(String owner, String path, Object request, HttpHeaders headers)
+    {
+        if (owner == null || headers.containsKey(PartitionedSeatService.FORWARDED_BY)) {
+            return null;
+        }
+        HttpHeaders forwardHeaders = new HttpHeaders();
+        forwardHeaders.putAll(headers);
+        forwardHeaders.set(PartitionedSeatService.FORWARDED_BY, partition.getSelf());
+        try {
+            return restTemplate.exchange("http://" + owner + "/api/v1/seatservice" + path, HttpMethod.POST,
+                new HttpEntity<>(request, forwardHeaders), Response.class).getBody();
+        } catch (RestClientException e) {
+            PartitionedSeatService.LOGGER.warn("[PartitionedSeatService] Could not forward to {}: {}", owner,
+                e.getMessage());
+            return null;
+        }
+    }
+}
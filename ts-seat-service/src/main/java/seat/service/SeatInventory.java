@@ -0,0 +1,361 @@
+package seat.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import edu.fudan.common.util.RouteGeometry;
+import seat.entity.Ticket;
+
+/**
+ * Occupancy of one train, travel date and seat class, kept by the replica owning it. Every seat
+ * has a bit mask of the route segments it is taken on, so a seat is free for an interval when
+ * its mask and the interval's do not overlap. Routes are limited to 64 stations.
+ * <p>
+ * Built from the tickets the order service has sold, plus the seats assigned here lately that
+ * may not be in an order yet. Seats are never released here; a cancelled order frees its seat
+ * when the inventory is rebuilt.
+ * <p>
+ * Written to the replica's snapshot with {@link #toSnapshot}, version {@link #SNAPSHOT_VERSION}.
+ *
+ * @author fdse
+ */
+class SeatInventory
+{
+    static final int MAX_STATIONS = 64;
+
+    static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Station reference of a ticket station that is not on the route, followed by its name
+     */
+    private static final int OFF_ROUTE = -1;
+
+    private static final int NO_STATION = -2;
+
+    private static final int RANDOM_TRIES = 16;
+
+    private final List<String> stations;
+
+    private final RouteGeometry geometry;
+
+    private final int totalSeats;
+
+    private final long[] occupied;
+
+    private final Set<Ticket> tickets = new LinkedHashSet<>();
+
+    /**
+     * Assigned here, with when, in assignment order
+     */
+    private final Map<Ticket, Long> assigned = new LinkedHashMap<>();
+
+    private final long loadedAt;
+
+    /**
+     * Read from a snapshot, see {@link #fromSnapshot}
+     */
+    private boolean restored;
+
+    SeatInventory(List<String> stations, int totalSeats, Collection<Ticket> soldTickets, Map<Ticket, Long> carried,
+        long now)
+    {
+        this.stations = stations;
+        this.geometry = RouteGeometry.of(stations, null);
+        this.totalSeats = totalSeats;
+        this.occupied = new long[totalSeats + 1];
+        this.loadedAt = now;
+        if (soldTickets != null) {
+            for (Ticket ticket : soldTickets) {
+                take(ticket);
+            }
+        }
+        for (Map.Entry<Ticket, Long> entry : carried.entrySet()) {
+            take(entry.getKey());
+            assigned.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * The inventory as it was written by {@link #toSnapshot}, with the times it was written
+     * with. It is stale from the start: orders booked or cancelled while the replica was down are
+     * not in it, so it is rebuilt from the order service before it serves a request, carrying
+     * the seats assigned within the refresh interval.
+     *
+     * @throws RuntimeException when the entry is not an inventory
+     */
+    static SeatInventory fromSnapshot(ByteBuffer entry)
+    {
+        ByteBuffer in = entry.duplicate();
+        int totalSeats = in.getInt();
+        long loadedAt = in.getLong();
+        List<String> stations = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            stations.add(SeatInventory.readString(in));
+        }
+        List<Ticket> sold = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            sold.add(SeatInventory.readTicket(in, stations));
+        }
+        Map<Ticket, Long> carried = new LinkedHashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            Ticket ticket = SeatInventory.readTicket(in, stations);
+            carried.put(ticket, in.getLong());
+        }
+        SeatInventory inventory = new SeatInventory(stations, totalSeats, sold, carried, loadedAt);
+        inventory.restored = true;
+        return inventory;
+    }
+
+    static boolean supports(List<String> stations)
+    {
+        return stations != null && stations.size() <= SeatInventory.MAX_STATIONS;
+    }
+
+    List<String> getStations()
+    {
+        return stations;
+    }
+
+    int getTotalSeats()
+    {
+        return totalSeats;
+    }
+
+    boolean isStale(long now, long refreshMillis)
+    {
+        return restored || now - loadedAt >= refreshMillis;
+    }
+
+    /**
+     * @return whether both stations are on the route, in order
+     */
+    boolean isInterval(String startStation, String destStation)
+    {
+        return geometry.isInOrder(startStation, destStation);
+    }
+
+    /**
+     * Takes a seat that already carries a ticket not overlapping the interval if there is one,
+     * filling up seats like the stateless allocation does, otherwise a random free seat.
+     *
+     * @return the seat number, 0 when every seat is taken on the interval
+     */
+    synchronized int assign(String startStation, String destStation, Random random, long now)
+    {
+        long mask = mask(startStation, destStation);
+        int seat = 0;
+        for (int i = 1; i <= totalSeats && seat == 0; i++) {
+            if (occupied[i] != 0 && (occupied[i] & mask) == 0) {
+                seat = i;
+            }
+        }
+        for (int i = 0; i < SeatInventory.RANDOM_TRIES && seat == 0; i++) {
+            int candidate = random.nextInt(totalSeats) + 1;
+            if ((occupied[candidate] & mask) == 0) {
+                seat = candidate;
+            }
+        }
+        for (int i = 1; i <= totalSeats && seat == 0; i++) {
+            if ((occupied[i] & mask) == 0) {
+                seat = i;
+            }
+        }
+        if (seat != 0) {
+            record(seat, startStation, destStation, now);
+        }
+        return seat;
+    }
+
+    /**
+     * Takes seatCount seats, adjacent where possible, see {@link SeatServiceImpl#findAdjacentSeats}
+     *
+     * @return the seat numbers, empty when not enough seats are free on the interval
+     */
+    synchronized List<Integer> assignGroup(String startStation, String destStation, int seatCount, long now)
+    {
+        long mask = mask(startStation, destStation);
+        boolean[] taken = new boolean[totalSeats + 1];
+        for (int i = 1; i <= totalSeats; i++) {
+            taken[i] = (occupied[i] & mask) != 0;
+        }
+        List<Integer> seats = SeatServiceImpl.findAdjacentSeats(taken, seatCount);
+        if (seats.size() < seatCount) {
+            return new ArrayList<>();
+        }
+        for (int seat : seats) {
+            record(seat, startStation, destStation, now);
+        }
+        return seats;
+    }
+
+    synchronized int getSoldCount()
+    {
+        return tickets.size();
+    }
+
+    /**
+     * Tickets ending before the start station, whose seats can be sold again from there
+     */
+    synchronized int getReusableCount(String startStation)
+    {
+        int start = geometry.positionOf(startStation);
+        int count = 0;
+        for (Ticket ticket : tickets) {
+            if (geometry.positionOf(ticket.getDestStation()) < start) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds tickets assigned by the replica that owned the train before
+     */
+    synchronized void merge(Collection<Ticket> handedOver, long now)
+    {
+        for (Ticket ticket : handedOver) {
+            take(ticket);
+            assigned.put(ticket, now);
+        }
+    }
+
+    /**
+     * @return the seats assigned here since {@code since}, oldest first
+     */
+    synchronized Map<Ticket, Long> getAssignedSince(long since)
+    {
+        Iterator<Map.Entry<Ticket, Long>> it = assigned.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() < since) {
+                it.remove();
+            }
+        }
+        return new LinkedHashMap<>(assigned);
+    }
+
+    /**
+     * The stations, seats sold and seats assigned here; stations of the tickets are written as
+     * their position on the route
+     */
+    synchronized ByteBuffer toSnapshot()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 12 * tickets.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(totalSeats);
+            out.writeLong(loadedAt);
+            out.writeInt(stations.size());
+            for (String station : stations) {
+                SeatInventory.writeString(out, station);
+            }
+            Set<Ticket> sold = new LinkedHashSet<>(tickets);
+            sold.removeAll(assigned.keySet());
+            out.writeInt(sold.size());
+            for (Ticket ticket : sold) {
+                writeTicket(out, ticket);
+            }
+            out.writeInt(assigned.size());
+            for (Map.Entry<Ticket, Long> entry : assigned.entrySet()) {
+                writeTicket(out, entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private void writeTicket(DataOutputStream out, Ticket ticket) throws IOException
+    {
+        out.writeInt(ticket.getSeatNo());
+        writeStation(out, ticket.getStartStation());
+        writeStation(out, ticket.getDestStation());
+    }
+
+    private void writeStation(DataOutputStream out, String station) throws IOException
+    {
+        int index = station == null ? SeatInventory.NO_STATION : geometry.positionOf(station);
+        out.writeInt(index);
+        if (index == SeatInventory.OFF_ROUTE) {
+            SeatInventory.writeString(out, station);
+        }
+    }
+
+    private static Ticket readTicket(ByteBuffer in, List<String> stations)
+    {
+        Ticket ticket = new Ticket();
+        ticket.setSeatNo(in.getInt());
+        ticket.setStartStation(SeatInventory.readStation(in, stations));
+        ticket.setDestStation(SeatInventory.readStation(in, stations));
+        return ticket;
+    }
+
+    private static String readStation(ByteBuffer in, List<String> stations)
+    {
+        int index = in.getInt();
+        if (index == SeatInventory.NO_STATION) {
+            return null;
+        }
+        return index == SeatInventory.OFF_ROUTE ? SeatInventory.readString(in) : stations.get(index);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in)
+    {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void record(int seat, String startStation, String destStation, long now)
+    {
+        Ticket ticket = new Ticket();
+        ticket.setSeatNo(seat);
+        ticket.setStartStation(startStation);
+        ticket.setDestStation(destStation);
+        take(ticket);
+        assigned.put(ticket, now);
+    }
+
+    private void take(Ticket ticket)
+    {
+        tickets.add(ticket);
+        int seat = ticket.getSeatNo();
+        if (seat >= 1 && seat <= totalSeats) {
+            occupied[seat] |= mask(ticket.getStartStation(), ticket.getDestStation());
+        }
+    }
+
+    /**
+     * Bits of the segments from the start station up to the destination, all of them when a
+     * station is not on the route, so such a ticket blocks its seat rather than being ignored
+     */
+    private long mask(String startStation, String destStation)
+    {
+        int start = geometry.positionOf(startStation);
+        int dest = geometry.positionOf(destStation);
+        if (start < 0 || dest <= start) {
+            return -1L;
+        }
+        return ((1L << dest) - 1) & ~((1L << start) - 1);
+    }
+}
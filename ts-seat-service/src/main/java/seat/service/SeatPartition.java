@@ -0,0 +1,332 @@
+package seat.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import edu.fudan.common.snapshot.Snapshot;
+import edu.fudan.common.snapshot.SnapshotFile;
+import edu.fudan.common.util.ConsistentHashRing;
+import seat.entity.SeatHandoff;
+import seat.entity.Ticket;
+
+/**
+ * Which replica of ts-seat-service owns which trains. The replicas, {@code host:port} as they
+ * call each other, share a consistent hash ring over train number and travel date, so every
+ * replica keeps the occupancy of about 1/n of the trains in memory and the order services are
+ * only asked when an inventory is built or refreshed.
+ * <p>
+ * The replica set is {@code ts.seat.partition.replicas} at start and is replaced through
+ * {@code PUT /api/v1/seatservice/partition/replicas}, which has to be sent to every replica by
+ * an admin. A replica then drops the inventories it no longer owns and hands the seats it
+ * assigned lately to their new owner, with the admin's token, which adds them to the inventory
+ * it builds from the order service.
+ * <p>
+ * With {@code ts.seat.partition.snapshot.path} set, the inventories are written to a snapshot
+ * every {@code snapshot.interval-ms} and on shutdown. After a restart an inventory is read from
+ * the snapshot the first time its train is asked for. It is stale from the start, since the
+ * orders changed while the replica was down are not in it, and is rebuilt from the order
+ * service before serving, keeping the seats assigned before the restart that may not be in an
+ * order yet, for the rest of their refresh interval.
+ *
+ * @author fdse
+ */
+@Component
+@ConditionalOnProperty(name = "ts.seat.partition.enabled", havingValue = "true")
+public class SeatPartition
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeatPartition.class);
+
+    private static final String SNAPSHOT_KIND = "seat-inventory";
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${ts.seat.partition.self}")
+    private String self;
+
+    @Value("${ts.seat.partition.replicas}")
+    private String[] replicas;
+
+    @Value("${ts.seat.partition.virtual-nodes:160}")
+    private int virtualNodes;
+
+    @Value("${ts.seat.partition.refresh-ms:60000}")
+    private long refreshMillis;
+
+    @Value("${ts.seat.partition.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${ts.seat.partition.snapshot.interval-ms:30000}")
+    private long snapshotIntervalMillis;
+
+    private volatile ConsistentHashRing ring;
+
+    private final ConcurrentMap<String, SeatInventory> inventories = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Handed over for trains whose inventory is not built yet
+     */
+    private final ConcurrentMap<String, Set<Ticket>> handedOver = new ConcurrentHashMap<>();
+
+    /**
+     * The snapshot the replica started from, null without one
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Keys already looked up in the snapshot
+     */
+    private final Set<String> restored = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService snapshotWriter;
+
+    @PostConstruct
+    public void init()
+    {
+        ring = new ConsistentHashRing(Arrays.asList(replicas), virtualNodes);
+        SeatPartition.LOGGER.info("[SeatPartition] {} in {}", self, ring);
+        if (snapshotPath.isEmpty()) {
+            return;
+        }
+        try {
+            snapshot = SnapshotFile.open(Paths.get(snapshotPath), SeatPartition.SNAPSHOT_KIND,
+                SeatInventory.SNAPSHOT_VERSION);
+            if (snapshot != null) {
+                SeatPartition.LOGGER.info("[SeatPartition] Restoring {} inventories from the snapshot of {}",
+                    snapshot.size(), new Date(snapshot.getPosition()));
+            }
+        } catch (IOException e) {
+            SeatPartition.LOGGER.warn("[SeatPartition] Starting without a snapshot: {}", e.getMessage());
+        }
+        snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotWriter.scheduleWithFixedDelay(this::writeSnapshot, snapshotIntervalMillis, snapshotIntervalMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdown();
+            writeSnapshot();
+        }
+    }
+
+    public String getSelf()
+    {
+        return self;
+    }
+
+    public Set<String> getReplicas()
+    {
+        return ring.getMembers();
+    }
+
+    public long getRefreshMillis()
+    {
+        return refreshMillis;
+    }
+
+    /**
+     * @return the replica owning the train on that day
+     */
+    public String owner(String trainNumber, Date travelDate)
+    {
+        return ring.owner(SeatPartition.trainKey(trainNumber, travelDate));
+    }
+
+    public boolean isSelf(String replica)
+    {
+        return self.equals(replica);
+    }
+
+    static String trainKey(String trainNumber, Date travelDate)
+    {
+        return trainNumber + "|" + travelDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    static String inventoryKey(String trainNumber, Date travelDate, int seatType)
+    {
+        return SeatPartition.trainKey(trainNumber, travelDate) + "|" + seatType;
+    }
+
+    /**
+     * @return the inventory in memory, or in the snapshot the first time the key is asked for
+     */
+    SeatInventory get(String key)
+    {
+        SeatInventory inventory = inventories.get(key);
+        if (inventory != null || snapshot == null || restored.contains(key)) {
+            return inventory;
+        }
+        synchronized (lock(key)) {
+            if (restored.add(key)) {
+                ByteBuffer entry = snapshot.get(key);
+                if (entry != null) {
+                    restore(key, entry);
+                }
+            }
+            return inventories.get(key);
+        }
+    }
+
+    /**
+     * Inventories are built under this lock, so a train's sold tickets are fetched once
+     */
+    Object lock(String key)
+    {
+        return locks.computeIfAbsent(key, k -> new Object());
+    }
+
+    void put(String key, SeatInventory inventory)
+    {
+        inventories.put(key, inventory);
+    }
+
+    /**
+     * @return the seats handed over for the key, removed from here
+     */
+    Collection<Ticket> takeHandedOver(String key)
+    {
+        Set<Ticket> tickets = handedOver.remove(key);
+        return tickets == null ? Collections.emptySet() : tickets;
+    }
+
+    public void receive(SeatHandoff handoff)
+    {
+        long now = System.currentTimeMillis();
+        synchronized (lock(handoff.getKey())) {
+            SeatInventory inventory = inventories.get(handoff.getKey());
+            if (inventory != null) {
+                inventory.merge(handoff.getTickets(), now);
+            } else {
+                handedOver.computeIfAbsent(handoff.getKey(), k -> ConcurrentHashMap.newKeySet())
+                    .addAll(handoff.getTickets());
+            }
+        }
+        SeatPartition.LOGGER.info("[SeatPartition] Received {} seats of {}", handoff.getTickets().size(),
+            handoff.getKey());
+    }
+
+    /**
+     * @param headers of the admin's request, their token authorizes the handoffs
+     */
+    public synchronized void setReplicas(List<String> replicaList, HttpHeaders headers)
+    {
+        ring = new ConsistentHashRing(replicaList, virtualNodes);
+        SeatPartition.LOGGER.info("[SeatPartition] {} in {}", self, ring);
+        long since = System.currentTimeMillis() - refreshMillis;
+        Iterator<Map.Entry<String, SeatInventory>> it = inventories.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, SeatInventory> entry = it.next();
+            String key = entry.getKey();
+            String owner = ring.owner(SeatPartition.trainOf(key));
+            if (isSelf(owner)) {
+                continue;
+            }
+            it.remove();
+            locks.remove(key);
+            Set<Ticket> assigned = new HashSet<>(entry.getValue().getAssignedSince(since).keySet());
+            if (!assigned.isEmpty()) {
+                handOver(owner, new SeatHandoff(key, assigned), headers);
+            }
+        }
+        handedOver.keySet().removeIf(key -> !isSelf(ring.owner(SeatPartition.trainOf(key))));
+    }
+
+    /**
+     * Writes the inventories this replica owns, and those of the snapshot it started from that
+     * were not asked for yet
+     */
+    synchronized void writeSnapshot()
+    {
+        long position = System.currentTimeMillis();
+        Map<String, ByteBuffer> entries = new HashMap<>();
+        Snapshot started = snapshot;
+        if (started != null) {
+            started.forEach((key, entry) -> {
+                if (!restored.contains(key) && isSelf(ring.owner(SeatPartition.trainOf(key)))) {
+                    entries.put(key, entry);
+                }
+            });
+        }
+        for (Map.Entry<String, SeatInventory> entry : inventories.entrySet()) {
+            entries.put(entry.getKey(), entry.getValue().toSnapshot());
+        }
+        try {
+            SnapshotFile.write(Paths.get(snapshotPath), SeatPartition.SNAPSHOT_KIND, SeatInventory.SNAPSHOT_VERSION,
+                position, entries);
+            SeatPartition.LOGGER.debug("[SeatPartition] Wrote {} inventories to the snapshot", entries.size());
+        } catch (IOException | RuntimeException e) {
+            SeatPartition.LOGGER.warn("[SeatPartition] Could not write the snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void restore(String key, ByteBuffer entry)
+    {
+        try {
+            inventories.putIfAbsent(key, SeatInventory.fromSnapshot(entry));
+        } catch (RuntimeException e) {
+            SeatPartition.LOGGER.warn("[SeatPartition] Could not restore {} from the snapshot: {}", key, e.toString());
+        }
+    }
+
+    private static String trainOf(String key)
+    {
+        return key.substring(0, key.lastIndexOf('|'));
+    }
+
+    private void handOver(String owner, SeatHandoff handoff, HttpHeaders headers)
+    {
+        HttpHeaders handoffHeaders = new HttpHeaders();
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            handoffHeaders.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        try {
+            restTemplate.exchange("http://" + owner + "/api/v1/seatservice/partition/handoff", HttpMethod.POST,
+                new HttpEntity<>(handoff, handoffHeaders), Void.class);
+        } catch (RestClientException e) {
+            SeatPartition.LOGGER.warn("[SeatPartition] Could not hand {} over to {}: {}", handoff.getKey(), owner,
+                e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package seat.service;
 import org.springframework.http.HttpHeaders;
 
 import edu.fudan.common.util.Response;
+import seat.entity.GroupSeat;
 import seat.entity.Seat;
 
 /**
@@ -13,4 +14,6 @@ public interface SeatService
     Response distributeSeat(Seat seatRequest, HttpHeaders headers);
 
     Response getLeftTicketOfInterval(Seat seatRequest, HttpHeaders headers);
+
+    Response distributeGroupSeat(GroupSeat groupSeatRequest, HttpHeaders headers);
 }
@@ -1,5 +1,6 @@
 package seat.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -16,8 +17,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import edu.fudan.common.logging.LogPayloads;
 import edu.fudan.common.util.Response;
+import edu.fudan.common.util.RouteGeometry;
 import seat.entity.Config;
+import seat.entity.GroupSeat;
 import seat.entity.LeftTicketInfo;
 import seat.entity.Route;
 import seat.entity.Seat;
@@ -105,7 +109,7 @@ public class SeatServiceImpl implements SeatService
                 new ParameterizedTypeReference<Response<LeftTicketInfo>>()
                 {
                 });
-            SeatServiceImpl.LOGGER.info("Left ticket info is : {}", re3.getBody().toString());
+            SeatServiceImpl.LOGGER.info("Left ticket info is : {}", LogPayloads.summary(re3.getBody()));
             leftTicketInfo = re3.getBody().getData();
 
             //Calls the microservice to query the total number of seats specified for that vehicle
@@ -121,7 +125,7 @@ public class SeatServiceImpl implements SeatService
             trainTypeResult = trainTypeResponse.getData();
 
             SeatServiceImpl.LOGGER.info("[SeatService distributeSeat 1] The result of getTrainTypeResult is {}",
-                trainTypeResponse.toString());
+                LogPayloads.summary(trainTypeResponse));
         } else {
             SeatServiceImpl.LOGGER.info("[SeatService] TrainNumber start with other capital");
             //Call the micro service to query all the station information for the trains
@@ -135,7 +139,7 @@ public class SeatServiceImpl implements SeatService
                 });
             routeResult = re.getBody();
             SeatServiceImpl.LOGGER.info("[SeatService distributeSeat] The result of getRouteResult is {}",
-                routeResult.toString());
+                LogPayloads.summary(routeResult));
 
             //Call the microservice to query for residual Ticket information: the set of the Ticket sold for the specified seat type
             requestEntity = new HttpEntity(seatRequest, headers);
@@ -146,7 +150,7 @@ public class SeatServiceImpl implements SeatService
                 new ParameterizedTypeReference<Response<LeftTicketInfo>>()
                 {
                 });
-            SeatServiceImpl.LOGGER.info("Left ticket info is : {}", re3.getBody().toString());
+            SeatServiceImpl.LOGGER.info("Left ticket info is : {}", LogPayloads.summary(re3.getBody()));
             leftTicketInfo = re3.getBody().getData();
 
             //Calls the microservice to query the total number of seats specified for that vehicle
@@ -161,11 +165,12 @@ public class SeatServiceImpl implements SeatService
             Response<TrainType> trainTypeResponse = re2.getBody();
             trainTypeResult = trainTypeResponse.getData();
             SeatServiceImpl.LOGGER.info("[SeatService distributeSeat 2] The result of getTrainTypeResult is {}",
-                trainTypeResponse.toString());
+                LogPayloads.summary(trainTypeResponse));
         }
 
         //Assign seats
-        List<String> stationList = routeResult.getData().getStations();
+        Route route = routeResult.getData();
+        RouteGeometry geometry = RouteGeometry.of(route.getId(), route.getVersion(), route.getStations(), null);
         int seatTotalNum = 0;
         if (seatRequest.getSeatType() == SeatClass.FIRSTCLASS.getCode()) {
             seatTotalNum = trainTypeResult.getConfortClass();
@@ -179,6 +184,7 @@ public class SeatServiceImpl implements SeatService
                 seatTotalNum);
         }
         String startStation = seatRequest.getStartStation();
+        int start = geometry.positionOf(startStation);
         Ticket ticket = new Ticket();
         ticket.setStartStation(startStation);
         ticket.setDestStation(seatRequest.getDestStation());
@@ -194,7 +200,7 @@ public class SeatServiceImpl implements SeatService
             for (Ticket soldTicket : soldTickets) {
                 String soldTicketDestStation = soldTicket.getDestStation();
                 //Tickets can be allocated if the sold ticket's end station before the start station of the request
-                if (stationList.indexOf(soldTicketDestStation) < stationList.indexOf(startStation)) {
+                if (geometry.positionOf(soldTicketDestStation) < start) {
                     ticket.setSeatNo(soldTicket.getSeatNo());
                     SeatServiceImpl.LOGGER.info(
                         "[SeatService distributeSeat] Use the previous distributed seat number! {}",
@@ -225,7 +231,7 @@ public class SeatServiceImpl implements SeatService
 
         //Distinguish G\D from other trains
         String trainNumber = seatRequest.getTrainNumber();
-        SeatServiceImpl.LOGGER.info("Seat request To String: {}", seatRequest.toString());
+        SeatServiceImpl.LOGGER.info("Seat request To String: {}", seatRequest);
         if (trainNumber.startsWith("G") || trainNumber.startsWith("D")) {
             SeatServiceImpl.LOGGER.info("[SeatService getLeftTicketOfInterval] TrainNumber start with G|D {}",
                 trainNumber);
@@ -253,7 +259,7 @@ public class SeatServiceImpl implements SeatService
                 {
                 });
 
-            SeatServiceImpl.LOGGER.info("Get Order tickets result is : {}", re3);
+            SeatServiceImpl.LOGGER.info("Get Order tickets result is : {}", LogPayloads.summary(re3));
             leftTicketInfo = re3.getBody().getData();
 
             //Calls the microservice to query the total number of seats specified for that vehicle
@@ -269,7 +275,7 @@ public class SeatServiceImpl implements SeatService
 
             trainTypeResult = trainTypeResponse.getData();
             SeatServiceImpl.LOGGER.info("[SeatService getLeftTicketOfInterval] The result of getTrainTypeResult is {}",
-                trainTypeResponse.toString());
+                LogPayloads.summary(trainTypeResponse));
         } else {
             SeatServiceImpl.LOGGER.info("[SeatService getLeftTicketOfInterval] TrainNumber start with other capital");
             //Call the micro service to query all the station information for the trains
@@ -283,7 +289,7 @@ public class SeatServiceImpl implements SeatService
                 });
             routeResult = re.getBody();
             SeatServiceImpl.LOGGER.info("[SeatService getLeftTicketOfInterval] The result of getRouteResult is {}",
-                routeResult.toString());
+                LogPayloads.summary(routeResult));
 
             //Call the micro service to query for residual Ticket information: the set of the Ticket sold for the specified seat type
             requestEntity = new HttpEntity(seatRequest, headers);
@@ -294,7 +300,7 @@ public class SeatServiceImpl implements SeatService
                 new ParameterizedTypeReference<Response<LeftTicketInfo>>()
                 {
                 });
-            SeatServiceImpl.LOGGER.info("Get Order tickets result is : {}", re3);
+            SeatServiceImpl.LOGGER.info("Get Order tickets result is : {}", LogPayloads.summary(re3));
             leftTicketInfo = re3.getBody().getData();
 
             //Calls the microservice to query the total number of seats specified for that vehicle
@@ -309,11 +315,12 @@ public class SeatServiceImpl implements SeatService
             Response<TrainType> trainTypeResponse = re2.getBody();
             trainTypeResult = trainTypeResponse.getData();
             SeatServiceImpl.LOGGER.info("[SeatService getLeftTicketOfInterval] The result of getTrainTypeResult is {}",
-                trainTypeResponse.toString());
+                LogPayloads.summary(trainTypeResponse));
         }
 
         //Counting the seats remaining in certain sections
-        List<String> stationList = routeResult.getData().getStations();
+        Route route = routeResult.getData();
+        RouteGeometry geometry = RouteGeometry.of(route.getId(), route.getVersion(), route.getStations(), null);
         int seatTotalNum;
         if (seatRequest.getSeatType() == SeatClass.FIRSTCLASS.getCode()) {
             seatTotalNum = trainTypeResult.getConfortClass();
@@ -329,14 +336,14 @@ public class SeatServiceImpl implements SeatService
 
         int solidTicketSize = 0;
         if (leftTicketInfo != null) {
-            String startStation = seatRequest.getStartStation();
+            int start = geometry.positionOf(seatRequest.getStartStation());
             Set<Ticket> soldTickets = leftTicketInfo.getSoldTickets();
             solidTicketSize = soldTickets.size();
             //To find out if tickets already sold are available
             for (Ticket soldTicket : soldTickets) {
                 String soldTicketDestStation = soldTicket.getDestStation();
                 //Tickets can be allocated if the sold ticket's end station before the start station of the request
-                if (stationList.indexOf(soldTicketDestStation) < stationList.indexOf(startStation)) {
+                if (geometry.positionOf(soldTicketDestStation) < start) {
                     SeatServiceImpl.LOGGER.info(
                         "[SeatService getLeftTicketOfInterval] The previous distributed seat number is usable! {}",
                         soldTicket.getSeatNo());
@@ -347,9 +354,8 @@ public class SeatServiceImpl implements SeatService
         //Count the unsold tickets
 
         double direstPart = getDirectProportion(headers);
-        Route route = routeResult.getData();
-        if (route.getStations().get(0).equals(seatRequest.getStartStation()) &&
-            route.getStations().get(route.getStations().size() - 1).equals(seatRequest.getDestStation()))
+        if (geometry.first().equals(seatRequest.getStartStation()) &&
+            geometry.last().equals(seatRequest.getDestStation()))
         {
             //do nothing
         } else {
@@ -362,6 +368,147 @@ public class SeatServiceImpl implements SeatService
         return new Response<>(1, "Get Left Ticket of Internal Success", numOfLeftTicket);
     }
 
+    @Override
+    public Response distributeGroupSeat(GroupSeat groupSeatRequest, HttpHeaders headers)
+    {
+        Seat seatRequest = groupSeatRequest.toSeat();
+        int seatCount = groupSeatRequest.getSeatCount();
+        if (seatCount <= 0) {
+            return new Response<>(0, "Seat count must be positive", null);
+        }
+
+        Route route = queryRoute(seatRequest.getTrainNumber(), headers);
+        LeftTicketInfo leftTicketInfo = querySoldTickets(seatRequest, headers);
+        TrainType trainType = queryTrainType(seatRequest.getTrainNumber(), headers);
+
+        int seatTotalNum;
+        if (seatRequest.getSeatType() == SeatClass.FIRSTCLASS.getCode()) {
+            seatTotalNum = trainType.getConfortClass();
+        } else {
+            seatTotalNum = trainType.getEconomyClass();
+        }
+        SeatServiceImpl.LOGGER.info("[SeatService distributeGroupSeat] Request {} seats out of {}", seatCount,
+            seatTotalNum);
+
+        //Mark every seat whose sold interval overlaps the requested interval
+        RouteGeometry geometry = RouteGeometry.of(route.getId(), route.getVersion(), route.getStations(), null);
+        int start = geometry.positionOf(seatRequest.getStartStation());
+        int dest = geometry.positionOf(seatRequest.getDestStation());
+        boolean[] occupied = new boolean[seatTotalNum + 1];
+        if (leftTicketInfo != null && leftTicketInfo.getSoldTickets() != null) {
+            for (Ticket soldTicket : leftTicketInfo.getSoldTickets()) {
+                int seatNo = soldTicket.getSeatNo();
+                if (seatNo < 1 || seatNo > seatTotalNum) {
+                    continue;
+                }
+                int soldStart = geometry.positionOf(soldTicket.getStartStation());
+                int soldDest = geometry.positionOf(soldTicket.getDestStation());
+                if (soldStart < dest && start < soldDest) {
+                    occupied[seatNo] = true;
+                }
+            }
+        }
+
+        //Prefer the first run of adjacent free seats, otherwise take the lowest free seat numbers
+        List<Integer> seats = findAdjacentSeats(occupied, seatCount);
+        if (seats.size() < seatCount) {
+            SeatServiceImpl.LOGGER.info("[SeatService distributeGroupSeat] Not enough seats left. Found: {}",
+                seats.size());
+            return new Response<>(0, "Seat Not Enough", null);
+        }
+
+        List<Ticket> tickets = new ArrayList<>(seatCount);
+        for (int seatNo : seats) {
+            Ticket ticket = new Ticket();
+            ticket.setSeatNo(seatNo);
+            ticket.setStartStation(seatRequest.getStartStation());
+            ticket.setDestStation(seatRequest.getDestStation());
+            tickets.add(ticket);
+        }
+        SeatServiceImpl.LOGGER.info("[SeatService distributeGroupSeat] Use seat numbers {}", seats);
+        return new Response<>(1, "Distribute Group Seat Success", tickets);
+    }
+
+    /**
+     * Finds seatCount seats in a single adjacent run if one exists. When the free seats are too
+     * scattered, falls back to the lowest free seat numbers so the group still gets booked.
+     */
+    static List<Integer> findAdjacentSeats(boolean[] occupied, int seatCount)
+    {
+        int runStart = 1;
+        for (int seat = 1; seat < occupied.length; seat++) {
+            if (occupied[seat]) {
+                runStart = seat + 1;
+            } else if (seat - runStart + 1 == seatCount) {
+                List<Integer> seats = new ArrayList<>(seatCount);
+                for (int i = runStart; i <= seat; i++) {
+                    seats.add(i);
+                }
+                return seats;
+            }
+        }
+        List<Integer> seats = new ArrayList<>(seatCount);
+        for (int seat = 1; seat < occupied.length && seats.size() < seatCount; seat++) {
+            if (!occupied[seat]) {
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    private boolean isHighSpeed(String trainNumber)
+    {
+        return trainNumber.startsWith("G") || trainNumber.startsWith("D");
+    }
+
+    Route queryRoute(String trainNumber, HttpHeaders headers)
+    {
+        String url = isHighSpeed(trainNumber)
+            ? "http://" + tsTravelServiceUrl + ":" + tsTravelServicePort + "/api/v1/travelservice/routes/" + trainNumber
+            : "http://" + tsTravel2ServiceUrl + ":" + tsTravel2ServicePort + "/api/v1/travel2service/routes/" + trainNumber;
+        HttpEntity requestEntity = new HttpEntity(headers);
+        ResponseEntity<Response<Route>> re = restTemplate.exchange(
+            url,
+            HttpMethod.GET,
+            requestEntity,
+            new ParameterizedTypeReference<Response<Route>>()
+            {
+            });
+        return re.getBody().getData();
+    }
+
+    LeftTicketInfo querySoldTickets(Seat seatRequest, HttpHeaders headers)
+    {
+        String url = isHighSpeed(seatRequest.getTrainNumber())
+            ? "http://" + tsOrderServiceUrl + ":" + tsOrderServicePort + "/api/v1/orderservice/order/tickets"
+            : "http://" + tsOrderOtherServiceUrl + ":" + tsOrderOtherServicePort + "/api/v1/orderOtherService/orderOther/tickets";
+        HttpEntity requestEntity = new HttpEntity(seatRequest, headers);
+        ResponseEntity<Response<LeftTicketInfo>> re = restTemplate.exchange(
+            url,
+            HttpMethod.POST,
+            requestEntity,
+            new ParameterizedTypeReference<Response<LeftTicketInfo>>()
+            {
+            });
+        return re.getBody().getData();
+    }
+
+    TrainType queryTrainType(String trainNumber, HttpHeaders headers)
+    {
+        String url = isHighSpeed(trainNumber)
+            ? "http://" + tsTravelServiceUrl + ":" + tsTravelServicePort + "/api/v1/travelservice/train_types/" + trainNumber
+            : "http://" + tsTravel2ServiceUrl + ":" + tsTravel2ServicePort + "/api/v1/travel2service/train_types/" + trainNumber;
+        HttpEntity requestEntity = new HttpEntity(headers);
+        ResponseEntity<Response<TrainType>> re = restTemplate.exchange(
+            url,
+            HttpMethod.GET,
+            requestEntity,
+            new ParameterizedTypeReference<Response<TrainType>>()
+            {
+            });
+        return re.getBody().getData();
+    }
+
     private boolean isContained(Set<Ticket> soldTickets, int seat)
     {
         //Check that the seat number has been used
@@ -374,7 +521,7 @@ public class SeatServiceImpl implements SeatService
         return result;
     }
 
-    private double getDirectProportion(HttpHeaders headers)
+    double getDirectProportion(HttpHeaders headers)
     {
 
         String configName = "DirectTicketAllocationProportion";
@@ -387,7 +534,7 @@ public class SeatServiceImpl implements SeatService
             {
             });
         Response<Config> configValue = re.getBody();
-        SeatServiceImpl.LOGGER.info("Configs is : {}", configValue.getData().toString());
+        SeatServiceImpl.LOGGER.info("Configs is : {}", configValue.getData());
         return Double.parseDouble(configValue.getData().getValue());
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package seat.service;
+
+import edu.fudan.common.util.Response;
+import seat.entity.*;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+@RunWith(JUnit4.class)
+public class PartitionedSeatServiceTest
+{
+    @InjectMocks
+    private PartitionedSeatService partitionedSeatService;
+
+    @Mock
+    private SeatServiceImpl seatService;
+
+    @Mock
+    private SeatPartition partition;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private HttpHeaders headers = new HttpHeaders();
+
+    private Seat seat = new Seat();
+
+    private Response stateless = new Response<>(1, "Use a new seat number!", null);
+
+    @Before
+    public void setUp()
+    {
+        MockitoAnnotations.initMocks(this);
+        seat.setTrainNumber("G1234");
+        seat.setStartStation("suzhou");
+        seat.setDestStation("beijing");
+        seat.setSeatType(SeatClass.SECONDCLASS.getCode());
+        Mockito.when(partition.getSelf()).thenReturn("seat-1");
+        Mockito.when(partition.isSelf("seat-1")).thenReturn(true);
+        Mockito.when(seatService.distributeSeat(seat, headers)).thenReturn(stateless);
+    }
+
+    @Test
+    public void testForwardToOwner()
+    {
+        Mockito.when(partition.owner(Mockito.anyString(), Mockito.any())).thenReturn("seat-2");
+        Response owned = new Response<>(1, "Use a new seat number!", new Ticket());
+        Mockito.when(restTemplate.exchange(Mockito.anyString(), Mockito.any(HttpMethod.class),
+            Mockito.any(HttpEntity.class), Mockito.eq(Response.class)))
+            .thenReturn(new ResponseEntity<>(owned, HttpStatus.OK));
+
+        Response result = partitionedSeatService.distributeSeat(seat, headers);
+        Assert.assertSame(owned, result);
+        ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+        Mockito.verify(restTemplate).exchange(Mockito.eq("http://seat-2/api/v1/seatservice/seats"),
+            Mockito.eq(HttpMethod.POST), request.capture(), Mockito.eq(Response.class));
+        Assert.assertEquals("seat-1", request.getValue().getHeaders().getFirst(PartitionedSeatService.FORWARDED_BY));
+        Mockito.verify(seatService, Mockito.never()).distributeSeat(seat, headers);
+    }
+
+    @Test
+    public void testForwardedRequestIsNotForwardedAgain()
+    {
+        Mockito.when(partition.owner(Mockito.anyString(), Mockito.any())).thenReturn("seat-2");
+        headers.set(PartitionedSeatService.FORWARDED_BY, "seat-3");
+
+        Response result = partitionedSeatService.distributeSeat(seat, headers);
+        Assert.assertSame(stateless, result);
+        Mockito.verifyZeroInteractions(restTemplate);
+    }
+
+    @Test
+    public void testUnreachableOwnerFallsBack()
+    {
+        Mockito.when(partition.owner(Mockito.anyString(), Mockito.any())).thenReturn("seat-2");
+        Mockito.when(restTemplate.exchange(Mockito.anyString(), Mockito.any(HttpMethod.class),
+            Mockito.any(HttpEntity.class), Mockito.eq(Response.class)))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+
+        Response result = partitionedSeatService.distributeSeat(seat, headers);
+        Assert.assertSame(stateless, result);
+    }
+
+    @Test
+    public void testOwnedTrainIsServedFromInventory()
+    {
+        Mockito.when(partition.owner(Mockito.anyString(), Mockito.any())).thenReturn("seat-1");
+        Mockito.when(partition.lock(Mockito.anyString())).thenReturn(new Object());
+        Mockito.when(partition.getRefreshMillis()).thenReturn(60000L);
+        Mockito.when(partition.takeHandedOver(Mockito.anyString())).thenReturn(Collections.emptySet());
+        Route route = new Route();
+        route.setStations(Arrays.asList("shanghai", "suzhou", "nanjing", "beijing"));
+        Mockito.when(seatService.queryRoute(Mockito.anyString(), Mockito.any(HttpHeaders.class))).thenReturn(route);
+        Mockito.when(seatService.queryTrainType(Mockito.anyString(), Mockito.any(HttpHeaders.class)))
+            .thenReturn(new TrainType("GaoTieOne", 6, 2));
+        Ticket sold = new Ticket();
+        sold.setSeatNo(4);
+        sold.setStartStation("shanghai");
+        sold.setDestStation("suzhou");
+        LeftTicketInfo leftTicketInfo = new LeftTicketInfo();
+        leftTicketInfo.setSoldTickets(new HashSet<>(Collections.singletonList(sold)));
+        Mockito.when(seatService.querySoldTickets(Mockito.any(Seat.class), Mockito.any(HttpHeaders.class)))
+            .thenReturn(leftTicketInfo);
+
+        Response result = partitionedSeatService.distributeSeat(seat, headers);
+        Assert.assertEquals(1, result.getStatus().intValue());
+        Assert.assertEquals(4, ((Ticket) result.getData()).getSeatNo());
+        Mockito.verify(partition).put(Mockito.anyString(), Mockito.any(SeatInventory.class));
+        Mockito.verify(seatService, Mockito.never()).distributeSeat(seat, headers);
+        Mockito.verifyZeroInteractions(restTemplate);
+    }
+}
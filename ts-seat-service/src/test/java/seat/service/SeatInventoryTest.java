@@ -0,0 +1,173 @@
+package seat.service;
+
+import seat.entity.Ticket;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public class SeatInventoryTest
+{
+    private static final List<String> STATIONS = Arrays.asList("shanghai", "suzhou", "nanjing", "beijing");
+
+    private static final long REFRESH_MILLIS = 60000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testSeatIsSharedBySegmentsThatDoNotOverlap()
+    {
+        SeatInventory inventory = new SeatInventory(STATIONS, 1, null, new LinkedHashMap<>(), 0);
+
+        Assert.assertEquals(1, inventory.assign("shanghai", "suzhou", random, 0));
+        Assert.assertEquals(1, inventory.assign("suzhou", "beijing", random, 0));
+        Assert.assertEquals(0, inventory.assign("nanjing", "beijing", random, 0));
+        Assert.assertEquals(2, inventory.getSoldCount());
+    }
+
+    @Test
+    public void testSeatEndingBeforeTheStartIsFilledFirst()
+    {
+        List<Ticket> sold = Collections.singletonList(SeatInventoryTest.ticket(7, "shanghai", "nanjing"));
+        SeatInventory inventory = new SeatInventory(STATIONS, 10, sold, new LinkedHashMap<>(), 0);
+
+        Assert.assertEquals(7, inventory.assign("nanjing", "beijing", random, 0));
+        Assert.assertEquals(1, inventory.getReusableCount("beijing"));
+    }
+
+    @Test
+    public void testFullTrain()
+    {
+        List<Ticket> sold = new ArrayList<>();
+        for (int seat = 1; seat <= 3; seat++) {
+            sold.add(SeatInventoryTest.ticket(seat, "shanghai", "beijing"));
+        }
+        SeatInventory inventory = new SeatInventory(STATIONS, 3, sold, new LinkedHashMap<>(), 0);
+
+        Assert.assertEquals(0, inventory.assign("suzhou", "nanjing", random, 0));
+        Assert.assertTrue(inventory.assignGroup("suzhou", "nanjing", 1, 0).isEmpty());
+    }
+
+    @Test
+    public void testGroupGetsAdjacentSeats()
+    {
+        List<Ticket> sold = Arrays.asList(SeatInventoryTest.ticket(2, "shanghai", "beijing"),
+            SeatInventoryTest.ticket(3, "shanghai", "suzhou"));
+        SeatInventory inventory = new SeatInventory(STATIONS, 6, sold, new LinkedHashMap<>(), 0);
+
+        Assert.assertEquals(Arrays.asList(3, 4, 5), inventory.assignGroup("suzhou", "beijing", 3, 0));
+        Assert.assertEquals(Arrays.asList(1, 6), inventory.assignGroup("suzhou", "beijing", 2, 0));
+        Assert.assertTrue(inventory.assignGroup("suzhou", "beijing", 1, 0).isEmpty());
+    }
+
+    @Test
+    public void testRouteOf64Stations()
+    {
+        List<String> stations = new ArrayList<>();
+        for (int i = 0; i < SeatInventory.MAX_STATIONS; i++) {
+            stations.add("station-" + i);
+        }
+        Assert.assertTrue(SeatInventory.supports(stations));
+        SeatInventory inventory = new SeatInventory(stations, 1, null, new LinkedHashMap<>(), 0);
+
+        Assert.assertEquals(1, inventory.assign("station-62", "station-63", random, 0));
+        Assert.assertEquals(1, inventory.assign("station-0", "station-62", random, 0));
+        Assert.assertEquals(0, inventory.assign("station-61", "station-63", random, 0));
+
+        stations.add("station-64");
+        Assert.assertFalse(SeatInventory.supports(stations));
+    }
+
+    @Test
+    public void testAssignedSeatsAreCarriedOverARefresh()
+    {
+        SeatInventory inventory = new SeatInventory(STATIONS, 2, null, new LinkedHashMap<>(), 0);
+        int early = inventory.assign("shanghai", "beijing", random, 0);
+        int late = inventory.assign("shanghai", "beijing", random, REFRESH_MILLIS + 10);
+        long now = 2 * REFRESH_MILLIS;
+        Assert.assertTrue(inventory.isStale(now, REFRESH_MILLIS));
+
+        //The order service already has the early seat, the late one is not in an order yet
+        Map<Ticket, Long> carried = inventory.getAssignedSince(now - REFRESH_MILLIS);
+        Assert.assertEquals(1, carried.size());
+        SeatInventory refreshed = new SeatInventory(STATIONS, 2,
+            Collections.singletonList(SeatInventoryTest.ticket(early, "shanghai", "beijing")), carried, now);
+
+        Assert.assertEquals(2, refreshed.getSoldCount());
+        Assert.assertEquals(0, refreshed.assign("suzhou", "nanjing", random, now));
+        Assert.assertEquals(Collections.singleton(late), SeatInventoryTest.seats(refreshed.getAssignedSince(0)));
+    }
+
+    @Test
+    public void testHandedOverSeatsAreMerged()
+    {
+        SeatInventory inventory = new SeatInventory(STATIONS, 2, null, new LinkedHashMap<>(), 0);
+        inventory.merge(Arrays.asList(SeatInventoryTest.ticket(1, "shanghai", "nanjing"),
+            SeatInventoryTest.ticket(2, "suzhou", "beijing")), 100);
+
+        Assert.assertEquals(1, inventory.assign("nanjing", "beijing", random, 100));
+        Assert.assertEquals(0, inventory.assign("suzhou", "nanjing", random, 100));
+        //Handed over seats are kept for the next refresh like the ones assigned here
+        Assert.assertEquals(3, inventory.getAssignedSince(100).size());
+    }
+
+    @Test
+    public void testSnapshotRoundTrip()
+    {
+        List<Ticket> sold = Arrays.asList(SeatInventoryTest.ticket(1, "shanghai", "nanjing"),
+            SeatInventoryTest.ticket(2, "wuxi", "beijing"));
+        SeatInventory inventory = new SeatInventory(STATIONS, 3, sold, new LinkedHashMap<>(), 0);
+        inventory.assign("suzhou", "beijing", random, 500);
+
+        SeatInventory restored = SeatInventory.fromSnapshot(inventory.toSnapshot());
+
+        Assert.assertEquals(3, restored.getSoldCount());
+        Assert.assertEquals(inventory.getAssignedSince(0), restored.getAssignedSince(0));
+        Assert.assertEquals(0, restored.assign("shanghai", "beijing", random, 500));
+    }
+
+    @Test
+    public void testRestoredInventoryIsStaleWithItsOwnTimes()
+    {
+        SeatInventory inventory = new SeatInventory(STATIONS, 2, null, new LinkedHashMap<>(), 0);
+        inventory.assign("shanghai", "beijing", random, 1000);
+
+        SeatInventory restored = SeatInventory.fromSnapshot(inventory.toSnapshot());
+
+        Assert.assertFalse(inventory.isStale(2000, REFRESH_MILLIS));
+        Assert.assertTrue(restored.isStale(2000, REFRESH_MILLIS));
+        //The seat is carried over the rebuild while within the refresh interval of its assignment
+        Assert.assertEquals(1, restored.getAssignedSince(2000 - REFRESH_MILLIS).size());
+        Assert.assertEquals(0, restored.getAssignedSince(1000 + REFRESH_MILLIS).size());
+    }
+
+    private static Ticket ticket(int seatNo, String startStation, String destStation)
+    {
+        Ticket ticket = new Ticket();
+        ticket.setSeatNo(seatNo);
+        ticket.setStartStation(startStation);
+        ticket.setDestStation(destStation);
+        return ticket;
+    }
+
+    private static Set<Integer> seats(Map<Ticket, Long> tickets)
+    {
+        Set<Integer> seats = new HashSet<>();
+        for (Ticket ticket : tickets.keySet()) {
+            seats.add(ticket.getSeatNo());
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,150 @@
+package seat.service;
+
+import edu.fudan.common.util.Response;
+import seat.entity.*;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public class SeatServiceImplTest
+{
+    private SeatServiceImpl seatServiceImpl;
+
+    private HttpHeaders headers = new HttpHeaders();
+
+    @Before
+    public void setUp()
+    {
+        seatServiceImpl = Mockito.spy(new SeatServiceImpl());
+        Route route = new Route();
+        route.setStations(Arrays.asList("shanghai", "suzhou", "nanjing", "beijing"));
+        Mockito.doReturn(route).when(seatServiceImpl).queryRoute(Mockito.anyString(), Mockito.any(HttpHeaders.class));
+        Mockito.doReturn(new TrainType("GaoTieOne", 6, 2)).when(seatServiceImpl)
+            .queryTrainType(Mockito.anyString(), Mockito.any(HttpHeaders.class));
+    }
+
+    @Test
+    public void testFindAdjacentSeatsContiguous()
+    {
+        boolean[] occupied = {false, true, false, true, false, false, false};
+        Assert.assertEquals(Arrays.asList(4, 5, 6), SeatServiceImpl.findAdjacentSeats(occupied, 3));
+        Assert.assertEquals(Collections.singletonList(2), SeatServiceImpl.findAdjacentSeats(occupied, 1));
+    }
+
+    @Test
+    public void testFindAdjacentSeatsFragmented()
+    {
+        boolean[] occupied = {false, false, true, false, true, false, true};
+        Assert.assertEquals(Arrays.asList(1, 3, 5), SeatServiceImpl.findAdjacentSeats(occupied, 3));
+    }
+
+    @Test
+    public void testFindAdjacentSeatsNotEnough()
+    {
+        boolean[] occupied = {false, true, false, true, true, false, true};
+        Assert.assertEquals(Arrays.asList(2, 5), SeatServiceImpl.findAdjacentSeats(occupied, 3));
+    }
+
+    @Test
+    public void testDistributeGroupSeatContiguous()
+    {
+        soldTickets(ticket(1, "shanghai", "nanjing"), ticket(2, "suzhou", "beijing"));
+        Response result = seatServiceImpl.distributeGroupSeat(groupSeat("suzhou", "nanjing", 3), headers);
+        Assert.assertEquals("Distribute Group Seat Success", result.getMsg());
+        Assert.assertEquals(Arrays.asList(3, 4, 5), seatNumbers(result));
+    }
+
+    @Test
+    public void testDistributeGroupSeatReusesEarlierSegments()
+    {
+        //Seats 1 and 2 are sold before suzhou only, so they are free from suzhou on
+        soldTickets(ticket(1, "shanghai", "suzhou"), ticket(2, "shanghai", "suzhou"), ticket(3, "nanjing", "beijing"));
+        Response result = seatServiceImpl.distributeGroupSeat(groupSeat("suzhou", "nanjing", 3), headers);
+        Assert.assertEquals(Arrays.asList(1, 2, 3), seatNumbers(result));
+    }
+
+    @Test
+    public void testDistributeGroupSeatFragmented()
+    {
+        soldTickets(ticket(2, "shanghai", "beijing"), ticket(4, "shanghai", "beijing"), ticket(6, "suzhou", "nanjing"));
+        Response result = seatServiceImpl.distributeGroupSeat(groupSeat("shanghai", "beijing", 3), headers);
+        Assert.assertEquals(Arrays.asList(1, 3, 5), seatNumbers(result));
+    }
+
+    @Test
+    public void testDistributeGroupSeatNotEnough()
+    {
+        soldTickets(ticket(1, "shanghai", "beijing"), ticket(2, "shanghai", "beijing"),
+            ticket(3, "shanghai", "beijing"), ticket(4, "shanghai", "beijing"));
+        Response result = seatServiceImpl.distributeGroupSeat(groupSeat("suzhou", "nanjing", 3), headers);
+        Assert.assertEquals(new Response<>(0, "Seat Not Enough", null), result);
+    }
+
+    @Test
+    public void testDistributeGroupSeatFirstClass()
+    {
+        soldTickets();
+        GroupSeat groupSeat = groupSeat("shanghai", "beijing", 3);
+        groupSeat.setSeatType(SeatClass.FIRSTCLASS.getCode());
+        Response result = seatServiceImpl.distributeGroupSeat(groupSeat, headers);
+        Assert.assertEquals(new Response<>(0, "Seat Not Enough", null), result);
+    }
+
+    @Test
+    public void testDistributeGroupSeatNonPositiveCount()
+    {
+        Response result = seatServiceImpl.distributeGroupSeat(groupSeat("shanghai", "beijing", 0), headers);
+        Assert.assertEquals(new Response<>(0, "Seat count must be positive", null), result);
+    }
+
+    private void soldTickets(Ticket... tickets)
+    {
+        LeftTicketInfo leftTicketInfo = new LeftTicketInfo();
+        Set<Ticket> soldTickets = new HashSet<>(Arrays.asList(tickets));
+        leftTicketInfo.setSoldTickets(soldTickets);
+        Mockito.doReturn(leftTicketInfo).when(seatServiceImpl)
+            .querySoldTickets(Mockito.any(Seat.class), Mockito.any(HttpHeaders.class));
+    }
+
+    private static Ticket ticket(int seatNo, String startStation, String destStation)
+    {
+        Ticket ticket = new Ticket();
+        ticket.setSeatNo(seatNo);
+        ticket.setStartStation(startStation);
+        ticket.setDestStation(destStation);
+        return ticket;
+    }
+
+    private static GroupSeat groupSeat(String startStation, String destStation, int seatCount)
+    {
+        GroupSeat groupSeat = new GroupSeat();
+        groupSeat.setTrainNumber("G1234");
+        groupSeat.setStartStation(startStation);
+        groupSeat.setDestStation(destStation);
+        groupSeat.setSeatType(SeatClass.SECONDCLASS.getCode());
+        groupSeat.setSeatCount(seatCount);
+        return groupSeat;
+    }
+
+    private static List<Integer> seatNumbers(Response result)
+    {
+        List<Integer> seats = new ArrayList<>();
+        for (Object ticket : (List) result.getData()) {
+            seats.add(((Ticket) ticket).getSeatNo());
+        }
+        return seats;
+    }
+}
@@ -3,6 +3,7 @@ package security.controller;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -71,7 +72,7 @@ public class SecurityController
     @GetMapping(path = "/securityConfigs/{accountId}")
     @HystrixCommand(fallbackMethod = "checkFallback", commandProperties = {
         @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-    })
+    }, ignoreExceptions = DeadlineExceededException.class)
     public HttpEntity check(@PathVariable String accountId, @RequestHeader HttpHeaders headers)
     {
         SecurityController.LOGGER.info("[Security Service][Check Security] Check Account Id: {}", accountId);
@@ -176,7 +176,7 @@ public class PostTicketInfoTest
         trainType.setAverageSpeed(120);
 
         HashMap<String, String> prices = new HashMap<>();
-        prices.put("economyClass", "454.99999999999994");
+        prices.put("economyClass", "455.0");
         prices.put("confortClass", "1300.0");
 
         String jsonString = mapper.writeValueAsString(travel);
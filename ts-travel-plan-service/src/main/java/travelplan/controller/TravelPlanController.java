@@ -1,8 +1,6 @@
 package travelplan.controller;
 
-import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
+import edu.fudan.common.async.AsyncEndpoints;
 import edu.fudan.common.util.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +12,8 @@ import travelplan.entity.TransferTravelInfo;
 import travelplan.entity.TripInfo;
 import travelplan.service.TravelPlanService;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
@@ -21,46 +21,52 @@ import static org.springframework.http.ResponseEntity.ok;
  */
 @RestController
 @RequestMapping("api/v1/travelplanservice")
-@DefaultProperties(defaultFallback = "fallback", commandProperties = {
-        @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "5000")
-})
 public class TravelPlanController {
     private static final Logger LOGGER = LoggerFactory.getLogger(TravelPlanController.class);
 
+    private static final long SEARCH_TIMEOUT_MILLIS = 5000;
+
     @Autowired
     TravelPlanService travelPlanService;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
     @GetMapping(path = "/welcome")
     public String home() {
         return "Welcome to [ TravelPlan Service ] !";
     }
 
     @PostMapping(value = "/travelPlan/transferResult")
-    @HystrixCommand
-    public HttpEntity getTransferResult(@RequestBody TransferTravelInfo info, @RequestHeader HttpHeaders headers) {
+    public CompletableFuture<HttpEntity> getTransferResult(@RequestBody TransferTravelInfo info,
+            @RequestHeader HttpHeaders headers) {
         TravelPlanController.LOGGER.info("[Search Transit]");
-        return ok(travelPlanService.getTransferSearch(info, headers));
+        return asyncEndpoints.supply(TravelPlanController.SEARCH_TIMEOUT_MILLIS,
+                () -> ok(travelPlanService.getTransferSearch(info, headers)), this::fallback);
     }
 
     @PostMapping(value = "/travelPlan/cheapest")
-    @HystrixCommand
-    public HttpEntity getByCheapest(@RequestBody TripInfo queryInfo, @RequestHeader HttpHeaders headers) {
+    public CompletableFuture<HttpEntity> getByCheapest(@RequestBody TripInfo queryInfo,
+            @RequestHeader HttpHeaders headers) {
         TravelPlanController.LOGGER.info("[Search Cheapest]");
-        return ok(travelPlanService.getCheapest(queryInfo, headers));
+        return asyncEndpoints.supply(TravelPlanController.SEARCH_TIMEOUT_MILLIS,
+                () -> ok(travelPlanService.getCheapest(queryInfo, headers)), this::fallback);
     }
 
     @PostMapping(value = "/travelPlan/quickest")
-    @HystrixCommand
-    public HttpEntity getByQuickest(@RequestBody TripInfo queryInfo, @RequestHeader HttpHeaders headers) {
+    public CompletableFuture<HttpEntity> getByQuickest(@RequestBody TripInfo queryInfo,
+            @RequestHeader HttpHeaders headers) {
         TravelPlanController.LOGGER.info("[Search Quickest]");
-        return ok(travelPlanService.getQuickest(queryInfo, headers));
+        return asyncEndpoints.supply(TravelPlanController.SEARCH_TIMEOUT_MILLIS,
+                () -> ok(travelPlanService.getQuickest(queryInfo, headers)), this::fallback);
     }
 
     @PostMapping(value = "/travelPlan/minStation")
-    @HystrixCommand
-    public HttpEntity getByMinStation(@RequestBody TripInfo queryInfo, @RequestHeader HttpHeaders headers) {
+    public CompletableFuture<HttpEntity> getByMinStation(@RequestBody TripInfo queryInfo,
+            @RequestHeader HttpHeaders headers) {
         TravelPlanController.LOGGER.info("[Search Min Station]");
-        return ok(travelPlanService.getMinStation(queryInfo, headers));
+        return asyncEndpoints.supply(TravelPlanController.SEARCH_TIMEOUT_MILLIS,
+                () -> ok(travelPlanService.getMinStation(queryInfo, headers)), this::fallback);
     }
 
     private HttpEntity fallback() {
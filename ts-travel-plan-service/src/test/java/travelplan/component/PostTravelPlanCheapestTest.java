@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
@@ -193,9 +194,9 @@ public class PostTravelPlanCheapestTest {
         ArrayList<TravelAdvanceResultUnit> travelAdvanceResultUnitList = new ArrayList<>();
         travelAdvanceResultUnitList.add(travelAdvanceResultUnit);
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/cheapest")
+        String response = mockMvc.perform(asyncDispatch(mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/cheapest")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(mapper.writeValueAsString(tripInfo)))
+                        .content(mapper.writeValueAsString(tripInfo))).andReturn()))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         Response<ArrayList<TravelAdvanceResultUnit>> actualResponse = JSONObject.parseObject(response, new TypeReference<Response<ArrayList<TravelAdvanceResultUnit>>>() {
@@ -264,9 +265,9 @@ public class PostTravelPlanCheapestTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(mapper.writeValueAsString(responseRoutePlanService)));
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/cheapest")
+        String response = mockMvc.perform(asyncDispatch(mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/cheapest")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(mapper.writeValueAsString(tripInfo)))
+                        .content(mapper.writeValueAsString(tripInfo))).andReturn()))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         Response<Object> actualResponse = JSONObject.parseObject(response, Response.class);
@@ -35,6 +35,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
@@ -192,9 +193,9 @@ public class PostTravelPlanQuickestTest {
         ArrayList<TravelAdvanceResultUnit> travelAdvanceResultUnitList = new ArrayList<>();
         travelAdvanceResultUnitList.add(travelAdvanceResultUnit);
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/quickest")
+        String response = mockMvc.perform(asyncDispatch(mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/quickest")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(mapper.writeValueAsString(tripInfo)))
+                        .content(mapper.writeValueAsString(tripInfo))).andReturn()))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         Response<ArrayList<TravelAdvanceResultUnit>> actualResponse = JSONObject.parseObject(response, new TypeReference<Response<ArrayList<TravelAdvanceResultUnit>>>() {
@@ -263,9 +264,9 @@ public class PostTravelPlanQuickestTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(mapper.writeValueAsString(responseRoutePlanService)));
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/quickest")
+        String response = mockMvc.perform(asyncDispatch(mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/quickest")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(mapper.writeValueAsString(tripInfo)))
+                        .content(mapper.writeValueAsString(tripInfo))).andReturn()))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         Response<Object> actualResponse = JSONObject.parseObject(response, Response.class);
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
@@ -165,9 +166,9 @@ public class PostTravelPlanTransferResultTest {
         result.setFirstSectionResult(firstSection);
         result.setSecondSectionResult(secondSection);
 
-        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/transferResult")
+        String response = mockMvc.perform(asyncDispatch(mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/transferResult")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(mapper.writeValueAsString(travelInfo)))
+                        .content(mapper.writeValueAsString(travelInfo))).andReturn()))
                 .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
         Response<TransferTravelResult> actualResponse = JSONObject.parseObject(response, new TypeReference<Response<TransferTravelResult>>() {
@@ -230,9 +231,9 @@ public class PostTravelPlanTransferResultTest {
     @Test
     void bodyVar_startingPlace_validTestNull() throws Exception {
         travelInfo.setFromStationName(null);
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/transferResult")
+        mockMvc.perform(asyncDispatch(mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/travelplanservice/travelPlan/transferResult")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(mapper.writeValueAsString(travelInfo)))
+                        .content(mapper.writeValueAsString(travelInfo))).andReturn()))
                 .andExpect(status().isOk());
     }
 }
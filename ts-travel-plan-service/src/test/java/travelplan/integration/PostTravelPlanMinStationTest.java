@@ -23,6 +23,7 @@ import travelplan.entity.TripInfo;
 
 import java.util.Date;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static edu.fudan.common.security.jwt.JWTGenerator.generateJwtTokenAdmin;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -152,10 +153,10 @@ public class PostTravelPlanMinStationTest {
 
         String jsonRequest = objectMapper.writeValueAsString(tripInfo);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonRequest)
-                        .header("Authorization", "Bearer " + generateJwtTokenAdmin()))
+                        .header("Authorization", "Bearer " + generateJwtTokenAdmin())).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(1))
                 .andExpect(jsonPath("$.msg").value("Success"))
@@ -172,10 +173,10 @@ public class PostTravelPlanMinStationTest {
 
         String jsonRequest = objectMapper.writeValueAsString(tripInfo);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonRequest)
-                        .header("Authorization", "Bearer " + generateJwtTokenAdmin()))
+                        .header("Authorization", "Bearer " + generateJwtTokenAdmin())).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(0))
                 .andExpect(jsonPath("$.msg").value("Cannot Find"))
@@ -195,10 +196,10 @@ public class PostTravelPlanMinStationTest {
 
         routePlanContainer.stop();
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonRequest)
-                        .header("Authorization", "Bearer " + generateJwtTokenAdmin()))
+                        .header("Authorization", "Bearer " + generateJwtTokenAdmin())).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(0))
                 .andExpect(jsonPath("$.msg").value("Service unavailable"))
@@ -4,6 +4,8 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.async.AsyncEndpoints;
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -19,6 +21,7 @@ import travel.entity.*;
 import travel.service.TravelService;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.http.ResponseEntity.ok;
 
@@ -29,14 +32,22 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/travelservice")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class TravelController
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(TravelController.class);
 
+    /**
+     * Timeout of the trip search, which runs on {@link AsyncEndpoints} rather than in Hystrix
+     */
+    private static final long QUERY_TIMEOUT_MILLIS = 300000;
+
     @Autowired
     private TravelService travelService;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
     @GetMapping(path = "/welcome")
     public String home(@RequestHeader HttpHeaders headers)
     {
@@ -118,8 +129,7 @@ public class TravelController
      */
     @CrossOrigin(origins = "*")
     @PostMapping(value = "/trips/left")
-    @HystrixCommand
-    public HttpEntity queryInfo(@RequestBody TripInfo info, @RequestHeader HttpHeaders headers)
+    public CompletableFuture<HttpEntity> queryInfo(@RequestBody TripInfo info, @RequestHeader HttpHeaders headers)
     {
         if (info.getStartingPlace() == null || info.getStartingPlace().length() == 0 ||
             info.getEndPlace() == null || info.getEndPlace().length() == 0 ||
@@ -127,10 +137,11 @@ public class TravelController
         {
             TravelController.LOGGER.info("[Travel Service][Travel Query] Fail.Something null.");
             ArrayList<TripResponse> errorList = new ArrayList<>();
-            return ok(errorList);
+            return CompletableFuture.completedFuture(ok(errorList));
         }
         TravelController.LOGGER.info("[Travel Service] Query TripResponse");
-        return ok(travelService.query(info, headers));
+        return asyncEndpoints.supply(TravelController.QUERY_TIMEOUT_MILLIS,
+            () -> ok(travelService.query(info, headers)), this::fallback);
     }
 
     /**
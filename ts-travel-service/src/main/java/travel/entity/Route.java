@@ -19,6 +19,8 @@ public class Route {
 
     private String terminalStationId;
 
+    private long version;
+
     public Route() {
         //Default Constructor
     }
@@ -31,6 +33,7 @@ public class Route {
                 ", distances=" + distances +
                 ", startStationId='" + startStationId + '\'' +
                 ", terminalStationId='" + terminalStationId + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
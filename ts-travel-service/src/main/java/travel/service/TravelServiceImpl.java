@@ -1,7 +1,9 @@
 package travel.service;
 
+import edu.fudan.common.logging.LogPayloads;
 import edu.fudan.common.util.JsonUtils;
 import edu.fudan.common.util.Response;
+import edu.fudan.common.util.RouteGeometry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -194,12 +196,11 @@ public class TravelServiceImpl implements TravelService
             Route tempRoute = getRouteByRouteId(tempTrip.getRouteId(), headers);
             //Check the route list for this train. Check that the required start and arrival stations are in the list of stops that are not on the route, and check that the location of the start station is before the stop
             //Trains that meet the above criteria are added to the return list
-            if (tempRoute.getStations().contains(startingPlaceId) &&
-                tempRoute.getStations().contains(endPlaceId) &&
-                tempRoute.getStations().indexOf(startingPlaceId) < tempRoute.getStations().indexOf(endPlaceId))
-            {
+            RouteGeometry geometry = RouteGeometry.of(tempRoute.getId(), tempRoute.getVersion(),
+                tempRoute.getStations(), tempRoute.getDistances());
+            if (geometry.isInOrder(startingPlaceId, endPlaceId)) {
                 TripResponse response =
-                    getTickets(tempTrip, tempRoute, startingPlaceId, endPlaceId, startingPlaceName, endPlaceName,
+                    getTickets(tempTrip, geometry, startingPlaceId, endPlaceId, startingPlaceName, endPlaceName,
                         info.getDepartureTime(), headers);
                 if (response == null) {
                     return new Response<>(0, "No Trip info content", null);
@@ -225,9 +226,11 @@ public class TravelServiceImpl implements TravelService
             String startingPlaceId = queryForStationId(startingPlaceName, headers);
             String endPlaceId = queryForStationId(endPlaceName, headers);
             Route tempRoute = getRouteByRouteId(trip.getRouteId(), headers);
+            RouteGeometry geometry = RouteGeometry.of(tempRoute.getId(), tempRoute.getVersion(),
+                tempRoute.getStations(), tempRoute.getDistances());
 
             TripResponse tripResponse =
-                getTickets(trip, tempRoute, startingPlaceId, endPlaceId, gtdi.getFrom(), gtdi.getTo(),
+                getTickets(trip, geometry, startingPlaceId, endPlaceId, gtdi.getFrom(), gtdi.getTo(),
                     gtdi.getTravelDate(), headers);
             if (tripResponse == null) {
                 gtdr.setTripResponse(null);
@@ -269,7 +272,7 @@ public class TravelServiceImpl implements TravelService
         }
     }
 
-    private TripResponse getTickets(Trip trip, Route route, String startingPlaceId, String endPlaceId,
+    private TripResponse getTickets(Trip trip, RouteGeometry geometry, String startingPlaceId, String endPlaceId,
         String startingPlaceName, String endPlaceName, Date departureTime, HttpHeaders headers)
     {
 
@@ -290,7 +293,7 @@ public class TravelServiceImpl implements TravelService
             HttpMethod.POST,
             requestEntity,
             Response.class);
-        TravelServiceImpl.LOGGER.info("Ts-basic-service ticket info is: {}", re.getBody().toString());
+        TravelServiceImpl.LOGGER.info("Ts-basic-service ticket info is: {}", LogPayloads.summary(re.getBody()));
         TravelResult resultForTravel = JsonUtils.conveterObject(re.getBody().getData(), TravelResult.class);
 
         //Ticket order _ high-speed train (number of tickets purchased)
@@ -305,7 +308,7 @@ public class TravelServiceImpl implements TravelService
             });
 
         Response<SoldTicket> result = re2.getBody();
-        TravelServiceImpl.LOGGER.info("Order info is: {}", result.toString());
+        TravelServiceImpl.LOGGER.info("Order info is: {}", LogPayloads.summary(result));
 
         //Set the returned ticket information
         TripResponse response = new TripResponse();
@@ -324,10 +327,8 @@ public class TravelServiceImpl implements TravelService
         response.setTerminalStation(endPlaceName);
 
         //Calculate the distance from the starting point
-        int indexStart = route.getStations().indexOf(startingPlaceId);
-        int indexEnd = route.getStations().indexOf(endPlaceId);
-        int distanceStart = route.getDistances().get(indexStart) - route.getDistances().get(0);
-        int distanceEnd = route.getDistances().get(indexEnd) - route.getDistances().get(0);
+        int distanceStart = geometry.distanceAt(geometry.positionOf(startingPlaceId));
+        int distanceEnd = geometry.distanceAt(geometry.positionOf(endPlaceId));
         TrainType trainType = getTrainType(trip.getTrainTypeId(), headers);
         //Train running time is calculated according to the average running speed of the train
         int minutesStart = 60 * distanceStart / trainType.getAverageSpeed();
@@ -402,7 +403,7 @@ public class TravelServiceImpl implements TravelService
             new ParameterizedTypeReference<Response<String>>()
             {
             });
-        TravelServiceImpl.LOGGER.info("Query for Station id is: {}", re.getBody().toString());
+        TravelServiceImpl.LOGGER.info("Query for Station id is: {}", LogPayloads.summary(re.getBody()));
 
         return re.getBody().getData();
     }
@@ -419,10 +420,10 @@ public class TravelServiceImpl implements TravelService
         Response routeRes = re.getBody();
 
         Route route1 = new Route();
-        TravelServiceImpl.LOGGER.info("Routes Response is : {}", routeRes.toString());
+        TravelServiceImpl.LOGGER.info("Routes Response is : {}", LogPayloads.summary(routeRes));
         if (routeRes.getStatus() == 1) {
             route1 = JsonUtils.conveterObject(routeRes.getData(), Route.class);
-            TravelServiceImpl.LOGGER.info("Route is: {}", route1.toString());
+            TravelServiceImpl.LOGGER.info("Route is: {}", LogPayloads.summary(route1));
         }
         return route1;
     }
@@ -441,7 +442,7 @@ public class TravelServiceImpl implements TravelService
         seatRequest.setTravelDate(travelDate);
         seatRequest.setSeatType(seatType);
 
-        TravelServiceImpl.LOGGER.info("Seat request To String: {}", seatRequest.toString());
+        TravelServiceImpl.LOGGER.info("Seat request To String: {}", seatRequest);
 
         HttpEntity requestEntity = new HttpEntity(seatRequest, headers);
         ResponseEntity<Response<Integer>> re = restTemplate.exchange(
@@ -451,7 +452,7 @@ public class TravelServiceImpl implements TravelService
             new ParameterizedTypeReference<Response<Integer>>()
             {
             });
-        TravelServiceImpl.LOGGER.info("Get Rest tickets num is: {}", re.getBody().toString());
+        TravelServiceImpl.LOGGER.info("Get Rest tickets num is: {}", LogPayloads.summary(re.getBody()));
 
         return re.getBody().getData();
     }
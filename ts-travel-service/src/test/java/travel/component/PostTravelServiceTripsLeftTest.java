@@ -19,6 +19,7 @@ import travel.entity.*;
 import java.net.URI;
 import java.util.*;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
@@ -170,10 +171,10 @@ public class PostTravelServiceTripsLeftTest extends BaseComponentTest {
         list.add(tripResponse);
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonRequest)
-                        .header(HttpHeaders.ACCEPT, "application/json"))
+                        .header(HttpHeaders.ACCEPT, "application/json")).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
         CollectionType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, TripResponse.class);
@@ -214,10 +215,10 @@ public class PostTravelServiceTripsLeftTest extends BaseComponentTest {
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonRequest)
-                        .header(HttpHeaders.ACCEPT, "application/json"))
+                        .header(HttpHeaders.ACCEPT, "application/json")).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
         CollectionType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, TripResponse.class);
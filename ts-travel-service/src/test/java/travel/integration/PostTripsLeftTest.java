@@ -23,6 +23,7 @@ import travel.repository.TripRepository;
 
 import java.util.*;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static edu.fudan.common.security.jwt.JWTGenerator.generateJwtTokenAdmin;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -204,10 +205,10 @@ public class PostTripsLeftTest {
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(1))
                 .andExpect(jsonPath("$.msg").value("Success"));
@@ -261,10 +262,10 @@ public class PostTripsLeftTest {
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(1))
                 .andExpect(jsonPath("$.msg").value("Success"));
@@ -284,10 +285,10 @@ public class PostTripsLeftTest {
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk());
     }
 
@@ -306,10 +307,10 @@ public class PostTripsLeftTest {
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(1))
                 .andExpect(jsonPath("$.msg").value("Success"));
@@ -4,6 +4,8 @@ import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
+import edu.fudan.common.async.AsyncEndpoints;
+import edu.fudan.common.exception.DeadlineExceededException;
 import edu.fudan.common.util.Response;
 
 import org.slf4j.Logger;
@@ -19,6 +21,7 @@ import travel2.entity.*;
 import travel2.service.Travel2Service;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.http.ResponseEntity.ok;
 
@@ -29,14 +32,22 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/api/v1/travel2service")
 @DefaultProperties(defaultFallback = "fallback", commandProperties = {
     @HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds", value = "300000")
-})
+}, ignoreExceptions = DeadlineExceededException.class)
 public class Travel2Controller
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(Travel2Controller.class);
 
+    /**
+     * Timeout of the trip search, which runs on {@link AsyncEndpoints} rather than in Hystrix
+     */
+    private static final long QUERY_TIMEOUT_MILLIS = 300000;
+
     @Autowired
     private Travel2Service service;
 
+    @Autowired
+    private AsyncEndpoints asyncEndpoints;
+
     @GetMapping(path = "/welcome")
     public String home(@RequestHeader HttpHeaders headers)
     {
@@ -118,8 +129,7 @@ public class Travel2Controller
      */
     @CrossOrigin(origins = "*")
     @PostMapping(value = "/trips/left")
-    @HystrixCommand
-    public HttpEntity queryInfo(@RequestBody TripInfo info, @RequestHeader HttpHeaders headers)
+    public CompletableFuture<HttpEntity> queryInfo(@RequestBody TripInfo info, @RequestHeader HttpHeaders headers)
     {
         if (info.getStartingPlace() == null || info.getStartingPlace().length() == 0 ||
             info.getEndPlace() == null || info.getEndPlace().length() == 0 ||
@@ -127,10 +137,11 @@ public class Travel2Controller
         {
             Travel2Controller.LOGGER.info("[Travel Service][Travel Query] Fail.Something null.");
             ArrayList<TripResponse> errorList = new ArrayList<>();
-            return ok(errorList);
+            return CompletableFuture.completedFuture(ok(errorList));
         }
         Travel2Controller.LOGGER.info("[Travel Service] Query TripResponse");
-        return ok(service.query(info, headers));
+        return asyncEndpoints.supply(Travel2Controller.QUERY_TIMEOUT_MILLIS,
+            () -> ok(service.query(info, headers)), this::fallback);
     }
 
     /**
@@ -25,6 +25,8 @@ public class Route {
 
     private String terminalStationId;
 
+    private long version;
+
     public Route() {
         //Default Constructor
     }
@@ -2,6 +2,7 @@ package travel2.service;
 
 import edu.fudan.common.util.JsonUtils;
 import edu.fudan.common.util.Response;
+import edu.fudan.common.util.RouteGeometry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -198,12 +199,11 @@ public class Travel2ServiceImpl implements Travel2Service
             Route tempRoute = getRouteByRouteId(tempTrip.getRouteId(), headers);
             //Check the route list for this train. Check that the required start and arrival stations are in the list of stops that are not on the route, and check that the location of the start station is before the stop
             //Trains that meet the above criteria are added to the return list
-            if (tempRoute.getStations().contains(startingPlaceId) &&
-                tempRoute.getStations().contains(endPlaceId) &&
-                tempRoute.getStations().indexOf(startingPlaceId) < tempRoute.getStations().indexOf(endPlaceId))
-            {
+            RouteGeometry geometry = RouteGeometry.of(tempRoute.getId(), tempRoute.getVersion(),
+                tempRoute.getStations(), tempRoute.getDistances());
+            if (geometry.isInOrder(startingPlaceId, endPlaceId)) {
                 TripResponse response =
-                    getTickets(tempTrip, tempRoute, startingPlaceId, endPlaceId, startingPlaceName, endPlaceName,
+                    getTickets(tempTrip, geometry, startingPlaceId, endPlaceId, startingPlaceName, endPlaceName,
                         info.getDepartureTime(), headers);
                 if (response == null) {
                     return new Response<>(0, noCnontent, null);
@@ -230,8 +230,10 @@ public class Travel2ServiceImpl implements Travel2Service
             String endPlaceId = queryForStationId(endPlaceName, headers);
             Travel2ServiceImpl.LOGGER.info("[TravelService] [getTripAllDetailInfo] endPlaceID: {}", endPlaceId);
             Route tempRoute = getRouteByRouteId(trip.getRouteId(), headers);
+            RouteGeometry geometry = RouteGeometry.of(tempRoute.getId(), tempRoute.getVersion(),
+                tempRoute.getStations(), tempRoute.getDistances());
             TripResponse tripResponse =
-                getTickets(trip, tempRoute, startingPlaceId, endPlaceId, gtdi.getFrom(), gtdi.getTo(),
+                getTickets(trip, geometry, startingPlaceId, endPlaceId, gtdi.getFrom(), gtdi.getTo(),
                     gtdi.getTravelDate(), headers);
             if (tripResponse == null) {
                 gtdr.setTrip(null);
@@ -274,7 +276,7 @@ public class Travel2ServiceImpl implements Travel2Service
         }
     }
 
-    private TripResponse getTickets(Trip trip, Route route, String startingPlaceId, String endPlaceId,
+    private TripResponse getTickets(Trip trip, RouteGeometry geometry, String startingPlaceId, String endPlaceId,
         String startingPlaceName, String endPlaceName, Date departureTime, HttpHeaders headers)
     {
 
@@ -341,12 +343,10 @@ public class Travel2ServiceImpl implements Travel2Service
         response.setTerminalStation(endPlaceName);
 
         //Calculate the distance from the starting point
-        Travel2ServiceImpl.LOGGER.info("[TravelService][getTickets] route: {}  station: {}", route.getId(),
-            route.getStations());
-        int indexStart = route.getStations().indexOf(startingPlaceId);
-        int indexEnd = route.getStations().indexOf(endPlaceId);
-        int distanceStart = route.getDistances().get(indexStart) - route.getDistances().get(0);
-        int distanceEnd = route.getDistances().get(indexEnd) - route.getDistances().get(0);
+        Travel2ServiceImpl.LOGGER.info("[TravelService][getTickets] route: {}  station: {}", trip.getRouteId(),
+            geometry);
+        int distanceStart = geometry.distanceAt(geometry.positionOf(startingPlaceId));
+        int distanceEnd = geometry.distanceAt(geometry.positionOf(endPlaceId));
         TrainType trainType = getTrainType(trip.getTrainTypeId(), headers);
         //Train running time is calculated according to the average running speed of the train
         int minutesStart = 60 * distanceStart / trainType.getAverageSpeed();
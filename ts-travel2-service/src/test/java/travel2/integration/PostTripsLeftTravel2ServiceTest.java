@@ -27,6 +27,7 @@ import travel2.repository.TripRepository;
 
 import java.util.*;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static edu.fudan.common.security.jwt.JWTGenerator.generateJwtTokenAdmin;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -219,10 +220,10 @@ public class PostTripsLeftTravel2ServiceTest
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        mockMvc.perform(post(url)
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value(1))
                 .andExpect(jsonPath("$.msg").value("Success Query"))
@@ -268,10 +269,10 @@ public class PostTripsLeftTravel2ServiceTest
         tripResponse.setPriceForEconomyClass(travelResult.getPrices().get("economyClass"));
 
         String jsonRequest = objectMapper.writeValueAsString(info);
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -299,10 +300,10 @@ public class PostTripsLeftTravel2ServiceTest
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -329,10 +330,10 @@ public class PostTripsLeftTravel2ServiceTest
         // afterToday(departureTime) is false, so null is returned
 
         String jsonRequest = objectMapper.writeValueAsString(info);
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -355,10 +356,10 @@ public class PostTripsLeftTravel2ServiceTest
 
         String jsonRequest = objectMapper.writeValueAsString(info);
 
-        String result = mockMvc.perform(post(url)
+        String result = mockMvc.perform(asyncDispatch(mockMvc.perform(post(url)
                         .header("Authorization", "Bearer " + generateJwtTokenAdmin())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
+                        .content(jsonRequest)).andReturn()))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
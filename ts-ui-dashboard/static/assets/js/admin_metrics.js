@@ -0,0 +1,173 @@
+var metricsModule = angular.module("myApp", []);
+
+//Services whose /actuator/prometheus is proxied by nginx under /metrics/<service>
+var METRIC_SERVICES = ["ts-preserve-service", "ts-preserve-other-service", "ts-travel-service",
+    "ts-travel2-service", "ts-travel-plan-service", "ts-route-plan-service", "ts-basic-service",
+    "ts-ticketinfo-service", "ts-seat-service", "ts-order-service", "ts-order-other-service",
+    "ts-inside-payment-service", "ts-payment-service", "ts-cancel-service", "ts-rebook-service",
+    "ts-food-service"];
+
+var REFRESH_MILLIS = 5000;
+
+//Parses the Prometheus text format into {name, labels, value} samples
+function parseSamples(text) {
+    var samples = [];
+    var lines = text.split("\n");
+    for (var i = 0; i < lines.length; i++) {
+        var line = lines[i];
+        if (line.length == 0 || line.charAt(0) == "#") {
+            continue;
+        }
+        var brace = line.indexOf("{");
+        var space = line.lastIndexOf(" ");
+        var name = brace < 0 ? line.substring(0, space) : line.substring(0, brace);
+        var labels = {};
+        if (brace >= 0) {
+            var labelText = line.substring(brace + 1, line.lastIndexOf("}"));
+            var labelPattern = /(\w+)="((?:[^"\\]|\\.)*)"/g;
+            var match;
+            while ((match = labelPattern.exec(labelText)) != null) {
+                labels[match[1]] = match[2];
+            }
+        }
+        samples.push({name: name, labels: labels, value: parseFloat(line.substring(space + 1))});
+    }
+    return samples;
+}
+
+//Groups the samples of a timer by the given labels, summing over all other labels
+function timers(samples, metric, keys) {
+    var groups = {};
+    for (var i = 0; i < samples.length; i++) {
+        var sample = samples[i];
+        if (sample.name.indexOf(metric + "_") != 0) {
+            continue;
+        }
+        var key = keys.map(function (k) {
+            return sample.labels[k];
+        }).join(" ");
+        var group = groups[key] || (groups[key] = {
+            labels: sample.labels, count: 0, sum: 0, errors: 0, buckets: {}
+        });
+        var suffix = sample.name.substring(metric.length + 1);
+        if (suffix == "count") {
+            group.count += sample.value;
+            if ((sample.labels.status || "").charAt(0) == "5" || sample.labels.status == "FAILED") {
+                group.errors += sample.value;
+            }
+        } else if (suffix == "sum") {
+            group.sum += sample.value;
+        } else if (suffix == "bucket") {
+            var le = sample.labels.le;
+            group.buckets[le] = (group.buckets[le] || 0) + sample.value;
+        }
+    }
+    return groups;
+}
+
+//Upper bound in milliseconds of the bucket holding the given quantile
+function quantile(group, q) {
+    var bounds = Object.keys(group.buckets).filter(function (le) {
+        return le != "+Inf";
+    }).sort(function (a, b) {
+        return parseFloat(a) - parseFloat(b);
+    });
+    if (group.count == 0) {
+        return "-";
+    }
+    for (var i = 0; i < bounds.length; i++) {
+        if (group.buckets[bounds[i]] >= q * group.count) {
+            return (parseFloat(bounds[i]) * 1000).toFixed(1);
+        }
+    }
+    return bounds.length > 0 ? "> " + (parseFloat(bounds[bounds.length - 1]) * 1000).toFixed(0) : "-";
+}
+
+function timerRows(groups, keys, previous, seconds) {
+    var rows = [];
+    for (var key in groups) {
+        var group = groups[key];
+        var row = keys.map(function (k) {
+            return group.labels[k];
+        });
+        var rate = previous && previous[key] && seconds > 0 ? (group.count - previous[key].count) / seconds : 0;
+        row.push(group.count, rate.toFixed(2), group.count > 0 ? (group.sum * 1000 / group.count).toFixed(1) : "-",
+            quantile(group, 0.95), quantile(group, 0.99), group.errors);
+        rows.push(row);
+    }
+    rows.sort(function (a, b) {
+        return b[keys.length] - a[keys.length];
+    });
+    return rows;
+}
+
+function gaugeRows(samples) {
+    var pools = {};
+    var columns = {
+        executor_pool_size_threads: 1, executor_active_threads: 2, executor_queued_tasks: 3,
+        executor_completed_tasks_total: 4
+    };
+    for (var i = 0; i < samples.length; i++) {
+        var sample = samples[i];
+        if (columns[sample.name] === undefined) {
+            continue;
+        }
+        var name = sample.labels.name;
+        var row = pools[name] || (pools[name] = [name, "-", "-", "-", "-"]);
+        row[columns[sample.name]] = sample.value;
+    }
+    return Object.keys(pools).sort().map(function (name) {
+        return pools[name];
+    });
+}
+
+metricsModule.controller("metricsCtrl", function ($scope, $http, $interval) {
+    var TIMER_COLUMNS = ["Requests", "Rate/s", "Mean ms", "p95 ms", "p99 ms", "Errors"];
+    var previous = {};
+    var previousTime = 0;
+
+    $scope.services = METRIC_SERVICES;
+    $scope.service = METRIC_SERVICES[0];
+    $scope.sections = [];
+
+    $scope.refresh = function () {
+        var service = $scope.service;
+        $http({method: "get", url: "/metrics/" + service, transformResponse: []}).success(function (data) {
+            var samples = parseSamples(data);
+            var now = Date.now();
+            var seconds = previous.service == service ? (now - previousTime) / 1000 : 0;
+            var endpoints = timers(samples, "http_server_requests_seconds", ["method", "uri"]);
+            var calls = timers(samples, "http_client_requests_seconds", ["clientName", "method", "uri"]);
+            var commands = timers(samples, "mongodb_driver_commands_seconds", ["collection", "command"]);
+            $scope.sections = [
+                {
+                    title: "Endpoints", columns: ["Method", "URI"].concat(TIMER_COLUMNS),
+                    rows: timerRows(endpoints, ["method", "uri"], previous.endpoints, seconds)
+                },
+                {
+                    title: "Downstream calls", columns: ["Service", "Method", "URI"].concat(TIMER_COLUMNS),
+                    rows: timerRows(calls, ["clientName", "method", "uri"], previous.calls, seconds)
+                },
+                {
+                    title: "Mongo commands", columns: ["Collection", "Command"].concat(TIMER_COLUMNS),
+                    rows: timerRows(commands, ["collection", "command"], previous.commands, seconds)
+                },
+                {
+                    title: "Thread pools", columns: ["Pool", "Threads", "Active", "Queued", "Completed"],
+                    rows: gaugeRows(samples)
+                }
+            ];
+            previous = {service: service, endpoints: endpoints, calls: calls, commands: commands};
+            previousTime = now;
+            $scope.status = "Updated " + new Date(now).toLocaleTimeString();
+        }).error(function (data, status) {
+            $scope.status = "Cannot read metrics of " + service + " (" + status + ")";
+        });
+    };
+
+    $scope.refresh();
+    var timer = $interval($scope.refresh, REFRESH_MILLIS);
+    $scope.$on("$destroy", function () {
+        $interval.cancel(timer);
+    });
+});
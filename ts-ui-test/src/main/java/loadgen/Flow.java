@@ -0,0 +1,222 @@
+package loadgen;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The user journeys of the ts-ui-test flow tests, as the REST calls their pages make
+ *
+ * @author fdse
+ */
+public enum Flow
+{
+    /**
+     * TestFlowOne: login, search, book, pay, collect the ticket and enter the station
+     */
+    PRESERVE
+        {
+            @Override
+            void run(FlowContext context)
+            {
+                context.login();
+                context.think();
+                String[] stations = context.nextStationPair();
+                String date = context.nextTravelDate();
+                List<JsonNode> trips = searchTrips(context, stations[0], stations[1], date);
+                if (trips.isEmpty()) {
+                    throw new StepFailedException("search", "no trips from " + stations[0] + " to " + stations[1]);
+                }
+                JsonNode trip = trips.get(context.random().nextInt(trips.size()));
+                String tripId = tripId(trip);
+                context.think();
+
+                JsonNode contacts = context.client()
+                    .get("contacts", "/api/v1/contactservice/contacts/account/" + context.userId(), context.token())
+                    .path("data");
+                if (contacts.size() == 0) {
+                    throw new StepFailedException("contacts", "account has no contacts");
+                }
+                Map<String, Object> orderTicketsInfo = new HashMap<>();
+                orderTicketsInfo.put("accountId", context.userId());
+                orderTicketsInfo.put("contactsId", contacts.get(context.random().nextInt(contacts.size())).path("id")
+                    .asText());
+                orderTicketsInfo.put("tripId", tripId);
+                orderTicketsInfo.put("seatType", context.random().nextInt(4) == 0 ? FIRST_CLASS : SECOND_CLASS);
+                orderTicketsInfo.put("date", date);
+                orderTicketsInfo.put("from", stations[0]);
+                orderTicketsInfo.put("to", stations[1]);
+                orderTicketsInfo.put("assurance", 0);
+                orderTicketsInfo.put("foodType", 0);
+                if (isHighSpeed(tripId)) {
+                    context.client().post("preserve", "/api/v1/preserveservice/preserve", orderTicketsInfo,
+                        context.token());
+                } else {
+                    context.client().post("preserve-other", "/api/v1/preserveotherservice/preserveOther",
+                        orderTicketsInfo, context.token());
+                }
+                context.think();
+
+                List<JsonNode> notPaid = queryOrders(context, isHighSpeed(tripId), ORDER_NOT_PAID);
+                JsonNode order = newest(notPaid, tripId);
+                if (order == null) {
+                    throw new StepFailedException("orders", "booked order not found");
+                }
+                String orderId = order.path("id").asText();
+                pay(context, orderId, tripId);
+                context.think();
+
+                context.client().get("collect", "/api/v1/executeservice/execute/collected/" + orderId, context.token());
+                context.think();
+                context.client().get("enter", "/api/v1/executeservice/execute/execute/" + orderId, context.token());
+            }
+        },
+
+    /**
+     * TestFlowTwoPay: login, list the orders and pay one that is not paid yet
+     */
+    PAY
+        {
+            @Override
+            void run(FlowContext context)
+            {
+                context.login();
+                context.think();
+                List<JsonNode> notPaid = new ArrayList<>(queryOrders(context, true, ORDER_NOT_PAID));
+                notPaid.addAll(queryOrders(context, false, ORDER_NOT_PAID));
+                if (notPaid.isEmpty()) {
+                    return;
+                }
+                JsonNode order = notPaid.get(context.random().nextInt(notPaid.size()));
+                context.think();
+                pay(context, order.path("id").asText(), order.path("trainNumber").asText());
+            }
+        },
+
+    /**
+     * TestFlowTwoRebook: login, list the paid orders, search today's trips of one and rebook it
+     */
+    REBOOK
+        {
+            @Override
+            void run(FlowContext context)
+            {
+                context.login();
+                context.think();
+                List<JsonNode> paid = new ArrayList<>(queryOrders(context, true, ORDER_PAID));
+                paid.addAll(queryOrders(context, false, ORDER_PAID));
+                if (paid.isEmpty()) {
+                    return;
+                }
+                JsonNode order = paid.get(context.random().nextInt(paid.size()));
+                String from = stationName(context, order.path("from").asText());
+                String to = stationName(context, order.path("to").asText());
+                String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+                List<JsonNode> trips = searchTrips(context, from, to, today);
+                if (trips.isEmpty()) {
+                    return;
+                }
+                context.think();
+
+                Map<String, Object> rebookInfo = new HashMap<>();
+                rebookInfo.put("loginId", context.userId());
+                rebookInfo.put("orderId", order.path("id").asText());
+                rebookInfo.put("oldTripId", order.path("trainNumber").asText());
+                rebookInfo.put("tripId", tripId(trips.get(context.random().nextInt(trips.size()))));
+                rebookInfo.put("seatType", order.path("seatClass").asInt(SECOND_CLASS));
+                rebookInfo.put("date", today);
+                JsonNode result = context.client().post("rebook", "/api/v1/rebookservice/rebook", rebookInfo,
+                    context.token());
+                if (result.path("status").asInt() == REBOOK_PAY_DIFFERENCE) {
+                    context.think();
+                    context.client().post("rebook-difference", "/api/v1/rebookservice/rebook/difference", rebookInfo,
+                        context.token());
+                }
+            }
+        };
+
+    private static final int FIRST_CLASS = 2;
+
+    private static final int SECOND_CLASS = 3;
+
+    private static final int ORDER_NOT_PAID = 0;
+
+    private static final int ORDER_PAID = 1;
+
+    private static final int REBOOK_PAY_DIFFERENCE = 2;
+
+    abstract void run(FlowContext context);
+
+    private static List<JsonNode> searchTrips(FlowContext context, String from, String to, String date)
+    {
+        Map<String, Object> tripInfo = new HashMap<>();
+        tripInfo.put("startingPlace", from);
+        tripInfo.put("endPlace", to);
+        tripInfo.put("departureTime", date);
+        List<JsonNode> trips = new ArrayList<>();
+        context.client().query("search", "/api/v1/travelservice/trips/left", tripInfo, context.token())
+            .path("data").forEach(trips::add);
+        context.client().query("search-other", "/api/v1/travel2service/trips/left", tripInfo, context.token())
+            .path("data").forEach(trips::add);
+        return trips;
+    }
+
+    private static List<JsonNode> queryOrders(FlowContext context, boolean highSpeed, int state)
+    {
+        Map<String, Object> orderInfo = new HashMap<>();
+        orderInfo.put("loginId", context.userId());
+        orderInfo.put("enableStateQuery", true);
+        orderInfo.put("state", state);
+        orderInfo.put("enableTravelDateQuery", false);
+        orderInfo.put("enableBoughtDateQuery", false);
+        List<JsonNode> orders = new ArrayList<>();
+        context.client().query(highSpeed ? "orders" : "orders-other",
+            highSpeed ? "/api/v1/orderservice/order/refresh" : "/api/v1/orderOtherService/orderOther/refresh",
+            orderInfo, context.token()).path("data").forEach(orders::add);
+        return orders;
+    }
+
+    private static void pay(FlowContext context, String orderId, String tripId)
+    {
+        Map<String, Object> paymentInfo = new HashMap<>();
+        paymentInfo.put("orderId", orderId);
+        paymentInfo.put("tripId", tripId);
+        context.client().post("pay", "/api/v1/inside_pay_service/inside_payment", paymentInfo, context.token());
+    }
+
+    private static String stationName(FlowContext context, String stationId)
+    {
+        return context.client().get("station-name",
+            "/api/v1/stationservice/stations/name/" + TrainTicketClient.encode(stationId), context.token())
+            .path("data").asText();
+    }
+
+    private static JsonNode newest(List<JsonNode> orders, String tripId)
+    {
+        JsonNode newest = null;
+        for (JsonNode order : orders) {
+            if (tripId.equals(order.path("trainNumber").asText()) &&
+                (newest == null || order.path("boughtDate").asText().compareTo(newest.path("boughtDate").asText()) > 0))
+            {
+                newest = order;
+            }
+        }
+        return newest;
+    }
+
+    private static String tripId(JsonNode trip)
+    {
+        JsonNode tripId = trip.path("tripId");
+        return tripId.path("type").asText() + tripId.path("number").asText();
+    }
+
+    private static boolean isHighSpeed(String tripId)
+    {
+        return tripId.startsWith("G") || tripId.startsWith("D");
+    }
+}
@@ -0,0 +1,123 @@
+package loadgen;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * State of one flow run: the client, the logged in account and the skewed choice of station
+ * pairs and travel dates
+ *
+ * @author fdse
+ */
+public class FlowContext
+{
+    /**
+     * Station pairs served by the initial routes, most popular first
+     */
+    static final String[][] STATION_PAIRS = {
+        {"Shang Hai", "Su Zhou"},
+        {"Nan Jing", "Shang Hai"},
+        {"Su Zhou", "Shang Hai"},
+        {"Shang Hai", "Tai Yuan"},
+        {"Tai Yuan", "Shang Hai"},
+        {"Nan Jing", "Bei Jing"},
+        {"Shang Hai Hong Qiao", "Hang Zhou"},
+        {"Nan Jing", "Wu Xi"}
+    };
+
+    private final TrainTicketClient client;
+
+    private final LoadOptions options;
+
+    private final ZipfSampler pairSampler;
+
+    private final ZipfSampler dateSampler;
+
+    private String token;
+
+    private String userId;
+
+    FlowContext(TrainTicketClient client, LoadOptions options, ZipfSampler pairSampler, ZipfSampler dateSampler)
+    {
+        this.client = client;
+        this.options = options;
+        this.pairSampler = pairSampler;
+        this.dateSampler = dateSampler;
+    }
+
+    public TrainTicketClient client()
+    {
+        return client;
+    }
+
+    public Random random()
+    {
+        return ThreadLocalRandom.current();
+    }
+
+    public String token()
+    {
+        return token;
+    }
+
+    public String userId()
+    {
+        return userId;
+    }
+
+    /**
+     * Logs in with one of the configured accounts. The verification code is left empty, which
+     * the auth service accepts without asking ts-verification-code-service.
+     */
+    public void login()
+    {
+        String[] account = options.getAccounts().get(random().nextInt(options.getAccounts().size()));
+        Map<String, Object> loginInfo = new HashMap<>();
+        loginInfo.put("username", account[0]);
+        loginInfo.put("password", account[1]);
+        loginInfo.put("verificationCode", "");
+        JsonNode data = client.post("login", "/api/v1/users/login", loginInfo, null).path("data");
+        token = data.path("token").asText();
+        userId = data.path("userId").asText();
+    }
+
+    public String[] nextStationPair()
+    {
+        return STATION_PAIRS[pairSampler.next(random())];
+    }
+
+    /**
+     * A travel date in the next days, tomorrow the most likely
+     */
+    public String nextTravelDate()
+    {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DATE, 1 + dateSampler.next(random()));
+        return new SimpleDateFormat("yyyy-MM-dd").format(calendar.getTime());
+    }
+
+    /**
+     * Sleeps an exponentially distributed think time with the configured mean
+     */
+    public void think()
+    {
+        long mean = options.getThinkMillis();
+        if (mean <= 0) {
+            return;
+        }
+        long millis = (long) (-mean * Math.log(1.0 - random().nextDouble()));
+        try {
+            TimeUnit.MILLISECONDS.sleep(Math.min(millis, 10 * mean));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StepFailedException("think", "interrupted");
+        }
+    }
+}
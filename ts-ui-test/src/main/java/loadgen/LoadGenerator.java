@@ -0,0 +1,213 @@
+package loadgen;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * End-to-end load generator running the flows of ts-ui-test against a deployment, e.g. the
+ * docker-compose stack behind ts-ui-dashboard on localhost:8080.
+ * <p>
+ * In closed mode {@code users} virtual users each run one flow after the other. In open mode
+ * flows start at {@code rate} per second whatever the response times are, so queueing in the
+ * system shows up in the latencies instead of slowing the generator down (no coordinated
+ * omission). Every step is recorded from the moment it was sent; the flow totals, tagged
+ * {@code flow:<name>}, are measured from the intended start and include think times.
+ * <p>
+ * Results are printed at the end and written as an HdrHistogram interval log, one tag per step,
+ * which HistogramLogAnalyzer or {@code HistogramLogProcessor -tag <step>} can plot.
+ *
+ * @author fdse
+ */
+public class LoadGenerator
+{
+    private final LoadOptions options;
+
+    private final StepMetrics metrics = new StepMetrics();
+
+    private final TrainTicketClient client;
+
+    private final ZipfSampler pairSampler;
+
+    private final ZipfSampler dateSampler;
+
+    private final Flow[] flows;
+
+    private final int[] cumulativeWeights;
+
+    public LoadGenerator(LoadOptions options)
+    {
+        this.options = options;
+        this.client = new TrainTicketClient(options.getBaseUrl(), options.getTimeoutMillis(), metrics);
+        this.pairSampler = new ZipfSampler(FlowContext.STATION_PAIRS.length, options.getSkew());
+        this.dateSampler = new ZipfSampler(options.getDays(), options.getSkew());
+        this.flows = options.getMix().keySet().toArray(new Flow[0]);
+        this.cumulativeWeights = new int[flows.length];
+        int sum = 0;
+        int i = 0;
+        for (Map.Entry<Flow, Integer> entry : options.getMix().entrySet()) {
+            sum += entry.getValue();
+            cumulativeWeights[i++] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("The flow mix needs a positive weight");
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length > 0 && ("-h".equals(args[0]) || "--help".equals(args[0]))) {
+            System.out.print(LoadOptions.usage());
+            return;
+        }
+        LoadOptions options = LoadOptions.parse(args);
+        //HttpURLConnection keeps 5 idle connections per host by default, far fewer than the concurrent users
+        int connections = options.getMode() == LoadOptions.Mode.OPEN ? options.getMaxInFlight() : options.getUsers();
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(5, connections)));
+        new LoadGenerator(options).run();
+    }
+
+    public void run() throws InterruptedException, FileNotFoundException
+    {
+        String load = options.getMode() == LoadOptions.Mode.OPEN
+            ? options.getRate() + "/s open"
+            : options.getUsers() + " users closed";
+        System.out.printf("%s load on %s for %ds after %ds warm-up, mix %s, skew %.2f, think %dms%n", load,
+            options.getBaseUrl(), options.getDurationSeconds(), options.getWarmupSeconds(), options.getMix(),
+            options.getSkew(), options.getThinkMillis());
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+
+        ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor();
+        try (PrintStream log = new PrintStream(options.getLogFile())) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            logger.schedule(() -> {
+                long now = System.currentTimeMillis();
+                writer.outputLogFormatVersion();
+                writer.outputStartTime(now);
+                writer.setBaseTime(now);
+                writer.outputLegend();
+                metrics.start();
+            }, options.getWarmupSeconds(), TimeUnit.SECONDS);
+            long interval = options.getLogIntervalSeconds();
+            logger.scheduleAtFixedRate(() -> metrics.writeInterval(writer),
+                options.getWarmupSeconds() + interval, interval, TimeUnit.SECONDS);
+
+            ExecutorService workers = options.getMode() == LoadOptions.Mode.OPEN
+                ? runOpen(endNanos)
+                : runClosed(endNanos);
+
+            metrics.stop();
+            logger.shutdown();
+            logger.awaitTermination(1, TimeUnit.MINUTES);
+            metrics.writeInterval(writer);
+            workers.shutdownNow();
+        }
+        System.out.println();
+        metrics.printSummary(System.out, options.getDurationSeconds());
+        System.out.println("Interval log written to " + options.getLogFile());
+    }
+
+    /**
+     * Starts flows at the configured rate until {@code endNanos}. Arrivals are scheduled on
+     * absolute times, a late start does not push the following ones back.
+     */
+    private ExecutorService runOpen(long endNanos) throws InterruptedException
+    {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(0, options.getMaxInFlight(), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long next = System.nanoTime();
+        while (next < endNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intended = next;
+            try {
+                workers.execute(() -> runFlow(intended));
+            } catch (RejectedExecutionException e) {
+                metrics.dropped();
+            }
+            double gap = options.isPoisson()
+                ? -meanGapNanos * Math.log(1.0 - ThreadLocalRandom.current().nextDouble())
+                : meanGapNanos;
+            next += (long) gap;
+        }
+        workers.shutdown();
+        awaitRunningFlows(workers, endNanos);
+        return workers;
+    }
+
+    /**
+     * Runs the virtual users until {@code endNanos}, each starting after a random part of a
+     * think time so they do not log in all at once
+     */
+    private ExecutorService runClosed(long endNanos) throws InterruptedException
+    {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getUsers());
+        List<Runnable> users = new ArrayList<>();
+        for (int i = 0; i < options.getUsers(); i++) {
+            users.add(() -> {
+                long delay = ThreadLocalRandom.current().nextLong(Math.max(options.getThinkMillis(), 0) + 1);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+                while (System.nanoTime() < endNanos && !Thread.currentThread().isInterrupted()) {
+                    runFlow(System.nanoTime());
+                }
+            });
+        }
+        users.forEach(workers::execute);
+        workers.shutdown();
+        awaitRunningFlows(workers, endNanos);
+        return workers;
+    }
+
+    /**
+     * Lets running flows finish, but does not wait for a stuck request longer than its timeout
+     */
+    private void awaitRunningFlows(ExecutorService workers, long endNanos) throws InterruptedException
+    {
+        long graceNanos = TimeUnit.MILLISECONDS.toNanos(options.getTimeoutMillis());
+        workers.awaitTermination(endNanos - System.nanoTime() + graceNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void runFlow(long intendedNanos)
+    {
+        Flow flow = nextFlow();
+        FlowContext context = new FlowContext(client, options, pairSampler, dateSampler);
+        boolean ok = true;
+        try {
+            flow.run(context);
+        } catch (RuntimeException e) {
+            ok = false;
+            metrics.aborted();
+        }
+        metrics.record(StepMetrics.FLOW_PREFIX + flow.name().toLowerCase(), intendedNanos, ok);
+    }
+
+    private Flow nextFlow()
+    {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < flows.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return flows[i];
+            }
+        }
+        return flows[flows.length - 1];
+    }
+}
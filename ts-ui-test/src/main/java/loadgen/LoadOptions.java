@@ -0,0 +1,266 @@
+package loadgen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator, given as {@code --name=value}
+ *
+ * @author fdse
+ */
+public class LoadOptions
+{
+    /**
+     * How new flows are started
+     */
+    public enum Mode
+    {
+        /**
+         * flows arrive at a fixed rate, whether or not earlier ones have finished
+         */
+        OPEN,
+        /**
+         * a fixed number of virtual users, each starts its next flow after the previous one
+         */
+        CLOSED
+    }
+
+    private String baseUrl = "http://localhost:8080";
+
+    private Mode mode = Mode.CLOSED;
+
+    private double rate = 5;
+
+    private boolean poisson = true;
+
+    private int users = 10;
+
+    private int maxInFlight = 500;
+
+    private int durationSeconds = 300;
+
+    private int warmupSeconds = 30;
+
+    private long thinkMillis = 1000;
+
+    private double skew = 1.0;
+
+    private int days = 30;
+
+    private Map<Flow, Integer> mix = new LinkedHashMap<>();
+
+    private List<String[]> accounts = new ArrayList<>();
+
+    private String logFile = "loadgen.hlog";
+
+    private int logIntervalSeconds = 10;
+
+    private int timeoutMillis = 30000;
+
+    public LoadOptions()
+    {
+        mix.put(Flow.PRESERVE, 6);
+        mix.put(Flow.PAY, 2);
+        mix.put(Flow.REBOOK, 1);
+        accounts.add(new String[] {"fdse_microservice", "111111"});
+    }
+
+    public static LoadOptions parse(String[] args)
+    {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.set(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private void set(String name, String value)
+    {
+        switch (name) {
+            case "base-url":
+                baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                break;
+            case "mode":
+                mode = Mode.valueOf(value.toUpperCase());
+                break;
+            case "rate":
+                rate = Double.parseDouble(value);
+                break;
+            case "arrivals":
+                poisson = "poisson".equals(value);
+                break;
+            case "users":
+                users = Integer.parseInt(value);
+                break;
+            case "max-in-flight":
+                maxInFlight = Integer.parseInt(value);
+                break;
+            case "duration":
+                durationSeconds = Integer.parseInt(value);
+                break;
+            case "warmup":
+                warmupSeconds = Integer.parseInt(value);
+                break;
+            case "think-ms":
+                thinkMillis = Long.parseLong(value);
+                break;
+            case "skew":
+                skew = Double.parseDouble(value);
+                break;
+            case "days":
+                days = Integer.parseInt(value);
+                break;
+            case "mix":
+                mix = parseMix(value);
+                break;
+            case "accounts":
+                accounts = parseAccounts(value);
+                break;
+            case "log":
+                logFile = value;
+                break;
+            case "log-interval":
+                logIntervalSeconds = Integer.parseInt(value);
+                break;
+            case "timeout-ms":
+                timeoutMillis = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option --" + name);
+        }
+    }
+
+    /**
+     * preserve:6,pay:2,rebook:1
+     */
+    private static Map<Flow, Integer> parseMix(String value)
+    {
+        Map<Flow, Integer> result = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            result.put(Flow.valueOf(weight[0].trim().toUpperCase()),
+                weight.length > 1 ? Integer.parseInt(weight[1].trim()) : 1);
+        }
+        return result;
+    }
+
+    /**
+     * user1:password1,user2:password2
+     */
+    private static List<String[]> parseAccounts(String value)
+    {
+        List<String[]> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            int colon = part.indexOf(':');
+            result.add(new String[] {part.substring(0, colon), part.substring(colon + 1)});
+        }
+        return result;
+    }
+
+    public static String usage()
+    {
+        return "Options (--name=value):\n" +
+            "  base-url      gateway of the deployment, default http://localhost:8080\n" +
+            "  mode          closed (virtual users) or open (fixed arrival rate), default closed\n" +
+            "  users         virtual users in closed mode, default 10\n" +
+            "  rate          flows started per second in open mode, default 5\n" +
+            "  arrivals      poisson or uniform spacing of open mode arrivals, default poisson\n" +
+            "  max-in-flight open mode flows running at once before new arrivals are dropped, default 500\n" +
+            "  duration      measured seconds, default 300\n" +
+            "  warmup        seconds run before measuring, default 30\n" +
+            "  think-ms      mean think time between the steps of a flow, exponential, default 1000\n" +
+            "  skew          zipf exponent of station pairs and travel dates, 0 is uniform, default 1.0\n" +
+            "  days          travel dates are drawn from the next days, default 30\n" +
+            "  mix           flow weights, default preserve:6,pay:2,rebook:1\n" +
+            "  accounts      user:password list, default fdse_microservice:111111\n" +
+            "  log           HdrHistogram interval log, default loadgen.hlog\n" +
+            "  log-interval  seconds per logged interval, default 10\n" +
+            "  timeout-ms    connect and read timeout of every request, default 30000\n";
+    }
+
+    public String getBaseUrl()
+    {
+        return baseUrl;
+    }
+
+    public Mode getMode()
+    {
+        return mode;
+    }
+
+    public double getRate()
+    {
+        return rate;
+    }
+
+    public boolean isPoisson()
+    {
+        return poisson;
+    }
+
+    public int getUsers()
+    {
+        return users;
+    }
+
+    public int getMaxInFlight()
+    {
+        return maxInFlight;
+    }
+
+    public int getDurationSeconds()
+    {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds()
+    {
+        return warmupSeconds;
+    }
+
+    public long getThinkMillis()
+    {
+        return thinkMillis;
+    }
+
+    public double getSkew()
+    {
+        return skew;
+    }
+
+    public int getDays()
+    {
+        return days;
+    }
+
+    public Map<Flow, Integer> getMix()
+    {
+        return mix;
+    }
+
+    public List<String[]> getAccounts()
+    {
+        return accounts;
+    }
+
+    public String getLogFile()
+    {
+        return logFile;
+    }
+
+    public int getLogIntervalSeconds()
+    {
+        return logIntervalSeconds;
+    }
+
+    public int getTimeoutMillis()
+    {
+        return timeoutMillis;
+    }
+}
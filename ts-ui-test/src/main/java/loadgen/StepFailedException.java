@@ -0,0 +1,22 @@
+package loadgen;
+
+/**
+ * A flow step that failed, the flow is aborted
+ *
+ * @author fdse
+ */
+public class StepFailedException extends RuntimeException
+{
+    private final String step;
+
+    public StepFailedException(String step, String message)
+    {
+        super(step + ": " + message);
+        this.step = step;
+    }
+
+    public String getStep()
+    {
+        return step;
+    }
+}
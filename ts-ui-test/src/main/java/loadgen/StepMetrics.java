@@ -0,0 +1,157 @@
+package loadgen;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency and error counts per flow step. Latencies are recorded in microseconds into one
+ * HdrHistogram recorder per step; {@link #writeInterval} moves the interval histograms into a
+ * tagged interval log and into the totals printed by {@link #printSummary}.
+ * <p>
+ * Nothing is recorded until {@link #start()}, so the warm-up does not show up in the results.
+ *
+ * @author fdse
+ */
+public class StepMetrics
+{
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    static final String FLOW_PREFIX = "flow:";
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    private final LongAdder aborted = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean recording;
+
+    public void start()
+    {
+        synchronized (steps) {
+            for (Step step : steps.values()) {
+                step.recorder.reset();
+                step.errors.reset();
+            }
+        }
+        recording = true;
+    }
+
+    public void stop()
+    {
+        recording = false;
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} when the step was sent, or intended to be sent
+     */
+    public void record(String name, long startNanos, boolean ok)
+    {
+        if (!recording) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        Step step = step(name);
+        step.recorder.recordValue(Math.min(Math.max(micros, 0), HIGHEST_MICROS));
+        if (!ok) {
+            step.errors.increment();
+        }
+    }
+
+    /**
+     * A flow that stopped at a failed step
+     */
+    public void aborted()
+    {
+        if (recording) {
+            aborted.increment();
+        }
+    }
+
+    /**
+     * An open loop arrival that found max-in-flight flows running and was not started
+     */
+    public void dropped()
+    {
+        if (recording) {
+            dropped.increment();
+        }
+    }
+
+    public void writeInterval(HistogramLogWriter writer)
+    {
+        for (Map.Entry<String, Step> entry : snapshot()) {
+            Step step = entry.getValue();
+            Histogram interval = step.recorder.getIntervalHistogram();
+            interval.setTag(entry.getKey());
+            step.total.add(interval);
+            step.totalErrors += step.errors.sumThenReset();
+            if (writer != null && interval.getTotalCount() > 0) {
+                writer.outputIntervalHistogram(interval);
+            }
+        }
+    }
+
+    public void printSummary(PrintStream out, double seconds)
+    {
+        out.printf("%-22s %9s %8s %7s %9s %9s %9s %9s %9s %9s%n", "step", "count", "errors", "err%", "rate/s",
+            "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        List<Map.Entry<String, Step>> entries = snapshot();
+        //Steps in the order they were first seen, flow totals last
+        entries.sort(Comparator.comparing(entry -> entry.getKey().startsWith(FLOW_PREFIX)));
+        for (Map.Entry<String, Step> entry : entries) {
+            Histogram total = entry.getValue().total;
+            long count = total.getTotalCount();
+            long errors = entry.getValue().totalErrors;
+            out.printf("%-22s %9d %8d %7.2f %9.2f %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(), count, errors,
+                count == 0 ? 0.0 : 100.0 * errors / count, count / seconds, millis(total, 50), millis(total, 95),
+                millis(total, 99), millis(total, 99.9), total.getMaxValue() / 1000.0);
+        }
+        out.printf("aborted flows: %d, dropped arrivals: %d%n", aborted.sum(), dropped.sum());
+    }
+
+    private static double millis(Histogram histogram, double percentile)
+    {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private Step step(String name)
+    {
+        synchronized (steps) {
+            return steps.computeIfAbsent(name, key -> new Step());
+        }
+    }
+
+    private List<Map.Entry<String, Step>> snapshot()
+    {
+        synchronized (steps) {
+            return new ArrayList<>(steps.entrySet());
+        }
+    }
+
+    private static class Step
+    {
+        private final Recorder recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+
+        private final LongAdder errors = new LongAdder();
+
+        private final Histogram total = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+
+        /**
+         * only touched by the thread calling writeInterval
+         */
+        private long totalErrors;
+    }
+}
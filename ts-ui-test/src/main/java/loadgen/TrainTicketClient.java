@@ -0,0 +1,136 @@
+package loadgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Calls the train ticket REST API through the ts-ui-dashboard gateway, the way the pages of the
+ * dashboard do, and records every call as a step in {@link StepMetrics}.
+ * <p>
+ * A call counts as an error when it fails on the network, returns a non 2xx status, or answers
+ * with a {@code Response} status below 1 (1 is success, 2 asks the rebook flow to pay the
+ * difference; queries may answer 0 for no content). Failed calls throw
+ * {@link StepFailedException} so the flow stops there.
+ *
+ * @author fdse
+ */
+public class TrainTicketClient
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final int timeoutMillis;
+
+    private final StepMetrics metrics;
+
+    public TrainTicketClient(String baseUrl, int timeoutMillis, StepMetrics metrics)
+    {
+        this.baseUrl = baseUrl;
+        this.timeoutMillis = timeoutMillis;
+        this.metrics = metrics;
+    }
+
+    public JsonNode get(String step, String path, String token)
+    {
+        return call(step, "GET", path, null, token, 1);
+    }
+
+    public JsonNode post(String step, String path, Object body, String token)
+    {
+        return call(step, "POST", path, body, token, 1);
+    }
+
+    /**
+     * POST of a query that answers status 0 when nothing matches, which is not an error
+     */
+    public JsonNode query(String step, String path, Object body, String token)
+    {
+        return call(step, "POST", path, body, token, 0);
+    }
+
+    public static String encode(String pathSegment)
+    {
+        try {
+            return URLEncoder.encode(pathSegment, "UTF-8").replace("+", "%20");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the {@code Response} body, its {@code data} is the payload
+     */
+    private JsonNode call(String step, String method, String path, Object body, String token, int minStatus)
+    {
+        long start = System.nanoTime();
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setRequestProperty("Accept", "application/json");
+            if (token != null) {
+                connection.setRequestProperty("Authorization", "Bearer " + token);
+            }
+            if (body != null) {
+                byte[] bytes = MAPPER.writeValueAsBytes(body);
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                connection.setFixedLengthStreamingMode(bytes.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(bytes);
+                }
+            }
+            int httpStatus = connection.getResponseCode();
+            byte[] response = readFully(httpStatus < 400 ? connection.getInputStream() : connection.getErrorStream());
+            if (httpStatus / 100 != 2) {
+                metrics.record(step, start, false);
+                throw new StepFailedException(step, "HTTP " + httpStatus);
+            }
+            JsonNode root = MAPPER.readTree(response);
+            boolean ok = root.path("status").asInt(-1) >= minStatus;
+            metrics.record(step, start, ok);
+            if (!ok) {
+                throw new StepFailedException(step, root.path("msg").asText());
+            }
+            return root;
+        } catch (IOException e) {
+            metrics.record(step, start, false);
+            if (connection != null) {
+                //Drain the error body so the connection can go back to the keep-alive cache
+                try {
+                    readFully(connection.getErrorStream());
+                } catch (IOException ignored) {
+                    connection.disconnect();
+                }
+            }
+            throw new StepFailedException(step, e.toString());
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException
+    {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws indexes 0..n-1 with probability proportional to 1/(i+1)^skew, so a few station pairs and
+ * dates get most of the traffic the way holiday routes do. A skew of 0 is uniform.
+ *
+ * @author fdse
+ */
+public class ZipfSampler
+{
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double skew)
+    {
+        if (n <= 0 || skew < 0) {
+            throw new IllegalArgumentException("n must be positive and skew not negative");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int next(Random random)
+    {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        //binarySearch returns -(insertion point) - 1 for values between two entries
+        index = index < 0 ? -index - 1 : index;
+        return Math.min(index, cumulative.length - 1);
+    }
+}
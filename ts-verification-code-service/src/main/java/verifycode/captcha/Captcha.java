@@ -0,0 +1,29 @@
+package verifycode.captcha;
+
+/**
+ * A rendered captcha, the JPEG encoded image and the text shown on it.
+ *
+ * @author fdse
+ */
+public class Captcha
+{
+    private final byte[] image;
+
+    private final String answer;
+
+    public Captcha(byte[] image, String answer)
+    {
+        this.image = image;
+        this.answer = answer;
+    }
+
+    public byte[] getImage()
+    {
+        return image;
+    }
+
+    public String getAnswer()
+    {
+        return answer;
+    }
+}
@@ -0,0 +1,120 @@
+package verifycode.captcha;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded buffer of captchas of the default size, rendered and encoded ahead of time by
+ * background threads. Requests only pop an entry; every captcha is handed out once. When
+ * the buffer runs dry the captcha is rendered on the request thread, as before.
+ *
+ * @author fdse
+ */
+@Component
+public class CaptchaPool
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaptchaPool.class);
+
+    private final boolean enabled;
+
+    private final int size;
+
+    private final int threads;
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private BlockingQueue<Captcha> captchas;
+
+    private Thread[] generators;
+
+    public CaptchaPool(@Value("${ts.verifycode.pool.enabled:true}") boolean enabled,
+        @Value("${ts.verifycode.pool.size:512}") int size,
+        @Value("${ts.verifycode.pool.threads:1}") int threads)
+    {
+        this.enabled = enabled;
+        this.size = size;
+        this.threads = threads;
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if (!enabled || size <= 0 || threads <= 0) {
+            LOGGER.info("[Verification Code Service][Captcha Pool] Disabled, captchas are rendered per request");
+            return;
+        }
+        captchas = new ArrayBlockingQueue<>(size);
+        generators = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            generators[i] = new Thread(this::generate, "captcha-generator-" + i);
+            generators[i].setDaemon(true);
+            generators[i].setPriority(Thread.MIN_PRIORITY);
+            generators[i].start();
+        }
+        LOGGER.info("[Verification Code Service][Captcha Pool] Keeping {} captchas, {} generator threads", size,
+            threads);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (generators != null) {
+            for (Thread generator : generators) {
+                generator.interrupt();
+            }
+        }
+    }
+
+    /**
+     * A captcha of the default size that has not been handed out before
+     */
+    public Captcha take()
+    {
+        Captcha captcha = captchas == null ? null : captchas.poll();
+        if (captcha == null) {
+            if (captchas != null) {
+                misses.incrementAndGet();
+            }
+            return CaptchaRenderer.render(CaptchaRenderer.DEFAULT_WIDTH, CaptchaRenderer.DEFAULT_HEIGHT);
+        }
+        return captcha;
+    }
+
+    public int available()
+    {
+        return captchas == null ? 0 : captchas.size();
+    }
+
+    /**
+     * Number of requests that found the buffer empty and rendered inline
+     */
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    private void generate()
+    {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                captchas.put(CaptchaRenderer.render(CaptchaRenderer.DEFAULT_WIDTH, CaptchaRenderer.DEFAULT_HEIGHT));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                LOGGER.error("[Verification Code Service][Captcha Pool] Rendering failed", e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+}
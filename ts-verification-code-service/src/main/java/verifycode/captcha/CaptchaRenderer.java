@@ -0,0 +1,93 @@
+package verifycode.captcha;
+
+import javax.imageio.ImageIO;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws a captcha of four characters over a noise of short lines and encodes it as JPEG.
+ *
+ * @author fdse
+ */
+public class CaptchaRenderer
+{
+    public static final int DEFAULT_WIDTH = 60;
+
+    public static final int DEFAULT_HEIGHT = 20;
+
+    private static final char[] MAP_TABLE = {
+        'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J',
+        'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W',
+        'X', 'Y', 'Z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
+
+    private static final Font FONT = new Font("Times New Roman", Font.PLAIN, 18);
+
+    static {
+        //Encode in memory, by default ImageIO buffers streams through a temporary file
+        ImageIO.setUseCache(false);
+    }
+
+    private CaptchaRenderer()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static Captcha render(int width, int height)
+    {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        g.setColor(getRandColor(200, 250));
+        g.fillRect(0, 0, width, height);
+
+        g.setFont(FONT);
+
+        g.setColor(getRandColor(160, 200));
+        for (int i = 0; i < 168; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            int xl = random.nextInt(12);
+            int yl = random.nextInt(12);
+            g.drawLine(x, y, x + xl, y + yl);
+        }
+
+        char[] answer = new char[4];
+        for (int i = 0; i < answer.length; ++i) {
+            answer[i] = MAP_TABLE[random.nextInt(MAP_TABLE.length)];
+            g.setColor(new Color(20 + random.nextInt(110), 20 + random.nextInt(110), 20 + random.nextInt(110)));
+            g.drawChars(answer, i, 1, 13 * i + 6, 16);
+        }
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+        try {
+            ImageIO.write(image, "JPEG", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't generate verification code", e);
+        }
+        return new Captcha(out.toByteArray(), new String(answer));
+    }
+
+    static Color getRandColor(int fc, int bc)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (fc > 255) {
+            fc = 255;
+        }
+        if (bc > 255) {
+            bc = 255;
+        }
+        int r = fc + random.nextInt(bc - fc);
+        int g = fc + random.nextInt(bc - fc);
+        int b = fc + random.nextInt(bc - fc);
+        return new Color(r, g, b);
+    }
+}
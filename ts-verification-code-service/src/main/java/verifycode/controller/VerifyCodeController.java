@@ -4,15 +4,14 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 import verifycode.service.VerifyCodeService;
 
-import javax.imageio.ImageIO;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Date;
@@ -39,13 +38,10 @@ public class VerifyCodeController
         String simpleCaptcha = "simpleCaptcha";
         request.getSession().setAttribute(simpleCaptcha, map.get("strEnsure").toString().toLowerCase());
         request.getSession().setAttribute("codeTime", System.currentTimeMillis());
-        try {
-            ImageIO.write((BufferedImage) map.get("image"), "JPEG", os);
-        } catch (IOException e) {
-            //error
-            String error = "Can't generate verification code";
-            os.write(error.getBytes());
-        }
+        byte[] image = (byte[]) map.get("image");
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLength(image.length);
+        os.write(image);
     }
 
     @GetMapping(value = "/verify/{verifyCode}")
@@ -7,9 +7,14 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
+import verifycode.captcha.Captcha;
+import verifycode.captcha.CaptchaPool;
+import verifycode.captcha.CaptchaRenderer;
 import verifycode.service.VerifyCodeService;
 import verifycode.util.CookieUtil;
 
@@ -17,12 +22,9 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -37,21 +39,25 @@ public class VerifyCodeServiceImpl implements VerifyCodeService
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VerifyCodeServiceImpl.class);
 
-    private static char mapTable[] = {
-        'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J',
-        'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W',
-        'X', 'Y', 'Z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
+    String ysbCaptcha = "YsbCaptcha";
 
     /**
-     * build local cache
+     * answers by cookie id, sized for the login page views of one expiry period at peak
      */
-    public Cache<String, String> cacheCode = CacheBuilder.newBuilder()
-        // max  size
-        .maximumSize(CAPTCHA_EXPIRED)
-        .expireAfterAccess(CAPTCHA_EXPIRED, TimeUnit.SECONDS)
-        .build();
+    public final Cache<String, String> cacheCode;
 
-    String ysbCaptcha = "YsbCaptcha";
+    @Autowired
+    private CaptchaPool captchaPool;
+
+    public VerifyCodeServiceImpl(@Value("${ts.verifycode.cache.max-entries:100000}") long maxEntries,
+        @Value("${ts.verifycode.cache.expire-seconds:1000}") long expireSeconds)
+    {
+        this.cacheCode = CacheBuilder.newBuilder()
+            // max  size
+            .maximumSize(maxEntries)
+            .expireAfterAccess(expireSeconds, TimeUnit.SECONDS)
+            .build();
+    }
 
     @Override
     public Map<String, Object> getImageCode(int width, int height, OutputStream os, HttpServletRequest request,
@@ -64,39 +70,14 @@ public class VerifyCodeServiceImpl implements VerifyCodeService
         if (height <= 0) {
             height = 20;
         }
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        Graphics g = image.getGraphics();
-
-        Random random = new Random(); //NOSONAR
-
-        g.setColor(getRandColor(200, 250));
-        g.fillRect(0, 0, width, height);
-
-        g.setFont(new Font("Times New Roman", Font.PLAIN, 18));
-
-        g.setColor(getRandColor(160, 200));
-        for (int i = 0; i < 168; i++) {
-            int x = random.nextInt(width);
-            int y = random.nextInt(height);
-            int xl = random.nextInt(12);
-            int yl = random.nextInt(12);
-            g.drawLine(x, y, x + xl, y + yl);
-        }
-
-        String strEnsure = "";
-
-        for (int i = 0; i < 4; ++i) {
-            strEnsure += mapTable[(int) (mapTable.length * Math.random())];
-
-            g.setColor(new Color(20 + random.nextInt(110), 20 + random.nextInt(110), 20 + random.nextInt(110)));
-
-            String str = strEnsure.substring(i, i + 1);
-            g.drawString(str, 13 * i + 6, 16);
+        Captcha captcha;
+        if (width == CaptchaRenderer.DEFAULT_WIDTH && height == CaptchaRenderer.DEFAULT_HEIGHT) {
+            captcha = captchaPool.take();
+        } else {
+            captcha = CaptchaRenderer.render(width, height);
         }
-
-        g.dispose();
-        returnMap.put("image", image);
+        String strEnsure = captcha.getAnswer();
+        returnMap.put("image", captcha.getImage());
         returnMap.put("strEnsure", strEnsure);
 
         Cookie cookie = CookieUtil.getCookieByName(request, ysbCaptcha);
@@ -141,19 +122,4 @@ public class VerifyCodeServiceImpl implements VerifyCodeService
         }
         return result;
     }
-
-    static Color getRandColor(int fc, int bc)
-    {
-        Random random = new Random(); //NOSONAR
-        if (fc > 255) {
-            fc = 255;
-        }
-        if (bc > 255) {
-            bc = 255;
-        }
-        int r = fc + random.nextInt(bc - fc);
-        int g = fc + random.nextInt(bc - fc);
-        int b = fc + random.nextInt(bc - fc);
-        return new Color(r, g, b);
-    }
 }